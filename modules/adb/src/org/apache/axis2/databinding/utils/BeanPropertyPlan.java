@@ -0,0 +1,342 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.databinding.utils;
+
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.classloader.BeanInfoCache;
+import org.apache.axis2.deployment.util.BeanExcludeInfo;
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.description.Parameter;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.beans.IntrospectionException;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The result of introspecting a bean class for {@link BeanUtil}. A plan lists the properties that
+ * are serialized and deserialized, with their accessors resolved to {@link MethodHandle}s, so
+ * that the class is introspected once rather than for every message.
+ * <p>
+ * Plans are cached on the {@link AxisService} the bean is processed for, because the properties
+ * that are serialized depend on the service's bean exclude information. Without a service, plans
+ * are only cached for classes loaded by the same class loader as this class, for the same reason
+ * as in {@link BeanInfoCache}.
+ */
+final class BeanPropertyPlan {
+    private static final Log log = LogFactory.getLog(BeanPropertyPlan.class);
+
+    /**
+     * The name of the (transient) {@link AxisService} parameter that holds the plans built for
+     * that service.
+     */
+    static final String AXIS_SERVICE_PARAMETER = BeanPropertyPlan.class.getName();
+
+    private static final Map<Class<?>, BeanPropertyPlan> localCache =
+            new ConcurrentHashMap<Class<?>, BeanPropertyPlan>();
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final MethodType SETTER_TYPE =
+            MethodType.methodType(void.class, Object.class, Object.class);
+
+    /**
+     * A readable or writable property of a bean class.
+     */
+    static final class BeanProperty {
+        private final PropertyDescriptor descriptor;
+        private final int index;
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+        private final Class<?> setterParameterType;
+
+        BeanProperty(Class<?> beanClass, PropertyDescriptor descriptor, int index)
+                throws IllegalAccessException {
+            this.descriptor = descriptor;
+            this.index = index;
+            Method readMethod = descriptor.getReadMethod();
+            if (readMethod == null) {
+                readMethod = getBooleanReadMethod(beanClass, descriptor);
+            }
+            if (readMethod != null) {
+                readMethod.setAccessible(true);
+                getter = MethodHandles.lookup().unreflect(readMethod).asType(GETTER_TYPE);
+            } else {
+                getter = null;
+            }
+            Method writeMethod = descriptor.getWriteMethod();
+            if (writeMethod != null) {
+                writeMethod.setAccessible(true);
+                setter = MethodHandles.lookup().unreflect(writeMethod).asType(SETTER_TYPE);
+                setterParameterType = writeMethod.getParameterTypes()[0];
+            } else {
+                setter = null;
+                setterParameterType = null;
+            }
+        }
+
+        /**
+         * The introspector only recognizes "is" read methods for <code>boolean</code>
+         * properties. For a {@link Boolean} property with a setter, look for the "is" method
+         * explicitly.
+         */
+        private static Method getBooleanReadMethod(Class<?> beanClass,
+                                                   PropertyDescriptor descriptor) {
+            Method writeMethod = descriptor.getWriteMethod();
+            if (descriptor.getPropertyType() != Boolean.class || writeMethod == null) {
+                return null;
+            }
+            try {
+                String writeMethodName = writeMethod.getName();
+                return new PropertyDescriptor(descriptor.getName(), beanClass,
+                        "is" + writeMethodName.substring(3), writeMethodName).getReadMethod();
+            } catch (IntrospectionException e) {
+                return null;
+            }
+        }
+
+        PropertyDescriptor getDescriptor() {
+            return descriptor;
+        }
+
+        String getName() {
+            return descriptor.getName();
+        }
+
+        Class<?> getType() {
+            return descriptor.getPropertyType();
+        }
+
+        /**
+         * @return the position of this property in {@link BeanPropertyPlan#getPropertyCount()}
+         */
+        int getIndex() {
+            return index;
+        }
+
+        /**
+         * @return the generic return type of the read method, or <code>null</code> if the
+         *         property is not readable
+         */
+        Type getGenericType() {
+            Method readMethod = descriptor.getReadMethod();
+            return readMethod == null ? null : readMethod.getGenericReturnType();
+        }
+
+        boolean isReadable() {
+            return getter != null;
+        }
+
+        boolean isWritable() {
+            return setter != null;
+        }
+
+        /**
+         * Read the property. As with {@link Method#invoke(Object, Object...)}, anything thrown
+         * by the read method is wrapped in an {@link InvocationTargetException}.
+         */
+        Object read(Object bean) throws InvocationTargetException {
+            try {
+                return (Object) getter.invokeExact(bean);
+            } catch (Throwable t) {
+                throw new InvocationTargetException(t);
+            }
+        }
+
+        /**
+         * Write the property. As with {@link Method#invoke(Object, Object...)}, an argument of
+         * the wrong type causes an {@link IllegalArgumentException} and anything thrown by the
+         * write method is wrapped in an {@link InvocationTargetException}.
+         */
+        void write(Object bean, Object value) throws InvocationTargetException {
+            if (value == null ? setterParameterType.isPrimitive()
+                    : !wrapperType(setterParameterType).isInstance(value)) {
+                throw new IllegalArgumentException("argument type mismatch");
+            }
+            try {
+                setter.invokeExact(bean, value);
+            } catch (Throwable t) {
+                throw new InvocationTargetException(t);
+            }
+        }
+    }
+
+    private final List<BeanProperty> declaredProperties;
+    private final Map<String, BeanProperty> properties;
+    private final int propertyCount;
+
+    private BeanPropertyPlan(Class<?> beanClass, BeanExcludeInfo beanExcludeInfo)
+            throws IntrospectionException, IllegalAccessException {
+        int index = 0;
+        Class<?> superclass = beanClass.getSuperclass();
+        if (superclass != null) {
+            List<BeanProperty> declared = new ArrayList<BeanProperty>();
+            for (PropertyDescriptor descriptor : BeanInfoCache.getCachedBeanInfo(beanClass,
+                    superclass).getPropertyDescriptors()) {
+                String propertyName = descriptor.getName();
+                if (propertyName.equals("class") || beanExcludeInfo != null
+                        && beanExcludeInfo.isExcludedProperty(propertyName)
+                        || descriptor.getPropertyType() == null) {
+                    continue;
+                }
+                declared.add(new BeanProperty(beanClass, descriptor, index++));
+            }
+            declaredProperties = Collections.unmodifiableList(declared);
+        } else {
+            declaredProperties = Collections.emptyList();
+        }
+
+        // Element names are matched ignoring case, e.g. a ServiceName element sets the
+        // serviceName property
+        Map<String, BeanProperty> all = new TreeMap<String, BeanProperty>(
+                String.CASE_INSENSITIVE_ORDER);
+        for (PropertyDescriptor descriptor : BeanInfoCache.getCachedBeanInfo(beanClass, null)
+                .getPropertyDescriptors()) {
+            if (!descriptor.getName().equals("class")) {
+                all.put(descriptor.getName(), new BeanProperty(beanClass, descriptor, index++));
+            }
+        }
+        properties = all;
+        propertyCount = index;
+    }
+
+    /**
+     * Get the plan for a bean class.
+     *
+     * @param beanClass   the bean class
+     * @param axisService the service the bean is processed for, or <code>null</code>
+     * @return the plan
+     * @throws IntrospectionException if the bean class cannot be introspected
+     */
+    static BeanPropertyPlan getPlan(Class<?> beanClass, AxisService axisService)
+            throws IntrospectionException {
+        Map<Class<?>, BeanPropertyPlan> cache = getCache(beanClass, axisService);
+        BeanPropertyPlan plan = cache == null ? null : cache.get(beanClass);
+        if (plan == null) {
+            BeanExcludeInfo beanExcludeInfo = null;
+            if (axisService != null && axisService.getExcludeInfo() != null) {
+                beanExcludeInfo = axisService.getExcludeInfo().getBeanExcludeInfoForClass(
+                        beanClass.getName());
+            }
+            try {
+                plan = new BeanPropertyPlan(beanClass, beanExcludeInfo);
+            } catch (IllegalAccessException e) {
+                IntrospectionException ex = new IntrospectionException(
+                        "Unable to access the properties of " + beanClass.getName());
+                ex.initCause(e);
+                throw ex;
+            }
+            if (cache != null) {
+                cache.put(beanClass, plan);
+            }
+        }
+        return plan;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Class<?>, BeanPropertyPlan> getCache(Class<?> beanClass,
+                                                            AxisService axisService) {
+        if (axisService == null) {
+            return beanClass.getClassLoader() == BeanPropertyPlan.class.getClassLoader()
+                    ? localCache : null;
+        }
+        Parameter parameter = axisService.getParameter(AXIS_SERVICE_PARAMETER);
+        if (parameter == null) {
+            synchronized (axisService) {
+                parameter = axisService.getParameter(AXIS_SERVICE_PARAMETER);
+                if (parameter == null) {
+                    parameter = new Parameter(AXIS_SERVICE_PARAMETER,
+                            new ConcurrentHashMap<Class<?>, BeanPropertyPlan>());
+                    parameter.setTransient(true);
+                    try {
+                        axisService.addParameter(parameter);
+                    } catch (AxisFault e) {
+                        if (log.isDebugEnabled()) {
+                            log.debug("Unable to cache bean property plans on service "
+                                    + axisService.getName(), e);
+                        }
+                        return null;
+                    }
+                }
+            }
+        }
+        return (Map<Class<?>, BeanPropertyPlan>) parameter.getValue();
+    }
+
+    private static Class<?> wrapperType(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        } else if (type == int.class) {
+            return Integer.class;
+        } else if (type == long.class) {
+            return Long.class;
+        } else if (type == boolean.class) {
+            return Boolean.class;
+        } else if (type == double.class) {
+            return Double.class;
+        } else if (type == float.class) {
+            return Float.class;
+        } else if (type == short.class) {
+            return Short.class;
+        } else if (type == byte.class) {
+            return Byte.class;
+        } else {
+            return Character.class;
+        }
+    }
+
+    /**
+     * @return the properties declared by the bean class itself (not by its superclasses), in the
+     *         order in which they are serialized, without the properties excluded for the service
+     */
+    List<BeanProperty> getDeclaredProperties() {
+        return declaredProperties;
+    }
+
+    /**
+     * Find the property, declared by the bean class or one of its superclasses, that an element
+     * with the given local name is deserialized into. The name is matched ignoring case.
+     *
+     * @param localName the local name of the element
+     * @return the property, or <code>null</code> if there is none
+     */
+    BeanProperty getProperty(String localName) {
+        return properties.get(localName);
+    }
+
+    /**
+     * @return an upper bound of {@link BeanProperty#getIndex()}, used to size per-call state
+     */
+    int getPropertyCount() {
+        return propertyCount;
+    }
+}
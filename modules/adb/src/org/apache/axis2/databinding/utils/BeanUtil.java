@@ -30,7 +30,6 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -62,7 +61,6 @@ import org.apache.axis2.classloader.BeanInfoCache;
 import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.databinding.typemapping.SimpleTypeMapper;
 import org.apache.axis2.databinding.utils.reader.ADBXMLStreamReaderImpl;
-import org.apache.axis2.deployment.util.BeanExcludeInfo;
 import org.apache.axis2.description.AxisService;
 import org.apache.axis2.description.java2wsdl.TypeTable;
 import org.apache.axis2.engine.ObjectSupplier;
@@ -155,44 +153,18 @@ public class BeanUtil {
                 axisService = MessageContext.getCurrentMessageContext().getAxisService();
             }
 
-            BeanExcludeInfo beanExcludeInfo = null;
-            if (axisService != null && axisService.getExcludeInfo() != null) {
-                beanExcludeInfo = axisService.getExcludeInfo().getBeanExcludeInfoForClass(beanClass.getName());
-            }
-            BeanInfo beanInfo = getBeanInfo(beanClass, beanClass.getSuperclass());
-            PropertyDescriptor[] properties = beanInfo.getPropertyDescriptors();
-            for (PropertyDescriptor property : properties) {
-                String propertyName = property.getName();
-                Class<?> ptype = property.getPropertyType();
-                if (propertyName.equals("class") ||
-                    beanExcludeInfo != null && beanExcludeInfo.isExcludedProperty(propertyName) || ptype == null) {
-                    continue;
-                }
+            BeanPropertyPlan plan = BeanPropertyPlan.getPlan(beanClass, axisService);
+            for (BeanPropertyPlan.BeanProperty beanProperty : plan.getDeclaredProperties()) {
+                PropertyDescriptor property = beanProperty.getDescriptor();
+                String propertyName = beanProperty.getName();
+                Class<?> ptype = beanProperty.getType();
 
-                Method readMethod = property.getReadMethod();
-                if (readMethod == null) {
-                    Class propertyType = property.getPropertyType();
-                    if (propertyType == java.lang.Boolean.class) {
-                        Method writeMethod = property.getWriteMethod();
-                        if (writeMethod != null) {
-                            String tmpWriteMethodName = writeMethod.getName();
-                            PropertyDescriptor tmpPropDesc =
-                                    new PropertyDescriptor(property.getName(),
-                                            beanObject.getClass(),
-                                            "is" + tmpWriteMethodName.substring(3),
-                                            tmpWriteMethodName);
-                            readMethod = tmpPropDesc.getReadMethod();
-                        }
-                    }
-                }
-                Object value;
-                if (readMethod != null) {
-                    readMethod.setAccessible(true);
-                    value = readMethod.invoke(beanObject);
-                } else {
+                // the plan also resolves the "is" read method of Boolean properties
+                if (!beanProperty.isReadable()) {
                     throw new AxisFault("Property '" + propertyName + "' in bean class '"
                                         + beanClass.getName() + "'is not readable.");
                 }
+                Object value = beanProperty.read(beanObject);
 
                 if (SimpleTypeMapper.isSimpleType(ptype)) {
                     addTypeQname(elemntNameSpace, propertyQnameValueList, property,
@@ -289,7 +261,7 @@ public class BeanUtil {
                         QName qNamefortheType = null;
                         qNamefortheType = (QName) typeTable
                                 .getComplexSchemaMap().get(getClassName(beanClass));
-                        Type genericType = property.getReadMethod().getGenericReturnType();
+                        Type genericType = beanProperty.getGenericType();
                         OMElement collection = BeanUtil.getCollectionElement(
                                 fac, genericType,
                                 (Collection) value, propertyName,null,
@@ -404,8 +376,6 @@ public class BeanUtil {
             throw new RuntimeException(e);
         } catch (java.lang.reflect.InvocationTargetException e) {
             throw new RuntimeException(e);
-        } catch (java.lang.IllegalAccessException e) {
-            throw new RuntimeException(e);
         }
     }
 
@@ -543,25 +513,14 @@ public class BeanUtil {
                     return beanElement.getFirstOMChild();
                 }
 
-                //use a comaprator to ignore the case of the bean element
+                //the plan ignores the case of the bean element
                 //names eg. if the property descriptor is getServiceName it
                 //should accept child element with ServiceName as well.
-                //but currently accepts only serviceName
-                Comparator comparator = new Comparator() {
-                    public int compare(Object o1, Object o2) {
-                        String string1 = (String) o1;
-                        String string2 = (String) o2;
-                        return string1.compareToIgnoreCase(string2);
-                    }
-                };
-                Map<String, PropertyDescriptor> properties = new TreeMap<String, PropertyDescriptor>(comparator);
-
-
-                BeanInfo beanInfo = getBeanInfo(beanClass);
-                PropertyDescriptor[] propDescs = beanInfo.getPropertyDescriptors();
-                for (PropertyDescriptor proprty : propDescs) {
-                    properties.put(proprty.getName(), proprty);
-                }
+                MessageContext messageContext = MessageContext.getCurrentMessageContext();
+                BeanPropertyPlan plan = BeanPropertyPlan.getPlan(beanClass,
+                        messageContext == null ? null : messageContext.getAxisService());
+                // Each property is only set from the first matching element
+                boolean[] processed = new boolean[plan.getPropertyCount()];
                 Iterator elements = beanElement.getChildren();
                 beanObj = objectSupplier.getObject(beanClass);
                 while (elements.hasNext()) {
@@ -581,11 +540,10 @@ public class BeanUtil {
                     // if parts/@href != null then need to find element with id and deserialize.
                     // before that first check whether we already have it in the hashtable
                     String partsLocalName = parts.getLocalName();
-                    PropertyDescriptor prty = properties.remove(partsLocalName);
-                    if (prty != null) {
-                        Class parameters = prty.getPropertyType();
-                        if (prty.getName().equals("class"))
-                            continue;
+                    BeanPropertyPlan.BeanProperty prty = plan.getProperty(partsLocalName);
+                    if (prty != null && !processed[prty.getIndex()]) {
+                        processed[prty.getIndex()] = true;
+                        Class parameters = prty.getType();
 
                         Object partObj;
                         boolean isNil = false;
@@ -604,7 +562,7 @@ public class BeanUtil {
                                 partObj = SimpleTypeMapper.getHashSet((OMElement)
                                         parts.getParent(), prty.getName());
                             } else if (SimpleTypeMapper.isCollection(parameters)) {
-                                Type type = prty.getReadMethod().getGenericReturnType();
+                                Type type = prty.getGenericType();
                                 partObj = processGenericCollection(parts, type, null, objectSupplier);  
 
                             } else if (SimpleTypeMapper.isDataHandler(parameters)) {
@@ -614,7 +572,7 @@ public class BeanUtil {
                                                       objectSupplier, prty.getName());
                             } else if (SimpleTypeMapper.isMap(parameters)){
                                 partObj = null;
-                                final Type type = prty.getReadMethod().getGenericReturnType();
+                                final Type type = prty.getGenericType();
                                 if (type instanceof ParameterizedType) {
                                     ParameterizedType aType = (ParameterizedType) type;
                                     Type[] parameterArgTypes = aType.getActualTypeArguments();
@@ -631,11 +589,8 @@ public class BeanUtil {
                                 partObj = deserialize(parameters, parts, objectSupplier, null);
                             }
                         }
-                        Object[] parms = new Object[]{partObj};
-                        Method writeMethod = prty.getWriteMethod();
-                        if (writeMethod != null) {
-                            writeMethod.setAccessible(true);
-                            writeMethod.invoke(beanObj, parms);
+                        if (prty.isWritable()) {
+                            prty.write(beanObj, partObj);
                         }
                     }
                 }
@@ -139,6 +139,25 @@ public class BeanUtilTest extends TestCase {
         assertEquals("World", ((ComplexType) result).getChild());
     }
 
+    public void testDeserializeIgnoresCaseAndDuplicateElements() throws Exception {
+        OMElement first = omFactory.createOMElement(new QName("Child"), omElement);
+        first.setText("first");
+        OMElement second = omFactory.createOMElement(new QName("child"), omElement);
+        second.setText("second");
+
+        Object result = BeanUtil.deserialize(ComplexType.class, omElement, objectSupplier, null);
+        assertEquals("first", ((ComplexType) result).getChild());
+    }
+
+    public void testPropertyPlanIsCachedOnService() throws Exception {
+        AxisService service = new AxisService("test");
+        BeanPropertyPlan plan = BeanPropertyPlan.getPlan(ComplexType.class, service);
+        assertSame(plan, BeanPropertyPlan.getPlan(ComplexType.class, service));
+        assertNotNull(service.getParameter(BeanPropertyPlan.AXIS_SERVICE_PARAMETER));
+        assertEquals(1, plan.getDeclaredProperties().size());
+        assertEquals("child", plan.getProperty("CHILD").getName());
+    }
+
     public void testProcessObjectAsObject() throws Exception {
         omElement.declareNamespace(omFactory.createOMNamespace(Constants.XSD_NAMESPACE, "xs"));
 
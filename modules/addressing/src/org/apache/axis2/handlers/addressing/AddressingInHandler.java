@@ -57,6 +57,9 @@ public class AddressingInHandler extends AbstractTemplatedHandler implements Add
 
     private static final Log log = LogFactory.getLog(AddressingInHandler.class);
 
+    private static final QName IS_REFERENCE_PARAMETER_QNAME =
+            new QName(Final.WSA_NAMESPACE, Final.WSA_IS_REFERENCE_PARAMETER_ATTRIBUTE);
+
     private boolean disableRefparamExtract = false;
     private AxisConfiguration configuration = null;
     private RolePlayer rolePlayer = null;
@@ -480,16 +483,18 @@ public class AddressingInHandler extends AbstractTemplatedHandler implements Add
     private void extractToEprReferenceParameters(EndpointReference toEPR, SOAPHeader header,
                                                    String namespace) {
         if (Final.WSA_NAMESPACE.equals(namespace)) {
+            // The headers are scanned now rather than on demand, because later handlers may
+            // still add, remove or modify header blocks.
             Iterator headerBlocks = header.getChildElements();
             while (headerBlocks.hasNext()) {
                 OMElement headerElement = (OMElement)headerBlocks.next();
-                OMAttribute isRefParamAttr =
-                    headerElement.getAttribute(new QName(namespace, "IsReferenceParameter"));
+                String isRefParam =
+                    headerElement.getAttributeValue(IS_REFERENCE_PARAMETER_QNAME);
                 if (LoggingControl.debugLoggingAllowed && log.isTraceEnabled()) {
                     log.trace("extractToEprReferenceParameters: Checking header: " +
                             headerElement.getQName());
                 }
-                if (isRefParamAttr != null && "true".equals(isRefParamAttr.getAttributeValue())) {
+                if ("true".equals(isRefParam)) {
                     toEPR.addReferenceParameter(headerElement);
                     if (LoggingControl.debugLoggingAllowed && log.isTraceEnabled()) {
                         log.trace("extractToEprReferenceParameters: Header: " +
@@ -461,7 +461,8 @@ public class AddressingOutHandler extends AbstractTemplatedHandler implements Ad
                         AddressingConstants.WSA_REPLY_TO.equals(headerName)) {
                     return; //Omit the header.
                 } else {
-                    epr = new EndpointReference(anonymous);
+                    addAddressOnlyEPRHeader(anonymous, headerName);
+                    return;
                 }
             }
             else if (!isFinalAddressingNamespace && epr.hasNoneAddress()) {
@@ -477,6 +478,11 @@ public class AddressingOutHandler extends AbstractTemplatedHandler implements Ad
                 }
             }
 
+            if (isAddressOnly(epr)) {
+                addAddressOnlyEPRHeader(epr.getAddress(), headerName);
+                return;
+            }
+
             OMElement soapHeaderBlock = EndpointReferenceHelper.toOM(factory,
                                                                      epr,
                                                                      new QName(addressingNamespace,
@@ -486,6 +492,35 @@ public class AddressingOutHandler extends AbstractTemplatedHandler implements Ad
             header.addChild(soapHeaderBlock);
         }
 
+        /**
+         * Determines whether an EPR consists of nothing but an address, as is the case for
+         * e.g. anonymous EPRs. The header for such an EPR is built directly by
+         * {@link #addAddressOnlyEPRHeader(String, String)}.
+         */
+        private boolean isAddressOnly(EndpointReference epr) {
+            List addressAttributes = epr.getAddressAttributes();
+            return epr.getAddress() != null
+                    && (addressAttributes == null || addressAttributes.isEmpty())
+                    && epr.getMetaData() == null
+                    && epr.getAllReferenceParameters() == null
+                    && epr.getAttributes() == null
+                    && epr.getExtensibleElements() == null;
+        }
+
+        /**
+         * Adds a header for an EPR that only has an address. This produces the same output as
+         * {@link EndpointReferenceHelper#toOM(org.apache.axiom.om.OMFactory, EndpointReference,
+         * QName, String)}, without the need for an EndpointReference instance.
+         */
+        private void addAddressOnlyEPRHeader(String address, String headerName) {
+            SOAPHeaderBlock soapHeaderBlock =
+                    header.addHeaderBlock(headerName, addressingNamespaceObject);
+            OMElement addressElement = factory.createOMElement(EPR_ADDRESS,
+                    addressingNamespaceObject, soapHeaderBlock);
+            addressElement.setText(address);
+            addRoleToHeader(soapHeaderBlock);
+        }
+
         /**
          * This will add reference parameters and/or reference properties in to the message
          *
@@ -29,6 +29,8 @@ import org.apache.axis2.context.ConfigurationContext;
 import org.apache.axis2.context.ServiceContext;
 import org.apache.axis2.context.ServiceGroupContext;
 import org.apache.axis2.description.Parameter;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -40,10 +42,22 @@ import java.util.Map;
  */
 public class DefaultStateManager implements StateManager {
 
+    private static final Log log = LogFactory.getLog(DefaultStateManager.class);
+
+    /**
+     * The time, in milliseconds, over which context updates are coalesced and sent as one
+     * batch. If this parameter is not set, every update is sent immediately.
+     */
+    public static final String REPLICATION_BATCH_WINDOW = "replicationBatchWindow";
+
     private final Map<String, Parameter> parameters = new HashMap<String, Parameter>();
 
     private ChannelSender sender;
 
+    private volatile ReplicationBatcher batcher;
+
+    private volatile boolean batcherInitialized;
+
     private final Map<String, List> excludedReplicationPatterns = new HashMap<String, List>();
 
     //TODO: Try to use an interface
@@ -55,6 +69,11 @@ public class DefaultStateManager implements StateManager {
     }
 
     public void updateContext(AbstractContext context) throws ClusteringFault {
+        ReplicationBatcher batcher = getBatcher();
+        if (batcher != null) {
+            batcher.add(context);
+            return;
+        }
         StateClusteringCommand cmd =
                 StateClusteringCommandFactory.getUpdateCommand(context,
                                                                  excludedReplicationPatterns,
@@ -74,6 +93,11 @@ public class DefaultStateManager implements StateManager {
     }
 
     public void updateContexts(AbstractContext[] contexts) throws ClusteringFault {
+        ReplicationBatcher batcher = getBatcher();
+        if (batcher != null) {
+            batcher.add(contexts);
+            return;
+        }
         StateClusteringCommandCollection cmd =
                 StateClusteringCommandFactory.getCommandCollection(contexts,
                                                                    excludedReplicationPatterns);
@@ -82,6 +106,49 @@ public class DefaultStateManager implements StateManager {
         }
     }
 
+    /**
+     * Get the batcher that coalesces context updates, creating it on first use.
+     *
+     * @return the batcher, or <code>null</code> if updates should be sent immediately
+     */
+    private ReplicationBatcher getBatcher() {
+        if (!batcherInitialized) {
+            synchronized (this) {
+                if (!batcherInitialized) {
+                    Parameter param = getParameter(REPLICATION_BATCH_WINDOW);
+                    if (param != null && param.getValue() != null) {
+                        long window = 0;
+                        try {
+                            window = Long.parseLong(param.getValue().toString().trim());
+                        } catch (NumberFormatException e) {
+                            log.warn("Invalid value '" + param.getValue() + "' for "
+                                     + REPLICATION_BATCH_WINDOW
+                                     + "; context updates will be sent immediately");
+                        }
+                        if (window > 0) {
+                            batcher = new ReplicationBatcher(sender,
+                                                             excludedReplicationPatterns,
+                                                             window);
+                        }
+                    }
+                    batcherInitialized = true;
+                }
+            }
+        }
+        return batcher;
+    }
+
+    /**
+     * Send any context updates that are still waiting to be batched and stop batching.
+     */
+    public synchronized void stop() {
+        if (batcher != null) {
+            batcher.stop();
+            batcher = null;
+        }
+        batcherInitialized = true;
+    }
+
     public void replicateState(StateClusteringCommand command) throws ClusteringFault {
         sender.sendToGroup(command);
     }
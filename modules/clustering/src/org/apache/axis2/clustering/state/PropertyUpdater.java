@@ -24,18 +24,57 @@ import org.apache.axis2.context.PropertyDifference;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 
 /**
- * 
+ * Holds the property differences of a context and applies them on the receiving member.
+ * <p>
+ * By default the properties are serialized as a regular map, as in earlier versions. If
+ * {@link #setCompactEncoding(boolean) compact encoding} is enabled (which is the case when
+ * replication batching is configured), values of the common immutable types (strings,
+ * primitive wrappers) are instead written as a type tag followed by the raw value, and only
+ * other values go through regular Java serialization. Both forms can be read, but members
+ * running an earlier version can only read the default one, so batching should only be
+ * enabled once all members of the cluster have been upgraded.
  */
 public class PropertyUpdater implements Serializable {
     private static final Log log = LogFactory.getLog(PropertyUpdater.class);
 
+    /** The default serial version UID of earlier versions, which didn't declare one */
+    private static final long serialVersionUID = -2431111778948163522L;
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_INTEGER = 2;
+    private static final byte TYPE_LONG = 3;
+    private static final byte TYPE_BOOLEAN = 4;
+    private static final byte TYPE_DOUBLE = 5;
+    private static final byte TYPE_FLOAT = 6;
+    private static final byte TYPE_SHORT = 7;
+    private static final byte TYPE_BYTE = 8;
+    private static final byte TYPE_CHARACTER = 9;
+    private static final byte TYPE_OBJECT = 10;
+
+    /**
+     * The longest string that is guaranteed to fit into {@link ObjectOutputStream#writeUTF}
+     */
+    private static final int MAX_UTF_LENGTH = 65535 / 3;
+
     private Map properties;
 
+    /**
+     * Whether the properties are written with the compact encoding, in which case the
+     * <code>properties</code> field is written as <code>null</code> and followed by the encoded
+     * properties. Members running an earlier version ignore this field.
+     */
+    private boolean compact;
+
     public void updateProperties(AbstractContext abstractContext) {
         if (log.isDebugEnabled()) {
             log.debug("Updating props in " + abstractContext);
@@ -69,4 +108,129 @@ public class PropertyUpdater implements Serializable {
     public Map getProperties() {
         return properties;
     }
+
+    /**
+     * @param compact whether the properties should be written with the compact encoding
+     */
+    public void setCompactEncoding(boolean compact) {
+        this.compact = compact;
+    }
+
+    public boolean isCompactEncoding() {
+        return compact;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("properties", compact ? null : properties);
+        fields.put("compact", compact);
+        out.writeFields();
+        if (compact) {
+            writeProperties(out);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        // the compact field is absent from streams written by earlier versions
+        compact = fields.get("compact", false);
+        properties = compact ? readProperties(in) : (Map) fields.get("properties", null);
+    }
+
+    private void writeProperties(ObjectOutputStream out) throws IOException {
+        if (properties == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(properties.size());
+        for (Iterator iter = properties.values().iterator(); iter.hasNext();) {
+            PropertyDifference diff = (PropertyDifference) iter.next();
+            out.writeUTF(diff.getKey());
+            out.writeBoolean(diff.isRemoved());
+            writeValue(out, diff.getValue());
+        }
+    }
+
+    private static Map readProperties(ObjectInputStream in)
+            throws IOException, ClassNotFoundException {
+        int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        Map properties = new HashMap(size * 4 / 3 + 1);
+        for (int i = 0; i < size; i++) {
+            String key = in.readUTF();
+            boolean removed = in.readBoolean();
+            properties.put(key, new PropertyDifference(key, readValue(in), removed));
+        }
+        return properties;
+    }
+
+    private static void writeValue(ObjectOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TYPE_NULL);
+        } else if (value.getClass() == String.class &&
+                   ((String) value).length() <= MAX_UTF_LENGTH) {
+            out.writeByte(TYPE_STRING);
+            out.writeUTF((String) value);
+        } else if (value.getClass() == Integer.class) {
+            out.writeByte(TYPE_INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value.getClass() == Long.class) {
+            out.writeByte(TYPE_LONG);
+            out.writeLong((Long) value);
+        } else if (value.getClass() == Boolean.class) {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value.getClass() == Double.class) {
+            out.writeByte(TYPE_DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value.getClass() == Float.class) {
+            out.writeByte(TYPE_FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value.getClass() == Short.class) {
+            out.writeByte(TYPE_SHORT);
+            out.writeShort((Short) value);
+        } else if (value.getClass() == Byte.class) {
+            out.writeByte(TYPE_BYTE);
+            out.writeByte((Byte) value);
+        } else if (value.getClass() == Character.class) {
+            out.writeByte(TYPE_CHARACTER);
+            out.writeChar((Character) value);
+        } else {
+            out.writeByte(TYPE_OBJECT);
+            out.writeObject(value);
+        }
+    }
+
+    private static Object readValue(ObjectInputStream in)
+            throws IOException, ClassNotFoundException {
+        byte type = in.readByte();
+        switch (type) {
+            case TYPE_NULL:
+                return null;
+            case TYPE_STRING:
+                return in.readUTF();
+            case TYPE_INTEGER:
+                return in.readInt();
+            case TYPE_LONG:
+                return in.readLong();
+            case TYPE_BOOLEAN:
+                return in.readBoolean();
+            case TYPE_DOUBLE:
+                return in.readDouble();
+            case TYPE_FLOAT:
+                return in.readFloat();
+            case TYPE_SHORT:
+                return in.readShort();
+            case TYPE_BYTE:
+                return in.readByte();
+            case TYPE_CHARACTER:
+                return in.readChar();
+            case TYPE_OBJECT:
+                return in.readObject();
+            default:
+                throw new IOException("Unknown property type " + type);
+        }
+    }
 }
@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.clustering.state;
+
+import org.apache.axis2.clustering.ClusteringFault;
+import org.apache.axis2.clustering.MessageSender;
+import org.apache.axis2.clustering.state.commands.StateClusteringCommandCollection;
+import org.apache.axis2.clustering.state.commands.UpdateStateCommand;
+import org.apache.axis2.context.AbstractContext;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces context state updates over a short window and sends them to the group as a single
+ * {@link StateClusteringCommandCollection}.
+ * <p>
+ * Requests only register the contexts that have changed. When the window elapses, a background
+ * thread collects the property differences of every registered context once, clears them, and
+ * sends the batch. A context that is updated many times within one window is therefore
+ * serialized and sent only once, with the latest value of each property, and request threads
+ * never wait for the group.
+ * <p>
+ * The properties of the batched commands are written with the compact encoding of
+ * {@link PropertyUpdater}, which members running an earlier version can't read.
+ */
+public class ReplicationBatcher {
+
+    private static final Log log = LogFactory.getLog(ReplicationBatcher.class);
+
+    private final MessageSender sender;
+
+    private final Map excludedReplicationPatterns;
+
+    private final ScheduledExecutorService executor;
+
+    private Set<AbstractContext> pendingContexts = new LinkedHashSet<AbstractContext>();
+
+    private final AtomicLong updateCount = new AtomicLong();
+
+    private final AtomicLong sentContextCount = new AtomicLong();
+
+    private final AtomicLong batchCount = new AtomicLong();
+
+    /**
+     * @param sender                      the sender used to send the batches
+     * @param excludedReplicationPatterns the property patterns to be excluded from replication
+     * @param window                      the time, in milliseconds, over which updates are
+     *                                    coalesced
+     */
+    public ReplicationBatcher(MessageSender sender, Map excludedReplicationPatterns, long window) {
+        this.sender = sender;
+        this.excludedReplicationPatterns = excludedReplicationPatterns;
+        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "axis2-state-replication");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.scheduleWithFixedDelay(new Runnable() {
+            public void run() {
+                flush();
+            }
+        }, window, window, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Register contexts whose property differences should be sent with the next batch.
+     *
+     * @param contexts the changed contexts
+     */
+    public void add(AbstractContext... contexts) {
+        synchronized (this) {
+            for (AbstractContext context : contexts) {
+                pendingContexts.add(context);
+            }
+        }
+        updateCount.addAndGet(contexts.length);
+    }
+
+    /**
+     * Send the property differences of all registered contexts now.
+     */
+    public void flush() {
+        Set<AbstractContext> contexts;
+        synchronized (this) {
+            if (pendingContexts.isEmpty()) {
+                return;
+            }
+            contexts = pendingContexts;
+            pendingContexts = new LinkedHashSet<AbstractContext>();
+        }
+        List<StateClusteringCommand> commands =
+                new ArrayList<StateClusteringCommand>(contexts.size());
+        for (AbstractContext context : contexts) {
+            StateClusteringCommand cmd;
+            synchronized (context) {
+                cmd = StateClusteringCommandFactory.getUpdateCommand(context,
+                                                                     excludedReplicationPatterns,
+                                                                     false);
+                context.clearPropertyDifferences();
+            }
+            if (cmd != null) {
+                if (cmd instanceof UpdateStateCommand) {
+                    // batching is opted into, so all members can read the compact encoding
+                    ((UpdateStateCommand) cmd).setCompactEncoding(true);
+                }
+                commands.add(cmd);
+            }
+        }
+        if (commands.isEmpty()) {
+            return;
+        }
+        try {
+            sender.sendToGroup(new StateClusteringCommandCollection(commands));
+            sentContextCount.addAndGet(commands.size());
+            batchCount.incrementAndGet();
+        } catch (ClusteringFault e) {
+            log.error("Could not replicate the state of " + commands.size() + " contexts", e);
+        } catch (RuntimeException e) {
+            log.error("Could not replicate the state of " + commands.size() + " contexts", e);
+        }
+    }
+
+    /**
+     * Send any pending updates and stop the background thread.
+     */
+    public void stop() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * @return the number of context updates that have been registered
+     */
+    public long getUpdateCount() {
+        return updateCount.get();
+    }
+
+    /**
+     * @return the number of context update commands that have been sent; the difference to
+     *         {@link #getUpdateCount()} is the number of updates that were coalesced
+     */
+    public long getSentContextCount() {
+        return sentContextCount.get();
+    }
+
+    /**
+     * @return the number of batches that have been sent
+     */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+}
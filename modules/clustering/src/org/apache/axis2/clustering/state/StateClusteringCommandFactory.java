@@ -265,6 +265,12 @@ public final class StateClusteringCommandFactory {
     }
 
     private static boolean isSerializable(Object obj) {
+        // Common immutable types are always serializable, so there is no need to serialize them
+        // just to find out; the command is serialized when it is sent anyway
+        if (obj instanceof String || obj instanceof Number || obj instanceof Boolean ||
+            obj instanceof Character) {
+            return obj.getClass().getName().startsWith("java.");
+        }
         try {
             ByteArrayOutputStream out = new ByteArrayOutputStream();
             ObjectOutputStream oos = new ObjectOutputStream(out);
@@ -47,6 +47,10 @@ public class StateClusteringCommandCollection extends StateClusteringCommand {
         return commands != null && commands.isEmpty();
     }
 
+    public List<StateClusteringCommand> getCommands() {
+        return commands;
+    }
+
     public String toString() {
         return "StateClusteringCommandCollection";
     }
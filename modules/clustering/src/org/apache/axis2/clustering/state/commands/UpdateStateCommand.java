@@ -46,4 +46,16 @@ public abstract class UpdateStateCommand extends StateClusteringCommand {
         }                                        
         propertyUpdater.addContextProperty(diff);
     }
+
+    /**
+     * @param compact whether the properties should be serialized with the compact encoding of
+     *                {@link PropertyUpdater}, which members running an earlier version can't read
+     */
+    public void setCompactEncoding(boolean compact) {
+        propertyUpdater.setCompactEncoding(compact);
+    }
+
+    public boolean isCompactEncoding() {
+        return propertyUpdater.isCompactEncoding();
+    }
 }
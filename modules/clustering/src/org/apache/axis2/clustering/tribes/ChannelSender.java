@@ -49,7 +49,7 @@ public class ChannelSender implements MessageSender {
         this.synchronizeAllMembers = synchronizeAllMembers;
     }
 
-    public synchronized void sendToGroup(ClusteringCommand msg,
+    public void sendToGroup(ClusteringCommand msg,
                             MembershipManager membershipManager,
                             int additionalOptions) throws ClusteringFault {
         if (channel == null) {
@@ -61,21 +61,26 @@ public class ChannelSender implements MessageSender {
         // causing a view change. All nodes in a view should get the msg
         if (members.length > 0) {
             try {
-                if (synchronizeAllMembers) {
-                    channel.send(members, toByteMessage(msg),
-                                 Channel.SEND_OPTIONS_USE_ACK |
-                                 Channel.SEND_OPTIONS_SYNCHRONIZED_ACK |
-                                 Channel.SEND_OPTIONS_BYTE_MESSAGE |
-                                 TribesConstants.MSG_ORDER_OPTION |
-                                 TribesConstants.AT_MOST_ONCE_OPTION |
-                                 additionalOptions);
-                } else {
-                    channel.send(members, toByteMessage(msg),
-                                 Channel.SEND_OPTIONS_ASYNCHRONOUS |
-                                 TribesConstants.MSG_ORDER_OPTION |
-                                 Channel.SEND_OPTIONS_BYTE_MESSAGE |
-                                 TribesConstants.AT_MOST_ONCE_OPTION |
-                                 additionalOptions);
+                // Serialize the command before taking the lock, so that concurrent senders only
+                // wait for each other while the message is handed over to the channel
+                ByteMessage byteMessage = toByteMessage(msg);
+                synchronized (this) {
+                    if (synchronizeAllMembers) {
+                        channel.send(members, byteMessage,
+                                     Channel.SEND_OPTIONS_USE_ACK |
+                                     Channel.SEND_OPTIONS_SYNCHRONIZED_ACK |
+                                     Channel.SEND_OPTIONS_BYTE_MESSAGE |
+                                     TribesConstants.MSG_ORDER_OPTION |
+                                     TribesConstants.AT_MOST_ONCE_OPTION |
+                                     additionalOptions);
+                    } else {
+                        channel.send(members, byteMessage,
+                                     Channel.SEND_OPTIONS_ASYNCHRONOUS |
+                                     TribesConstants.MSG_ORDER_OPTION |
+                                     Channel.SEND_OPTIONS_BYTE_MESSAGE |
+                                     TribesConstants.AT_MOST_ONCE_OPTION |
+                                     additionalOptions);
+                    }
                 }
                 if (log.isDebugEnabled()) {
                     log.debug("Sent " + msg + " to group");
@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.clustering.state;
+
+import junit.framework.TestCase;
+import org.apache.axis2.clustering.ClusteringCommand;
+import org.apache.axis2.clustering.ClusteringFault;
+import org.apache.axis2.clustering.MessageSender;
+import org.apache.axis2.clustering.state.commands.StateClusteringCommandCollection;
+import org.apache.axis2.clustering.state.commands.UpdateStateCommand;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.PropertyDifference;
+import org.apache.axis2.engine.AxisConfiguration;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ *
+ */
+public class ReplicationBatcherTest extends TestCase {
+
+    private static class RecordingSender implements MessageSender {
+        private final List<ClusteringCommand> commands = new ArrayList<ClusteringCommand>();
+
+        public void sendToGroup(ClusteringCommand msg) throws ClusteringFault {
+            commands.add(msg);
+        }
+
+        public void sendToSelf(ClusteringCommand msg) throws ClusteringFault {
+        }
+    }
+
+    private RecordingSender sender;
+    private ReplicationBatcher batcher;
+
+    protected void setUp() throws Exception {
+        sender = new RecordingSender();
+        // Use a window that never elapses during the test, and flush explicitly
+        batcher = new ReplicationBatcher(sender, new HashMap(), 3600 * 1000);
+    }
+
+    protected void tearDown() throws Exception {
+        batcher.stop();
+    }
+
+    private static void setDifference(ConfigurationContext context, String key, Object value) {
+        context.getPropertyDifferences().put(key, new PropertyDifference(key, value, false));
+    }
+
+    private static Object copy(Object orig) throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bos);
+        out.writeObject(orig);
+        out.close();
+        return new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray())).readObject();
+    }
+
+    public void testCoalescesUpdates() throws Exception {
+        ConfigurationContext context = new ConfigurationContext(new AxisConfiguration());
+        setDifference(context, "counter", new Integer(1));
+        batcher.add(context);
+        setDifference(context, "counter", new Integer(2));
+        setDifference(context, "name", "value");
+        batcher.add(context);
+
+        batcher.flush();
+        assertEquals(1, sender.commands.size());
+        assertEquals(2, batcher.getUpdateCount());
+        assertEquals(1, batcher.getSentContextCount());
+        assertEquals(1, batcher.getBatchCount());
+        assertTrue(context.getPropertyDifferences().isEmpty());
+
+        ConfigurationContext remote = new ConfigurationContext(new AxisConfiguration());
+        StateClusteringCommand cmd = (StateClusteringCommand) copy(sender.commands.get(0));
+        cmd.execute(remote);
+        assertEquals(new Integer(2), remote.getProperty("counter"));
+        assertEquals("value", remote.getProperty("name"));
+    }
+
+    public void testFlushWithoutUpdates() throws Exception {
+        batcher.flush();
+        ConfigurationContext context = new ConfigurationContext(new AxisConfiguration());
+        batcher.add(context);
+        batcher.flush();
+        assertTrue(sender.commands.isEmpty());
+        assertEquals(0, batcher.getBatchCount());
+    }
+
+    public void testPropertyEncoding() throws Exception {
+        char[] chars = new char[70000];
+        Arrays.fill(chars, '\u20ac');
+        String longString = new String(chars);
+        String maxUTFString = longString.substring(0, 65535 / 3);
+        Object[] values = {null, "text", longString, maxUTFString, new Integer(-1), new Long(Long.MAX_VALUE),
+                Boolean.TRUE, new Double(1.5), new Float(2.5f), new Short((short) 3),
+                new Byte((byte) 4), new Character('c'), new Date(1234)};
+
+        for (boolean compact : new boolean[] { false, true }) {
+            PropertyUpdater updater = new PropertyUpdater();
+            updater.setCompactEncoding(compact);
+            updater.setProperties(new HashMap());
+            for (int i = 0; i < values.length; i++) {
+                updater.addContextProperty(new PropertyDifference("p" + i, values[i], false));
+            }
+            updater.addContextProperty(new PropertyDifference("removed", null, true));
+
+            PropertyUpdater copy = (PropertyUpdater) copy(updater);
+            assertEquals(compact, copy.isCompactEncoding());
+            assertEquals(values.length + 1, copy.getProperties().size());
+            for (int i = 0; i < values.length; i++) {
+                PropertyDifference diff = (PropertyDifference) copy.getProperties().get("p" + i);
+                assertEquals("p" + i, diff.getKey());
+                assertEquals(values[i], diff.getValue());
+                assertFalse(diff.isRemoved());
+            }
+            assertTrue(((PropertyDifference) copy.getProperties().get("removed")).isRemoved());
+
+            PropertyUpdater empty = new PropertyUpdater();
+            empty.setCompactEncoding(compact);
+            assertNull(((PropertyUpdater) copy(empty)).getProperties());
+        }
+    }
+
+    public void testBatchedCommandsUseCompactEncoding() throws Exception {
+        ConfigurationContext context = new ConfigurationContext(new AxisConfiguration());
+        setDifference(context, "name", "value");
+        batcher.add(context);
+        batcher.flush();
+
+        StateClusteringCommandCollection collection =
+                (StateClusteringCommandCollection) sender.commands.get(0);
+        assertTrue(((UpdateStateCommand) collection.getCommands().get(0)).isCompactEncoding());
+    }
+
+    /**
+     * Updates written by members running a version without the compact encoding can be read.
+     */
+    public void testReadEarlierVersion() throws Exception {
+        // a PropertyUpdater with the property name=value, serialized by the earlier version
+        byte[] bytes = Base64.getDecoder().decode(
+                "rO0ABXNyADFvcmcuYXBhY2hlLmF4aXMyLmNsdXN0ZXJpbmcuc3RhdGUuUHJvcGVydHlVcGRhdGVy" +
+                "3kL0t7aG2D4CAAFMAApwcm9wZXJ0aWVzdAAPTGphdmEvdXRpbC9NYXA7eHBzcgARamF2YS51dGls" +
+                "Lkhhc2hNYXAFB9rBwxZg0QMAAkYACmxvYWRGYWN0b3JJAAl0aHJlc2hvbGR4cD9AAAAAAAAMdwgA" +
+                "AAAQAAAAAXQABG5hbWVzcgArb3JnLmFwYWNoZS5heGlzMi5jb250ZXh0LlByb3BlcnR5RGlmZmVy" +
+                "ZW5jZZxjfqtijSSOAgADWgAJaXNSZW1vdmVkTAADa2V5dAASTGphdmEvbGFuZy9TdHJpbmc7TAAF" +
+                "dmFsdWV0ABJMamF2YS9sYW5nL09iamVjdDt4cABxAH4ABXQABXZhbHVleA==");
+        PropertyUpdater updater = (PropertyUpdater) new ObjectInputStream(
+                new ByteArrayInputStream(bytes)).readObject();
+        assertFalse(updater.isCompactEncoding());
+        assertEquals(1, updater.getProperties().size());
+        assertEquals("value",
+                ((PropertyDifference) updater.getProperties().get("name")).getValue());
+    }
+}
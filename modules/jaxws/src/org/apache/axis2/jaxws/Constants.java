@@ -267,4 +267,32 @@ public interface Constants {
      * If this property is set, the Endpoint.publish methods will throw an UnsupportedOperationException.
      */
     public static final String  DISABLE_ENDPOINT_PUBLISH_METHODS = "jaxws.endpoint.publish.disable"; 
+
+    /** 
+     * Context Property:
+     * Name: jaxws.jaxbcontext.warmup
+     * Value: String "false" or "true"
+     * Default: null, which is interpreted as "false"
+     * Can be set on:
+     * - Axis Configuration, which affects all jax-ws endpoints
+     *
+     * Indicates if the JAXBContext of each JAX-WS service should be built when the service is deployed, rather than
+     * when the service processes its first request.  Building a JAXBContext can take seconds, so this moves the
+     * cost from the first requests to deployment.  A JAXBContext that cannot be built at deployment is logged and
+     * built on demand as before.
+     */
+    public static final String  JAXB_CONTEXT_WARMUP = "jaxws.jaxbcontext.warmup"; 
+
+    /** 
+     * Context Property:
+     * Name: jaxws.jaxbutils.mbean
+     * Value: String "false" or "true"
+     * Default: null, which is interpreted as "false"
+     * Can be set on:
+     * - Axis Configuration
+     *
+     * Indicates if the JAXWSDeployer should register the JAXBUtilsView MBean, which publishes the JAXBContext cache
+     * and Marshaller/Unmarshaller pool statistics.  The MBean is unregistered when the deployer is cleaned up.
+     */
+    public static final String  JAXB_UTILS_MBEAN = "jaxws.jaxbutils.mbean"; 
 }
@@ -25,11 +25,15 @@ import org.apache.axis2.context.ConfigurationContext;
 import org.apache.axis2.deployment.AbstractDeployer;
 import org.apache.axis2.deployment.DeploymentEngine;
 import org.apache.axis2.deployment.DeploymentErrorMsgs;
+import org.apache.axis2.deployment.DeploymentException;
 import org.apache.axis2.deployment.repository.util.DeploymentFileData;
 import org.apache.axis2.deployment.util.Utils;
+import org.apache.axis2.description.AxisService;
 import org.apache.axis2.description.AxisServiceGroup;
 import org.apache.axis2.engine.AxisConfiguration;
 import org.apache.axis2.i18n.Messages;
+import org.apache.axis2.jaxws.message.databinding.JAXBUtils;
+import org.apache.axis2.util.JavaUtils;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -58,11 +62,17 @@ public class JAXWSDeployer extends AbstractDeployer {
     protected ConfigurationContext configCtx;
     protected AxisConfiguration axisConfig;
     private String directory;
+    private boolean mbeanRegistered;
 
     //To initialize the deployer
     public void init(ConfigurationContext configCtx) {
         this.configCtx = configCtx;
         this.axisConfig = configCtx.getAxisConfiguration();
+        if (JavaUtils.isTrueExplicitly(axisConfig.getParameterValue(
+                org.apache.axis2.jaxws.Constants.JAXB_UTILS_MBEAN))) {
+            JAXBUtils.registerMBean();
+            mbeanRegistered = true;
+        }
         deployServicesInWARClassPath();
     }//Will process the file and add that to axisConfig
 
@@ -199,6 +209,11 @@ public class JAXWSDeployer extends AbstractDeployer {
             if(configCtx != null) {
                 configCtx.removeServiceGroupContext(serviceGroup);
             }
+            //the cached JAXBContexts would keep the classes of the service group loaded
+            for (Iterator<AxisService> services = serviceGroup.getServices();
+                    services.hasNext();) {
+                JAXBUtils.removeJAXBContexts(services.next().getClassLoader());
+            }
             super.undeploy(fileName);
             log.info(Messages.getMessage(DeploymentErrorMsgs.SERVICE_REMOVED,
                     fileName));
@@ -210,6 +225,13 @@ public class JAXWSDeployer extends AbstractDeployer {
         }
     }
 
+    public void cleanup() throws DeploymentException {
+        if (mbeanRegistered) {
+            JAXBUtils.unregisterMBean();
+            mbeanRegistered = false;
+        }
+    }
+
     /**
      * Check if this inputstream is a jar/zip
      *
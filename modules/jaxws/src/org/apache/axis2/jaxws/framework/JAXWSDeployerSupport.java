@@ -28,6 +28,7 @@ import java.util.List;
 
 import jakarta.jws.WebService;
 import javax.xml.namespace.QName;
+import jakarta.xml.ws.Holder;
 import jakarta.xml.ws.WebServiceProvider;
 
 import org.apache.axiom.om.OMAttribute;
@@ -46,7 +47,11 @@ import org.apache.axis2.jaxws.addressing.util.EndpointContextMapManager;
 import org.apache.axis2.jaxws.addressing.util.EndpointKey;
 import org.apache.axis2.jaxws.description.DescriptionFactory;
 import org.apache.axis2.jaxws.description.EndpointDescription;
+import org.apache.axis2.jaxws.message.databinding.JAXBUtils;
+import org.apache.axis2.jaxws.runtime.description.marshal.MarshalServiceRuntimeDescription;
+import org.apache.axis2.jaxws.runtime.description.marshal.MarshalServiceRuntimeDescriptionFactory;
 import org.apache.axis2.jaxws.server.JAXWSMessageReceiver;
+import org.apache.axis2.util.JavaUtils;
 import org.apache.axis2.util.Loader;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -171,6 +176,10 @@ public class JAXWSDeployerSupport {
             }
             getConfigurationContext().getAxisConfiguration().addServiceGroup(serviceGroup);
             configureAddressing(serviceGroup);
+            if (JavaUtils.isTrueExplicitly(getConfigurationContext().getAxisConfiguration()
+                    .getParameterValue(org.apache.axis2.jaxws.Constants.JAXB_CONTEXT_WARMUP))) {
+                warmUpJAXBContexts(serviceGroup);
+            }
             return serviceGroup;
         }
         return null;
@@ -365,4 +374,40 @@ public class JAXWSDeployerSupport {
         }
     }
 
+    /**
+     * Build the JAXBContexts of the services in the group, so that the first requests don't have
+     * to. Failures are logged; the JAXBContext is then built on demand as usual.
+     * 
+     * @param serviceGroup
+     *            the service group
+     */
+    private void warmUpJAXBContexts(AxisServiceGroup serviceGroup) {
+        Iterator<AxisService> iterator = serviceGroup.getServices();
+        while (iterator.hasNext()) {
+            AxisService axisService = iterator.next();
+            try {
+                Parameter param = axisService.getParameter(EndpointDescription.AXIS_SERVICE_PARAMETER);
+                EndpointDescription ed = (EndpointDescription) param.getValue();
+                MarshalServiceRuntimeDescription marshalDesc =
+                        MarshalServiceRuntimeDescriptionFactory.get(ed.getServiceDescription());
+                if (marshalDesc.getPackages().isEmpty()) {
+                    continue;
+                }
+                ClassLoader classLoader = (ClassLoader) axisService.getParameterValue(
+                        org.apache.axis2.jaxws.spi.Constants.CACHE_CLASSLOADER);
+                long startTime = System.currentTimeMillis();
+                JAXBUtils.getJAXBContext(marshalDesc.getPackages(),
+                        new Holder<JAXBUtils.CONSTRUCTION_TYPE>(), marshalDesc.getPackagesKey(),
+                        classLoader, null);
+                if (log.isDebugEnabled()) {
+                    log.debug("Built the JAXBContext of service " + axisService.getName() + " in "
+                            + (System.currentTimeMillis() - startTime) + " ms");
+                }
+            } catch (Throwable t) {
+                log.warn("Unable to build the JAXBContext of service " + axisService.getName()
+                        + " at deployment; it will be built on demand", t);
+            }
+        }
+    }
+
 }
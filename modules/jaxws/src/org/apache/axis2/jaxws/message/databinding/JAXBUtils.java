@@ -39,12 +39,14 @@ import jakarta.xml.bind.Unmarshaller;
 import jakarta.xml.bind.annotation.XmlType;
 import jakarta.xml.ws.Holder;
 import jakarta.xml.ws.wsaddressing.W3CEndpointReference;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.lang.annotation.Annotation;
-import java.lang.ref.SoftReference;
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Array;
 import java.net.URL;
@@ -53,13 +55,19 @@ import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 /**
@@ -71,13 +79,15 @@ public class JAXBUtils {
 
     // Create a concurrent map to get the JAXBObject: 
     //    key is the String (sorted packages)
-    //    value is a SoftReference to a ConcurrentHashMap of Classloader keys and JAXBContextValue objects
-    //               It is a soft map to encourage GC in low memory situations
-    private static Map<
-        String, 
-        SoftReference<ConcurrentHashMap<ClassLoader, JAXBContextValue>>> jaxbMap =
-            new ConcurrentHashMap<String, 
-                SoftReference<ConcurrentHashMap<ClassLoader, JAXBContextValue>>>();
+    //    value is a ConcurrentHashMap of Classloader keys and JAXBContextValue objects
+    // The number of JAXBContexts is bounded by MAX_LOAD_FACTOR.  When a new JAXBContext
+    // exceeds the bound, the least recently used one is evicted (see evictJAXBContexts).
+    // Unlike a SoftReference, this never discards a JAXBContext just because the heap is
+    // under pressure, which is exactly when rebuilding it is most expensive.
+    // The JAXBContexts reference the classes of their ClassLoader, so the entries of an
+    // application are removed when it is undeployed (see removeJAXBContexts).
+    private static Map<String, ConcurrentHashMap<ClassLoader, JAXBContextValue>> jaxbMap =
+            new ConcurrentHashMap<String, ConcurrentHashMap<ClassLoader, JAXBContextValue>>();
 
     private static Pool<JAXBContext, Marshaller>       mpool = new Pool<JAXBContext, Marshaller>();
     private static Pool<JAXBContext, Unmarshaller>     upool = new Pool<JAXBContext, Unmarshaller>();
@@ -96,7 +106,31 @@ public class JAXBUtils {
     private static boolean ENABLE_UNMARSHALL_POOLING = true;
     private static boolean ENABLE_INTROSPECTION_POOLING = false;
     
-    private static int MAX_LOAD_FACTOR = 32;  // Maximum number of JAXBContext to store
+    /**
+     * System property that sets the maximum number of JAXBContexts that are cached.
+     */
+    public static final String JAXB_CONTEXT_CACHE_SIZE =
+            "org.apache.axis2.jaxws.jaxbContextCacheSize";
+
+    /**
+     * System property that sets the maximum number of Marshallers, Unmarshallers and
+     * JAXBIntrospectors that are pooled per JAXBContext.  The default is twice the number of
+     * available processors, and at least 8.
+     */
+    public static final String JAXB_POOL_SIZE = "org.apache.axis2.jaxws.jaxbPoolSize";
+
+    private static int MAX_LOAD_FACTOR =   // Maximum number of JAXBContext to store
+        Integer.getInteger(JAXB_CONTEXT_CACHE_SIZE, 64).intValue();
+
+    private static int MAX_POOL_SIZE = Integer.getInteger(JAXB_POOL_SIZE,
+            Math.max(8, 2 * Runtime.getRuntime().availableProcessors())).intValue();
+
+    // Statistics exposed through JAXBUtilsViewMBean
+    private static final AtomicLong contextHits = new AtomicLong();
+    private static final AtomicLong contextMisses = new AtomicLong();
+    private static final AtomicLong contextEvictions = new AtomicLong();
+    private static final AtomicLong totalContextCreationTime = new AtomicLong();
+    private static final AtomicLong maxContextCreationTime = new AtomicLong();
 
     // Construction Type
     public enum CONSTRUCTION_TYPE {
@@ -118,6 +152,10 @@ public class JAXBUtils {
     }
     
     public static final String DEFAULT_NAMESPACE_REMAP = getDefaultNamespaceRemapProperty();
+
+    // The JAXBUtilsView MBean and the number of deployers that asked for it
+    private static ObjectName mbeanName;
+    private static int mbeanRegistrations;
     
     /**
      * Get a JAXBContext for the class
@@ -214,25 +252,13 @@ public class JAXBUtils {
         }
 
         // Get or Create The InnerMap using the package key
-        ConcurrentHashMap<ClassLoader, JAXBContextValue> innerMap = null;
-        SoftReference<ConcurrentHashMap<ClassLoader, JAXBContextValue>> 
-            softRef = jaxbMap.get(key);
-        
-        if (softRef != null) {
-            innerMap = softRef.get();
-        }
-        
+        ConcurrentHashMap<ClassLoader, JAXBContextValue> innerMap = jaxbMap.get(key);
         if (innerMap == null) {
             synchronized(jaxbMap) {
-                softRef = jaxbMap.get(key);
-                if (softRef != null) {
-                    innerMap = softRef.get();
-                }
+                innerMap = jaxbMap.get(key);
                 if (innerMap == null) {
                     innerMap = new ConcurrentHashMap<ClassLoader, JAXBContextValue>();
-                    softRef = 
-                        new SoftReference<ConcurrentHashMap<ClassLoader, JAXBContextValue>>(innerMap);
-                    jaxbMap.put(key, softRef);
+                    jaxbMap.put(key, innerMap);
                 }
             }
         }
@@ -279,7 +305,6 @@ public class JAXBUtils {
                     log.warn("getJAXBContext() detected null clKey");
                 }
                 contextValue = innerMap.get(clKey);
-                adjustPoolSize(innerMap);
                 if (forceArrays &&
                         contextValue != null && 
                         contextValue.constructionType != JAXBUtils.CONSTRUCTION_TYPE.BY_CLASS_ARRAY_PLUS_ARRAYS) {
@@ -297,45 +322,35 @@ public class JAXBUtils {
                     
                     int numPackages = validContextPackages.size();
                     
+                    contextMisses.incrementAndGet();
+                    long startTime = System.nanoTime();
                     contextValue = createJAXBContextValue(validContextPackages, 
                             clKey, 
                             forceArrays, 
                             properties, 
                             classRefs);
+                    recordContextCreationTime(System.nanoTime() - startTime);
                     
                     if (contextValue == null) {
                         log.warn("getJAXBContext() detected null contextValue on validContextPackages.size: " + validContextPackages.size() + " , classRefs.size: " + classRefs.size() + " , numPackages: " + numPackages + " , properties.size: " + properties.size());
                     }
                     synchronized (jaxbMap) {
                         // Add the context value with the original package set
-                        ConcurrentHashMap<ClassLoader, JAXBContextValue> map1 = null;
-                        SoftReference<ConcurrentHashMap<ClassLoader, JAXBContextValue>> 
-                        softRef1 = jaxbMap.get(key);
-                        if (softRef1 != null) {
-                            map1 = softRef1.get();
-                        }
+                        ConcurrentHashMap<ClassLoader, JAXBContextValue> map1 = jaxbMap.get(key);
                         if (map1 == null) {
                             map1 = new ConcurrentHashMap<ClassLoader, JAXBContextValue>();
-                            softRef1 = 
-                                new SoftReference<ConcurrentHashMap<ClassLoader, JAXBContextValue>>(map1);
-                            jaxbMap.put(key, softRef1);
+                            jaxbMap.put(key, map1);
                         }
                         map1.put(clKey, contextValue);
 
                         String validPackagesKey = validContextPackages.toString();
 
                         // Add the context value with the new package set
-                        ConcurrentHashMap<ClassLoader, JAXBContextValue> map2 = null;
-                        SoftReference<ConcurrentHashMap<ClassLoader, JAXBContextValue>> 
-                        softRef2 = jaxbMap.get(validPackagesKey);
-                        if (softRef2 != null) {
-                            map2 = softRef2.get();
-                        }
+                        ConcurrentHashMap<ClassLoader, JAXBContextValue> map2 =
+                            jaxbMap.get(validPackagesKey);
                         if (map2 == null) {
                             map2 = new ConcurrentHashMap<ClassLoader, JAXBContextValue>();
-                            softRef2 = 
-                                new SoftReference<ConcurrentHashMap<ClassLoader, JAXBContextValue>>(map2);
-                            jaxbMap.put(validPackagesKey, softRef2);
+                            jaxbMap.put(validPackagesKey, map2);
                         }
                         map2.put(clKey, contextValue);
                         
@@ -343,14 +358,19 @@ public class JAXBUtils {
                             log.debug("JAXBContext [created] for " + key);
                             log.debug("JAXBContext also stored by the list of valid packages:" + validPackagesKey);
                         }
+                        evictJAXBContexts(contextValue);
                     }        
+                } else {
+                    contextHits.incrementAndGet();
                 }
             }
         } else {
+            contextHits.incrementAndGet();
             if (log.isDebugEnabled()) {
                 log.debug("JAXBContext [from pool] for " + key);
             }
         }
+        contextValue.lastUsed = System.nanoTime();
         if (log.isDebugEnabled()) {
             log.debug("JAXBContext constructionType= " + contextValue.constructionType);
             log.debug("JAXBContextValue = " + JavaUtils.getObjectIdentity(contextValue));
@@ -574,11 +594,7 @@ public class JAXBUtils {
                 log.debug("Recheck Cache Start: Some packages have been removed from the list.  Rechecking cache.");
             }
             String key = contextPackages.toString();
-            ConcurrentHashMap<ClassLoader, JAXBContextValue> innerMap = null;
-            SoftReference<ConcurrentHashMap<ClassLoader, JAXBContextValue>> softRef = jaxbMap.get(key);
-            if (softRef != null) {
-                innerMap = softRef.get();
-            }
+            ConcurrentHashMap<ClassLoader, JAXBContextValue> innerMap = jaxbMap.get(key);
 
             if (innerMap != null) {
                 contextValue = innerMap.get(cl);
@@ -1445,6 +1461,9 @@ public class JAXBUtils {
 
         public JAXBContext jaxbContext;
         public CONSTRUCTION_TYPE constructionType;
+        
+        // System.nanoTime() of the last lookup; used to find the least recently used context
+        volatile long lastUsed;
 
         public JAXBContextValue(JAXBContext jaxbContext, CONSTRUCTION_TYPE constructionType) {
             this.jaxbContext = jaxbContext;
@@ -1452,52 +1471,251 @@ public class JAXBUtils {
         }
     }
     
-    static private void adjustPoolSize(Map map) {
-        if (map.size() > MAX_LOAD_FACTOR) {
-            // Remove every other Entry in the map.
-            Iterator it = map.entrySet().iterator();
-            boolean removeIt = false;
+    /**
+     * Evict the least recently used JAXBContexts (and their pooled Marshallers, Unmarshallers
+     * and JAXBIntrospectors) until no more than MAX_LOAD_FACTOR are cached.  The caller must
+     * hold the jaxbMap lock.
+     * 
+     * @param added the JAXBContextValue that was just added; it is never evicted
+     */
+    private static void evictJAXBContexts(JAXBContextValue added) {
+        // The same JAXBContextValue may be stored under several keys
+        Set<JAXBContextValue> values = 
+            Collections.newSetFromMap(new IdentityHashMap<JAXBContextValue, Boolean>());
+        for (ConcurrentHashMap<ClassLoader, JAXBContextValue> innerMap : jaxbMap.values()) {
+            values.addAll(innerMap.values());
+        }
+        while (values.size() > MAX_LOAD_FACTOR) {
+            JAXBContextValue eldest = null;
+            for (JAXBContextValue value : values) {
+                if (value != added && (eldest == null || value.lastUsed < eldest.lastUsed)) {
+                    eldest = value;
+                }
+            }
+            if (eldest == null) {
+                return;
+            }
+            values.remove(eldest);
+            Iterator<ConcurrentHashMap<ClassLoader, JAXBContextValue>> it = 
+                jaxbMap.values().iterator();
             while (it.hasNext()) {
-                it.next();
-                if (removeIt) {
+                ConcurrentHashMap<ClassLoader, JAXBContextValue> innerMap = it.next();
+                Iterator<JAXBContextValue> valueIt = innerMap.values().iterator();
+                while (valueIt.hasNext()) {
+                    if (valueIt.next() == eldest) {
+                        valueIt.remove();
+                    }
+                }
+                if (innerMap.isEmpty()) {
                     it.remove();
                 }
-                removeIt = !removeIt;
+            }
+            mpool.remove(eldest.jaxbContext);
+            upool.remove(eldest.jaxbContext);
+            ipool.remove(eldest.jaxbContext);
+            contextEvictions.incrementAndGet();
+            if (log.isDebugEnabled()) {
+                log.debug("JAXBContext [evicted] " + JavaUtils.getObjectIdentity(eldest.jaxbContext));
             }
         }
     }
 
     /**
-     * Pool a list of items for a specific key
+     * Remove the JAXBContexts (and their pooled Marshallers, Unmarshallers and
+     * JAXBIntrospectors) that were cached for the given ClassLoader or one of its
+     * descendants.  This must be called when an application is undeployed; otherwise the
+     * cached JAXBContexts keep its ClassLoader and all of its classes reachable.
+     * 
+     * @param classLoader the ClassLoader of the application
+     */
+    public static void removeJAXBContexts(ClassLoader classLoader) {
+        if (classLoader == null) {
+            return;
+        }
+        synchronized (jaxbMap) {
+            Set<JAXBContextValue> removed = 
+                Collections.newSetFromMap(new IdentityHashMap<JAXBContextValue, Boolean>());
+            Iterator<ConcurrentHashMap<ClassLoader, JAXBContextValue>> it = 
+                jaxbMap.values().iterator();
+            while (it.hasNext()) {
+                ConcurrentHashMap<ClassLoader, JAXBContextValue> innerMap = it.next();
+                Iterator<Map.Entry<ClassLoader, JAXBContextValue>> entryIt = 
+                    innerMap.entrySet().iterator();
+                while (entryIt.hasNext()) {
+                    Map.Entry<ClassLoader, JAXBContextValue> entry = entryIt.next();
+                    if (isSameOrDescendant(entry.getKey(), classLoader)) {
+                        removed.add(entry.getValue());
+                        entryIt.remove();
+                    }
+                }
+                if (innerMap.isEmpty()) {
+                    it.remove();
+                }
+            }
+            for (JAXBContextValue value : removed) {
+                mpool.remove(value.jaxbContext);
+                upool.remove(value.jaxbContext);
+                ipool.remove(value.jaxbContext);
+                if (log.isDebugEnabled()) {
+                    log.debug("JAXBContext [removed] " + 
+                              JavaUtils.getObjectIdentity(value.jaxbContext));
+                }
+            }
+        }
+    }
+
+    private static boolean isSameOrDescendant(ClassLoader cl, ClassLoader ancestor) {
+        for (; cl != null; cl = cl.getParent()) {
+            if (cl == ancestor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void recordContextCreationTime(long time) {
+        totalContextCreationTime.addAndGet(time);
+        long max;
+        do {
+            max = maxContextCreationTime.get();
+        } while (time > max && !maxContextCreationTime.compareAndSet(max, time));
+    }
+
+    static long getJAXBContextHits() {
+        return contextHits.get();
+    }
+
+    static long getJAXBContextMisses() {
+        return contextMisses.get();
+    }
+
+    static long getJAXBContextEvictions() {
+        return contextEvictions.get();
+    }
+
+    /**
+     * @return the total time, in nanoseconds, spent creating JAXBContexts
+     */
+    static long getTotalJAXBContextCreationTime() {
+        return totalContextCreationTime.get();
+    }
+
+    /**
+     * @return the longest time, in nanoseconds, spent creating a single JAXBContext
+     */
+    static long getMaxJAXBContextCreationTime() {
+        return maxContextCreationTime.get();
+    }
+
+    static int getJAXBContextCount() {
+        Set<JAXBContextValue> values = 
+            Collections.newSetFromMap(new IdentityHashMap<JAXBContextValue, Boolean>());
+        for (ConcurrentHashMap<ClassLoader, JAXBContextValue> innerMap : jaxbMap.values()) {
+            values.addAll(innerMap.values());
+        }
+        return values.size();
+    }
+
+    static int getMaxJAXBContextCount() {
+        return MAX_LOAD_FACTOR;
+    }
+
+    static int getMaxPoolSize() {
+        return MAX_POOL_SIZE;
+    }
+
+    static Pool<JAXBContext, Marshaller> getMarshallerPool() {
+        return mpool;
+    }
+
+    static Pool<JAXBContext, Unmarshaller> getUnmarshallerPool() {
+        return upool;
+    }
+
+    static void resetStatistics() {
+        contextHits.set(0);
+        contextMisses.set(0);
+        contextEvictions.set(0);
+        totalContextCreationTime.set(0);
+        maxContextCreationTime.set(0);
+        mpool.resetStatistics();
+        upool.resetStatistics();
+        ipool.resetStatistics();
+    }
+
+    /**
+     * Register the JAXBUtilsView MBean with the platform MBeanServer. Registrations are counted:
+     * the MBean stays registered until {@link #unregisterMBean()} has been called as many times
+     * as this method.
+     */
+    public static synchronized void registerMBean() {
+        if (mbeanRegistrations++ > 0) {
+            return;
+        }
+        ObjectName name = null;
+        try {
+            MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+            String jmxAgentName = System.getProperty("jmx.agent.name");
+            if (jmxAgentName == null || "".equals(jmxAgentName)) {
+                jmxAgentName = "org.apache.axis2";
+            }
+            name = ObjectName.getInstance(jmxAgentName + ":Type=JAXWS,Name=JAXBUtils-"
+                    + Integer.toHexString(System.identityHashCode(JAXBUtils.class)));
+            mbs.registerMBean(new JAXBUtilsView(), name);
+            mbeanName = name;
+        } catch (Throwable t) {
+            log.warn("Error registering a MBean with objectname ' " + name +
+                    " ' for JMX management", t);
+        }
+    }
+
+    /**
+     * Release a registration made by {@link #registerMBean()}, and unregister the JAXBUtilsView
+     * MBean once the last one is released, so that it doesn't keep this class loader reachable.
+     */
+    public static synchronized void unregisterMBean() {
+        if (mbeanRegistrations == 0 || --mbeanRegistrations > 0 || mbeanName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(mbeanName);
+        } catch (Throwable t) {
+            log.warn("Error unregistering the MBean with objectname ' " + mbeanName + " '", t);
+        }
+        mbeanName = null;
+    }
+
+    static synchronized ObjectName getMBeanName() {
+        return mbeanName;
+    }
+
+    /**
+     * Pool a list of items for a specific key.  At most MAX_POOL_SIZE items are pooled per key,
+     * and get never waits: if the pool is empty, the caller creates a new item.
      *
      * @param <K> Key
      * @param <V> Pooled object
      */
-    private static class Pool<K,V> {
-        private SoftReference<Map<K,List<V>>> softMap = 
-            new SoftReference<Map<K,List<V>>>(
-                    new ConcurrentHashMap<K, List<V>>());
+    static class Pool<K,V> {
+        private final ConcurrentHashMap<K, BlockingQueue<V>> map = 
+            new ConcurrentHashMap<K, BlockingQueue<V>>();
 
-        // The maps are freed up when a LOAD FACTOR is hit
-        private static int MAX_LIST_FACTOR = 50;
-        
-        // Limit the adjustSize calls
-        private int count = 0;
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
         
         /**
          * @param key
          * @return removed item from pool or null.
          */
         public V get(K key) {
-            List<V> values = getValues(key);
-            synchronized (values) {
-                if (values.size()>0) {
-                    V v = values.remove(values.size()-1);
-                    return v;
-                    
-                }
+            BlockingQueue<V> values = map.get(key);
+            V v = values == null ? null : values.poll();
+            if (v == null) {
+                misses.incrementAndGet();
+            } else {
+                hits.incrementAndGet();
             }
-            return null;
+            return v;
         }
 
         /**
@@ -1506,65 +1724,37 @@ public class JAXBUtils {
          * @param value
          */
         public void put(K key, V value) {
-            adjustSize();
-            List<V> values = getValues(key);
-            synchronized (values) {
-                if (values.size() < MAX_LIST_FACTOR) {
-                    values.add(value);
+            BlockingQueue<V> values = map.get(key);
+            if (values == null) {
+                adjustSize();
+                values = new ArrayBlockingQueue<V>(MAX_POOL_SIZE);
+                BlockingQueue<V> existing = map.putIfAbsent(key, values);
+                if (existing != null) {
+                    values = existing;
                 }
             }
+            values.offer(value);
         }
 
         /**
-         * Get or create a list of the values for the key
+         * Discard the items pooled for the key
          * @param key
-         * @return list of values.
          */
-        private List<V> getValues(K key) {
-            Map<K,List<V>> map = softMap.get();
-            List<V> values = null;
-            if (map != null) {
-                values = map.get(key);
-                if(values !=null) {
-                    return values;
-                }
-            }
-            synchronized (this) {
-                if (map != null) {
-                    values = map.get(key);
-                }
-                if (values == null) {
-                    if (map == null) {
-                        map = new ConcurrentHashMap<K, List<V>>();
-                        softMap = 
-                            new SoftReference<Map<K,List<V>>>(map);
-                    }
-                    values = new ArrayList<V>();
-                    map.put(key, values);
-
-                }
-                return values;
-            }
+        public void remove(K key) {
+            map.remove(key);
         }
         
         /**
          * AdjustSize
          * When the number of keys exceeds the maximum load, half
-         * of the entries are deleted.
+         * of the entries are deleted.  Keys are normally removed when their JAXBContext
+         * is evicted; this only matters for JAXBContexts that are not cached by JAXBUtils.
          * 
          * The assumption is that the JAXBContexts, UnMarshallers, Marshallers, etc. require
          * a large footprint.
          */
         private void adjustSize() {
-            
-            // Don't check each time, map.size() can be expensive
-            count++;
-            if (count < 10) {
-                return;
-            }
-            count = 0;
-            Map<K,List<V>> map = softMap.get();
-            if (map != null && map.size() > MAX_LOAD_FACTOR) {
+            if (map.size() > MAX_LOAD_FACTOR) {
                 // Remove every other Entry in the map.
                 Iterator it = map.entrySet().iterator();
                 boolean removeIt = false;
@@ -1577,6 +1767,37 @@ public class JAXBUtils {
                 }
             }
         }
+
+        /**
+         * @return the number of items currently pooled
+         */
+        int size() {
+            int size = 0;
+            for (BlockingQueue<V> values : map.values()) {
+                size += values.size();
+            }
+            return size;
+        }
+
+        /**
+         * @return the number of calls to get that returned a pooled item
+         */
+        long getHits() {
+            return hits.get();
+        }
+
+        /**
+         * @return the number of calls to get that found the pool empty, so that the caller had
+         *         to create a new item
+         */
+        long getMisses() {
+            return misses.get();
+        }
+
+        void resetStatistics() {
+            hits.set(0);
+            misses.set(0);
+        }
     }
 
     private static Annotation getAnnotation(final AnnotatedElement element, final Class annotation) {
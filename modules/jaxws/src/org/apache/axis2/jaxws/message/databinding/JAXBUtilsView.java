@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.jaxws.message.databinding;
+
+/**
+ * Exposes the statistics of the JAXBContext cache and the Marshaller and Unmarshaller pools
+ * of {@link JAXBUtils}. The counters are cumulative since the last reset; times are in
+ * milliseconds. A pool miss means that no pooled instance was available and a new one had to
+ * be created, which is the closest thing to a wait since the pools never block.
+ */
+public class JAXBUtilsView implements JAXBUtilsViewMBean {
+
+    public int getJAXBContextCount() {
+        return JAXBUtils.getJAXBContextCount();
+    }
+
+    public int getMaxJAXBContextCount() {
+        return JAXBUtils.getMaxJAXBContextCount();
+    }
+
+    public long getJAXBContextHits() {
+        return JAXBUtils.getJAXBContextHits();
+    }
+
+    public long getJAXBContextMisses() {
+        return JAXBUtils.getJAXBContextMisses();
+    }
+
+    public long getJAXBContextEvictions() {
+        return JAXBUtils.getJAXBContextEvictions();
+    }
+
+    public double getAvgJAXBContextCreationTime() {
+        long count = JAXBUtils.getJAXBContextMisses();
+        return count == 0 ? 0 : JAXBUtils.getTotalJAXBContextCreationTime() / 1000000.0 / count;
+    }
+
+    public long getMaxJAXBContextCreationTime() {
+        return JAXBUtils.getMaxJAXBContextCreationTime() / 1000000;
+    }
+
+    public int getMaxPoolSize() {
+        return JAXBUtils.getMaxPoolSize();
+    }
+
+    public int getPooledMarshallers() {
+        return JAXBUtils.getMarshallerPool().size();
+    }
+
+    public long getMarshallerPoolHits() {
+        return JAXBUtils.getMarshallerPool().getHits();
+    }
+
+    public long getMarshallerPoolMisses() {
+        return JAXBUtils.getMarshallerPool().getMisses();
+    }
+
+    public int getPooledUnmarshallers() {
+        return JAXBUtils.getUnmarshallerPool().size();
+    }
+
+    public long getUnmarshallerPoolHits() {
+        return JAXBUtils.getUnmarshallerPool().getHits();
+    }
+
+    public long getUnmarshallerPoolMisses() {
+        return JAXBUtils.getUnmarshallerPool().getMisses();
+    }
+
+    public void resetStatistics() {
+        JAXBUtils.resetStatistics();
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.jaxws.message.databinding;
+
+public interface JAXBUtilsViewMBean {
+
+    // JMX Attributes
+    public int getJAXBContextCount();
+    public int getMaxJAXBContextCount();
+    public long getJAXBContextHits();
+    public long getJAXBContextMisses();
+    public long getJAXBContextEvictions();
+    public double getAvgJAXBContextCreationTime();
+    public long getMaxJAXBContextCreationTime();
+    public int getMaxPoolSize();
+    public int getPooledMarshallers();
+    public long getMarshallerPoolHits();
+    public long getMarshallerPoolMisses();
+    public int getPooledUnmarshallers();
+    public long getUnmarshallerPoolHits();
+    public long getUnmarshallerPoolMisses();
+
+    // JMX Operations
+    public void resetStatistics();
+}
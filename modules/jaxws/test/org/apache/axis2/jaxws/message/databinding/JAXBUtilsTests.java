@@ -27,10 +27,17 @@ import org.apache.ws.jaxb.a.Data3;
 import org.apache.ws.jaxb.b.BadData3;
 
 import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.Marshaller;
 import jakarta.xml.ws.Holder;
 
+import java.lang.management.ManagementFactory;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.util.TreeSet;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
 import junit.framework.TestCase;
 
 /**
@@ -76,4 +83,83 @@ public class JAXBUtilsTests extends TestCase {
         assertTrue(jbcString.indexOf(BadData2.class.getName()) < 0);
         assertTrue(jbcString.indexOf(BadData3.class.getName()) < 0);
     }
+
+    /**
+     * Validate that a JAXBContext is served from the cache on subsequent requests and that a
+     * released Marshaller is handed out again by the pool.
+     * @throws Exception
+     */
+    public void testContextCacheAndMarshallerPool() throws Exception {
+        TreeSet<String> contextPackages = new TreeSet<String>();
+        contextPackages.add("org.apache.ws.jaxb.a");
+        String key = contextPackages.toString();
+        
+        JAXBContext jbc = JAXBUtils.getJAXBContext(contextPackages, 
+                                                   new Holder<CONSTRUCTION_TYPE>(), key);
+        long hits = JAXBUtils.getJAXBContextHits();
+        JAXBContext jbc2 = JAXBUtils.getJAXBContext(contextPackages, 
+                                                    new Holder<CONSTRUCTION_TYPE>(), key);
+        assertSame(jbc, jbc2);
+        assertEquals(hits + 1, JAXBUtils.getJAXBContextHits());
+        
+        Marshaller m = JAXBUtils.getJAXBMarshaller(jbc);
+        JAXBUtils.releaseJAXBMarshaller(jbc, m);
+        long poolHits = JAXBUtils.getMarshallerPool().getHits();
+        assertSame(m, JAXBUtils.getJAXBMarshaller(jbc));
+        assertEquals(poolHits + 1, JAXBUtils.getMarshallerPool().getHits());
+    }
+
+    /**
+     * Validate that the JAXBContexts cached for a ClassLoader and its descendants (and their
+     * pooled Marshallers) are discarded when the ClassLoader is removed, as on undeploy.
+     * @throws Exception
+     */
+    public void testRemoveJAXBContexts() throws Exception {
+        TreeSet<String> contextPackages = new TreeSet<String>();
+        contextPackages.add("org.apache.ws.jaxb.a");
+        String key = contextPackages.toString();
+        ClassLoader appClassLoader = new URLClassLoader(new URL[0], getClass().getClassLoader());
+        ClassLoader childClassLoader = new URLClassLoader(new URL[0], appClassLoader);
+        
+        JAXBContext jbc = JAXBUtils.getJAXBContext(contextPackages, 
+                new Holder<CONSTRUCTION_TYPE>(), key, appClassLoader, null);
+        JAXBContext childJbc = JAXBUtils.getJAXBContext(contextPackages, 
+                new Holder<CONSTRUCTION_TYPE>(), key, childClassLoader, null);
+        JAXBContext otherJbc = JAXBUtils.getJAXBContext(contextPackages, 
+                new Holder<CONSTRUCTION_TYPE>(), key, getClass().getClassLoader(), null);
+        Marshaller m = JAXBUtils.getJAXBMarshaller(jbc);
+        JAXBUtils.releaseJAXBMarshaller(jbc, m);
+        
+        JAXBUtils.removeJAXBContexts(appClassLoader);
+        
+        assertNotSame(m, JAXBUtils.getJAXBMarshaller(jbc));
+        assertNotSame(jbc, JAXBUtils.getJAXBContext(contextPackages, 
+                new Holder<CONSTRUCTION_TYPE>(), key, appClassLoader, null));
+        assertNotSame(childJbc, JAXBUtils.getJAXBContext(contextPackages, 
+                new Holder<CONSTRUCTION_TYPE>(), key, childClassLoader, null));
+        assertSame(otherJbc, JAXBUtils.getJAXBContext(contextPackages, 
+                new Holder<CONSTRUCTION_TYPE>(), key, getClass().getClassLoader(), null));
+    }
+
+    /**
+     * Validate that the JAXBUtilsView MBean is only registered on request and is unregistered
+     * once every registration has been released.
+     * @throws Exception
+     */
+    public void testMBeanRegistration() throws Exception {
+        MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+        assertNull(JAXBUtils.getMBeanName());
+        
+        JAXBUtils.registerMBean();
+        JAXBUtils.registerMBean();
+        ObjectName name = JAXBUtils.getMBeanName();
+        assertNotNull(name);
+        assertTrue(mbs.isRegistered(name));
+        
+        JAXBUtils.unregisterMBean();
+        assertTrue(mbs.isRegistered(name));
+        JAXBUtils.unregisterMBean();
+        assertFalse(mbs.isRegistered(name));
+        assertNull(JAXBUtils.getMBeanName());
+    }
 }
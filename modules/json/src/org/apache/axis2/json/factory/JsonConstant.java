@@ -36,6 +36,8 @@ public class JsonConstant {
 
     public static final String XMLNODES = "xmlnodes";
 
+    public static final String DIRECT_BINDING = "jsonDirectBinding";
+
 
 //    error messages
 
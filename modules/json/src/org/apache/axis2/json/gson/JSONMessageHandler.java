@@ -19,7 +19,9 @@
 
 package org.apache.axis2.json.gson;
 
+import org.apache.axiom.om.OMAbstractFactory;
 import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMFactory;
 import org.apache.axiom.om.OMXMLBuilderFactory;
 import org.apache.axiom.om.OMXMLParserWrapper;
 import org.apache.axis2.AxisFault;
@@ -80,6 +82,14 @@ public class JSONMessageHandler extends AbstractHandler {
                         GsonXMLStreamReader gsonXMLStreamReader = (GsonXMLStreamReader) o;
                         QName elementQname = msgContext.getAxisOperation().getMessage(WSDLConstants.MESSAGE_LABEL_IN_VALUE).getElementQName();
                         List<XmlSchema> schemas = msgContext.getAxisService().getSchema();
+                        if (messageReceiver instanceof JsonDirectMessageReceiver || messageReceiver instanceof JsonDirectInOnlyMessageReceiver) {
+                            // the message receiver binds the JSON stream directly, unless a handler expands the body first
+                            OMFactory factory = OMAbstractFactory.getOMFactory();
+                            msgContext.getEnvelope().getBody().addChild(factory.createOMElement(
+                                    new JsonStreamDataSource(gsonXMLStreamReader, elementQname, schemas, msgContext.getConfigurationContext()),
+                                    elementQname));
+                            return InvocationResponse.CONTINUE;
+                        }
                         gsonXMLStreamReader.initXmlStreamReader(elementQname, schemas, msgContext.getConfigurationContext());
                         OMXMLParserWrapper stAXOMBuilder = OMXMLBuilderFactory.createStAXOMBuilder(gsonXMLStreamReader);
                         OMElement omElement = stAXOMBuilder.getDocumentElement();
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.json.gson;
+
+import org.apache.axiom.om.ds.AbstractPullOMDataSource;
+import org.apache.axis2.databinding.typemapping.SimpleTypeMapper;
+import org.apache.axis2.databinding.utils.reader.ADBXMLStreamReaderImpl;
+import org.apache.axis2.description.java2wsdl.TypeTable;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Data source for a response element whose content is the return value of a service method
+ * invoked by {@link JsonDirectMessageReceiver}. The XML representation is generated from the
+ * objects only if the element is expanded, e.g. because a handler inspects the message body;
+ * otherwise {@link JsonFormatter} writes the objects to JSON directly.
+ */
+public class JsonBoundDataSource extends AbstractPullOMDataSource {
+
+    private final QName element;
+    private final QName[] names;
+    private final Object[] values;
+    private final TypeTable typeTable;
+    private final boolean qualified;
+
+    public JsonBoundDataSource(QName element, QName[] names, Object[] values,
+                               TypeTable typeTable, boolean qualified) {
+        this.element = element;
+        this.names = names;
+        this.values = values;
+        this.typeTable = typeTable;
+        this.qualified = qualified;
+    }
+
+    public XMLStreamReader getReader() throws XMLStreamException {
+        List<Object> properties = new ArrayList<Object>();
+        for (int i = 0; i < names.length; i++) {
+            Object value = values[i];
+            if (value instanceof Collection) {
+                for (Object item : (Collection<?>) value) {
+                    addProperty(properties, names[i], item);
+                }
+            } else if (value != null && value.getClass().isArray() && !(value instanceof byte[])) {
+                for (int j = 0; j < Array.getLength(value); j++) {
+                    addProperty(properties, names[i], Array.get(value, j));
+                }
+            } else {
+                addProperty(properties, names[i], value);
+            }
+        }
+        return new ADBXMLStreamReaderImpl(element, properties.toArray(), new Object[0], typeTable,
+                qualified);
+    }
+
+    private static void addProperty(List<Object> properties, QName name, Object value) {
+        properties.add(name);
+        properties.add(value != null && SimpleTypeMapper.isSimpleType(value)
+                ? SimpleTypeMapper.getStringValue(value) : value);
+    }
+
+    public boolean isDestructiveRead() {
+        return false;
+    }
+
+    /**
+     * @return the bound objects
+     */
+    @Override
+    public Object getObject() {
+        return values;
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.json.gson;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axiom.om.OMDataSource;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMFactory;
+import org.apache.axiom.om.OMSourcedElement;
+import org.apache.axiom.soap.SOAPEnvelope;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.description.AxisMessage;
+import org.apache.axis2.description.AxisOperation;
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.json.factory.XmlNode;
+import org.apache.axis2.json.factory.XmlNodeGenerator;
+import org.apache.axis2.wsdl.WSDLConstants;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.xml.namespace.QName;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binds the JSON messages of an operation directly to the parameters and the return value of
+ * the service method, without going through {@link GsonXMLStreamReader},
+ * {@link GsonXMLStreamWriter} and an OM tree. The names of the JSON members are taken from the
+ * schema of the operation's messages, so the JSON format is the same as on the XML stream
+ * based path, e.g. <code>{"echoPerson":{"arg0":{...}}}</code> and
+ * <code>{"echoPersonResponse":{"return":{...}}}</code>.
+ * <p>
+ * A binding is built on the first request and cached as a parameter of the
+ * {@link AxisOperation}. It is used by {@link JsonDirectMessageReceiver} and
+ * {@link JsonDirectInOnlyMessageReceiver}, as long as no handler has expanded the request body.
+ */
+public class JsonDirectBinding {
+
+    private static final Log log = LogFactory.getLog(JsonDirectBinding.class);
+
+    public static final String PARAM_NAME = JsonDirectBinding.class.getName();
+
+    private static final Gson GSON = new Gson();
+
+    // XSS protection, encode JSON Strings as HTML, as in JsonFormatter
+    private static final Gson RESPONSE_GSON = new GsonBuilder()
+            .registerTypeAdapter(String.class, new JsonHtmlEncoder()).create();
+
+    private final Class<?> implClass;
+    private final Method method;
+    private final QName requestElement;
+    private final Map<String, Integer> argumentIndex = new HashMap<String, Integer>();
+    private final TypeAdapter<?>[] adapters;
+    private final Object[] defaultValues;
+    private final QName responseElement;
+    private final QName returnName;
+
+    private JsonDirectBinding(AxisOperation op, AxisService service, Class<?> implClass,
+                              Method method) throws AxisFault {
+        this.implClass = implClass;
+        this.method = method;
+
+        AxisMessage inMessage = op.getMessage(WSDLConstants.MESSAGE_LABEL_IN_VALUE);
+        requestElement = inMessage.getElementQName();
+        List<XmlNode> children = getChildElements(service, requestElement);
+        Class<?>[] paramClasses = method.getParameterTypes();
+        if (children.size() != paramClasses.length) {
+            throw new AxisFault("The schema of " + requestElement + " does not match the "
+                    + paramClasses.length + " parameters of method " + method.getName());
+        }
+
+        adapters = new TypeAdapter<?>[paramClasses.length];
+        defaultValues = new Object[paramClasses.length];
+        for (int i = 0; i < paramClasses.length; i++) {
+            XmlNode child = children.get(i);
+            argumentIndex.put(child.getName(), i);
+            adapters[i] = GSON.getAdapter(TypeToken.get(method.getGenericParameterTypes()[i]));
+            if (paramClasses[i].isPrimitive()) {
+                // a missing member leaves a primitive parameter at its default value
+                defaultValues[i] = Array.get(Array.newInstance(paramClasses[i], 1), 0);
+            }
+        }
+
+        AxisMessage outMessage = op.getMessage(WSDLConstants.MESSAGE_LABEL_OUT_VALUE);
+        if (outMessage != null && outMessage.getElementQName() != null) {
+            responseElement = outMessage.getElementQName();
+            List<XmlNode> returnNodes = getChildElements(service, responseElement);
+            returnName = returnNodes.isEmpty() ? new QName("return")
+                    : new QName(returnNodes.get(0).getNamespaceUri(), returnNodes.get(0).getName());
+        } else {
+            responseElement = null;
+            returnName = null;
+        }
+    }
+
+    private static List<XmlNode> getChildElements(AxisService service, QName element)
+            throws AxisFault {
+        XmlNode node = new XmlNodeGenerator(service.getSchema(), element).getMainXmlNode();
+        List<XmlNode> children = new ArrayList<XmlNode>();
+        for (XmlNode child : node.getChildrenList()) {
+            if (!child.isAttribute()) {
+                children.add(child);
+            }
+        }
+        return children;
+    }
+
+    /**
+     * Get the binding of the given operation, creating and caching it on first use.
+     *
+     * @param op the operation
+     * @param service the service, whose schema describes the messages of the operation
+     * @param implClass the class of the service implementation object
+     * @return the binding
+     * @throws AxisFault if the service class has no matching method for the operation
+     */
+    public static JsonDirectBinding getBinding(AxisOperation op, AxisService service,
+                                               Class<?> implClass) throws AxisFault {
+        JsonDirectBinding binding = (JsonDirectBinding) op.getParameterValue(PARAM_NAME);
+        // If the implementation class has changed, then the cached binding is invalid (see AXIS2-3947)
+        if (binding == null || binding.implClass != implClass) {
+            String methodName = op.getName().getLocalPart();
+            Method method = null;
+            for (Method candidate : implClass.getMethods()) {
+                if (!candidate.isBridge() && candidate.getName().equals(methodName)) {
+                    method = candidate;
+                    break;
+                }
+            }
+            if (method == null) {
+                throw new AxisFault("No such method '" + methodName +
+                        "' in class " + implClass.getName());
+            }
+            binding = new JsonDirectBinding(op, service, implClass, method);
+            op.addParameter(PARAM_NAME, binding);
+        }
+        return binding;
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public QName getRequestElement() {
+        return requestElement;
+    }
+
+    public QName getResponseElement() {
+        return responseElement;
+    }
+
+    /**
+     * Read the arguments of the service method from the JSON request. Members are matched by
+     * name, so their order doesn't matter; unknown members are skipped.
+     *
+     * @param jsonReader the reader positioned at the start of the request
+     * @return the arguments
+     * @throws IOException if the request doesn't match the operation or can't be parsed
+     */
+    public Object[] readArguments(JsonReader jsonReader) throws IOException {
+        Object[] args = defaultValues.clone();
+        jsonReader.setLenient(true);
+        jsonReader.beginObject();
+        String messageName = jsonReader.nextName();
+        if (!requestElement.getLocalPart().equals(messageName)) {
+            log.error("JsonDirectBinding.readArguments() messageName: " + messageName + " does not match the request element " + requestElement);
+            throw new IOException("Bad Request");
+        }
+        if (jsonReader.peek() == JsonToken.NULL) {
+            jsonReader.nextNull();
+        } else {
+            jsonReader.beginObject();
+            while (jsonReader.hasNext()) {
+                String name = jsonReader.nextName();
+                Integer index = argumentIndex.get(name);
+                if (index == null) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("JsonDirectBinding.readArguments() skipping unknown member: " + name);
+                    }
+                    jsonReader.skipValue();
+                } else {
+                    Object value = adapters[index].read(jsonReader);
+                    if (value != null || defaultValues[index] == null) {
+                        args[index] = value;
+                    }
+                }
+            }
+            jsonReader.endObject();
+        }
+        jsonReader.endObject();
+        return args;
+    }
+
+    public Object invoke(Object service, Object[] args)
+            throws InvocationTargetException, IllegalAccessException {
+        return method.invoke(service, args);
+    }
+
+    /**
+     * Write the return value of the service method as the JSON response.
+     *
+     * @param jsonWriter the writer
+     * @param returnValue the value returned by the service method
+     * @throws IOException if the response can't be written
+     */
+    public void writeResponse(JsonWriter jsonWriter, Object returnValue) throws IOException {
+        jsonWriter.beginObject();
+        jsonWriter.name(responseElement.getLocalPart());
+        jsonWriter.beginObject();
+        if (method.getReturnType() != void.class) {
+            jsonWriter.name(returnName.getLocalPart());
+            RESPONSE_GSON.toJson(returnValue, method.getGenericReturnType(), jsonWriter);
+        }
+        jsonWriter.endObject();
+        jsonWriter.endObject();
+        jsonWriter.flush();
+    }
+
+    /**
+     * Create the body element of the response. The element is backed by the return value and
+     * is only expanded into an OM tree if a handler accesses its content.
+     */
+    public OMSourcedElement createResponseElement(Object returnValue, AxisService service) {
+        QName[] names = new QName[0];
+        Object[] values = new Object[0];
+        if (method.getReturnType() != void.class) {
+            names = new QName[] { returnName };
+            values = new Object[] { returnValue };
+        }
+        OMFactory factory = OMAbstractFactory.getOMFactory();
+        return factory.createOMElement(new JsonBoundDataSource(responseElement, names, values,
+                service.getTypeTable(), service.isElementFormDefault()), responseElement);
+    }
+
+    /**
+     * Get the data source of the first element of the body, if it has not been expanded.
+     *
+     * @param envelope the envelope, may be <code>null</code>
+     * @return the data source, or <code>null</code> if the body content is not an unexpanded
+     *         {@link OMSourcedElement}
+     */
+    static OMDataSource getUnexpandedDataSource(SOAPEnvelope envelope) {
+        if (envelope == null || envelope.getBody() == null) {
+            return null;
+        }
+        OMElement element = envelope.getBody().getFirstElement();
+        if (element instanceof OMSourcedElement && !((OMSourcedElement) element).isExpanded()) {
+            return ((OMSourcedElement) element).getDataSource();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.json.gson;
+
+import com.google.gson.stream.JsonReader;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.description.AxisOperation;
+import org.apache.axis2.rpc.receivers.RPCInOnlyMessageReceiver;
+
+/**
+ * In-only variant of {@link JsonDirectMessageReceiver}.
+ */
+public class JsonDirectInOnlyMessageReceiver extends RPCInOnlyMessageReceiver {
+
+    @Override
+    public void invokeBusinessLogic(MessageContext inMessage) throws AxisFault {
+        JsonReader jsonReader = JsonDirectMessageReceiver.getUnexpandedJsonReader(inMessage);
+        if (jsonReader == null) {
+            super.invokeBusinessLogic(inMessage);
+            return;
+        }
+        Object serviceObj = getTheImplementationObject(inMessage);
+        AxisOperation op = inMessage.getOperationContext().getAxisOperation();
+        JsonDirectBinding binding = JsonDirectBinding.getBinding(op, inMessage.getAxisService(),
+                serviceObj.getClass());
+        JsonDirectMessageReceiver.invoke(binding, jsonReader, serviceObj);
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.json.gson;
+
+import com.google.gson.stream.JsonReader;
+import org.apache.axiom.om.OMDataSource;
+import org.apache.axiom.soap.SOAPEnvelope;
+import org.apache.axiom.soap.SOAPFactory;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.description.AxisOperation;
+import org.apache.axis2.json.factory.JsonConstant;
+import org.apache.axis2.rpc.receivers.RPCMessageReceiver;
+import org.apache.axis2.wsdl.WSDLConstants;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Message receiver for POJO services that binds JSON requests directly to the parameters of
+ * the service method, using {@link JsonDirectBinding}, and lets {@link JsonFormatter} write the
+ * return value directly as JSON. The JSON format is the same as with
+ * {@link RPCMessageReceiver}, which is used instead if the request is not JSON or if a
+ * handler has expanded the request body into an OM tree.
+ */
+public class JsonDirectMessageReceiver extends RPCMessageReceiver {
+    private static final Log log = LogFactory.getLog(JsonDirectMessageReceiver.class);
+
+    @Override
+    public void invokeBusinessLogic(MessageContext inMessage, MessageContext outMessage) throws AxisFault {
+        JsonReader jsonReader = getUnexpandedJsonReader(inMessage);
+        AxisOperation op = inMessage.getOperationContext().getAxisOperation();
+        if (jsonReader == null || op.getMessage(WSDLConstants.MESSAGE_LABEL_OUT_VALUE) == null) {
+            super.invokeBusinessLogic(inMessage, outMessage);
+            return;
+        }
+
+        Object serviceObj = getTheImplementationObject(inMessage);
+        JsonDirectBinding binding = JsonDirectBinding.getBinding(op, inMessage.getAxisService(),
+                serviceObj.getClass());
+        Object retObj = invoke(binding, jsonReader, serviceObj);
+
+        SOAPFactory fac = getSOAPFactory(inMessage);
+        SOAPEnvelope envelope = fac.getDefaultEnvelope();
+        envelope.getBody().addChild(binding.createResponseElement(retObj,
+                inMessage.getAxisService()));
+        outMessage.setEnvelope(envelope);
+        outMessage.setProperty(JsonConstant.DIRECT_BINDING, binding);
+        outMessage.setProperty(JsonConstant.RETURN_OBJECT, retObj);
+    }
+
+    /**
+     * Get the JSON reader of the request, unless the request is not JSON or a handler has
+     * already consumed the stream by expanding the body.
+     */
+    static JsonReader getUnexpandedJsonReader(MessageContext inMessage) {
+        Object tempObj = inMessage.getProperty(JsonConstant.IS_JSON_STREAM);
+        if (tempObj == null || !Boolean.valueOf(tempObj.toString())) {
+            return null;
+        }
+        OMDataSource dataSource = JsonDirectBinding.getUnexpandedDataSource(inMessage.getEnvelope());
+        if (dataSource instanceof JsonStreamDataSource) {
+            return ((GsonXMLStreamReader) ((JsonStreamDataSource) dataSource).getObject())
+                    .getJsonReader();
+        }
+        return null;
+    }
+
+    static Object invoke(JsonDirectBinding binding, JsonReader jsonReader, Object serviceObj)
+            throws AxisFault {
+        String msg;
+        try {
+            return binding.invoke(serviceObj, binding.readArguments(jsonReader));
+        } catch (IllegalAccessException e) {
+            msg = "Does not have access to " +
+                    "the definition of the specified class, field, method or constructor";
+            log.error(msg, e);
+            throw AxisFault.makeFault(e);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof AxisFault) {
+                throw (AxisFault) cause;
+            }
+            msg = "Exception occurred while trying to invoke service method " +
+                    binding.getMethod().getName();
+            log.error(msg, e);
+            throw AxisFault.makeFault(cause != null ? cause : e);
+        } catch (IOException e) {
+            msg = "Exception occur while reading the JSON request at the JsonDirectMessageReceiver";
+            log.error(msg, e);
+            throw new AxisFault("Bad Request", e);
+        } catch (RuntimeException e) {
+            // Gson reports malformed input with unchecked exceptions
+            msg = "Exception occur while reading the JSON request at the JsonDirectMessageReceiver";
+            log.error(msg, e);
+            throw new AxisFault("Bad Request", e);
+        }
+    }
+}
@@ -79,6 +79,21 @@ public class JsonFormatter implements MessageFormatter {
                     throw new AxisFault("Error while processing fault code in JsonWriter");
                 }
 
+            } else if (outMsgCtxt.getProperty(JsonConstant.DIRECT_BINDING) != null
+                    && JsonDirectBinding.getUnexpandedDataSource(outMsgCtxt.getEnvelope())
+                            instanceof JsonBoundDataSource) {
+                // the response element has not been touched by a handler, so write the
+                // return value directly instead of going through GsonXMLStreamWriter
+                JsonDirectBinding binding =
+                        (JsonDirectBinding) outMsgCtxt.getProperty(JsonConstant.DIRECT_BINDING);
+                try {
+                    binding.writeResponse(jsonWriter, retObj);
+                } catch (IOException e) {
+                    msg = "Exception occur while writting to JsonWriter at the JsonFormatter ";
+                    log.error(msg, e);
+                    throw AxisFault.makeFault(e);
+                }
+
             } else if (retObj == null) {
                 OMElement element = outMsgCtxt.getEnvelope().getBody().getFirstElement();
                 QName elementQname = outMsgCtxt.getAxisOperation().getMessage
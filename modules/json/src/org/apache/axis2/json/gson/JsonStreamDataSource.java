@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.json.gson;
+
+import org.apache.axiom.om.ds.AbstractPullOMDataSource;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.ws.commons.schema.XmlSchema;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.util.List;
+
+/**
+ * Data source for the body element of a JSON request that is processed by
+ * {@link JsonDirectMessageReceiver} or {@link JsonDirectInOnlyMessageReceiver}. The JSON stream
+ * is only converted to XML through {@link GsonXMLStreamReader} if a handler expands the
+ * element; otherwise the message receiver binds the JSON stream directly to Java objects.
+ */
+public class JsonStreamDataSource extends AbstractPullOMDataSource {
+
+    private final GsonXMLStreamReader gsonXMLStreamReader;
+    private final QName elementQname;
+    private final List<XmlSchema> schemas;
+    private final ConfigurationContext configContext;
+
+    public JsonStreamDataSource(GsonXMLStreamReader gsonXMLStreamReader, QName elementQname,
+                                List<XmlSchema> schemas, ConfigurationContext configContext) {
+        this.gsonXMLStreamReader = gsonXMLStreamReader;
+        this.elementQname = elementQname;
+        this.schemas = schemas;
+        this.configContext = configContext;
+    }
+
+    public XMLStreamReader getReader() throws XMLStreamException {
+        try {
+            gsonXMLStreamReader.initXmlStreamReader(elementQname, schemas, configContext);
+        } catch (AxisFault e) {
+            throw new XMLStreamException("Error while initializing GsonXMLStreamReader", e);
+        }
+        return gsonXMLStreamReader;
+    }
+
+    public boolean isDestructiveRead() {
+        // the JSON stream can only be read once
+        return true;
+    }
+
+    @Override
+    public Object getObject() {
+        return gsonXMLStreamReader;
+    }
+}
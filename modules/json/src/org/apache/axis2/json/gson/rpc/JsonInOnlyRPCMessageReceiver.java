@@ -56,9 +56,11 @@ public class JsonInOnlyRPCMessageReceiver extends RPCInOnlyMessageReceiver {
                 }
                 Object serviceObj = getTheImplementationObject(inMessage);
                 AxisOperation op = inMessage.getOperationContext().getAxisOperation();
-                String operation = op.getName().getLocalPart();
-                log.debug("JsonInOnlyRPCMessageReceiver.invokeBusinessLogic() executing invokeService() with operation: " + operation);
-                invokeService(jsonReader, serviceObj, operation);
+                if (log.isDebugEnabled()) {
+                    log.debug("JsonInOnlyRPCMessageReceiver.invokeBusinessLogic() executing invokeService() with operation: " + op.getName().getLocalPart());
+                }
+                JsonInvocationPlan plan = JsonInvocationPlan.getPlan(op, serviceObj.getClass());
+                invokeService(jsonReader, serviceObj, plan);
             } else {
                 throw new AxisFault("GsonXMLStreamReader should have put as a property of messageContext " +
                         "to evaluate JSON message");
@@ -69,14 +71,15 @@ public class JsonInOnlyRPCMessageReceiver extends RPCInOnlyMessageReceiver {
     }
 
     public void invokeService(JsonReader jsonReader, Object serviceObj, String operation_name) throws AxisFault {
+        invokeService(jsonReader, serviceObj,
+                JsonInvocationPlan.create(serviceObj.getClass(), operation_name));
+    }
+
+    public void invokeService(JsonReader jsonReader, Object serviceObj, JsonInvocationPlan plan) throws AxisFault {
         String msg;
-        Class implClass = serviceObj.getClass();
-        Method[] allMethods = implClass.getDeclaredMethods();
-        Method method = JsonUtils.getOpMethod(operation_name, allMethods);
-        Class[] paramClasses = method.getParameterTypes();
+        Method method = plan.getMethod();
         try {
-            int paramCount = paramClasses.length;
-            JsonUtils.invokeServiceClass(jsonReader, serviceObj, method, paramClasses, paramCount);
+            plan.invoke(jsonReader, serviceObj);
         } catch (IllegalAccessException e) {
             msg = "Does not have access to " +
                     "the definition of the specified class, field, method or constructor";
@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.json.gson.rpc;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.description.AxisOperation;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+/**
+ * The service method of a JSON RPC operation, resolved once together with the Gson type
+ * adapters of its parameters and a method handle to invoke it. The plan is cached as a
+ * parameter of the {@link AxisOperation}, so that requests don't need to scan the methods of
+ * the service class or look up type adapters.
+ */
+public class JsonInvocationPlan {
+
+    private static final Log log = LogFactory.getLog(JsonInvocationPlan.class);
+
+    public static final String PARAM_NAME = JsonInvocationPlan.class.getName();
+
+    /** Wraps an exception thrown by the service method; see {@link #rethrow(Throwable)} */
+    private static final MethodHandle RETHROW;
+
+    static {
+        try {
+            RETHROW = MethodHandles.lookup().findStatic(JsonInvocationPlan.class, "rethrow",
+                    MethodType.methodType(Object.class, Throwable.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Class<?> implClass;
+    private final Method method;
+    private final MethodHandle invoker;
+    private final TypeAdapter<?>[] adapters;
+
+    private JsonInvocationPlan(Class<?> implClass, Method method) {
+        this.implClass = implClass;
+        this.method = method;
+
+        Class<?>[] paramClasses = method.getParameterTypes();
+        Type[] paramTypes = method.getGenericParameterTypes();
+        adapters = new TypeAdapter<?>[paramClasses.length];
+        for (int i = 0; i < paramClasses.length; i++) {
+            Type type = paramTypes[i] instanceof ParameterizedType ? paramTypes[i] : paramClasses[i];
+            adapters[i] = JsonUtils.GSON.getAdapter(TypeToken.get(type));
+        }
+
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.lookup().unreflect(method);
+            // only the exceptions thrown by the method itself are wrapped, so that errors
+            // binding the arguments are reported like those of Method.invoke
+            handle = MethodHandles.catchException(handle, Throwable.class,
+                    MethodHandles.dropArguments(RETHROW.asType(MethodType.methodType(
+                            handle.type().returnType(), Throwable.class)),
+                            1, handle.type().parameterList()));
+            if (Modifier.isStatic(method.getModifiers())) {
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            handle = handle.asSpreader(Object[].class, paramClasses.length)
+                    .asType(MethodType.methodType(Object.class, Object.class, Object[].class));
+        } catch (IllegalAccessException e) {
+            // fall back to reflection, which reports the access problem on invocation
+            log.debug("Unable to create a method handle for " + method, e);
+            handle = null;
+        }
+        invoker = handle;
+    }
+
+    /**
+     * Get the plan of the given operation, creating and caching it on first use.
+     *
+     * @param op the operation
+     * @param implClass the class of the service implementation object
+     * @return the plan
+     * @throws AxisFault if the service class has no method for the operation, or if the
+     *         parameters of the method can't be bound to JSON
+     */
+    public static JsonInvocationPlan getPlan(AxisOperation op, Class<?> implClass) throws AxisFault {
+        JsonInvocationPlan plan = (JsonInvocationPlan) op.getParameterValue(PARAM_NAME);
+        // If the implementation class has changed, then the cached plan is invalid (see AXIS2-3947)
+        if (plan == null || plan.implClass != implClass) {
+            plan = create(implClass, op.getName().getLocalPart());
+            op.addParameter(PARAM_NAME, plan);
+        }
+        return plan;
+    }
+
+    public static JsonInvocationPlan create(Class<?> implClass, String operationName)
+            throws AxisFault {
+        Method method = JsonUtils.getOpMethod(operationName, implClass.getDeclaredMethods());
+        if (method == null) {
+            throw new AxisFault("No such method '" + operationName +
+                    "' in class " + implClass.getName());
+        }
+        try {
+            return new JsonInvocationPlan(implClass, method);
+        } catch (IllegalArgumentException e) {
+            throw new AxisFault("Unable to bind the parameters of method '" + operationName +
+                    "' in class " + implClass.getName() + " to JSON", e);
+        }
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public Class<?> getReturnType() {
+        return method.getReturnType();
+    }
+
+    /**
+     * Read the arguments of the operation from the JSON request, which has the form
+     * <code>{"operation":[{"arg0":value},{"arg1":value}]}</code>.
+     *
+     * @param jsonReader the reader positioned at the start of the request
+     * @return the arguments
+     * @throws IOException if the request doesn't match the operation
+     */
+    public Object[] readArguments(JsonReader jsonReader) throws IOException {
+        Object[] methodParam = new Object[adapters.length];
+        try {
+            if (!jsonReader.isLenient()) {
+                jsonReader.setLenient(true);
+            }
+            jsonReader.beginObject();
+            String messageName = jsonReader.nextName();     // get message name from input json stream
+            if (messageName == null || !messageName.equals(method.getName())) {
+                log.error("JsonInvocationPlan.readArguments() throwing IOException, messageName: " + messageName + " is unknown, it does not match the axis2 operation, the method name: " + method.getName());
+                throw new IOException("Bad Request");
+            }
+            jsonReader.beginArray();
+
+            for (int i = 0; i < adapters.length; i++) {
+                jsonReader.beginObject();
+                String argName = jsonReader.nextName();
+                if (log.isDebugEnabled()) {
+                    log.debug("JsonInvocationPlan.readArguments() on messageName: " + messageName + " , is currently processing argName: " + argName);
+                }
+                methodParam[i] = adapters[i].read(jsonReader);
+                jsonReader.endObject();
+            }
+
+            jsonReader.endArray();
+            jsonReader.endObject();
+        } catch (Exception ex) {
+            log.error(ex.getMessage(), ex);
+            throw new IOException("Bad Request");
+        }
+        return methodParam;
+    }
+
+    /**
+     * Invoke the service method.
+     *
+     * @param service the service implementation object
+     * @param args the arguments, as returned by {@link #readArguments(JsonReader)}
+     * @return the return value of the method, or <code>null</code> if it is void
+     * @throws InvocationTargetException if the method threw an exception
+     * @throws IllegalAccessException if the method is not accessible
+     * @throws IllegalArgumentException if the arguments don't match the parameters of the method
+     */
+    public Object invoke(Object service, Object[] args)
+            throws InvocationTargetException, IllegalAccessException {
+        if (invoker == null) {
+            return method.invoke(service, args);
+        }
+        try {
+            return (Object) invoker.invokeExact(service, args);
+        } catch (InvocationTargetException e) {
+            throw e;
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalArgumentException("Unable to invoke " + method + ": " + t, t);
+        }
+    }
+
+    private static Object rethrow(Throwable t) throws InvocationTargetException {
+        throw new InvocationTargetException(t);
+    }
+
+    /**
+     * Read the arguments from the request and invoke the service method with them.
+     */
+    public Object invoke(JsonReader jsonReader, Object service)
+            throws IOException, InvocationTargetException, IllegalAccessException {
+        return invoke(service, readArguments(jsonReader));
+    }
+}
@@ -23,10 +23,7 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.commons.logging.Log;
 
 import com.google.gson.Gson;
-import com.google.gson.stream.JsonReader;
 
-import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 
 
@@ -34,49 +31,8 @@ public class JsonUtils {
 
     private static final Log log = LogFactory.getLog(JsonUtils.class);
 
-    public static Object invokeServiceClass(JsonReader jsonReader,
-                                            Object service,
-                                            Method operation ,
-                                            Class[] paramClasses ,
-                                            int paramCount ) throws InvocationTargetException,
-            IllegalAccessException, IOException  {
-
-        Object[] methodParam = new Object[paramCount];
-	try {
-            Gson gson = new Gson();
-            String[] argNames = new String[paramCount];
-    
-            if( ! jsonReader.isLenient()){
-                jsonReader.setLenient(true);
-            }
-            jsonReader.beginObject();
-            String messageName=jsonReader.nextName();     // get message name from input json stream
-            if (messageName == null || !messageName.equals(operation.getName())) {
-                log.error("JsonUtils.invokeServiceClass() throwing IOException, messageName: " +messageName+ " is unknown, it does not match the axis2 operation, the method name: " + operation.getName());
-                throw new IOException("Bad Request");
-            }
-            jsonReader.beginArray();
-    
-            int i = 0;
-            for (Class paramType : paramClasses) {
-                jsonReader.beginObject();
-                argNames[i] = jsonReader.nextName();
-                log.debug("JsonUtils.invokeServiceClass() on messageName: " +messageName+ " , is currently processing argName: " + argNames[i]);
-                methodParam[i] = gson.fromJson(jsonReader, paramType);   // gson handle all types well and return an object from it
-                jsonReader.endObject();
-                i++;
-            }
-    
-            jsonReader.endArray();
-            jsonReader.endObject();
-        } catch (Exception ex) {
-            log.error(ex.getMessage(), ex);
-            throw new IOException("Bad Request");
-        }
-
-        return  operation.invoke(service, methodParam);
-
-    }
+    /** Gson instances are thread safe and cache their type adapters, so one is shared. */
+    static final Gson GSON = new Gson();
 
     public static Method getOpMethod(String methodName, Method[] methodSet) {
         for (Method method : methodSet) {
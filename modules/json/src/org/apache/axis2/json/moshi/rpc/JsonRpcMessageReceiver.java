@@ -56,8 +56,8 @@ public class JsonRpcMessageReceiver extends RPCMessageReceiver {
                 }
                 Object serviceObj = getTheImplementationObject(inMessage);
                 AxisOperation op = inMessage.getOperationContext().getAxisOperation();
-                String operation = op.getName().getLocalPart();
-                invokeService(jsonReader, serviceObj, operation , outMessage);
+                JsonInvocationPlan plan = JsonInvocationPlan.getPlan(op, serviceObj.getClass());
+                invokeService(jsonReader, serviceObj, plan, outMessage);
             } else {
                 throw new AxisFault("MoshiXMLStreamReader should be put as a property of messageContext " +
                         "to evaluate JSON message");
@@ -69,18 +69,20 @@ public class JsonRpcMessageReceiver extends RPCMessageReceiver {
 
     public void invokeService(JsonReader jsonReader, Object serviceObj, String operation_name,
                                    MessageContext outMes) throws AxisFault {
+        invokeService(jsonReader, serviceObj,
+                JsonInvocationPlan.create(serviceObj.getClass(), operation_name), outMes);
+    }
+
+    public void invokeService(JsonReader jsonReader, Object serviceObj, JsonInvocationPlan plan,
+                                   MessageContext outMes) throws AxisFault {
         String msg;
-        Class implClass = serviceObj.getClass();
-        Method[] allMethods = implClass.getDeclaredMethods();
-        Method method = JsonUtils.getOpMethod(operation_name, allMethods);
-        Class[] paramClasses = method.getParameterTypes();
+        Method method = plan.getMethod();
         try {
-            int paramCount = paramClasses.length;
-            Object retObj = JsonUtils.invokeServiceClass(jsonReader, serviceObj, method, paramClasses, paramCount);
+            Object retObj = plan.invoke(jsonReader, serviceObj);
 
             // handle response
             outMes.setProperty(JsonConstant.RETURN_OBJECT, retObj);
-            outMes.setProperty(JsonConstant.RETURN_TYPE, method.getReturnType());
+            outMes.setProperty(JsonConstant.RETURN_TYPE, plan.getReturnType());
 
         } catch (IllegalAccessException e) {
             msg = "Does not have access to " +
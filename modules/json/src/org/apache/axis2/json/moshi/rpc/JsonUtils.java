@@ -31,12 +31,10 @@ import com.squareup.moshi.adapters.Rfc3339DateJsonAdapter;
 
 import java.io.IOException;
 import java.lang.annotation.Annotation;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.Arrays;
 import java.util.Date;
-import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nullable;
 
@@ -45,93 +43,54 @@ public class JsonUtils {
 
     private static final Log log = LogFactory.getLog(JsonUtils.class);
 
-    public static Object invokeServiceClass(JsonReader jsonReader,
-                                            Object service,
-                                            Method operation ,
-                                            Class[] paramClasses ,
-                                            int paramCount ) throws InvocationTargetException,
-            IllegalAccessException, IOException  {
-
-        Object[] methodParam = new Object[paramCount];
-	try {
-            // define custom Moshi adapter so Json numbers become Java Long and Double
-            JsonAdapter.Factory objectFactory =
-                new JsonAdapter.Factory() {
-                  @Override
-                  public @Nullable JsonAdapter<?> create(
-                      Type type, Set<? extends Annotation> annotations, Moshi moshi) {
-                    if (type != Object.class) return null;
-        
-                    final JsonAdapter<Object> delegate = moshi.nextAdapter(this, Object.class, annotations);
-                    return new JsonAdapter<Object>() {
-                      @Override
-                      public @Nullable Object fromJson(JsonReader reader) throws IOException {
-                          if (reader.peek() != JsonReader.Token.NUMBER) {
-                            return delegate.fromJson(reader);
-                          } else {
-                              String n = reader.nextString();
-                              if (n.indexOf('.') != -1) {
-                                  return Double.parseDouble(n);
-                              }
-              
-                              try{
-                                  Long longValue = Long.parseLong(n);
-                                  return longValue;
-                              }catch(Exception e){
-                              }
-              
-                              //if exception parsing long, try double again
-                              return Double.parseDouble(n);
-        
-                          }
+    // define custom Moshi adapter so Json numbers become Java Long and Double
+    private static final JsonAdapter.Factory OBJECT_FACTORY =
+        new JsonAdapter.Factory() {
+          @Override
+          public @Nullable JsonAdapter<?> create(
+              Type type, Set<? extends Annotation> annotations, Moshi moshi) {
+            if (type != Object.class) return null;
+
+            final JsonAdapter<Object> delegate = moshi.nextAdapter(this, Object.class, annotations);
+            return new JsonAdapter<Object>() {
+              @Override
+              public @Nullable Object fromJson(JsonReader reader) throws IOException {
+                  if (reader.peek() != JsonReader.Token.NUMBER) {
+                    return delegate.fromJson(reader);
+                  } else {
+                      String n = reader.nextString();
+                      if (n.indexOf('.') != -1) {
+                          return Double.parseDouble(n);
                       }
-        
-                      @Override
-                      public void toJson(JsonWriter writer, @Nullable Object value) {
-                          try{
-                              delegate.toJson(writer, value);
-                          }catch(Exception ex){
-                             log.error(ex.getMessage(), ex);
-
-                          }
+
+                      try{
+                          Long longValue = Long.parseLong(n);
+                          return longValue;
+                      }catch(Exception e){
                       }
-                    };
+
+                      //if exception parsing long, try double again
+                      return Double.parseDouble(n);
+
                   }
-                };
-			
-            Moshi moshiFrom = new Moshi.Builder().add(objectFactory).add(Date.class, new Rfc3339DateJsonAdapter()).build();
-            String[] argNames = new String[paramCount];
-    
-            jsonReader.beginObject();
-            String messageName=jsonReader.nextName();     // get message name from input json stream
-            if (messageName == null || !messageName.equals(operation.getName())) {
-                log.error("JsonUtils.invokeServiceClass() throwing IOException, messageName: " +messageName+ " is unknown, it does not match the axis2 operation, the method name: " + operation.getName());
-                throw new IOException("Bad Request");
-            }
-            jsonReader.beginArray();
-    
-            int i = 0;
-            for (Class paramType : paramClasses) {
-            	JsonAdapter<Map> moshiFromJsonAdapter = null;
-            	moshiFromJsonAdapter = moshiFrom.adapter(paramType);
-                jsonReader.beginObject();
-                argNames[i] = jsonReader.nextName();
-                methodParam[i] = moshiFromJsonAdapter.fromJson(jsonReader);   // moshi handles all types well and returns an object from it
-                log.trace("JsonUtils.invokeServiceClass() completed processing on messageName: " +messageName+ " , arg name: " +argNames[i]+ " , methodParam: " +methodParam[i].getClass().getName()+ " , from argNames.length: " + argNames.length);
-                jsonReader.endObject();
-                i++;
-            }
-    
-            jsonReader.endArray();
-            jsonReader.endObject();
-        } catch (Exception ex) {
-            log.error(ex.getMessage(), ex);
-            throw new IOException("Bad Request");
-        }
+              }
 
-        return  operation.invoke(service, methodParam);
+              @Override
+              public void toJson(JsonWriter writer, @Nullable Object value) {
+                  try{
+                      delegate.toJson(writer, value);
+                  }catch(Exception ex){
+                     log.error(ex.getMessage(), ex);
 
-    }
+                  }
+              }
+            };
+          }
+        };
+
+    /** Moshi instances are thread safe and cache their adapters, so one is shared. */
+    static final Moshi MOSHI = new Moshi.Builder().add(OBJECT_FACTORY)
+            .add(Date.class, new Rfc3339DateJsonAdapter()).build();
 
     public static Method getOpMethod(String methodName, Method[] methodSet) {
         for (Method method : methodSet) {
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.json.gson;
+
+import org.apache.axis2.testutils.Axis2Server;
+import org.junit.Assert;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+public class JsonDirectIntegrationTest {
+    @ClassRule
+    public static Axis2Server server = new Axis2Server("target/repo/gson");
+
+    @Test
+    public void testJsonDirectMessageReceiver() throws Exception {
+        String jsonRequest = "{\"echoPerson\":{\"person\":{\"name\":\"Simon\",\"age\":\"35\",\"gender\":\"male\"}}}";
+        String echoPersonUrl = server.getEndpoint("JSONDirectPOJOService") + "echoPerson";
+        String expectedResponse = "{\"echoPersonResponse\":{\"return\":{\"name\":\"Simon\",\"age\":\"35\",\"gender\":\"male\"}}}";
+        String response = UtilTest.post(jsonRequest, echoPersonUrl);
+        Assert.assertNotNull(response);
+        Assert.assertEquals(expectedResponse, response);
+    }
+
+    @Test
+    public void testJsonDirectInOnlyMessageReceiver() throws Exception {
+        String jsonRequest = "{\"ping\":{\"person\":{\"name\":\"Simon\",\"age\":\"35\",\"gender\":\"male\"}}}";
+        String pingUrl = server.getEndpoint("JSONDirectPOJOService") + "ping";
+        String response = UtilTest.post(jsonRequest, pingUrl);
+        Assert.assertEquals("", response);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.json.moshi.rpc;
+
+import com.squareup.moshi.JsonReader;
+import okio.Buffer;
+import org.apache.axis2.AxisFault;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+
+public class JsonInvocationPlanTest {
+
+    private static JsonReader reader(String json) {
+        return JsonReader.of(new Buffer().writeUtf8(json));
+    }
+
+    @Test
+    public void testInvoke() throws Exception {
+        JsonInvocationPlan plan = JsonInvocationPlan.create(JSONPOJOService.class, "echoPerson");
+        Assert.assertEquals(Person.class, plan.getReturnType());
+        JSONPOJOService service = new JSONPOJOService();
+        // the plan is reused for several requests
+        for (String name : new String[] { "Simon", "Isaac" }) {
+            String json = "{\"echoPerson\":[{\"arg0\":{\"name\":\"" + name + "\",\"age\":\"35\",\"gender\":\"male\"}}]}";
+            Person person = (Person) plan.invoke(reader(json), service);
+            Assert.assertEquals(name, person.getName());
+            Assert.assertEquals("35", person.getAge());
+        }
+    }
+
+    @Test
+    public void testVoidMethod() throws Exception {
+        JsonInvocationPlan plan = JsonInvocationPlan.create(JSONPOJOService.class, "ping");
+        String json = "{\"ping\":[{\"arg0\":{\"name\":\"Simon\",\"age\":\"35\",\"gender\":\"male\"}}]}";
+        Assert.assertNull(plan.invoke(reader(json), new JSONPOJOService()));
+    }
+
+    @Test(expected = IOException.class)
+    public void testOperationMismatch() throws Exception {
+        JsonInvocationPlan plan = JsonInvocationPlan.create(JSONPOJOService.class, "echoPerson");
+        plan.readArguments(reader("{\"ping\":[{\"arg0\":{\"name\":\"Simon\"}}]}"));
+    }
+
+    public static class FailingService {
+        public int add(int a, int b) {
+            return a + b;
+        }
+
+        public void fail(String message) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    @Test
+    public void testExceptionOfServiceMethod() throws Exception {
+        JsonInvocationPlan plan = JsonInvocationPlan.create(FailingService.class, "fail");
+        try {
+            plan.invoke(new FailingService(), new Object[] { "failure" });
+            Assert.fail("Expected an InvocationTargetException");
+        } catch (InvocationTargetException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+            Assert.assertEquals("failure", e.getCause().getMessage());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testArgumentMismatch() throws Exception {
+        JsonInvocationPlan plan = JsonInvocationPlan.create(FailingService.class, "add");
+        // a missing primitive argument is not an exception of the service method
+        plan.invoke(new FailingService(), new Object[] { 1, null });
+    }
+
+    public static class UnboundService {
+        public void read(java.io.File file) {
+        }
+    }
+
+    @Test(expected = AxisFault.class)
+    public void testUnboundParameter() throws Exception {
+        JsonInvocationPlan.create(UnboundService.class, "read");
+    }
+}
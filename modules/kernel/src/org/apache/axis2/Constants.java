@@ -339,6 +339,12 @@ public class Constants extends org.apache.axis2.namespace.Constants {
 
         public static final String ARTIFACTS_TEMP_DIR = "artifactsDIR";
 
+        /**
+         * Set to <code>true</code> in axis2.xml to run messages through precompiled flows that
+         * leave out phases without handlers.
+         */
+        public static final String ENABLE_COMPILED_FLOWS = "enableCompiledFlows";
+
         //Attachment configurations
         public static final String ENABLE_MTOM = "enableMTOM";
         public static final String MTOM_THRESHOLD = "mtomThreshold";
@@ -467,5 +473,35 @@ public class Constants extends org.apache.axis2.namespace.Constants {
         public static final String DATA_BUFFER_SIZE="DataBufferSize";
         public static final int DEFAULT_DATA_BUFFER_SIZE=2048;        
 
+        /**
+         * Selects the implementation backing {@link org.apache.axis2.context.ConfigurationContext#getThreadPool()}.
+         * Supported values are {@link #THREAD_POOL_MODE_PLATFORM} (the default) and
+         * {@link #THREAD_POOL_MODE_VIRTUAL}.
+         */
+        public static final String THREAD_POOL_MODE = "threadPoolMode";
+        public static final String THREAD_POOL_MODE_PLATFORM = "platform";
+        public static final String THREAD_POOL_MODE_VIRTUAL = "virtual";
+
+        /**
+         * Maximum number of tasks the virtual thread pool runs concurrently.
+         */
+        public static final String THREAD_POOL_MAX_CONCURRENCY = "threadPoolMaxConcurrency";
+
+        /**
+         * Maximum number of callbacks an Out-In operation keeps for responses that arrive on a
+         * separate listener. Further requests wait, up to the timeout of the Options, for a
+         * response or for a callback to expire, and fail otherwise. Unless callbacks expire
+         * (see {@link #EXPIRE_CALLBACKS}), lost responses keep their callbacks forever.
+         */
+        public static final String MAX_OUTSTANDING_CALLBACKS = "maxOutstandingCallbacks";
+
+        /**
+         * If set to true, either as a client option or in the axis2.xml, the callback of a
+         * non-blocking Out-In call whose response arrives on a separate listener is dropped, and
+         * notified with a timeout error, once the timeout of the Options has elapsed. By default
+         * the callback is kept until the response arrives.
+         */
+        public static final String EXPIRE_CALLBACKS = "expireCallbacks";
+
     }
 }
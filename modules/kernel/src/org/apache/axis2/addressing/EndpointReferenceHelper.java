@@ -40,6 +40,7 @@ import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The methods in this class are used to process {@link EndpointReference} objects
@@ -53,6 +54,19 @@ public class EndpointReferenceHelper {
     private final static Map finalQNames = new IdentityHashMap();
     private final static Map submissionQNames = new IdentityHashMap();
 
+    /**
+     * The maximum number of addresses kept by {@link #internAddress(String)}.
+     */
+    private final static int MAX_INTERNED_ADDRESSES = 1024;
+
+    /**
+     * Canonical instances of the addresses found in endpoint references, so that the
+     * endpoint references of messages that are kept around (e.g. waiting for a response)
+     * share a single copy of addresses that are used over and over again.
+     */
+    private final static ConcurrentHashMap<String, String> internedAddresses =
+            new ConcurrentHashMap<String, String>();
+
     /**
      * Populates an endpoint reference based on the <code>OMElement</code> and
      * WS-Addressing namespace that is passed in.
@@ -84,6 +98,11 @@ public class EndpointReferenceHelper {
      */
     public static String fromOM(EndpointReference epr, OMElement eprOMElement)
     throws AxisFault {
+        String addressOnlyNamespace = fromAddressOnlyOM(epr, eprOMElement);
+        if (addressOnlyNamespace != null) {
+            return addressOnlyNamespace;
+        }
+
         boolean isFinalAddressingNamespace = false;
         Map map = null;
 
@@ -124,6 +143,81 @@ public class EndpointReferenceHelper {
         return ((QName) map.get(AddressingConstants.EPR_ADDRESS)).getNamespaceURI();
     }    
 
+    /**
+     * Populates an endpoint reference from an element that contains nothing but an address
+     * element without attributes. This is the case for most endpoint references found in
+     * practice, e.g. an anonymous wsa:ReplyTo, and can be handled without going through the
+     * generic code.
+     *
+     * @param epr          an endpoint reference instance to hold the info, or <code>null</code>
+     * @param eprOMElement an element of endpoint reference type
+     * @return the WS-Addressing namespace of the endpoint reference, or <code>null</code> if
+     *         the element has any other content; in that case the endpoint reference is left
+     *         unchanged
+     */
+    private static String fromAddressOnlyOM(EndpointReference epr, OMElement eprOMElement) {
+        OMElement address = eprOMElement.getFirstElement();
+        if (address == null || !AddressingConstants.EPR_ADDRESS.equals(address.getLocalName())) {
+            return null;
+        }
+        String namespace = address.getNamespaceURI();
+        if (AddressingConstants.Final.WSA_NAMESPACE.equals(namespace)) {
+            namespace = AddressingConstants.Final.WSA_NAMESPACE;
+        } else if (AddressingConstants.Submission.WSA_NAMESPACE.equals(namespace)) {
+            namespace = AddressingConstants.Submission.WSA_NAMESPACE;
+        } else {
+            return null;
+        }
+        for (OMNode node = address.getNextOMSibling(); node != null;
+                node = node.getNextOMSibling()) {
+            if (node instanceof OMElement) {
+                return null;
+            }
+        }
+        if (eprOMElement.getAllAttributes().hasNext() || address.getAllAttributes().hasNext()) {
+            return null;
+        }
+
+        if (epr != null) {
+            epr.setAddress(internAddress(address.getText()));
+            epr.setAddressAttributes(null);
+            if (log.isDebugEnabled()) {
+                log.debug("fromOM: Endpoint reference, " + epr);
+            }
+        }
+        return namespace;
+    }
+
+    /**
+     * Returns the canonical instance of an address.
+     *
+     * @param address the address
+     * @return an equal string, which is the same instance for all endpoint references with
+     *         that address, as long as not too many different addresses are seen
+     */
+    private static String internAddress(String address) {
+        if (AddressingConstants.Final.WSA_ANONYMOUS_URL.equals(address)) {
+            return AddressingConstants.Final.WSA_ANONYMOUS_URL;
+        } else if (AddressingConstants.Final.WSA_NONE_URI.equals(address)) {
+            return AddressingConstants.Final.WSA_NONE_URI;
+        } else if (AddressingConstants.Submission.WSA_ANONYMOUS_URL.equals(address)) {
+            return AddressingConstants.Submission.WSA_ANONYMOUS_URL;
+        } else if (address == null) {
+            return null;
+        }
+        String interned = internedAddresses.get(address);
+        if (interned == null) {
+            if (internedAddresses.size() >= MAX_INTERNED_ADDRESSES) {
+                internedAddresses.clear();
+            }
+            interned = internedAddresses.putIfAbsent(address, address);
+            if (interned == null) {
+                interned = address;
+            }
+        }
+        return interned;
+    }
+
     /**
      * Populates an endpoint reference based on the <code>String</code> that is
      * passed in. If the http://schemas.xmlsoap.org/ws/2004/08/addressing namespace
@@ -283,7 +377,7 @@ public class EndpointReferenceHelper {
             if (map.get(AddressingConstants.EPR_ADDRESS).equals(qname)) {
                 //We need to identify the address element again in order to ensure
                 //that it is not included with the extensibility elements.
-                epr.setAddress(eprChildElement.getText());
+                epr.setAddress(internAddress(eprChildElement.getText()));
                 Iterator allAddrAttributes = eprChildElement.getAllAttributes();
                 ArrayList addressAttributes = new ArrayList();
                 while (allAddrAttributes.hasNext()) {
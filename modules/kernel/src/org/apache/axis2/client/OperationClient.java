@@ -37,6 +37,7 @@ import org.apache.axis2.wsdl.WSDLConstants;
 
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import javax.xml.namespace.QName;
 
@@ -166,6 +167,37 @@ public abstract class OperationClient {
      */
     public abstract void executeImpl(boolean block) throws AxisFault;
 
+    /**
+     * Execute the MEP without waiting for it to complete. Like {@link #execute(boolean)}, this
+     * sets the lastOperationContext on the ServiceContext, and then it calls executeAsyncImpl(),
+     * which does the actual work.
+     *
+     * @return a future completed with the In message context once the MEP has completed, or
+     *         completed exceptionally if the exchange failed
+     * @throws AxisFault if the MEP could not be started
+     */
+    public final CompletableFuture<MessageContext> executeAsync() throws AxisFault {
+        sc.setLastOperationContext(oc);
+        return executeAsyncImpl();
+    }
+
+    /**
+     * Execute the MEP without waiting for it to complete. Operation clients that receive a
+     * message override this to complete the future when that message arrives. This default
+     * implementation executes the MEP in the calling thread, and returns a future that is
+     * already completed with the In message context, if there is one.
+     *
+     * @return a future completed with the In message context, or <code>null</code> if the MEP
+     *         has no In message
+     * @throws AxisFault if something goes wrong during the execution of the operation
+     *                   client.
+     */
+    protected CompletableFuture<MessageContext> executeAsyncImpl() throws AxisFault {
+        executeImpl(true);
+        return CompletableFuture.completedFuture(
+                oc == null ? null : oc.getMessageContext(WSDLConstants.MESSAGE_LABEL_IN_VALUE));
+    }
+
     /**
      * Reset the operation client to a clean status after the MEP has completed.
      * This is how you can reuse an operation client. NOTE: this does not reset
@@ -833,6 +833,17 @@ public class Options implements Externalizable, SafeSerializable {
      * <li><b>org.apache.axis2.kernel.http.HTTPConstants.CACHED_HTTP_CLIENT</b>
      * <p>If user had requested to re-use an HTTPClient using the above property, this property can be used to set a custom HTTPClient to be re-used.</p>
      * </li>
+     * <p><a name="MAX_CONNECTIONS_PER_HOST"></a></p>
+     * <li><b>org.apache.axis2.kernel.http.HTTPConstants.MAX_CONNECTIONS_PER_HOST</b>
+     * <p>The maximum number of pooled connections to the target host of the invocation.</p>
+     * </li>
+     * <p><a name="CONNECTION_POOL"></a></p>
+     * <li><b>org.apache.axis2.kernel.http.HTTPConstants.MAX_TOTAL_CONNECTIONS, DEFAULT_MAX_CONNECTIONS_PER_HOST,
+     * CONNECTION_IDLE_TIMEOUT, VALIDATE_AFTER_INACTIVITY, CONNECTION_TIME_TO_LIVE</b>
+     * <p>Settings for the connection pool shared by all invocations of a configuration context. They take effect
+     * when the pool is created, i.e. on the first invocation, and may also be set as parameters of the
+     * transport sender in axis2.xml.</p>
+     * </li>
      * </ul>
      * <p><a name="REST"></a></p>
      * <p/>
@@ -953,6 +964,12 @@ public class Options implements Externalizable, SafeSerializable {
      * This is used in blocking scenario. Client will time out after waiting
      * this amount of time. The default is 2000 and must be provided in
      * multiples of 100.
+     * <p>
+     * The callback of a non-blocking call whose response arrives on a separate listener is
+     * kept until the response arrives, regardless of this timeout, unless the
+     * {@link org.apache.axis2.Constants.Configuration#EXPIRE_CALLBACKS} property is set to
+     * <code>true</code>. In that case the callback is notified with a timeout error and dropped
+     * once this timeout has elapsed.
      *
      * @param timeOutInMilliSeconds
      */
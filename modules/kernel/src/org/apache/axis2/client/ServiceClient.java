@@ -58,6 +58,9 @@ import javax.wsdl.Definition;
 import javax.xml.namespace.QName;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
 
 /**
  * Client access to a service. Each instance of this class is associated with a particular {@link
@@ -581,6 +584,63 @@ public class ServiceClient {
         mepClient.execute(false);
     }
 
+    /**
+     * Directly invoke an anonymous operation with an In-Out MEP without waiting for a response.
+     * This method sends your supplied XML and returns a future for the response. For more
+     * control, you can instead create a client for the operation and use its
+     * {@link OperationClient#executeAsync()} method.
+     *
+     * @param elem the data to send (becomes the content of SOAP body)
+     * @return a future completed with the response, or completed exceptionally with an AxisFault
+     *         or other exception if the invocation failed
+     * @throws AxisFault if the request could not be sent
+     * @see #sendReceiveAsync(QName, OMElement)
+     */
+    public CompletableFuture<OMElement> sendReceiveAsync(OMElement elem) throws AxisFault {
+        return sendReceiveAsync(ANON_OUT_IN_OP, elem);
+    }
+
+    /**
+     * Directly invoke a named operation with an In-Out MEP without waiting for a response. This
+     * method sends your supplied XML and returns a future for the response, which is completed
+     * from the thread that receives it. The response envelope is fully built before the future
+     * is completed, so it may be processed on any thread. Unless a separate listener is used,
+     * the invocation runs on a thread of the ConfigurationContext thread pool, which waits for
+     * the response, so the caller is not blocked but a pooled thread is.
+     * <p>
+     * If the <code>callTransportCleanup</code> property on the {@link Options} object has been
+     * set to <code>true</code>, the transport is cleaned up before the future is completed.
+     * Unlike {@link #cleanupTransport()}, this cleans up the transport of this invocation, even
+     * if other invocations were started since.
+     *
+     * @param operation name of operation to be invoked (non-<code>null</code>)
+     * @param elem      the data to send (becomes the content of SOAP body)
+     * @return a future completed with the response, or completed exceptionally with an AxisFault
+     *         or other exception if the invocation failed
+     * @throws AxisFault if the request could not be sent
+     */
+    public CompletableFuture<OMElement> sendReceiveAsync(QName operation, OMElement elem)
+            throws AxisFault {
+        final MessageContext mc = new MessageContext();
+        fillSOAPEnvelope(mc, elem);
+        OperationClient mepClient = createClient(operation);
+        mepClient.addMessageContext(mc);
+        final boolean callTransportCleanup = options.isCallTransportCleanup();
+        return mepClient.executeAsync().thenApply(
+                new Function<MessageContext, OMElement>() {
+                    public OMElement apply(MessageContext response) {
+                        if (callTransportCleanup) {
+                            try {
+                                cleanupTransport(mc);
+                            } catch (AxisFault e) {
+                                throw new CompletionException(e);
+                            }
+                        }
+                        return response.getEnvelope().getBody().getFirstElement();
+                    }
+                });
+    }
+
     /**
      * Create an operation client with the appropriate message exchange pattern (MEP). This method
      * creates a full-function MEP client which can be used to exchange messages for a specific
@@ -782,14 +842,18 @@ public class ServiceClient {
                     lastOperationContext
                             .getMessageContext(WSDLConstants.MESSAGE_LABEL_OUT_VALUE);
             if (outMessageContext != null) {
-                if (outMessageContext.getTransportOut() != null &&
-                        outMessageContext.getTransportOut().getSender() != null) {
-                    outMessageContext.getTransportOut().getSender().cleanup(outMessageContext);
-                }
+                cleanupTransport(outMessageContext);
             }
         }
     }
 
+    private static void cleanupTransport(MessageContext outMessageContext) throws AxisFault {
+        if (outMessageContext.getTransportOut() != null &&
+                outMessageContext.getTransportOut().getSender() != null) {
+            outMessageContext.getTransportOut().getSender().cleanup(outMessageContext);
+        }
+    }
+
     /**
      * Configure the ServiceClient to interact with the Web service described by the specified
      * AxisService object.
@@ -268,21 +268,19 @@ public abstract class AbstractContext {
      *
      * @param key
      */
-    public synchronized void removeProperty(String key) {
+    public void removeProperty(String key) {
         if(properties == null){
             return;
         }
-        Object value = properties.get(key);
-        if (value != null) {
-            if (properties != null) {
-                while (true) {
-                    try {
-                        properties.remove(key);
-                        break;
-                    } catch (ConcurrentModificationException cme) {
-                    }
-                }
+        Object value;
+        while (true) {
+            try {
+                value = properties.remove(key);
+                break;
+            } catch (ConcurrentModificationException cme) {
             }
+        }
+        if (value != null) {
             if(!isClusteringCheckDone) {
                 isClusteringCheckDone = true;
                 isClusteringOn = needPropertyDifferences();
@@ -300,7 +298,7 @@ public abstract class AbstractContext {
      *
      * @param key
      */
-    public synchronized void removePropertyNonReplicable(String key) {
+    public void removePropertyNonReplicable(String key) {
         if (properties != null) {
             while (true) {
                 try {
@@ -376,7 +374,7 @@ public abstract class AbstractContext {
                 // argument map.
                 while (true) {
                     try {
-                        this.properties = new HashMap(properties);
+                        this.properties = new ContextPropertyMap(properties);
                         break;
                     } catch (ConcurrentModificationException cme) {
                     }
@@ -476,13 +474,15 @@ public abstract class AbstractContext {
     
     /**
      * If the 'properties' map has not been allocated yet, then allocate it. 
+     *
+     * @see ContextPropertyMap
      */
     private void initPropertiesMap() {
         if (properties == null) {
             // This needs to be a concurrent collection to prevent ConcurrentModificationExcpetions
             // for async-on-the-wire.  It was originally: 
 //            properties = new HashMap(DEFAULT_MAP_SIZE);
-            properties = new HashMap<String,Object>(DEFAULT_MAP_SIZE);
+            properties = new ContextPropertyMap();
         }
     }
 }
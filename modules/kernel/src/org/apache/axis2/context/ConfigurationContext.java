@@ -42,12 +42,12 @@ import org.apache.axis2.util.JavaUtils;
 import org.apache.axis2.util.OnDemandLogger;
 import org.apache.axis2.util.threadpool.ThreadFactory;
 import org.apache.axis2.util.threadpool.ThreadPool;
+import org.apache.axis2.util.threadpool.VirtualThreadPool;
 
 import java.io.File;
 import java.net.URL;
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.Iterator;
@@ -71,7 +71,8 @@ public class ConfigurationContext extends AbstractContext {
     private static final OnDemandLogger log = new OnDemandLogger(ConfigurationContext.class);
     /** Map containing <code>MessageID</code> to <code>OperationContext</code> mapping. */
     private final ConcurrentHashMap<String, OperationContext> operationContextMap = new ConcurrentHashMap<String, OperationContext>();
-    private final Hashtable<String, ServiceGroupContext> serviceGroupContextMap = new Hashtable<String, ServiceGroupContext>();
+    private final ConcurrentHashMap<String, ServiceGroupContext> serviceGroupContextMap = new ConcurrentHashMap<String, ServiceGroupContext>();
+    private final ServiceGroupContextExpiry serviceGroupContextExpiry = new ServiceGroupContextExpiry(this);
     private Hashtable<String, ServiceGroupContext> applicationSessionServiceGroupContexts = new Hashtable<String, ServiceGroupContext>();
     private AxisConfiguration axisConfiguration;
     private ThreadFactory threadPool;
@@ -244,8 +245,6 @@ public class ConfigurationContext extends AbstractContext {
                 messageContext
                         .setServiceContext(serviceGroupContext.getServiceContext(axisService));
             } else if (Constants.SCOPE_SOAP_SESSION.equals(scope)) {
-                //cleaning the session
-                cleanupServiceGroupContexts();
                 String serviceGroupContextId = messageContext.getServiceGroupContextId();
                 if (serviceGroupContextId != null) {
                     serviceGroupContext =
@@ -363,8 +362,7 @@ public class ConfigurationContext extends AbstractContext {
         serviceGroupContextMap.put(id, serviceGroupContext);
         serviceGroupContext.touch();
         serviceGroupContext.setParent(this);
-        // this is the best time to clean up the SGCtxts since are not being used anymore
-        cleanupServiceGroupContexts();
+        serviceGroupContextExpiry.schedule(serviceGroupContext);
     }
 
     /**
@@ -574,18 +572,10 @@ public class ConfigurationContext extends AbstractContext {
      * @return Returns hashmap of ServiceGroupContexts.
      */
     public String[] getServiceGroupContextIDs() {
-        String[] ids = new String[serviceGroupContextMap.size() +
-                                  applicationSessionServiceGroupContexts.size()];
-        int index = 0;
-        for (Object o : serviceGroupContextMap.keySet()) {
-            ids[index] = (String)o;
-            index++;
-        }
-        for (Object o : applicationSessionServiceGroupContexts.keySet()) {
-            ids[index] = (String)o;
-            index++;
-        }
-        return ids;
+        // The SOAP session table may change while we copy it, so don't rely on its size
+        List<String> ids = new ArrayList<String>(serviceGroupContextMap.keySet());
+        ids.addAll(applicationSessionServiceGroupContexts.keySet());
+        return ids.toArray(new String[ids.size()]);
     }
 
 
@@ -596,12 +586,38 @@ public class ConfigurationContext extends AbstractContext {
      */
     public ThreadFactory getThreadPool() {
         if (threadPool == null) {
-            threadPool = new ThreadPool();
+            threadPool = createThreadPool();
         }
 
         return threadPool;
     }
 
+    /**
+     * Creates the thread pool selected by the {@link Constants.Configuration#THREAD_POOL_MODE}
+     * parameter of the AxisConfiguration.
+     */
+    private ThreadFactory createThreadPool() {
+        if (axisConfiguration != null) {
+            Parameter mode = axisConfiguration.getParameter(Constants.Configuration.THREAD_POOL_MODE);
+            if (mode != null && Constants.Configuration.THREAD_POOL_MODE_VIRTUAL.equalsIgnoreCase(
+                    ((String) mode.getValue()).trim())) {
+                int maxConcurrency = VirtualThreadPool.DEFAULT_MAX_CONCURRENCY;
+                Parameter maxConcurrencyParam = axisConfiguration.getParameter(
+                        Constants.Configuration.THREAD_POOL_MAX_CONCURRENCY);
+                if (maxConcurrencyParam != null) {
+                    try {
+                        maxConcurrency = Integer.parseInt(((String) maxConcurrencyParam.getValue()).trim());
+                    } catch (NumberFormatException e) {
+                        log.warn("Invalid value for " + Constants.Configuration.THREAD_POOL_MAX_CONCURRENCY
+                                + "; using the default of " + maxConcurrency);
+                    }
+                }
+                return new VirtualThreadPool(maxConcurrency);
+            }
+        }
+        return new ThreadPool();
+    }
+
     /**
      * Set the AxisConfiguration to the specified configuration
      *
@@ -639,25 +655,30 @@ public class ConfigurationContext extends AbstractContext {
         cleanupServiceContexts(serviceGroupContext);
     }
 
-    private void cleanupServiceGroupContexts() {
-        if (serviceGroupContextMap == null) {
-            return;
-        }
-        long currentTime = new Date().getTime();
-
-        synchronized (serviceGroupContextMap) {
-            for (Iterator<String> sgCtxtMapKeyIter = serviceGroupContextMap.keySet().iterator();
-                 sgCtxtMapKeyIter.hasNext();) {
-                String sgCtxtId = sgCtxtMapKeyIter.next();
-                ServiceGroupContext serviceGroupContext =serviceGroupContextMap.get(sgCtxtId);
-                if ((currentTime - serviceGroupContext.getLastTouchedTime()) >
-                    getServiceGroupContextTimeoutInterval()) {
-                    sgCtxtMapKeyIter.remove();
-                    cleanupServiceContexts(serviceGroupContext);
-                    contextRemoved(serviceGroupContext);
-                }
-            }
+    /**
+     * Remove a ServiceGroupContext from the SOAP session table because it timed out.
+     *
+     * @param serviceGroupContext the ServiceGroupContext to remove
+     * @return <code>true</code> if the context was removed, <code>false</code> if it was no
+     *         longer in the table
+     */
+    boolean expireServiceGroupContext(ServiceGroupContext serviceGroupContext) {
+        if (!serviceGroupContextMap.remove(serviceGroupContext.getId(), serviceGroupContext)) {
+            return false;
         }
+        cleanupServiceContexts(serviceGroupContext);
+        contextRemoved(serviceGroupContext);
+        return true;
+    }
+
+    /**
+     * Get the component that expires SOAP session ServiceGroupContexts, for instance to read
+     * its statistics.
+     *
+     * @return the ServiceGroupContextExpiry of this ConfigurationContext
+     */
+    public ServiceGroupContextExpiry getServiceGroupContextExpiry() {
+        return serviceGroupContextExpiry;
     }
 
     /**
@@ -773,6 +794,7 @@ public class ConfigurationContext extends AbstractContext {
      * @throws AxisFault
      */
     public void terminate() throws AxisFault {
+        serviceGroupContextExpiry.stop();
         shutdownModulesAndServices();
         if (listenerManager != null) {
             listenerManager.destroy();
@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.context;
+
+import org.apache.axis2.Constants;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The map used by {@link AbstractContext} to store its properties. The properties that are
+ * read and written for nearly every message (transport headers, message type, character set
+ * encoding, etc.) live in a fixed array of slots; all other properties are kept in a
+ * {@link ConcurrentHashMap}. Unlike a plain <code>ConcurrentHashMap</code>, this map accepts
+ * <code>null</code> keys and values, so that it can be used wherever the
+ * <code>HashMap</code> that preceded it was used.
+ * <p>
+ * Iterators are weakly consistent and never throw a
+ * {@link java.util.ConcurrentModificationException}.
+ */
+final class ContextPropertyMap extends AbstractMap<String, Object> {
+    /**
+     * Stands for a <code>null</code> value, since neither the slots nor the
+     * <code>ConcurrentHashMap</code> can distinguish a <code>null</code> value from an absent
+     * one.
+     */
+    private static final Object NULL_VALUE = new Object();
+
+    private static final String[] SLOT_KEYS = {
+            MessageContext.TRANSPORT_HEADERS,
+            Constants.Configuration.MESSAGE_TYPE,
+            Constants.Configuration.CHARACTER_SET_ENCODING,
+            Constants.Configuration.CONTENT_TYPE,
+            Constants.OUT_TRANSPORT_INFO,
+            MessageContext.TRANSPORT_IN,
+            MessageContext.TRANSPORT_OUT,
+            null };
+
+    private final AtomicReferenceArray<Object> slots =
+            new AtomicReferenceArray<Object>(SLOT_KEYS.length);
+
+    private final ConcurrentHashMap<String, Object> map = new ConcurrentHashMap<String, Object>();
+
+    ContextPropertyMap() {
+    }
+
+    ContextPropertyMap(Map<? extends String, ?> properties) {
+        putAll(properties);
+    }
+
+    /**
+     * @param key a property name
+     * @return the index of the slot reserved for the given property, or -1 if the property is
+     *         stored in the map
+     */
+    static int slotIndex(Object key) {
+        if (key == null) {
+            return SLOT_KEYS.length - 1;
+        }
+        if (!(key instanceof String)) {
+            return -1;
+        }
+        switch ((String) key) {
+            case MessageContext.TRANSPORT_HEADERS:
+                return 0;
+            case Constants.Configuration.MESSAGE_TYPE:
+                return 1;
+            case Constants.Configuration.CHARACTER_SET_ENCODING:
+                return 2;
+            case Constants.Configuration.CONTENT_TYPE:
+                return 3;
+            case Constants.OUT_TRANSPORT_INFO:
+                return 4;
+            case MessageContext.TRANSPORT_IN:
+                return 5;
+            case MessageContext.TRANSPORT_OUT:
+                return 6;
+            default:
+                return -1;
+        }
+    }
+
+    private static Object encode(Object value) {
+        return value == null ? NULL_VALUE : value;
+    }
+
+    private static Object decode(Object value) {
+        return value == NULL_VALUE ? null : value;
+    }
+
+    public Object get(Object key) {
+        int index = slotIndex(key);
+        return decode(index >= 0 ? slots.get(index) : map.get(key));
+    }
+
+    public boolean containsKey(Object key) {
+        int index = slotIndex(key);
+        return index >= 0 ? slots.get(index) != null : map.containsKey(key);
+    }
+
+    public Object put(String key, Object value) {
+        int index = slotIndex(key);
+        return decode(index >= 0 ? slots.getAndSet(index, encode(value))
+                : map.put(key, encode(value)));
+    }
+
+    public Object remove(Object key) {
+        int index = slotIndex(key);
+        return decode(index >= 0 ? slots.getAndSet(index, null) : map.remove(key));
+    }
+
+    public int size() {
+        int size = map.size();
+        for (int i = 0; i < SLOT_KEYS.length; i++) {
+            if (slots.get(i) != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    public void clear() {
+        for (int i = 0; i < SLOT_KEYS.length; i++) {
+            slots.set(i, null);
+        }
+        map.clear();
+    }
+
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+            public Iterator<Entry<String, Object>> iterator() {
+                return new EntryIterator();
+            }
+
+            public int size() {
+                return ContextPropertyMap.this.size();
+            }
+
+            public void clear() {
+                ContextPropertyMap.this.clear();
+            }
+        };
+    }
+
+    private final class PropertyEntry extends SimpleEntry<String, Object> {
+        private static final long serialVersionUID = 1L;
+
+        PropertyEntry(String key, Object value) {
+            super(key, value);
+        }
+
+        public Object setValue(Object value) {
+            put(getKey(), value);
+            return super.setValue(value);
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Entry<String, Object>> {
+        private final Iterator<Entry<String, Object>> mapIterator = map.entrySet().iterator();
+        private int slot;
+        private Entry<String, Object> next;
+        private Entry<String, Object> last;
+
+        EntryIterator() {
+            advance();
+        }
+
+        private void advance() {
+            while (slot < SLOT_KEYS.length) {
+                int index = slot++;
+                Object value = slots.get(index);
+                if (value != null) {
+                    next = new PropertyEntry(SLOT_KEYS[index], decode(value));
+                    return;
+                }
+            }
+            if (mapIterator.hasNext()) {
+                Entry<String, Object> entry = mapIterator.next();
+                next = new PropertyEntry(entry.getKey(), decode(entry.getValue()));
+            } else {
+                next = null;
+            }
+        }
+
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        public Entry<String, Object> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            advance();
+            return last;
+        }
+
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            ContextPropertyMap.this.remove(last.getKey());
+            last = null;
+        }
+    }
+}
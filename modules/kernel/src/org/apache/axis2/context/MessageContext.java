@@ -3410,7 +3410,7 @@ public class MessageContext extends AbstractContext
             log.trace(getLogIDString() +
                       ": readExternal(): About to read properties, marker is: " + marker);
         }
-        properties = in.readMap(new HashMap());
+        properties = in.readMap(new ContextPropertyMap());
 
 
         //---------------------------------------------------------
@@ -45,7 +45,6 @@ import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.util.Map;
-import java.util.HashMap;
 
 /**
  * Well this is never clearly defined, what it does or the life-cycle.
@@ -424,7 +423,7 @@ public class ServiceContext extends AbstractContext
         //---------------------------------------------------------
         // properties
         //---------------------------------------------------------
-        properties = in.readMap(new HashMap());
+        properties = in.readMap(new ContextPropertyMap());
 
         //---------------------------------------------------------
         // AxisService
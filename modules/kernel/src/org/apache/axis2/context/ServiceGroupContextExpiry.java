@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.context;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Expires SOAP session {@link ServiceGroupContext}s in the background. Every context in the SOAP
+ * session table has one entry in a {@link DelayQueue}, due when the context would time out if it
+ * were not touched again. When an entry becomes due, the context is removed if it has in fact not
+ * been touched since; otherwise the entry is put back with the new deadline. Touching a context
+ * therefore costs nothing beyond updating its last touched time, and no request ever has to scan
+ * the whole session table.
+ * <p>
+ * The expiry thread is a daemon thread that is started when the first context is scheduled and
+ * stopped when the {@link ConfigurationContext} is terminated.
+ */
+public final class ServiceGroupContextExpiry {
+
+    private static final Log log = LogFactory.getLog(ServiceGroupContextExpiry.class);
+
+    private final ConfigurationContext configurationContext;
+
+    private final DelayQueue<Entry> queue = new DelayQueue<Entry>();
+
+    private final AtomicLong expiredCount = new AtomicLong();
+
+    private final AtomicLong rescheduledCount = new AtomicLong();
+
+    private Thread thread;
+
+    private boolean stopped;
+
+    ServiceGroupContextExpiry(ConfigurationContext configurationContext) {
+        this.configurationContext = configurationContext;
+    }
+
+    /**
+     * Schedule the expiry of a context that was just added to the SOAP session table.
+     *
+     * @param serviceGroupContext the context
+     */
+    void schedule(ServiceGroupContext serviceGroupContext) {
+        queue.add(new Entry(serviceGroupContext, getDeadline(serviceGroupContext)));
+        start();
+    }
+
+    private synchronized void start() {
+        if (thread != null || stopped) {
+            return;
+        }
+        thread = new Thread(new Runnable() {
+            public void run() {
+                processQueue();
+            }
+        }, "axis2-session-expiry");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop the expiry thread. Contexts that are still scheduled are left in place; they are
+     * cleaned up by {@link ConfigurationContext#cleanupContexts()}.
+     */
+    synchronized void stop() {
+        stopped = true;
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+        queue.clear();
+    }
+
+    private void processQueue() {
+        try {
+            while (true) {
+                Entry entry = queue.take();
+                try {
+                    process(entry);
+                } catch (RuntimeException ex) {
+                    log.warn("Failed to expire service group context "
+                            + entry.serviceGroupContext.getId(), ex);
+                }
+            }
+        } catch (InterruptedException ex) {
+            if (log.isDebugEnabled()) {
+                log.debug("Service group context expiry stopped");
+            }
+        }
+    }
+
+    /**
+     * Expire the context of a due entry, or schedule the entry again if the context was touched
+     * after the entry was created.
+     */
+    void process(Entry entry) {
+        ServiceGroupContext serviceGroupContext = entry.serviceGroupContext;
+        long deadline = getDeadline(serviceGroupContext);
+        if (deadline >= System.currentTimeMillis()) {
+            entry.deadline = deadline;
+            queue.add(entry);
+            rescheduledCount.incrementAndGet();
+        } else if (configurationContext.expireServiceGroupContext(serviceGroupContext)) {
+            expiredCount.incrementAndGet();
+        }
+    }
+
+    private long getDeadline(ServiceGroupContext serviceGroupContext) {
+        return serviceGroupContext.getLastTouchedTime()
+                + configurationContext.getServiceGroupContextTimeoutInterval();
+    }
+
+    /**
+     * @return the number of contexts that are waiting to expire
+     */
+    public int getScheduledCount() {
+        return queue.size();
+    }
+
+    /**
+     * @return the number of contexts that have been removed because they timed out
+     */
+    public long getExpiredCount() {
+        return expiredCount.get();
+    }
+
+    /**
+     * @return the number of times a due context was found to have been touched and was
+     *         scheduled again
+     */
+    public long getRescheduledCount() {
+        return rescheduledCount.get();
+    }
+
+    static final class Entry implements Delayed {
+        final ServiceGroupContext serviceGroupContext;
+        long deadline;
+
+        Entry(ServiceGroupContext serviceGroupContext, long deadline) {
+            this.serviceGroupContext = serviceGroupContext;
+            this.deadline = deadline;
+        }
+
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadline - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        public int compareTo(Delayed other) {
+            long otherDeadline = ((Entry) other).deadline;
+            return deadline < otherDeadline ? -1 : deadline == otherDeadline ? 0 : 1;
+        }
+    }
+}
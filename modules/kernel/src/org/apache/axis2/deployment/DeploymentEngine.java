@@ -27,6 +27,7 @@ import org.apache.axis2.deployment.repository.util.ArchiveReader;
 import org.apache.axis2.deployment.repository.util.DeploymentFileData;
 import org.apache.axis2.deployment.repository.util.WSInfo;
 import org.apache.axis2.deployment.scheduler.DeploymentIterator;
+import org.apache.axis2.deployment.scheduler.RepositoryWatcher;
 import org.apache.axis2.deployment.scheduler.Scheduler;
 import org.apache.axis2.deployment.scheduler.SchedulerTask;
 import org.apache.axis2.deployment.util.Utils;
@@ -60,6 +61,13 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.zip.ZipEntry;
@@ -79,6 +87,7 @@ public abstract class DeploymentEngine implements DeploymentConstants {
     protected static String webLocationString = null;
     protected Scheduler scheduler;
     private SchedulerTask schedulerTask;
+    private RepositoryWatcher repositoryWatcher;
 
     public static void setWebLocationString(String webLocationString) {
         DeploymentEngine.webLocationString = webLocationString;
@@ -95,6 +104,19 @@ public abstract class DeploymentEngine implements DeploymentConstants {
      */
     protected boolean hotDeployment = true;
 
+    /**
+     * If set, hot deployment reacts to file system events instead of periodically rescanning
+     * the repository
+     */
+    protected boolean watchRepository = false;
+
+    /**
+     * The number of service archives that may be processed at the same time
+     */
+    protected int deploymentThreads = 1;
+
+    private ExecutorService deploymentExecutor;
+
     /**
      * Stores all the web Services to deploy.
      */
@@ -378,6 +400,10 @@ public abstract class DeploymentEngine implements DeploymentConstants {
 
             fillServiceGroup(serviceGroup, serviceList, serviceLocation, axisConfiguration);
             axisConfiguration.addServiceGroup(serviceGroup);
+            // build the dispatch indexes now rather than on the first request
+            for (AxisService axisService : serviceList) {
+                axisService.getDispatchIndex();
+            }
 
             if (currentDeploymentFile != null) {
                 addAsWebResources(currentDeploymentFile.getFile(),
@@ -578,8 +604,15 @@ public abstract class DeploymentEngine implements DeploymentConstants {
     public synchronized void doDeploy() {
         try {
             if (wsToDeploy.size() > 0) {
+                List<DeploymentFileData> serviceBatch = new ArrayList<DeploymentFileData>();
                 for (Object aWsToDeploy : wsToDeploy) {
                     DeploymentFileData fileToDeploy = (DeploymentFileData) aWsToDeploy;
+                    if (deploymentThreads > 1 && isConcurrentlyDeployable(fileToDeploy)) {
+                        serviceBatch.add(fileToDeploy);
+                        continue;
+                    }
+                    // keep the relative order of service archives and other artifacts
+                    deployConcurrently(serviceBatch);
                     try {
                         fileToDeploy.deploy();
                     } catch (DeploymentException e) {
@@ -587,12 +620,93 @@ public abstract class DeploymentEngine implements DeploymentConstants {
                         log.info(e);
                     }
                 }
+                deployConcurrently(serviceBatch);
             }
         } finally {
             wsToDeploy.clear();
         }
     }
 
+    /**
+     * Only archives handled by the standard {@link ServiceDeployer} are split into a
+     * concurrent build step and a serial registration step; any other deployer (including
+     * subclasses of ServiceDeployer) is invoked as usual.
+     */
+    private boolean isConcurrentlyDeployable(DeploymentFileData fileToDeploy) {
+        return fileToDeploy.getFile() != null && fileToDeploy.getDeployer() != null
+                && fileToDeploy.getDeployer().getClass() == ServiceDeployer.class;
+    }
+
+    /**
+     * Deploys a batch of service archives. The archives are read and their service groups are
+     * built on the deployment thread pool; the service groups are then added to the
+     * AxisConfiguration one by one, in the original order, on the calling thread.
+     *
+     * @param serviceBatch the archives to deploy; the list is cleared when this method returns
+     */
+    private void deployConcurrently(List<DeploymentFileData> serviceBatch) {
+        if (serviceBatch.isEmpty()) {
+            return;
+        }
+        try {
+            ExecutorService executor = getDeploymentExecutor();
+            final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+            List<Future<ServiceDeployer.PreparedServiceGroup>> futures =
+                    new ArrayList<Future<ServiceDeployer.PreparedServiceGroup>>();
+            for (final DeploymentFileData fileToDeploy : serviceBatch) {
+                futures.add(executor.submit(new Callable<ServiceDeployer.PreparedServiceGroup>() {
+                    public ServiceDeployer.PreparedServiceGroup call() throws Exception {
+                        Thread thread = Thread.currentThread();
+                        ClassLoader oldClassLoader = thread.getContextClassLoader();
+                        thread.setContextClassLoader(contextClassLoader);
+                        try {
+                            return ((ServiceDeployer)fileToDeploy.getDeployer())
+                                    .prepare(fileToDeploy);
+                        } finally {
+                            thread.setContextClassLoader(oldClassLoader);
+                        }
+                    }
+                }));
+            }
+            for (int i = 0; i < serviceBatch.size(); i++) {
+                DeploymentFileData fileToDeploy = serviceBatch.get(i);
+                try {
+                    ServiceDeployer.PreparedServiceGroup prepared = futures.get(i).get();
+                    ((ServiceDeployer)fileToDeploy.getDeployer()).register(fileToDeploy, prepared);
+                } catch (ExecutionException e) {
+                    log.info(e.getCause());
+                } catch (DeploymentException e) {
+                    log.info(e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    for (Future<ServiceDeployer.PreparedServiceGroup> future : futures) {
+                        future.cancel(true);
+                    }
+                    log.warn("Interrupted while deploying services");
+                    return;
+                }
+            }
+        } finally {
+            serviceBatch.clear();
+        }
+    }
+
+    private synchronized ExecutorService getDeploymentExecutor() {
+        if (deploymentExecutor == null) {
+            final AtomicInteger threadNumber = new AtomicInteger();
+            deploymentExecutor = Executors.newFixedThreadPool(deploymentThreads,
+                    new ThreadFactory() {
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(r,
+                                    "axis2-deployment-" + threadNumber.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+        }
+        return deploymentExecutor;
+    }
+
     /**
      * Checks if the modules, referred by server.xml, exist or that they are deployed.
      *
@@ -643,6 +757,18 @@ public abstract class DeploymentEngine implements DeploymentConstants {
      * @param listener : RepositoryListener
      */
     protected void startSearch(RepositoryListener listener) {
+        if (watchRepository) {
+            try {
+                repositoryWatcher = new RepositoryWatcher(listener, axisConfig,
+                        listener.getWatchedDirectories());
+                repositoryWatcher.start();
+                return;
+            } catch (IOException e) {
+                log.warn("Unable to watch the repository for changes; "
+                        + "falling back to periodic scanning", e);
+                repositoryWatcher = null;
+            }
+        }
         scheduler = new Scheduler();
 
         schedulerTask = new SchedulerTask(listener, axisConfig);
@@ -838,6 +964,28 @@ public abstract class DeploymentEngine implements DeploymentConstants {
             this.hotUpdate = JavaUtils.isTrue(hotUpdate.getValue(), true);
         }
 
+        Object hotDeploymentMode = axisConfig.getParameterValue(TAG_HOT_DEPLOYMENT_MODE);
+        if (hotDeploymentMode != null) {
+            String mode = hotDeploymentMode.toString().trim();
+            if (HOT_DEPLOYMENT_MODE_WATCH.equalsIgnoreCase(mode)) {
+                watchRepository = true;
+            } else if (HOT_DEPLOYMENT_MODE_POLL.equalsIgnoreCase(mode)) {
+                watchRepository = false;
+            } else {
+                log.warn("Unknown " + TAG_HOT_DEPLOYMENT_MODE + " '" + mode + "'; using "
+                        + HOT_DEPLOYMENT_MODE_POLL);
+            }
+        }
+
+        Object threads = axisConfig.getParameterValue(TAG_DEPLOYMENT_THREADS);
+        if (threads != null) {
+            try {
+                deploymentThreads = Math.max(1, Integer.parseInt(threads.toString().trim()));
+            } catch (NumberFormatException e) {
+                log.warn("Invalid value for " + TAG_DEPLOYMENT_THREADS + ": " + threads);
+            }
+        }
+
         String serviceDirPara = (String)
                 axisConfig.getParameterValue(DeploymentConstants.SERVICE_DIR_PATH);
         if (serviceDirPara != null) {
@@ -1175,6 +1323,15 @@ public abstract class DeploymentEngine implements DeploymentConstants {
         if (scheduler != null) {
             scheduler.cleanup(schedulerTask);
         }
+        if (repositoryWatcher != null) {
+            repositoryWatcher.stop();
+        }
+        synchronized (this) {
+            if (deploymentExecutor != null) {
+                deploymentExecutor.shutdownNow();
+                deploymentExecutor = null;
+            }
+        }
         for (Map<String, Deployer> stringDeployerMap : deployerMap.values()) {
             for (Deployer deployer : stringDeployerMap.values()) {
                 try {
@@ -35,7 +35,11 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Enumeration;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 
 public class RepositoryListener implements DeploymentConstants {
@@ -277,15 +281,20 @@ public class RepositoryListener implements DeploymentConstants {
             String directory = entry.getKey();
             Map<String, Deployer> extensionMap = entry.getValue();
             for (String extension : extensionMap.keySet()) {
-                File dirToSearch = new File(directory);
-                if (!dirToSearch.isAbsolute()) {
-                    dirToSearch = new File(deploymentEngine.getRepositoryDir(), directory);
-                }
+                File dirToSearch = getDeployerDirectory(directory);
                 findFileForGivenDirectory(dirToSearch, extension, directory);
             }
         }
     }
 
+    private File getDeployerDirectory(String directory) {
+        File dir = new File(directory);
+        if (!dir.isAbsolute()) {
+            dir = new File(deploymentEngine.getRepositoryDir(), directory);
+        }
+        return dir;
+    }
+
     /**
      * Recursively finds files with the provided extension and adds them to be deployed
      * @param directory - directory to search
@@ -378,6 +387,150 @@ public class RepositoryListener implements DeploymentConstants {
 //        update();
     }
 
+    /**
+     * Returns the directories scanned by {@link #startListener()}, i.e. the services directory
+     * and the directories of the deployers configured in axis2.xml.
+     *
+     * @return the list of directories
+     */
+    public List<File> getWatchedDirectories() {
+        List<File> directories = new ArrayList<File>();
+        directories.add(deploymentEngine.getServicesDir());
+        for (String directory : deploymentEngine.getDeployers().keySet()) {
+            directories.add(getDeployerDirectory(directory));
+        }
+        return directories;
+    }
+
+    /**
+     * Deploys, redeploys or undeploys the artifacts affected by a set of changed files. Unlike
+     * {@link #startListener()} only the given files are looked at; the rest of the repository is
+     * not scanned. The same rules as for a full scan are used to decide which deployer handles
+     * a file.
+     *
+     * @param changedFiles files or directories that have been created, modified or deleted
+     */
+    public void checkChangedFiles(Collection<File> changedFiles) {
+        File servicesDir = deploymentEngine.getServicesDir().getAbsoluteFile();
+        for (File changedFile : changedFiles) {
+            File file = changedFile.getAbsoluteFile();
+            WSInfo deployed = wsInfoList.findWSInfoItem(file);
+            if (deployed != null) {
+                File deployedFile = new File(deployed.getFileName());
+                if (deployedFile.exists()) {
+                    wsInfoList.updateWSInfoItem(deployedFile, deployed.getDeployer(),
+                                                deployed.getType());
+                } else {
+                    wsInfoList.removeWSInfoItems(deployedFile);
+                }
+            } else if (!file.exists()) {
+                // this may be a directory that contained deployed files
+                wsInfoList.removeWSInfoItems(file);
+            } else if (isInDirectory(file, servicesDir)) {
+                checkChangedService(file, servicesDir);
+            } else {
+                for (Map.Entry<String, Map<String, Deployer>> entry :
+                        deploymentEngine.getDeployers().entrySet()) {
+                    File root = getDeployerDirectory(entry.getKey()).getAbsoluteFile();
+                    if (isInDirectory(file, root)) {
+                        for (String extension : entry.getValue().keySet()) {
+                            checkChangedFile(file, root, extension, entry.getKey());
+                        }
+                    }
+                }
+            }
+        }
+        wsInfoList.updateChanges();
+    }
+
+    private static boolean isInDirectory(File file, File directory) {
+        return file.getPath().startsWith(directory.getPath() + File.separator);
+    }
+
+    /**
+     * Returns the files between the given root directory (exclusive) and the file (inclusive),
+     * or null if one of them would be skipped by a full scan.
+     */
+    private List<File> getPathFromRoot(File file, File root) {
+        LinkedList<File> path = new LinkedList<File>();
+        for (File f = file; f != null && !f.equals(root); f = f.getParentFile()) {
+            path.addFirst(f);
+        }
+        for (File f : path) {
+            if (isSourceControlDir(f)
+                    || (f.isDirectory() && f.getName().startsWith("."))
+                    || (f.isDirectory() && root.equals(f.getParentFile())
+                        && "lib".equalsIgnoreCase(f.getName()))) {
+                return null;
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Finds the service archive or exploded service directory a new file belongs to, following
+     * the rules of {@link #findServicesInDirectory(File)}.
+     */
+    private void checkChangedService(File file, File servicesDir) {
+        List<File> path = getPathFromRoot(file, servicesDir);
+        if (path == null) {
+            return;
+        }
+        for (File f : path) {
+            if (f.isDirectory()) {
+                if (new File(f, DeploymentConstants.SERVICES_XML).exists()
+                        || new File(f, DeploymentConstants.SERVICES_XML.toLowerCase()).exists()) {
+                    wsInfoList.updateWSInfoItem(f, deploymentEngine.getServiceDeployer(),
+                                                WSInfo.TYPE_SERVICE);
+                    return;
+                }
+            } else {
+                if (DeploymentFileData.isServiceArchiveFile(f.getName())) {
+                    wsInfoList.updateWSInfoItem(f, deploymentEngine.getServiceDeployer(),
+                                                WSInfo.TYPE_SERVICE);
+                }
+                return;
+            }
+        }
+        // a new directory that is not a service itself may contain services
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                checkChangedService(child, servicesDir);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a new file should be deployed by the deployer registered for the given
+     * directory and extension, following the rules of
+     * {@link #findFileForGivenDirectory(File, String, String)}.
+     */
+    private void checkChangedFile(File file, File root, String extension, String dir) {
+        List<File> path = getPathFromRoot(file, root);
+        if (path == null) {
+            return;
+        }
+        Deployer deployer = deploymentEngine.getDeployer(dir, extension);
+        if (extension == null) {
+            File top = path.get(0);
+            if (top.isDirectory()) {
+                deployer.setDirectory(dir);
+                wsInfoList.updateWSInfoItem(top, deployer, WSInfo.TYPE_CUSTOM);
+            }
+        } else if (file.isDirectory()) {
+            File[] files = file.listFiles();
+            if (files != null) {
+                for (File child : files) {
+                    checkChangedFile(child, root, extension, dir);
+                }
+            }
+        } else if (extension.equals(DeploymentFileData.getFileExtension(file.getName()))) {
+            deployer.setDirectory(dir);
+            wsInfoList.updateWSInfoItem(file, deployer, WSInfo.TYPE_CUSTOM);
+        }
+    }
+
     /** Updates WSInfoList object. */
     public void update() {
         wsInfoList.update();
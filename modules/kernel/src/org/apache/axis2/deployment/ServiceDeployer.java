@@ -133,11 +133,23 @@ public class ServiceDeployer extends AbstractDeployer {
             deployFromUrl(deploymentFileData);
             return;
         }
-        boolean isDirectory = deploymentFile.isDirectory();
-        ArchiveReader archiveReader;
-        StringWriter errorWriter = new StringWriter();
-        archiveReader = new ArchiveReader();
-        String serviceStatus = "";
+        register(deploymentFileData, prepare(deploymentFileData));
+    }
+
+    /**
+     * Reads the archive and builds its service group without touching the
+     * {@link AxisConfiguration}. This is the expensive part of a deployment (archive I/O, class
+     * loader creation and services.xml processing) and may be run for several archives at the
+     * same time; the result must then be passed to {@link #register} on a single thread.
+     *
+     * @param deploymentFileData a service archive or exploded service directory
+     * @return the service group that is ready to be registered
+     * @throws DeploymentException if the archive can't be processed
+     */
+    PreparedServiceGroup prepare(DeploymentFileData deploymentFileData)
+            throws DeploymentException {
+        boolean isDirectory = deploymentFileData.getFile().isDirectory();
+        ArchiveReader archiveReader = new ArchiveReader();
         try {
             deploymentFileData.setClassLoader(isDirectory,
                                               axisConfig.getServiceClassLoader(),
@@ -169,53 +181,56 @@ public class ServiceDeployer extends AbstractDeployer {
                     }
                 }
             }
-            DeploymentEngine.addServiceGroup(serviceGroup,
-                                             serviceList,
-                                             location,
+            return new PreparedServiceGroup(serviceGroup, serviceList, location);
+        } catch (Throwable t) {
+            throw deploymentFailed(deploymentFileData, t);
+        }
+    }
+
+    /**
+     * Adds a service group built by {@link #prepare} to the {@link AxisConfiguration}.
+     *
+     * @param deploymentFileData the archive the service group was built from
+     * @param prepared           the result of {@link #prepare}
+     * @throws DeploymentException if the service group can't be added
+     */
+    void register(DeploymentFileData deploymentFileData, PreparedServiceGroup prepared)
+            throws DeploymentException {
+        try {
+            DeploymentEngine.addServiceGroup(prepared.serviceGroup,
+                                             prepared.serviceList,
+                                             prepared.location,
                                              deploymentFileData,
                                              axisConfig);
 
             super.deploy(deploymentFileData);
-        } catch (DeploymentException de) {
-            de.printStackTrace();
+        } catch (Throwable t) {
+            throw deploymentFailed(deploymentFileData, t);
+        }
+    }
+
+    /**
+     * Logs a failed deployment, records the archive as a faulty service and returns the
+     * exception to be thrown to the caller.
+     */
+    private DeploymentException deploymentFailed(DeploymentFileData deploymentFileData,
+                                                 Throwable t) {
+        StringWriter errorWriter = new StringWriter();
+        PrintWriter error_ptintWriter = new PrintWriter(errorWriter);
+        DeploymentException result;
+        if (t instanceof DeploymentException) {
             log.error(Messages.getMessage(DeploymentErrorMsgs.INVALID_SERVICE,
                                           deploymentFileData.getName(),
-                                          de.getMessage()),
-                      de);
-            PrintWriter error_ptintWriter = new PrintWriter(errorWriter);
-            de.printStackTrace(error_ptintWriter);
-            serviceStatus = "Error:\n" + errorWriter.toString();
-
-            throw de;
-
-        } catch (AxisFault axisFault) {
+                                          t.getMessage()),
+                      t);
+            result = (DeploymentException)t;
+        } else if (t instanceof AxisFault) {
             log.error(Messages.getMessage(DeploymentErrorMsgs.INVALID_SERVICE,
                                           deploymentFileData.getName(),
-                                          axisFault.getMessage()),
-                      axisFault);
-            PrintWriter error_ptintWriter = new PrintWriter(errorWriter);
-            axisFault.printStackTrace(error_ptintWriter);
-            serviceStatus = "Error:\n" + errorWriter.toString();
-
-            throw new DeploymentException(axisFault);
-
-        } catch (Exception e) {
-            if (log.isInfoEnabled()) {
-                StringWriter sw = new StringWriter();
-                PrintWriter pw = new PrintWriter(sw);
-                e.printStackTrace(pw);
-                log.info(Messages.getMessage(
-                        DeploymentErrorMsgs.INVALID_SERVICE,
-                        deploymentFileData.getName(),
-                        sw.getBuffer().toString()));
-            }
-            PrintWriter error_ptintWriter = new PrintWriter(errorWriter);
-            e.printStackTrace(error_ptintWriter);
-            serviceStatus = "Error:\n" + errorWriter.toString();
-
-            throw new DeploymentException(e);
-
-        } catch (Throwable t) {
+                                          t.getMessage()),
+                      t);
+            result = new DeploymentException(t);
+        } else {
             if (log.isInfoEnabled()) {
                 StringWriter sw = new StringWriter();
                 PrintWriter pw = new PrintWriter(sw);
@@ -225,17 +240,29 @@ public class ServiceDeployer extends AbstractDeployer {
                         deploymentFileData.getName(),
                         sw.getBuffer().toString()));
             }
-            PrintWriter error_ptintWriter = new PrintWriter(errorWriter);
-            t.printStackTrace(error_ptintWriter);
-            serviceStatus = "Error:\n" + errorWriter.toString();
+            result = t instanceof Exception ? new DeploymentException(t)
+                    : new DeploymentException(new Exception(t));
+        }
+        t.printStackTrace(error_ptintWriter);
+        axisConfig.getFaultyServices().put(deploymentFileData.getFile().getAbsolutePath(),
+                                           "Error:\n" + errorWriter.toString());
+        return result;
+    }
 
-            throw new DeploymentException(new Exception(t));
+    /**
+     * A service group that has been built from an archive but not yet added to the
+     * {@link AxisConfiguration}.
+     */
+    static class PreparedServiceGroup {
+        final AxisServiceGroup serviceGroup;
+        final ArrayList<AxisService> serviceList;
+        final URL location;
 
-        } finally {
-            if (serviceStatus.startsWith("Error:")) {
-                axisConfig.getFaultyServices().put(deploymentFileData.getFile().getAbsolutePath(),
-                                                   serviceStatus);
-            }
+        PreparedServiceGroup(AxisServiceGroup serviceGroup, ArrayList<AxisService> serviceList,
+                             URL location) {
+            this.serviceGroup = serviceGroup;
+            this.serviceList = serviceList;
+            this.location = location;
         }
     }
     
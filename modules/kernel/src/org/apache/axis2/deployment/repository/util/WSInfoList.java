@@ -69,6 +69,19 @@ public class WSInfoList implements DeploymentConstants {
      * @param file actual jar files for either Module or service
      */
     public synchronized void addWSInfoItem(File file, Deployer deployer , int type) {
+        jarList.add(updateWSInfoItem(file, deployer, type).getFileName());
+    }
+
+    /**
+     * Adds a new file to the deployment engine, or redeploys it if it has been modified, in the
+     * same way as {@link #addWSInfoItem(File, Deployer, int)}. Unlike that method the file is
+     * not recorded as seen by a full repository scan, so this can be used to process files
+     * that are reported as changed one by one.
+     *
+     * @param file actual jar files for either Module or service
+     * @return the WSInfo for the file
+     */
+    public synchronized WSInfo updateWSInfoItem(File file, Deployer deployer, int type) {
         WSInfo info = (WSInfo) currentJars.get(file.getAbsolutePath());
         if (info != null) {
             if (deploymentEngine.isHotUpdate() && isModified(file, info)) {
@@ -81,8 +94,47 @@ public class WSInfoList implements DeploymentConstants {
             info = getFileItem(file, deployer, type);
             setLastModifiedDate(file, info);
         }
+        return info;
+    }
 
-        jarList.add(info.getFileName());
+    /**
+     * Finds the deployed file a given file belongs to: either the file itself or the deployed
+     * directory (e.g. an exploded service) it is located in. Modules are not considered.
+     *
+     * @param file a file in the repository; it doesn't need to exist any more
+     * @return the WSInfo of the deployed file, or null if the file is not part of one
+     */
+    public synchronized WSInfo findWSInfoItem(File file) {
+        WSInfo found = null;
+        for (File f = file.getAbsoluteFile(); f != null; f = f.getParentFile()) {
+            WSInfo info = (WSInfo) currentJars.get(f.getAbsolutePath());
+            if (info != null && info.getType() != WSInfo.TYPE_MODULE) {
+                found = info;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Undeploys a file that has been removed from the repository. If the file was a directory,
+     * all deployed files below it are undeployed as well.
+     */
+    public synchronized void removeWSInfoItems(File file) {
+        String path = file.getAbsolutePath();
+        String prefix = path.endsWith(File.separator) ? path : path + File.separator;
+        Iterator infoItems = currentJars.entrySet().iterator();
+        while (infoItems.hasNext()) {
+            Map.Entry entry = (Map.Entry) infoItems.next();
+            String fileName = (String) entry.getKey();
+            WSInfo infoItem = (WSInfo) entry.getValue();
+            if (infoItem.getType() == WSInfo.TYPE_MODULE) {
+                continue;
+            }
+            if (fileName.equals(path) || fileName.startsWith(prefix)) {
+                deploymentEngine.addWSToUndeploy(infoItem);
+                infoItems.remove();
+            }
+        }
     }
     
     public synchronized void addWSInfoItem(URL url, Deployer deployer, int type) {
@@ -165,6 +217,18 @@ public class WSInfoList implements DeploymentConstants {
         }
     }
 
+    /**
+     * Applies the changes collected through {@link #updateWSInfoItem} and
+     * {@link #removeWSInfoItems}. Unlike {@link #update()} this doesn't treat files that haven't
+     * been reported since the last call as removed.
+     */
+    public void updateChanges() {
+        synchronized (deploymentEngine) {
+            deploymentEngine.unDeploy();
+            deploymentEngine.doDeploy();
+        }
+    }
+
     /**
      * Gets the WSInfo object related to a file if it exists, null otherwise.
      *
@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.deployment.scheduler;
+
+import org.apache.axis2.deployment.RepositoryListener;
+import org.apache.axis2.engine.AxisConfiguration;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives hot deployment from file system events instead of the periodic rescans done by
+ * {@link Scheduler}. The repository directories are registered with a {@link WatchService} and
+ * only the files reported as created, modified or deleted are passed to
+ * {@link RepositoryListener#checkChangedFiles}. Events are collected until the repository has
+ * been quiet for a short period, so that an archive that is still being copied is handled once.
+ * <p>
+ * If the watch service loses events, the whole repository is rescanned as in polling mode.
+ * <p>
+ * This mode is selected by setting the <code>hotdeploymentMode</code> parameter in axis2.xml to
+ * <code>watch</code>.
+ */
+public class RepositoryWatcher implements Runnable {
+    private static final Log log = LogFactory.getLog(RepositoryWatcher.class);
+
+    /**
+     * The time in milliseconds without new events after which collected changes are deployed
+     */
+    public static final long DEFAULT_QUIET_PERIOD = 500;
+
+    private final RepositoryListener listener;
+    private final AxisConfiguration axisConfig;
+    private final List<File> directories;
+    private final long quietPeriod;
+    private final Map<WatchKey, Path> keys = new ConcurrentHashMap<WatchKey, Path>();
+
+    private WatchService watchService;
+    private Thread thread;
+    private volatile boolean running;
+
+    public RepositoryWatcher(RepositoryListener listener, AxisConfiguration axisConfig,
+                             List<File> directories) {
+        this(listener, axisConfig, directories, DEFAULT_QUIET_PERIOD);
+    }
+
+    public RepositoryWatcher(RepositoryListener listener, AxisConfiguration axisConfig,
+                             List<File> directories, long quietPeriod) {
+        this.listener = listener;
+        this.axisConfig = axisConfig;
+        this.directories = new ArrayList<File>(directories);
+        this.quietPeriod = quietPeriod;
+    }
+
+    /**
+     * Registers the repository directories and starts the watcher thread.
+     *
+     * @throws IOException if the directories can't be watched
+     */
+    public synchronized void start() throws IOException {
+        watchService = FileSystems.getDefault().newWatchService();
+        try {
+            for (File directory : directories) {
+                if (directory.isDirectory()) {
+                    registerAll(directory.getAbsoluteFile().toPath());
+                }
+            }
+        } catch (IOException e) {
+            watchService.close();
+            throw e;
+        }
+        running = true;
+        thread = new Thread(this, "axis2-repository-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                log.debug("Error closing the watch service", e);
+            }
+        }
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void registerAll(Path start) throws IOException {
+        Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
+                    throws IOException {
+                WatchKey key = dir.register(watchService,
+                                            StandardWatchEventKinds.ENTRY_CREATE,
+                                            StandardWatchEventKinds.ENTRY_DELETE,
+                                            StandardWatchEventKinds.ENTRY_MODIFY);
+                keys.put(key, dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    public void run() {
+        while (running) {
+            Set<File> changedFiles = new LinkedHashSet<File>();
+            boolean overflow;
+            try {
+                overflow = processEvents(watchService.take(), changedFiles);
+                WatchKey key;
+                while ((key = watchService.poll(quietPeriod, TimeUnit.MILLISECONDS)) != null) {
+                    overflow |= processEvents(key, changedFiles);
+                }
+            } catch (ClosedWatchServiceException e) {
+                break;
+            } catch (InterruptedException e) {
+                break;
+            }
+            if (!running) {
+                break;
+            }
+            try {
+                deploy(changedFiles, overflow);
+            } catch (RuntimeException e) {
+                log.error("Error while processing repository changes", e);
+            }
+        }
+    }
+
+    private void deploy(final Set<File> changedFiles, boolean overflow) {
+        if (overflow) {
+            log.warn("File system events were lost; rescanning the repository");
+            SchedulerTask.runDeploymentTask(axisConfig, new Runnable() {
+                public void run() {
+                    listener.startListener();
+                }
+            });
+        } else if (!changedFiles.isEmpty()) {
+            if (log.isDebugEnabled()) {
+                log.debug("Repository changes: " + changedFiles);
+            }
+            SchedulerTask.runDeploymentTask(axisConfig, new Runnable() {
+                public void run() {
+                    listener.checkChangedFiles(changedFiles);
+                }
+            });
+        }
+    }
+
+    /**
+     * Adds the files reported by a watch key to the set of changed files and registers new
+     * directories.
+     *
+     * @return true if events were lost
+     */
+    private boolean processEvents(WatchKey key, Set<File> changedFiles) {
+        boolean overflow = false;
+        Path dir = keys.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflow = true;
+                continue;
+            }
+            if (dir == null) {
+                continue;
+            }
+            Path child = dir.resolve((Path)event.context());
+            changedFiles.add(child.toFile());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE
+                    && Files.isDirectory(child)) {
+                try {
+                    registerAll(child);
+                } catch (IOException e) {
+                    log.warn("Unable to watch " + child, e);
+                }
+            }
+        }
+        if (!key.reset()) {
+            keys.remove(key);
+        }
+        return overflow;
+    }
+}
@@ -77,6 +77,18 @@ public class SchedulerTask implements Runnable {
      * The action to be performed by this scheduler task.
      */
     public void run() {
+        runDeploymentTask(axisConfig, new Runnable() {
+            public void run() {
+                checkRepository();
+            }
+        });
+    }
+
+    /**
+     * Runs a repository update while holding the AxisConfiguration lock and flags it through
+     * the {@link DeploymentEngine#DEPLOYMENT_TASK_RUNNING} parameter.
+     */
+    static void runDeploymentTask(AxisConfiguration axisConfig, Runnable task) {
         synchronized (axisConfig) {
             Parameter param =
                     axisConfig.getParameter(DeploymentEngine.DEPLOYMENT_TASK_RUNNING);
@@ -91,7 +103,7 @@ public class SchedulerTask implements Runnable {
 
             try {
                 DEPLOYMENT_TASK_STATUS_PARAM.setValue(Boolean.TRUE);
-                checkRepository();
+                task.run();
             } finally {
                 DEPLOYMENT_TASK_STATUS_PARAM.setValue(Boolean.FALSE);
             }
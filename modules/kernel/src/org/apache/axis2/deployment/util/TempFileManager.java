@@ -65,7 +65,7 @@ public class TempFileManager {
      * @throws IOException if a file could not be created
      */
     @SuppressWarnings({"ResultOfMethodCallIgnored"})
-    public static File createTempFile(String prefix, String suffix)
+    public static synchronized File createTempFile(String prefix, String suffix)
             throws IOException {
         // Check to see if you have already initialized a temp directory
         // for this class.
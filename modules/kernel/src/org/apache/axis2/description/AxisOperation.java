@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Set;
 
 import javax.xml.namespace.QName;
@@ -37,7 +38,9 @@ import org.apache.axis2.context.OperationContext;
 import org.apache.axis2.context.ServiceContext;
 import org.apache.axis2.engine.AxisConfiguration;
 import org.apache.axis2.engine.AxisError;
+import org.apache.axis2.engine.CompiledFlow;
 import org.apache.axis2.engine.MessageReceiver;
+import org.apache.axis2.engine.Phase;
 import org.apache.axis2.i18n.Messages;
 import org.apache.axis2.phaseresolver.PhaseResolver;
 import org.apache.axis2.wsdl.WSDLConstants;
@@ -79,6 +82,8 @@ public abstract class AxisOperation extends AxisDescription
 
     private String soapAction;
 
+    private volatile CompiledFlow compiledInFlow;
+    private volatile CompiledFlow compiledOutFlow;
 
     /** Default constructor */
     public AxisOperation() {
@@ -150,6 +155,7 @@ public abstract class AxisOperation extends AxisDescription
         AxisConfiguration axisConfig = getAxisConfiguration();
         PhaseResolver phaseResolver = new PhaseResolver(axisConfig);
         phaseResolver.engageModuleToOperation(this, axisModule);
+        invalidateCompiledFlows();
     }
 
     protected void onDisengage(AxisModule module) {
@@ -163,6 +169,7 @@ public abstract class AxisOperation extends AxisDescription
             phaseResolver.disengageModuleFromGlobalChains(module);
         }
         phaseResolver.disengageModuleFromOperationChain(module, this);
+        invalidateCompiledFlows();
 
         //removing operations added at the time of module engagemnt
         HashMap<QName, AxisOperation> moduleOperations = module.getOperations();
@@ -363,6 +370,46 @@ public abstract class AxisOperation extends AxisDescription
 
     public abstract ArrayList getRemainingPhasesInFlow();
 
+    /**
+     * Get the remaining in flow of this operation as a {@link CompiledFlow}. The flow is compiled
+     * on first use and compiled again whenever the operation phases change.
+     *
+     * @return the compiled remaining in flow
+     */
+    public CompiledFlow getCompiledRemainingPhasesInFlow() {
+        ArrayList phases = getRemainingPhasesInFlow();
+        CompiledFlow flow = compiledInFlow;
+        if (flow == null || !flow.isValid(phases, null)) {
+            compiledInFlow = flow = CompiledFlow.compile(phases, null);
+        }
+        return flow;
+    }
+
+    /**
+     * Get the out flow of this operation, followed by the given global out phases, as a
+     * {@link CompiledFlow}.
+     *
+     * @param globalOutPhases the global out phases of the configuration
+     * @return the compiled out flow
+     * @see #getCompiledRemainingPhasesInFlow()
+     */
+    public CompiledFlow getCompiledPhasesOutFlow(List<Phase> globalOutPhases) {
+        ArrayList phases = getPhasesOutFlow();
+        CompiledFlow flow = compiledOutFlow;
+        if (flow == null || !flow.isValid(phases, globalOutPhases)) {
+            compiledOutFlow = flow = CompiledFlow.compile(phases, globalOutPhases);
+        }
+        return flow;
+    }
+
+    /**
+     * Drop the compiled flows of this operation, so that they are compiled again on next use.
+     */
+    public void invalidateCompiledFlows() {
+        compiledInFlow = null;
+        compiledOutFlow = null;
+    }
+
     public String getStyle() {
         return style;
     }
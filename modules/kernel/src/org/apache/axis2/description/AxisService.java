@@ -185,6 +185,11 @@ public class AxisService extends AxisDescription {
     // duplicated across
     // multiple operations under this service.
     private List<String> invalidOperationsAliases = null;
+
+    // Lookup tables for dispatching; built on first use and discarded whenever the
+    // operations, aliases or endpoints change. See getDispatchIndex().
+    private volatile OperationDispatchIndex dispatchIndex;
+    private final Object dispatchIndexLock = new Object();
     // private HashMap operations = new HashMap();
 
     // to store module ref at deploy time parsing
@@ -324,6 +329,7 @@ public class AxisService extends AxisDescription {
 
     public void addEndpoint(String key, AxisEndpoint axisEndpoint) {
         this.endpointMap.put(key, axisEndpoint);
+        invalidateDispatchIndex();
     }
 
     public boolean isSchemaLocationsAdjusted() {
@@ -740,6 +746,7 @@ public class AxisService extends AxisDescription {
             axisOperation.setMessageReceiver(loadDefaultMessageReceiver(
                     axisOperation.getMessageExchangePattern(), this));
         }
+        invalidateDispatchIndex();
     }
 
     private MessageReceiver loadDefaultMessageReceiver(String mepURL,
@@ -942,6 +949,7 @@ public class AxisService extends AxisDescription {
                 // list of invalid mappings
                 operationsAliasesMap.remove(action);
                 invalidOperationsAliases.add(action);
+                invalidateDispatchIndex();
                 if (log.isDebugEnabled()) {
                     log
                             .debug("mapActionToOperation: The action is already mapped to a different "
@@ -959,6 +967,7 @@ public class AxisService extends AxisDescription {
             }
         } else {
             operationsAliasesMap.put(action, axisOperation);
+            invalidateDispatchIndex();
             // Adding operation name to the mapping table
             // operationsAliasesMap.put(axisOperation.getName().getLocalPart(),
             // axisOperation);
@@ -2035,6 +2044,38 @@ public class AxisService extends AxisDescription {
         return (AxisOperation) operationsAliasesMap.get(action);
     }
 
+    /**
+     * Returns the dispatch index of this service, an immutable snapshot of the lookup tables
+     * used to find the operation for a request. The index is built on first use (normally when
+     * the service is deployed) and is replaced after operations, aliases or endpoints change.
+     *
+     * @return the dispatch index
+     */
+    public OperationDispatchIndex getDispatchIndex() {
+        OperationDispatchIndex index = dispatchIndex;
+        if (index == null) {
+            synchronized (dispatchIndexLock) {
+                index = dispatchIndex;
+                if (index == null) {
+                    index = new OperationDispatchIndex(this,
+                            new ArrayList<String>(operationsAliasesMap.keySet()));
+                    dispatchIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Discards the dispatch index so that it is rebuilt on the next call to
+     * {@link #getDispatchIndex()}.
+     */
+    public void invalidateDispatchIndex() {
+        synchronized (dispatchIndexLock) {
+            dispatchIndex = null;
+        }
+    }
+
     /**
      * Returns the operation given a SOAP Action. This method should be called
      * if only one Endpoint is defined for this Service. If more than one
@@ -2258,6 +2299,7 @@ public class AxisService extends AxisDescription {
 
     public void setTargetNamespace(String targetNamespace) {
         this.targetNamespace = targetNamespace;
+        invalidateDispatchIndex();
     }
 
     public String getTargetNamespacePrefix() {
@@ -2681,6 +2723,21 @@ public class AxisService extends AxisDescription {
 
     }
 
+    public void addChild(AxisDescription child) {
+        super.addChild(child);
+        invalidateDispatchIndex();
+    }
+
+    public void addChild(Object key, AxisDescription child) {
+        super.addChild(key, child);
+        invalidateDispatchIndex();
+    }
+
+    public void removeChild(Object key) {
+        super.removeChild(key);
+        invalidateDispatchIndex();
+    }
+
     public void removeOperation(QName opName) {
         AxisOperation operation = getOperation(opName);
         if (operation != null) {
@@ -2695,6 +2752,7 @@ public class AxisService extends AxisDescription {
             }
             operationsAliasesMap.remove(operation.getName().getLocalPart());
             invalidOperationsAliases.remove(operation.getName().getLocalPart());
+            invalidateDispatchIndex();
         }
     }
 
@@ -2723,6 +2781,7 @@ public class AxisService extends AxisDescription {
      */
     public void setImportedNamespaces(List importedNamespaces) {
         this.importedNamespaces = importedNamespaces;
+        invalidateDispatchIndex();
     }
     
 
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.description;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An immutable character trie used by {@link OperationDispatchIndex}. Keys are matched against
+ * a range of an existing string, so that no substrings have to be created while dispatching.
+ *
+ * @param <V> the type of the values
+ */
+final class DispatchTrie<V> {
+    private static final char[] NO_CHARS = new char[0];
+
+    private static final class Node<V> {
+        final char[] chars;
+        final Node<V>[] children;
+        final V value;
+
+        Node(char[] chars, Node<V>[] children, V value) {
+            this.chars = chars;
+            this.children = children;
+            this.value = value;
+        }
+
+        Node<V> child(char c) {
+            int index = Arrays.binarySearch(chars, c);
+            return index < 0 ? null : children[index];
+        }
+    }
+
+    /** Mutable node used while building the trie. */
+    private static final class Builder<V> {
+        final TreeMap<Character, Builder<V>> children = new TreeMap<Character, Builder<V>>();
+        V value;
+
+        @SuppressWarnings("unchecked")
+        Node<V> build() {
+            char[] chars = children.isEmpty() ? NO_CHARS : new char[children.size()];
+            Node<V>[] nodes = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, Builder<V>> entry : children.entrySet()) {
+                chars[i] = entry.getKey().charValue();
+                nodes[i] = entry.getValue().build();
+                i++;
+            }
+            return new Node<V>(chars, nodes, value);
+        }
+    }
+
+    private final Node<V> root;
+    private final int size;
+
+    DispatchTrie(Map<String, ? extends V> entries) {
+        Builder<V> rootBuilder = new Builder<V>();
+        int count = 0;
+        for (Map.Entry<String, ? extends V> entry : entries.entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null) {
+                continue;
+            }
+            Builder<V> builder = rootBuilder;
+            String key = entry.getKey();
+            for (int i = 0; i < key.length(); i++) {
+                Character c = Character.valueOf(key.charAt(i));
+                Builder<V> child = builder.children.get(c);
+                if (child == null) {
+                    child = new Builder<V>();
+                    builder.children.put(c, child);
+                }
+                builder = child;
+            }
+            builder.value = entry.getValue();
+            count++;
+        }
+        root = rootBuilder.build();
+        size = count;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the value whose key is exactly <code>s.substring(start, end)</code>.
+     */
+    V get(String s, int start, int end) {
+        Node<V> node = root;
+        for (int i = start; i < end && node != null; i++) {
+            node = node.child(s.charAt(i));
+        }
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Returns the value of the longest key that is a prefix of
+     * <code>prefix + s.substring(start, end) + (appendSlash ? "/" : "")</code>.
+     */
+    V getLongestPrefixMatch(String prefix, String s, int start, int end, boolean appendSlash) {
+        Node<V> node = root;
+        V match = node.value;
+        for (int i = 0; i < prefix.length(); i++) {
+            node = node.child(prefix.charAt(i));
+            if (node == null) {
+                return match;
+            }
+            if (node.value != null) {
+                match = node.value;
+            }
+        }
+        for (int i = start; i < end; i++) {
+            node = node.child(s.charAt(i));
+            if (node == null) {
+                return match;
+            }
+            if (node.value != null) {
+                match = node.value;
+            }
+        }
+        if (appendSlash) {
+            node = node.child('/');
+            if (node != null && node.value != null) {
+                match = node.value;
+            }
+        }
+        return match;
+    }
+}
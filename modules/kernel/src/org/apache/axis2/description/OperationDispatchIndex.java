@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.description;
+
+import javax.xml.namespace.QName;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of the lookup tables used to dispatch a request to an operation of an
+ * {@link AxisService}. It contains
+ * <ul>
+ * <li>the operations by name, resolved in the same way as {@link AxisService#getOperation(QName)}
+ * (operation names and aliases), and</li>
+ * <li>a trie of the constant parts of the HTTP locations of each binding, so that the operation
+ * for a REST request is found by a longest prefix match instead of scanning the
+ * {@link WSDL2Constants#HTTP_LOCATION_TABLE}.</li>
+ * </ul>
+ * All lookups take a range of the request URI so that dispatchers don't need to create
+ * substrings.
+ * <p>
+ * The index is obtained through {@link AxisService#getDispatchIndex()}. It is built when the
+ * service is deployed and is replaced as a whole when the operations of the service change.
+ */
+public final class OperationDispatchIndex {
+    private static final class HTTPLocationEntry {
+        final Map table;
+        final int tableSize;
+        final DispatchTrie<AxisOperation> trie;
+
+        HTTPLocationEntry(Map table) {
+            this.table = table;
+            this.tableSize = table.size();
+            this.trie = new DispatchTrie<AxisOperation>(toOperationMap(table));
+        }
+
+        boolean isCurrent(Object table) {
+            return this.table == table && tableSize == this.table.size();
+        }
+    }
+
+    private final AxisService service;
+    private final DispatchTrie<AxisOperation> operations;
+    private final Map<AxisBinding, HTTPLocationEntry> httpLocations;
+
+    OperationDispatchIndex(AxisService service, Collection<String> aliases) {
+        this.service = service;
+
+        Map<String, AxisOperation> operationMap = new HashMap<String, AxisOperation>();
+        for (Iterator<AxisOperation> it = service.getOperations(); it.hasNext(); ) {
+            addOperation(operationMap, it.next().getName().getLocalPart());
+        }
+        for (String alias : aliases) {
+            addOperation(operationMap, alias);
+        }
+        operations = new DispatchTrie<AxisOperation>(operationMap);
+
+        httpLocations = new IdentityHashMap<AxisBinding, HTTPLocationEntry>();
+        Map<String, AxisEndpoint> endpoints = service.getEndpoints();
+        if (endpoints != null) {
+            for (AxisEndpoint endpoint : endpoints.values()) {
+                AxisBinding binding = endpoint.getBinding();
+                if (binding != null && !httpLocations.containsKey(binding)) {
+                    Object table = binding.getProperty(WSDL2Constants.HTTP_LOCATION_TABLE);
+                    if (table instanceof Map) {
+                        httpLocations.put(binding, new HTTPLocationEntry((Map)table));
+                    }
+                }
+            }
+        }
+    }
+
+    private void addOperation(Map<String, AxisOperation> operationMap, String name) {
+        if (name != null && !operationMap.containsKey(name)) {
+            AxisOperation operation = service.getOperation(new QName(name));
+            if (operation != null) {
+                operationMap.put(name, operation);
+            }
+        }
+    }
+
+    private static Map<String, AxisOperation> toOperationMap(Map table) {
+        Map<String, AxisOperation> operationMap = new HashMap<String, AxisOperation>();
+        for (Iterator it = table.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry entry = (Map.Entry)it.next();
+            if (entry.getKey() instanceof String && entry.getValue() instanceof AxisOperation) {
+                operationMap.put((String)entry.getKey(), (AxisOperation)entry.getValue());
+            }
+        }
+        return operationMap;
+    }
+
+    /**
+     * Looks up an operation by the name or alias in <code>s.substring(start, end)</code>.
+     *
+     * @return the operation, or <code>null</code> if the name is unknown
+     */
+    public AxisOperation getOperation(String s, int start, int end) {
+        if (start >= end) {
+            return null;
+        }
+        return operations.get(s, start, end);
+    }
+
+    /**
+     * Finds the operation whose HTTP location matches a REST request. The request path is
+     * <code>httpMethod + uri.substring(start, end)</code> followed by a "/" if it doesn't
+     * already end with one; the operation with the longest HTTP location constant that is a
+     * prefix of the request path is returned.
+     *
+     * @param binding    the binding the request was dispatched to
+     * @param httpMethod the HTTP method of the request
+     * @param uri        the request URI
+     * @param start      the start of the HTTP location in the request URI
+     * @param end        the end of the HTTP location in the request URI
+     * @return the operation, or <code>null</code> if the binding has no HTTP location table or
+     *         no location matches
+     */
+    public AxisOperation getOperationByHTTPLocation(AxisBinding binding, String httpMethod,
+                                                    String uri, int start, int end) {
+        Object table = binding.getProperty(WSDL2Constants.HTTP_LOCATION_TABLE);
+        if (!(table instanceof Map)) {
+            return null;
+        }
+        HTTPLocationEntry entry = httpLocations.get(binding);
+        if (entry == null || !entry.isCurrent(table)) {
+            // the binding has been changed since this index was built
+            entry = new HTTPLocationEntry((Map)table);
+            service.invalidateDispatchIndex();
+        }
+        boolean appendSlash = end == start || uri.charAt(end - 1) != '/';
+        return entry.trie.getLongestPrefixMatch(String.valueOf(httpMethod), uri, start, end,
+                                                appendSlash);
+    }
+}
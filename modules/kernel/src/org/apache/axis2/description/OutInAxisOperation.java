@@ -20,6 +20,7 @@
 package org.apache.axis2.description;
 
 import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
 
 import javax.xml.namespace.QName;
 
@@ -42,6 +43,7 @@ import org.apache.axis2.i18n.Messages;
 import org.apache.axis2.kernel.TransportUtils;
 import org.apache.axis2.kernel.http.HTTPConstants;
 import org.apache.axis2.util.CallbackReceiver;
+import org.apache.axis2.util.JavaUtils;
 import org.apache.axis2.util.Utils;
 import org.apache.axis2.wsdl.WSDLConstants;
 import org.apache.commons.logging.Log;
@@ -231,6 +233,33 @@ class OutInAxisOperationClient extends OperationClient {
         }
     }
 
+    /**
+     * Executes the MEP without blocking the caller. The returned future is completed from the
+     * callback notified of the response. When a separate listener is used, the request is sent
+     * on the calling thread, and the future is completed by the thread that receives the
+     * response. Otherwise the exchange runs on a thread of the ConfigurationContext thread
+     * pool, which stays occupied until the response has been received, as the transports
+     * return the response from a blocking send. The caller is not blocked, but each
+     * outstanding invocation still holds a pooled thread.
+     * <p>
+     * A callback set on this client is still notified, before the future is completed.
+     *
+     * @return a future completed with the In message context, or completed exceptionally
+     *         with the error, or with the fault if exceptions are thrown on SOAP faults
+     * @throws AxisFault if the request could not be sent
+     */
+    protected CompletableFuture<MessageContext> executeAsyncImpl() throws AxisFault {
+        CompletableFuture<MessageContext> future = new CompletableFuture<MessageContext>();
+        AxisCallback callback = axisCallback;
+        axisCallback = new FutureCallBack(future, callback);
+        try {
+            executeImpl(false);
+        } finally {
+            axisCallback = callback;
+        }
+        return future;
+    }
+
     private void sendAsync(boolean useAsync, MessageContext mc)
             throws AxisFault {
         if (log.isDebugEnabled()) {
@@ -253,23 +282,44 @@ class OutInAxisOperationClient extends OperationClient {
                 if (log.isDebugEnabled()) {
                     log.debug("Creating new callback receiver");
                 }
-                callbackReceiver = new CallbackReceiver();
+                callbackReceiver = new CallbackReceiver(getMaxOutstandingCallbacks(mc));
                 axisOp.setMessageReceiver(callbackReceiver);
                 if (log.isDebugEnabled()) log.debug("OutInAxisOperation: callbackReceiver " + callbackReceiver + " : " + axisOp);
             }
         }
 
+        final ConfigurationContext configContext = mc.getConfigurationContext();
+        final String messageID = mc.getMessageID();
+        // once the callback has expired, the response is no longer expected
+        Runnable expiryHandler = new Runnable() {
+            public void run() {
+                configContext.unregisterOperationContext(messageID);
+            }
+        };
+        long timeout = options.getTimeOutInMilliSeconds();
+        // registered before the callback is added, so that it can't expire before
+        configContext.registerOperationContext(messageID, oc);
         SyncCallBack internalCallback = null;
-        if (axisCallback != null) {
-            callbackReceiver.addCallback(mc.getMessageID(), axisCallback);  
-            if (log.isDebugEnabled()) log.debug("OutInAxisOperationClient: Creating axis callback");            
-        } else {
-            if (log.isDebugEnabled()) {
-                log.debug("Creating internal callback");
+        try {
+            if (axisCallback != null) {
+                // even if the callback doesn't expire, don't wait longer than the timeout
+                // while the limit on outstanding callbacks is reached
+                callbackReceiver.addCallback(messageID, axisCallback, timeout,
+                        isExpireCallbacks(mc) ? timeout : -1, expiryHandler);
+                if (log.isDebugEnabled()) log.debug("OutInAxisOperationClient: Creating axis callback");            
+            } else {
+                if (log.isDebugEnabled()) {
+                    log.debug("Creating internal callback");
+                }
+                internalCallback = new SyncCallBack();
+                // the caller stops waiting after the timeout anyway, so the callback may expire
+                callbackReceiver.addCallback(messageID, internalCallback, timeout, timeout,
+                        expiryHandler);
+                if (log.isDebugEnabled()) log.debug("OutInAxisOperationClient: Creating internal callback");
             }
-            internalCallback = new SyncCallBack();
-            callbackReceiver.addCallback(mc.getMessageID(), internalCallback);
-            if (log.isDebugEnabled()) log.debug("OutInAxisOperationClient: Creating internal callback");
+        } catch (AxisFault e) {
+            configContext.unregisterOperationContext(messageID);
+            throw e;
         }
 
         /**
@@ -301,7 +351,6 @@ class OutInAxisOperationClient extends OperationClient {
 
         //if we don't do this , this guy will wait till it gets HTTP 202 in the HTTP case
         mc.setProperty(MessageContext.CLIENT_API_NON_BLOCKING, Boolean.TRUE);
-        mc.getConfigurationContext().registerOperationContext(mc.getMessageID(), oc);
         AxisEngine.send(mc);
         if (internalCallback != null) {
             internalCallback.waitForCompletion(options.getTimeOutInMilliSeconds());
@@ -318,6 +367,33 @@ class OutInAxisOperationClient extends OperationClient {
         }
     }
 
+    /**
+     * Should the callback of a non-blocking call expire after the timeout? This is only the
+     * case if enabled in the client options or in the axis2.xml.
+     */
+    private static boolean isExpireCallbacks(MessageContext mc) {
+        return JavaUtils.isTrueExplicitly(mc.getProperty(Constants.Configuration.EXPIRE_CALLBACKS))
+                || JavaUtils.isTrueExplicitly(mc.getConfigurationContext().getAxisConfiguration()
+                        .getParameterValue(Constants.Configuration.EXPIRE_CALLBACKS));
+    }
+
+    /**
+     * Returns the limit on outstanding callbacks configured in the axis2.xml, if any.
+     */
+    private static int getMaxOutstandingCallbacks(MessageContext mc) {
+        Parameter param = mc.getConfigurationContext().getAxisConfiguration()
+                .getParameter(Constants.Configuration.MAX_OUTSTANDING_CALLBACKS);
+        if (param != null && param.getValue() != null) {
+            try {
+                return Integer.parseInt(param.getValue().toString().trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid value for " + Constants.Configuration.MAX_OUTSTANDING_CALLBACKS
+                        + "; the number of outstanding callbacks is not bounded");
+            }
+        }
+        return -1;
+    }
+
     /**
      * When synchronous send() gets back a response MessageContext, this is the workhorse
      * method which processes it.
@@ -471,6 +547,79 @@ class OutInAxisOperationClient extends OperationClient {
         }
     }
 
+    /**
+     * This class acts as a callback that completes a future with the result. The future is
+     * completed even if the user callback throws.
+     */
+    private class FutureCallBack implements AxisCallback {
+        private final CompletableFuture<MessageContext> future;
+        private final AxisCallback callback;
+
+        FutureCallBack(CompletableFuture<MessageContext> future, AxisCallback callback) {
+            this.future = future;
+            this.callback = callback;
+        }
+
+        public void onMessage(MessageContext msgContext) {
+            try {
+                if (callback != null) {
+                    callback.onMessage(msgContext);
+                }
+            } finally {
+                complete(msgContext);
+            }
+        }
+
+        public void onFault(MessageContext msgContext) {
+            try {
+                if (callback != null) {
+                    callback.onFault(msgContext);
+                }
+            } finally {
+                if (options.isExceptionToBeThrownOnSOAPFault()) {
+                    future.completeExceptionally(
+                            Utils.getInboundFaultFromMessageContext(msgContext));
+                } else {
+                    complete(msgContext);
+                }
+            }
+        }
+
+        private void complete(MessageContext msgContext) {
+            try {
+                // the transport input stream may be closed once the MEP completes, so the
+                // envelope must be built before the response is handed to another thread
+                msgContext.getEnvelope().buildWithAttachments();
+                future.complete(msgContext);
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        public void onError(Exception e) {
+            try {
+                if (callback != null) {
+                    callback.onError(e);
+                }
+            } finally {
+                future.completeExceptionally(e);
+            }
+        }
+
+        public void onComplete() {
+            try {
+                if (callback != null) {
+                    callback.onComplete();
+                }
+            } finally {
+                if (!future.isDone()) {
+                    future.completeExceptionally(new AxisFault(
+                            Messages.getMessage("blockingInvocationExpectsResponse")));
+                }
+            }
+        }
+    }
+
     /**
      * This class acts as a callback that allows users to wait on the result.
      */
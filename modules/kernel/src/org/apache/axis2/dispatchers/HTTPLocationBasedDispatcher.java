@@ -32,10 +32,6 @@ import org.apache.axis2.kernel.http.HTTPConstants;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-import java.util.Collection;
-import java.util.Iterator;
-import java.util.Map;
-
 /**
  * Dispatches the operation based on the information from the target endpoint URL.
  */
@@ -54,25 +50,19 @@ public class HTTPLocationBasedDispatcher extends AbstractDispatcher {
         AxisService axisService = messageContext.getAxisService();
         if (axisService != null && messageContext.getTo() != null) {
             String uri = messageContext.getTo().getAddress();
-            String httpLocation = parseRequestURL(uri, axisService.getName());
+            int httpLocationStart = getHTTPLocationStart(uri, axisService.getName());
             String httpMethod = (String) messageContext.getProperty(HTTPConstants.HTTP_METHOD);
 
-            if (httpLocation != null) {
-                httpLocation = httpMethod + httpLocation;
-                if(! httpLocation.endsWith("/")){
-                     httpLocation=httpLocation.concat("/");
-                }
+            if (httpLocationStart != -1) {
                 AxisEndpoint axisEndpoint = (AxisEndpoint) messageContext
                         .getProperty(WSDL2Constants.ENDPOINT_LOCAL_NAME);
                 // Here we check whether the request was dispatched to the correct endpoint. If it
                 // was we can dispatch the operation using the HTTPLocationDispatcher table of that
                 // specific endpoint. 
-                if (axisEndpoint != null) {
-                    Map httpLocationTable = (Map) axisEndpoint.getBinding()
-                            .getProperty(WSDL2Constants.HTTP_LOCATION_TABLE);
-                    if (httpLocationTable != null) {
-                        return getOperationFromHTTPLocation(httpLocation, httpLocationTable);
-                    }
+                if (axisEndpoint != null && axisEndpoint.getBinding() != null) {
+                    return axisService.getDispatchIndex().getOperationByHTTPLocation(
+                            axisEndpoint.getBinding(), httpMethod, uri, httpLocationStart,
+                            uri.length());
                 } 
             } else {
                 log.debug("Attempt to check for Operation using HTTP Location failed");
@@ -96,52 +86,35 @@ public class HTTPLocationBasedDispatcher extends AbstractDispatcher {
         init(new HandlerDescription(NAME));
     }
 
-    private String parseRequestURL(String path, String serviceName) {
-
-        serviceName = "/" + serviceName;
-        int index = path.lastIndexOf(serviceName);
-        String httpLocation = null;
-
-        if (-1 != index) {
-            int serviceStart = index + serviceName.length();
-            if (path.length() > serviceStart + 1) {
-                httpLocation = path.substring(serviceStart);
-            }
-        }
-
-        if (httpLocation != null) {
-            index = httpLocation.indexOf("/");
-            if (-1 != index) {
-                httpLocation = httpLocation.substring(index);
-            } else {
-                int queryIndex = httpLocation.indexOf("?");
-                if (queryIndex != -1) {
-                    httpLocation = httpLocation.substring(queryIndex);
-                }
-            }
-        }
-        return httpLocation;
-    }
-
     /**
-     * Given the requestPath that the request came to his method returns the corresponding axisOperation
+     * Finds the start of the HTTP location in the request URL, i.e. the part following the
+     * service name (and endpoint name, if any).
      *
-     * @param requestPath - Part of the request url which is the part after the service name
-     * @param httpLocationTable - The httpLocationTable stored in the relavant binding
-     * @return AxisOperation - The corresponding AxisOperation
+     * @param path        the request URL
+     * @param serviceName the name of the service the request was dispatched to
+     * @return the index of the HTTP location, or -1 if there is none
      */
-    private AxisOperation getOperationFromHTTPLocation(String requestPath, Map httpLocationTable) {
+    private int getHTTPLocationStart(String path, String serviceName) {
+        // find the last occurrence of "/" + serviceName
+        int index = path.lastIndexOf(serviceName);
+        while (index > 0 && path.charAt(index - 1) != '/') {
+            index = path.lastIndexOf(serviceName, index - 1);
+        }
+        if (index <= 0) {
+            return -1;
+        }
 
-        Collection httpLocations = httpLocationTable.keySet();
-        Iterator iter = httpLocations.iterator();
-        while (iter.hasNext()) {
-            String location = (String) iter.next();
-            int index = requestPath.indexOf(location);
-            if (index == 0) {
-                return (AxisOperation) httpLocationTable.get(location);
+        int serviceStart = index + serviceName.length();
+        if (path.length() <= serviceStart + 1) {
+            return -1;
+        }
+        int httpLocationStart = path.indexOf('/', serviceStart);
+        if (httpLocationStart == -1) {
+            httpLocationStart = path.indexOf('?', serviceStart);
+            if (httpLocationStart == -1) {
+                httpLocationStart = serviceStart;
             }
-
         }
-        return null;
+        return httpLocationStart;
     }
 }
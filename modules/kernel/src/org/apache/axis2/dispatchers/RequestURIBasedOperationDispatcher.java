@@ -30,8 +30,6 @@ import org.apache.axis2.util.Utils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-import javax.xml.namespace.QName;
-
 /**
  * Dispatches the operation based on the information from the target endpoint URL.
  */
@@ -50,14 +48,17 @@ public class RequestURIBasedOperationDispatcher extends AbstractOperationDispatc
         EndpointReference toEPR = messageContext.getTo();
         if (toEPR != null) {
             String filePart = toEPR.getAddress();
-            String operation  = Utils.getOperationName(filePart, service.getName());
+            int operationStart = getOperationNameStart(filePart, service.getName());
 
-            if (operation != null) {
-                QName operationName = new QName(operation);
-                log.debug(messageContext.getLogIDString() +
-                        " Checking for Operation using QName(target endpoint URI fragment) : " +
-                        operationName);
-                return service.getOperation(operationName);
+            if (operationStart != -1) {
+                int operationEnd = getOperationNameEnd(filePart, operationStart);
+                if (log.isDebugEnabled()) {
+                    log.debug(messageContext.getLogIDString() +
+                            " Checking for Operation using QName(target endpoint URI fragment) : " +
+                            filePart.substring(operationStart, operationEnd));
+                }
+                return service.getDispatchIndex().getOperation(filePart, operationStart,
+                                                               operationEnd);
             } else {
                 log.debug(messageContext.getLogIDString() +
                         " Attempted to check for Operation using target endpoint URI, but the operation fragment was missing on filePart: " + filePart + " , service name: " + service.getName());
@@ -73,4 +74,63 @@ public class RequestURIBasedOperationDispatcher extends AbstractOperationDispatc
     public void initDispatcher() {
         init(new HandlerDescription(NAME));
     }
+
+    /**
+     * Finds the start of the operation name in the request URI. This is the index based
+     * equivalent of {@link Utils#getOperationName(String, String)}.
+     *
+     * @param path        the request URI
+     * @param serviceName the service name
+     * @return the index of the operation name, or -1 if the service name is not found
+     */
+    static int getOperationNameStart(String path, String serviceName) {
+        if (path == null || serviceName == null) {
+            return -1;
+        }
+        int idx = lastIndexOf(path, serviceName, '/');
+        if (idx != -1) {
+            return idx + serviceName.length() + 1;
+        }
+        //this scenario occurs if the endpoint name is there in the URL after service name
+        idx = lastIndexOf(path, serviceName, '.');
+        if (idx != -1) {
+            int start = idx + serviceName.length() + 1;
+            int slash = path.indexOf('/', start);
+            return slash == -1 ? start : slash + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the end of the operation name that starts at the given index: the operation name
+     * ends before the query string or the next '/'.
+     */
+    static int getOperationNameEnd(String path, int start) {
+        int end = path.length();
+        int queryIndex = path.indexOf('?', start);
+        if (queryIndex > start) {
+            end = queryIndex;
+        }
+        int slash = path.indexOf('/', start);
+        if (slash != -1 && slash < end) {
+            end = slash;
+        }
+        return end;
+    }
+
+    /**
+     * Returns the last index of <code>name</code> immediately followed by <code>next</code>,
+     * i.e. <code>path.lastIndexOf(name + next)</code>.
+     */
+    private static int lastIndexOf(String path, String name, char next) {
+        int idx = path.lastIndexOf(name);
+        while (idx != -1) {
+            int after = idx + name.length();
+            if (after < path.length() && path.charAt(after) == next) {
+                return idx;
+            }
+            idx = idx == 0 ? -1 : path.lastIndexOf(name, idx - 1);
+        }
+        return -1;
+    }
 }
@@ -73,20 +73,28 @@ public class RequestURIBasedServiceDispatcher extends AbstractServiceDispatcher
                  * decide the service name just by looking at the request URL.
                  */
                 AxisService axisService = null;
-                String[] parts = serviceOpPart.split("/");
                 String serviceName = "";
                 int count = 0;
+                int partStart = 0;
 
                 /**
                  * To avoid performance issues if an incorrect URL comes in with a long service name
                  * including lots of '/' separated strings, we limit the hierarchical depth to 10
                  */
-                while (axisService == null && count < parts.length &&
+                while (axisService == null &&
+                        (count == 0 || partStart < serviceOpPart.length()) &&
                         count < Constants.MAX_HIERARCHICAL_DEPTH) {
-                    serviceName = count == 0 ? serviceName + parts[count] :
-                            serviceName + "/" + parts[count];
+                    int partEnd = serviceOpPart.indexOf('/', partStart);
+                    if (partEnd == -1) {
+                        partEnd = serviceOpPart.length();
+                    }
+                    serviceName = serviceOpPart.substring(0, partEnd);
                     axisService = registry.getService(serviceName);
                     count++;
+                    if (partEnd == serviceOpPart.length()) {
+                        break;
+                    }
+                    partStart = partEnd + 1;
                 }
 
                 // If the axisService is not null we get the binding that the request came to add
@@ -142,6 +142,19 @@ public class AxisConfiguration extends AxisDescription {
 
     private HashMap<String, Builder> messageBuilders;
 
+    /**
+     * Results of the pattern matching done by {@link #getMessageBuilder(String)}, keyed by the
+     * requested content type. Content types that match no builder map to
+     * {@link #NO_MESSAGE_BUILDER}. The cache is cleared when a builder is added and when it
+     * grows beyond {@link #MAX_RESOLVED_MESSAGE_BUILDERS} entries.
+     */
+    private final ConcurrentHashMap<String, Object> resolvedMessageBuilders =
+            new ConcurrentHashMap<String, Object>();
+
+    private static final Object NO_MESSAGE_BUILDER = new Object();
+
+    private static final int MAX_RESOLVED_MESSAGE_BUILDERS = 256;
+
     private HashMap<String, MessageFormatter> messageFormatters;
 
     private ClassLoader moduleClassLoader;
@@ -169,6 +182,12 @@ public class AxisConfiguration extends AxisDescription {
 
     private TransactionConfiguration transactionConfiguration;
 
+    private volatile CompiledFlow compiledInFlow;
+
+    private volatile CompiledFlow compiledInFaultFlow;
+
+    private volatile CompiledFlow compiledOutFaultFlow;
+
     /**
      * Constructor AxisConfiguration.
      */
@@ -213,6 +232,7 @@ public class AxisConfiguration extends AxisDescription {
     public void addMessageBuilder(String contentType,
                                   Builder messageBuilder) {
         messageBuilders.put(contentType, messageBuilder);
+        resolvedMessageBuilders.clear();
     }
 
     /**
@@ -825,6 +845,44 @@ public class AxisConfiguration extends AxisDescription {
         return inPhasesUptoAndIncludingPostDispatch;
     }
 
+    /**
+     * Get the global in flow as a {@link CompiledFlow}. The flow is compiled on first use and
+     * compiled again whenever the global in phases change.
+     *
+     * @return the compiled global in flow
+     */
+    public CompiledFlow getCompiledInFlow() {
+        CompiledFlow flow = compiledInFlow;
+        if (flow == null || !flow.isValid(inPhasesUptoAndIncludingPostDispatch, null)) {
+            compiledInFlow = flow = CompiledFlow.compile(inPhasesUptoAndIncludingPostDispatch, null);
+        }
+        return flow;
+    }
+
+    /**
+     * @return the compiled global in fault flow
+     * @see #getCompiledInFlow()
+     */
+    public CompiledFlow getCompiledInFaultFlow() {
+        CompiledFlow flow = compiledInFaultFlow;
+        if (flow == null || !flow.isValid(inFaultPhases, null)) {
+            compiledInFaultFlow = flow = CompiledFlow.compile(inFaultPhases, null);
+        }
+        return flow;
+    }
+
+    /**
+     * @return the compiled global out fault flow
+     * @see #getCompiledInFlow()
+     */
+    public CompiledFlow getCompiledOutFaultFlow() {
+        CompiledFlow flow = compiledOutFaultFlow;
+        if (flow == null || !flow.isValid(outFaultPhases, null)) {
+            compiledOutFaultFlow = flow = CompiledFlow.compile(outFaultPhases, null);
+        }
+        return flow;
+    }
+
     public MessageReceiver getMessageReceiver(String mepURL) {
         return messageReceivers.get(mepURL);
     }
@@ -847,19 +905,41 @@ public class AxisConfiguration extends AxisDescription {
                 builder = messageBuilders.get(contentType.toLowerCase());
             }
             if (builder == null) {
-                Iterator<Entry<String, Builder>> iterator = messageBuilders.entrySet().iterator();
-                while (iterator.hasNext() && builder == null) {
-                    Entry<String, Builder> entry = iterator.next();
-                    String key = entry.getKey();
-                    if (contentType.matches(key)) {
-                        builder = entry.getValue();
-                    }
-                }
+                builder = resolveMessageBuilder(contentType);
             }
         }
         return builder;
     }
 
+    /**
+     * Find the builder whose content type pattern matches the given content type. The result,
+     * including the absence of a match, is cached so that the patterns are only evaluated once
+     * per content type.
+     *
+     * @param contentType the desired content type
+     * @return the matching builder, or <code>null</code> if there is none
+     */
+    private Builder resolveMessageBuilder(String contentType) {
+        Object resolved = resolvedMessageBuilders.get(contentType);
+        if (resolved != null) {
+            return resolved == NO_MESSAGE_BUILDER ? null : (Builder) resolved;
+        }
+        Builder builder = null;
+        Iterator<Entry<String, Builder>> iterator = messageBuilders.entrySet().iterator();
+        while (iterator.hasNext() && builder == null) {
+            Entry<String, Builder> entry = iterator.next();
+            String key = entry.getKey();
+            if (contentType.matches(key)) {
+                builder = entry.getValue();
+            }
+        }
+        if (resolvedMessageBuilders.size() >= MAX_RESOLVED_MESSAGE_BUILDERS) {
+            resolvedMessageBuilders.clear();
+        }
+        resolvedMessageBuilders.put(contentType, builder == null ? NO_MESSAGE_BUILDER : builder);
+        return builder;
+    }
+
     public Builder getMessageBuilder(String contentType, boolean defaultBuilder) {
         Builder builder = getMessageBuilder(contentType);
         if (builder == null && defaultBuilder){
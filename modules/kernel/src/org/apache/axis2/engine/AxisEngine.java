@@ -43,6 +43,7 @@ import org.apache.axis2.engine.Handler.InvocationResponse;
 import org.apache.axis2.i18n.Messages;
 import org.apache.axis2.kernel.TransportSender;
 import org.apache.axis2.util.CallbackReceiver;
+import org.apache.axis2.util.JavaUtils;
 import org.apache.axis2.util.LoggingControl;
 import org.apache.axis2.util.MessageContextBuilder;
 import org.apache.axis2.util.Utils;
@@ -138,19 +139,23 @@ public class AxisEngine {
             log.trace(msgContext.getLogIDString() + " receive:" + msgContext.getMessageID());
         }
         ConfigurationContext confContext = msgContext.getConfigurationContext();
-        List<Phase> preCalculatedPhases;
-        if (msgContext.isFault() || msgContext.isProcessingFault()) {
-            preCalculatedPhases = confContext.getAxisConfiguration().getInFaultFlowPhases();
-            msgContext.setFLOW(MessageContext.IN_FAULT_FLOW);
+        AxisConfiguration axisConfig = confContext.getAxisConfiguration();
+        boolean fault = msgContext.isFault() || msgContext.isProcessingFault();
+        msgContext.setFLOW(fault ? MessageContext.IN_FAULT_FLOW : MessageContext.IN_FLOW);
+        // Set the initial execution chain in the MessageContext to a *copy* of the
+        // pre-calculated phases.  This allows individual message processing to change the chain
+        // without affecting later messages.
+        ArrayList<Handler> executionChain;
+        if (isCompiledFlowsEnabled(axisConfig)) {
+            CompiledFlow flow = fault ? axisConfig.getCompiledInFaultFlow()
+                    : axisConfig.getCompiledInFlow();
+            executionChain = flow.newExecutionChain();
         } else {
-            preCalculatedPhases = confContext.getAxisConfiguration().getInFlowPhases();
-            msgContext.setFLOW(MessageContext.IN_FLOW);
-        }
-        // Set the initial execution chain in the MessageContext to a *copy* of what
-        // we got above.  This allows individual message processing to change the chain without
-        // affecting later messages.
-        ArrayList<Handler> executionChain = new ArrayList<Handler>();
-        executionChain.addAll(preCalculatedPhases);
+            List<Phase> preCalculatedPhases = fault ? axisConfig.getInFaultFlowPhases()
+                    : axisConfig.getInFlowPhases();
+            executionChain = new ArrayList<Handler>();
+            executionChain.addAll(preCalculatedPhases);
+        }
         msgContext.setExecutionChain(executionChain);
         try {
             InvocationResponse pi = invoke(msgContext, NOT_RESUMING_EXECUTION);
@@ -275,6 +280,27 @@ public class AxisEngine {
         return pi;
     }
 
+    /**
+     * Check whether messages should run through the {@link CompiledFlow}s of the configuration
+     * instead of a plain copy of the phase lists.
+     *
+     * @param axisConfig the current configuration
+     * @return <code>true</code> if compiled flows are enabled in axis2.xml
+     * @see Constants.Configuration#ENABLE_COMPILED_FLOWS
+     */
+    static boolean isCompiledFlowsEnabled(AxisConfiguration axisConfig) {
+        return JavaUtils.isTrueExplicitly(
+                axisConfig.getParameterValue(Constants.Configuration.ENABLE_COMPILED_FLOWS));
+    }
+
+    private static ArrayList<Handler> createOutFaultExecutionChain(MessageContext msgContext) {
+        AxisConfiguration axisConfig = msgContext.getConfigurationContext().getAxisConfiguration();
+        if (isCompiledFlowsEnabled(axisConfig)) {
+            return axisConfig.getCompiledOutFaultFlow().newExecutionChain();
+        }
+        return new ArrayList<Handler>(axisConfig.getOutFaultFlowPhases());
+    }
+
     private static void flowComplete(MessageContext msgContext) {
         Iterator<Handler> invokedPhaseIterator = msgContext.getExecutedPhases();
 
@@ -404,11 +430,18 @@ public class AxisEngine {
         }
         // find and invoke the Phases
         OperationContext operationContext = msgContext.getOperationContext();
-        ArrayList executionChain = operationContext.getAxisOperation().getPhasesOutFlow();
-        //rather than having two steps added both oparation and global chain together
-        ArrayList outPhases = new ArrayList();
-        outPhases.addAll(executionChain);
-        outPhases.addAll(msgContext.getConfigurationContext().getAxisConfiguration().getOutFlowPhases());
+        AxisConfiguration axisConfig = msgContext.getConfigurationContext().getAxisConfiguration();
+        ArrayList outPhases;
+        if (isCompiledFlowsEnabled(axisConfig)) {
+            outPhases = operationContext.getAxisOperation()
+                    .getCompiledPhasesOutFlow(axisConfig.getOutFlowPhases()).newExecutionChain();
+        } else {
+            ArrayList executionChain = operationContext.getAxisOperation().getPhasesOutFlow();
+            //rather than having two steps added both oparation and global chain together
+            outPhases = new ArrayList();
+            outPhases.addAll(executionChain);
+            outPhases.addAll(axisConfig.getOutFlowPhases());
+        }
         msgContext.setExecutionChain(outPhases);
         msgContext.setFLOW(MessageContext.OUT_FLOW);
         try {
@@ -497,9 +530,7 @@ public class AxisEngine {
             }
         }
 
-        ArrayList<Handler> executionChain = new ArrayList<Handler>(msgContext.getConfigurationContext()
-                .getAxisConfiguration().getOutFaultFlowPhases());
-        msgContext.setExecutionChain(executionChain);
+        msgContext.setExecutionChain(createOutFaultExecutionChain(msgContext));
         msgContext.setFLOW(MessageContext.OUT_FAULT_FLOW);
         InvocationResponse pi = invoke(msgContext, NOT_RESUMING_EXECUTION);
 
@@ -560,9 +591,7 @@ public class AxisEngine {
             }
         }
 
-        ArrayList<Handler> executionChain = new ArrayList<Handler>(msgContext.getConfigurationContext()
-                .getAxisConfiguration().getOutFaultFlowPhases());
-        msgContext.setExecutionChain(executionChain);
+        msgContext.setExecutionChain(createOutFaultExecutionChain(msgContext));
         msgContext.setFLOW(MessageContext.OUT_FAULT_FLOW);
         InvocationResponse pi = invoke(msgContext, NOT_RESUMING_EXECUTION);
 
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A precomputed execution chain for one message flow. The flow is built from one or two lists of
+ * phases (for example the operation out phases followed by the global out phases) and leaves out
+ * every phase that would do nothing when invoked, that is a plain {@link Phase} without any
+ * handlers. Phase subclasses are always kept because their pre- and post-conditions may have
+ * side effects.
+ * <p>
+ * The phases that remain are still invoked as phases, so suspend/resume, flowComplete and
+ * message context serialization behave exactly as they do for an uncompiled chain.
+ * <p>
+ * A compiled flow is only a snapshot. {@link #isValid(List, List)} checks it against the live
+ * phase lists and reports it as stale as soon as a phase was added, removed or replaced, or one
+ * of the skipped phases got a handler (for instance because a module was engaged).
+ */
+public final class CompiledFlow {
+
+    private final List<?> firstSource;
+
+    private final List<?> secondSource;
+
+    /**
+     * All the phases of the source lists, in order, at the time the flow was compiled.
+     */
+    private final Handler[] sourcePhases;
+
+    /**
+     * The phases that are actually invoked.
+     */
+    private final Handler[] phases;
+
+    /**
+     * The phases that were left out because they had no handlers.
+     */
+    private final Phase[] skippedPhases;
+
+    private CompiledFlow(List<?> firstSource, List<?> secondSource, Handler[] sourcePhases,
+                         Handler[] phases, Phase[] skippedPhases) {
+        this.firstSource = firstSource;
+        this.secondSource = secondSource;
+        this.sourcePhases = sourcePhases;
+        this.phases = phases;
+        this.skippedPhases = skippedPhases;
+    }
+
+    /**
+     * Compile the given phase lists into a single flow.
+     *
+     * @param firstSource  the phases that are invoked first
+     * @param secondSource the phases that are invoked after <code>firstSource</code>; may be
+     *                     <code>null</code>
+     * @return the compiled flow
+     */
+    public static CompiledFlow compile(List<?> firstSource, List<?> secondSource) {
+        int firstSize = size(firstSource);
+        Handler[] sourcePhases = new Handler[firstSize + size(secondSource)];
+        for (int i = 0; i < firstSize; i++) {
+            sourcePhases[i] = (Handler) firstSource.get(i);
+        }
+        for (int i = firstSize; i < sourcePhases.length; i++) {
+            sourcePhases[i] = (Handler) secondSource.get(i - firstSize);
+        }
+
+        List<Handler> phases = new ArrayList<Handler>(sourcePhases.length);
+        List<Phase> skippedPhases = new ArrayList<Phase>();
+        for (Handler handler : sourcePhases) {
+            if (isNoOp(handler)) {
+                skippedPhases.add((Phase) handler);
+            } else {
+                phases.add(handler);
+            }
+        }
+        return new CompiledFlow(firstSource, secondSource, sourcePhases,
+                phases.toArray(new Handler[phases.size()]),
+                skippedPhases.toArray(new Phase[skippedPhases.size()]));
+    }
+
+    /**
+     * Check whether this flow still reflects the given phase lists. This does not allocate and
+     * only compares references and handler counts, so it is cheap enough to call per message.
+     *
+     * @param firstSource  the current first list of phases
+     * @param secondSource the current second list of phases; may be <code>null</code>
+     * @return <code>true</code> if the flow can still be used in place of the given lists
+     */
+    public boolean isValid(List<?> firstSource, List<?> secondSource) {
+        if (firstSource != this.firstSource || secondSource != this.secondSource) {
+            return false;
+        }
+        int firstSize = size(firstSource);
+        if (firstSize + size(secondSource) != sourcePhases.length) {
+            return false;
+        }
+        for (int i = 0; i < firstSize; i++) {
+            if (firstSource.get(i) != sourcePhases[i]) {
+                return false;
+            }
+        }
+        for (int i = firstSize; i < sourcePhases.length; i++) {
+            if (secondSource.get(i - firstSize) != sourcePhases[i]) {
+                return false;
+            }
+        }
+        for (Phase phase : skippedPhases) {
+            if (phase.getHandlerCount() != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Create a new execution chain for a single message. The returned list is owned by the
+     * caller, so the message processing may change it without affecting later messages.
+     *
+     * @return a new list holding the phases of this flow
+     */
+    public ArrayList<Handler> newExecutionChain() {
+        ArrayList<Handler> executionChain = new ArrayList<Handler>(phases.length);
+        for (Handler phase : phases) {
+            executionChain.add(phase);
+        }
+        return executionChain;
+    }
+
+    /**
+     * @return the number of phases that are invoked by this flow
+     */
+    public int getPhaseCount() {
+        return phases.length;
+    }
+
+    /**
+     * @return the number of phases that were left out because they had no handlers
+     */
+    public int getSkippedPhaseCount() {
+        return skippedPhases.length;
+    }
+
+    private static boolean isNoOp(Handler handler) {
+        return handler.getClass() == Phase.class && ((Phase) handler).getHandlerCount() == 0;
+    }
+
+    private static int size(List<?> list) {
+        return list == null ? 0 : list.size();
+    }
+}
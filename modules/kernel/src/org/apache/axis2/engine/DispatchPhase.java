@@ -186,8 +186,15 @@ public class DispatchPhase extends Phase {
         }
         
 
-        ArrayList operationChain = msgContext.getAxisOperation().getRemainingPhasesInFlow();
-        msgContext.setExecutionChain((ArrayList) operationChain.clone());
+        AxisOperation axisOperation = msgContext.getAxisOperation();
+        if (AxisEngine.isCompiledFlowsEnabled(msgContext.getConfigurationContext()
+                .getAxisConfiguration())) {
+            msgContext.setExecutionChain(
+                    axisOperation.getCompiledRemainingPhasesInFlow().newExecutionChain());
+        } else {
+            ArrayList operationChain = axisOperation.getRemainingPhasesInFlow();
+            msgContext.setExecutionChain((ArrayList) operationChain.clone());
+        }
     }
 
     private void loadContexts(AxisService service, MessageContext msgContext) throws AxisFault {
@@ -451,6 +451,47 @@ public class HTTPConstants {
      */
     public static final String REUSE_HTTP_CLIENT = "REUSE_HTTP_CLIENT";
 
+    /**
+     * Maximum number of connections in the connection pool shared by all HTTP senders of a
+     * configuration context.
+     */
+    public static final String MAX_TOTAL_CONNECTIONS = "MAX_TOTAL_CONNECTIONS";
+
+    public static final int DEFAULT_MAX_TOTAL_CONNECTIONS = 200;
+
+    /**
+     * Maximum number of pooled connections per host, for hosts that don't have a specific limit
+     * set with {@link #MAX_CONNECTIONS_PER_HOST}.
+     */
+    public static final String DEFAULT_MAX_CONNECTIONS_PER_HOST = "DEFAULT_MAX_CONNECTIONS_PER_HOST";
+
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST_VALUE = 200;
+
+    /**
+     * Host specific connection limits. As a transport parameter, the value is a comma separated
+     * list of <tt>host:port=max</tt> entries. As a message context property, the value is the
+     * limit (an Integer or String) to apply to the target host of the message.
+     */
+    public static final String MAX_CONNECTIONS_PER_HOST = "MAX_CONNECTIONS_PER_HOST";
+
+    /**
+     * Time in milliseconds after which idle pooled connections are closed. If not set, idle
+     * connections are not evicted.
+     */
+    public static final String CONNECTION_IDLE_TIMEOUT = "CONNECTION_IDLE_TIMEOUT";
+
+    /**
+     * Time in milliseconds a pooled connection must have been inactive before it is validated
+     * again prior to reuse.
+     */
+    public static final String VALIDATE_AFTER_INACTIVITY = "VALIDATE_AFTER_INACTIVITY";
+
+    /**
+     * Maximum lifetime in milliseconds of a pooled connection. If not set, connections can be
+     * reused indefinitely.
+     */
+    public static final String CONNECTION_TIME_TO_LIVE = "CONNECTION_TIME_TO_LIVE";
+
     /**
      * Field HTTP_METHOD
      */
@@ -19,39 +19,155 @@
 
 package org.apache.axis2.util;
 
-import org.apache.axiom.soap.SOAPEnvelope;
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.addressing.RelatesTo;
 import org.apache.axis2.client.async.AxisCallback;
 import org.apache.axis2.context.MessageContext;
-import org.apache.axis2.context.OperationContext;
 import org.apache.axis2.engine.MessageReceiver;
+import org.apache.axis2.i18n.Messages;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This is a MessageReceiver which is used on the client side to accept the
  * messages (response) that come to the client. This correlates the incoming message to
  * the related messages and makes a call to the appropriate callback.
+ * <p>
+ * A callback added with a timeout expires if no response arrives in time: it is removed, and
+ * told of the timeout through {@link AxisCallback#onError(Exception)}. The number of outstanding
+ * callbacks may be bounded, in which case adding a callback waits, for a limited time, for
+ * another one to complete or expire.
  */
 public class CallbackReceiver implements MessageReceiver {
 
 	private static final Log log = LogFactory.getLog(CallbackReceiver.class);
 	
     public static String SERVICE_NAME = "ClientService";
+
+    /** Expires the callbacks of all receivers, in order of their deadlines */
+    private static final ScheduledThreadPoolExecutor expiryScheduler;
+
+    static {
+        expiryScheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "CallbackReceiverExpiry");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        expiryScheduler.setRemoveOnCancelPolicy(true);
+    }
+
     private ConcurrentHashMap callbackStore;
+    /** The pending expiry of each callback added with a timeout, keyed by message id */
+    private final ConcurrentHashMap<String, ScheduledFuture<?>> expiryTasks =
+            new ConcurrentHashMap<String, ScheduledFuture<?>>();
+    /** One permit per callback that may be added, or null if they are not bounded */
+    private final Semaphore permits;
+    private final int maxOutstandingCallbacks;
+    private final AtomicLong expiredCount = new AtomicLong();
 
     public CallbackReceiver() {
+        this(-1);
+    }
+
+    /**
+     * Create a receiver that keeps at most the given number of callbacks.
+     *
+     * @param maxOutstandingCallbacks the maximum number of outstanding callbacks, or a value
+     *                                less than one for no limit
+     */
+    public CallbackReceiver(int maxOutstandingCallbacks) {
         callbackStore = new ConcurrentHashMap();
+        this.maxOutstandingCallbacks = maxOutstandingCallbacks;
+        permits = maxOutstandingCallbacks > 0 ? new Semaphore(maxOutstandingCallbacks, true) : null;
     }
 
     public void addCallback(String msgID, AxisCallback callback) throws AxisFault {
-    	putIfAbsent(msgID, callback);
+        addCallback(msgID, callback, -1);
+    }
+
+    /**
+     * Add a callback that expires if no response arrives within the given timeout. If the
+     * number of outstanding callbacks is bounded and reached, this waits up to the timeout for
+     * another callback to complete or expire.
+     *
+     * @param msgID The message id.
+     * @param callback The callback object.
+     * @param timeout the number of milliseconds to wait for the response, or a value less than
+     *                one to wait until it arrives
+     * @throws AxisFault If the message id was a duplicate, or the limit on outstanding callbacks
+     *                   was not lifted in time.
+     */
+    public void addCallback(String msgID, AxisCallback callback, long timeout) throws AxisFault {
+        addCallback(msgID, callback, timeout, timeout, null);
+    }
+
+    /**
+     * Add a callback, waiting up to the given time if the number of outstanding callbacks is
+     * bounded and reached. The callback expires if no response arrives within the expiry
+     * timeout; the expiry handler is then run, before the callback is told of the timeout.
+     *
+     * @param msgID The message id.
+     * @param callback The callback object.
+     * @param waitTimeout the number of milliseconds to wait for another callback to complete
+     *                    or expire, or a value less than one to wait without limit
+     * @param expiryTimeout the number of milliseconds to wait for the response, or a value
+     *                      less than one to wait until it arrives
+     * @param expiryHandler releases what is kept for the response when the callback expires,
+     *                      or null
+     * @throws AxisFault If the message id was a duplicate, or the limit on outstanding callbacks
+     *                   was not lifted in time.
+     */
+    public void addCallback(String msgID, AxisCallback callback, long waitTimeout,
+                            long expiryTimeout, Runnable expiryHandler) throws AxisFault {
+        acquirePermit(msgID, waitTimeout);
+        try {
+            putIfAbsent(msgID, callback);
+        } catch (AxisFault e) {
+            releasePermit();
+            throw e;
+        }
+        if (expiryTimeout > 0) {
+            scheduleExpiry(msgID, callback, expiryTimeout, expiryHandler);
+        }
+    }
+
+    private void acquirePermit(String msgID, long timeout) throws AxisFault {
+        if (permits == null) {
+            return;
+        }
+        try {
+            if (timeout > 0) {
+                if (!permits.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+                    throw new AxisFault("Timed out waiting to add the Callback for MessageID "
+                            + msgID + ": " + maxOutstandingCallbacks
+                            + " callbacks are outstanding");
+                }
+            } else {
+                permits.acquire();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw AxisFault.makeFault(e);
+        }
     }
-    
+
+    private void releasePermit() {
+        if (permits != null) {
+            permits.release();
+        }
+    }
+
     /**
      * Inserts the specified key, value into the callback map. It throws an
      * exception if the message id was a duplicate.
@@ -70,8 +186,70 @@ public class CallbackReceiver implements MessageReceiver {
     	}
     }
 
+    private void scheduleExpiry(final String msgID, final AxisCallback callback,
+                                final long timeout, final Runnable expiryHandler) {
+        ScheduledFuture<?> expiry = expiryScheduler.schedule(new Runnable() {
+            public void run() {
+                expire(msgID, callback, timeout, expiryHandler);
+            }
+        }, timeout, TimeUnit.MILLISECONDS);
+        expiryTasks.put(msgID, expiry);
+        if (!callbackStore.containsKey(msgID)) {
+            // the response arrived before the expiry was registered
+            removeExpiry(msgID);
+        }
+    }
+
+    private void removeExpiry(String msgID) {
+        ScheduledFuture<?> expiry = expiryTasks.remove(msgID);
+        if (expiry != null) {
+            expiry.cancel(false);
+        }
+    }
+
+    /**
+     * Remove a callback whose response did not arrive in time, run its expiry handler, and tell
+     * it of the timeout.
+     */
+    private void expire(String msgID, AxisCallback callback, long timeout,
+                        Runnable expiryHandler) {
+        expiryTasks.remove(msgID);
+        if (!callbackStore.remove(msgID, callback)) {
+            return;
+        }
+        expiredCount.incrementAndGet();
+        releasePermit();
+        if (log.isDebugEnabled()) {
+            log.debug("CallbackReceiver: expired callback " + msgID + " after " + timeout
+                    + " ms, " + this);
+        }
+        if (expiryHandler != null) {
+            try {
+                expiryHandler.run();
+            } catch (RuntimeException e) {
+                log.error("Error cleaning up after the expiry of the Callback for MessageID "
+                        + msgID, e);
+            }
+        }
+        try {
+            callback.onError(new AxisFault(Messages.getMessage("responseTimeOut")));
+            callback.onComplete();
+        } catch (RuntimeException e) {
+            log.error("Error notifying the Callback for MessageID " + msgID + " of its expiry", e);
+        }
+    }
+
+    private Object removeCallback(String msgID) {
+        Object o = callbackStore.remove(msgID);
+        if (o != null) {
+            removeExpiry(msgID);
+            releasePermit();
+        }
+        return o;
+    }
+
     public Object lookupCallback(String msgID) {
-		Object o = callbackStore.remove(msgID);
+		Object o = removeCallback(msgID);
 		if (log.isDebugEnabled()) log.debug("CallbackReceiver: lookup callback " + msgID + ", " + o + " ," + this);
         return o;
     }
@@ -83,7 +261,7 @@ public class CallbackReceiver implements MessageReceiver {
         }
         String messageID = relatesTO.getValue();
 
-        Object callbackObj = callbackStore.remove(messageID);
+        Object callbackObj = removeCallback(messageID);
 		if (log.isDebugEnabled()) log.debug("CallbackReceiver: receive found callback " + callbackObj + ", " + messageID + ", " + this + ", " + msgContext.getAxisOperation());
 
         if (callbackObj == null) {
@@ -108,4 +286,41 @@ public class CallbackReceiver implements MessageReceiver {
     public Map getCallbackStore() {
         return callbackStore;
     }
+
+    /**
+     * Return the number of callbacks waiting for a response.
+     *
+     * @return the number of outstanding callbacks
+     */
+    public int getOutstandingCallbackCount() {
+        return callbackStore.size();
+    }
+
+    /**
+     * Return the number of callbacks removed because their response did not arrive in time.
+     *
+     * @return the number of expired callbacks
+     */
+    public long getExpiredCallbackCount() {
+        return expiredCount.get();
+    }
+
+    /**
+     * Return the number of callers waiting to add a callback, as the limit on outstanding
+     * callbacks is reached.
+     *
+     * @return the number of waiting callers
+     */
+    public int getWaitingCallbackCount() {
+        return permits == null ? 0 : permits.getQueueLength();
+    }
+
+    /**
+     * Return the maximum number of outstanding callbacks.
+     *
+     * @return the limit, or a value less than one if the number of callbacks is not bounded
+     */
+    public int getMaxOutstandingCallbacks() {
+        return maxOutstandingCallbacks;
+    }
 }
@@ -82,20 +82,9 @@ public class MessageProcessorSelector {
                 if (transportHeaders != null) {
                     String acceptHeader = (String) transportHeaders.get(HTTPConstants.HEADER_ACCEPT);
                     if (acceptHeader != null) {
-                        int index = acceptHeader.indexOf(";");
-                        if (index > 0) {
-                            acceptHeader = acceptHeader.substring(0, index);
-                        }
-                        String[] strings = acceptHeader.split(",");
-                        for (String string : strings) {
-                            String accept = string.trim();
-                            // We dont want dynamic content negotoatin to work on text.xml as its
-                            // ambiguos as to whether the user requests SOAP 1.1 or POX response
-                            if (!HTTPConstants.MEDIA_TYPE_TEXT_XML.equals(accept) &&
-                                    configuration.getMessageFormatter(accept) != null) {
-                                type = string;
-                                break;
-                            }
+                        String accept = selectAcceptedMessageType(acceptHeader, configuration);
+                        if (accept != null) {
+                            type = accept;
                         }
                     }
                 }
@@ -106,6 +95,51 @@ public class MessageProcessorSelector {
         return builder;
     }
 
+    /**
+     * Select the first media type listed in an HTTP Accept header for which a message formatter
+     * is registered. Parameters such as quality values are ignored. The header is scanned in
+     * place rather than split, so that only the candidate media types are allocated.
+     *
+     * @param acceptHeader  the value of the Accept header
+     * @param configuration the AxisConfiguration holding the message formatters
+     * @return the selected media type, or <code>null</code> if none of the listed media types
+     *         has a message formatter
+     */
+    static String selectAcceptedMessageType(String acceptHeader,
+                                            AxisConfiguration configuration) {
+        int length = acceptHeader.length();
+        int start = 0;
+        while (start < length) {
+            int end = acceptHeader.indexOf(',', start);
+            if (end < 0) {
+                end = length;
+            }
+            int typeEnd = acceptHeader.indexOf(';', start);
+            if (typeEnd < 0 || typeEnd > end) {
+                typeEnd = end;
+            }
+            while (start < typeEnd && acceptHeader.charAt(start) <= ' ') {
+                start++;
+            }
+            while (typeEnd > start && acceptHeader.charAt(typeEnd - 1) <= ' ') {
+                typeEnd--;
+            }
+            int typeLength = typeEnd - start;
+            // We dont want dynamic content negotoatin to work on text.xml as its
+            // ambiguos as to whether the user requests SOAP 1.1 or POX response
+            if (typeLength > 0 && !(typeLength == HTTPConstants.MEDIA_TYPE_TEXT_XML.length()
+                    && acceptHeader.regionMatches(start, HTTPConstants.MEDIA_TYPE_TEXT_XML, 0,
+                            typeLength))) {
+                String accept = acceptHeader.substring(start, typeEnd);
+                if (configuration.getMessageFormatter(accept) != null) {
+                    return accept;
+                }
+            }
+            start = end + 1;
+        }
+        return null;
+    }
+
     /**
      * Initial work for a builder selector which selects the builder for a given message format based on the the content type of the recieved message.
      * content-type to builder mapping can be specified through the Axis2.xml.
@@ -76,6 +76,24 @@ public class ThreadPool implements ThreadFactory {
         executor.execute(worker);
     }
 
+    /**
+     * @return the number of submitted tasks that are waiting for a pool thread
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * @return the approximate number of threads that are actively executing tasks
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public long getCompletedTaskCount() {
+        return executor.getCompletedTaskCount();
+    }
+
     /**
      * A forceful shutdown mechanism for thread pool.
      */
@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.util.threadpool;
+
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.i18n.Messages;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link ThreadFactory} that runs every task on its own virtual thread. Unlike
+ * {@link ThreadPool}, tasks never queue behind a fixed set of carrier threads; instead the
+ * number of tasks running at the same time is bounded by a semaphore. Tasks that are waiting
+ * for a permit are parked on their (cheap) virtual thread and are reported through
+ * {@link #getQueueDepth()}.
+ * <p>
+ * Virtual threads require a Java 21 runtime. On older runtimes this pool falls back to
+ * a pool of at most <code>maxConcurrency</code> platform threads, so that tasks waiting to run
+ * are queued rather than each holding a platform thread. Idle platform threads are stopped
+ * after a few seconds, so an idle pool holds no threads.
+ * <p>
+ * The pool is selected by setting the <code>threadPoolMode</code> parameter in axis2.xml to
+ * <code>virtual</code>; the <code>threadPoolMaxConcurrency</code> parameter sets the number of
+ * permits.
+ */
+public class VirtualThreadPool implements ThreadFactory {
+    private static final Log log = LogFactory.getLog(VirtualThreadPool.class);
+
+    public static final int DEFAULT_MAX_CONCURRENCY = 1000;
+
+    /**
+     * The time after which idle platform threads of the pre-Java 21 fallback are stopped.
+     */
+    private static final long KEEP_ALIVE_SECONDS = 10;
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final boolean virtual;
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final AtomicLong completedTaskCount = new AtomicLong();
+
+    private volatile boolean shutDown;
+
+    public VirtualThreadPool() {
+        this(DEFAULT_MAX_CONCURRENCY);
+    }
+
+    public VirtualThreadPool(int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency);
+        ExecutorService virtualExecutor = createVirtualThreadExecutor();
+        if (virtualExecutor != null) {
+            executor = virtualExecutor;
+            virtual = true;
+        } else {
+            log.warn("Virtual threads are not supported by this Java runtime; "
+                    + "falling back to a pool of at most " + maxConcurrency + " platform threads");
+            ThreadPoolExecutor platformExecutor = new ThreadPoolExecutor(maxConcurrency,
+                    maxConcurrency, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>());
+            platformExecutor.allowCoreThreadTimeOut(true);
+            executor = platformExecutor;
+            virtual = false;
+        }
+    }
+
+    /**
+     * Looks up <code>Executors.newVirtualThreadPerTaskExecutor()</code> reflectively so that
+     * this class can still be compiled and loaded on runtimes that predate virtual threads.
+     *
+     * @return the executor, or <code>null</code> if virtual threads are not available
+     */
+    private static ExecutorService createVirtualThreadExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (NoSuchMethodException e) {
+            return null;
+        } catch (Exception e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Unable to create a virtual thread executor", e);
+            }
+            return null;
+        }
+    }
+
+    public void execute(final Runnable worker) {
+        if (shutDown) {
+            throw new RuntimeException(Messages.getMessage("threadpoolshutdown"));
+        }
+        queueDepth.incrementAndGet();
+        executor.execute(new Runnable() {
+            public void run() {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    queueDepth.decrementAndGet();
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                queueDepth.decrementAndGet();
+                activeCount.incrementAndGet();
+                try {
+                    worker.run();
+                } finally {
+                    activeCount.decrementAndGet();
+                    completedTaskCount.incrementAndGet();
+                    permits.release();
+                }
+            }
+        });
+    }
+
+    /**
+     * @return <code>true</code> if tasks are run on virtual threads, <code>false</code> if the
+     *         pool fell back to platform threads
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * @return the number of submitted tasks that are waiting for a concurrency permit
+     */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    /**
+     * @return the number of tasks that are currently running
+     */
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    public long getCompletedTaskCount() {
+        return completedTaskCount.get();
+    }
+
+    /**
+     * A forceful shutdown mechanism for thread pool.
+     */
+    public void forceShutDown() {
+        if (log.isDebugEnabled()) {
+            log.debug("forceShutDown called. Thread workers will be stopped");
+        }
+        shutDown = true;
+        executor.shutdownNow();
+    }
+
+    /**
+     * This is the recommended shutdown method for the thread pool
+     * This will wait till all the workers that are already handed over to the
+     * thread pool get executed.
+     *
+     * @throws org.apache.axis2.AxisFault
+     */
+    public void safeShutDown() throws AxisFault {
+        shutDown = true;
+        executor.shutdown();
+    }
+}
@@ -335,4 +335,41 @@ public class EndpointReferenceHelperTest extends TestCase {
         assertEquals(wsdlLocation.getTargetNamespace(), targetNamespace);
         assertEquals(wsdlLocation.getLocation(), location);  
     }
+
+    public void testFromOMForAddressOnlyEPR() throws Exception {
+        OMFactory omf = OMAbstractFactory.getOMFactory();
+        OMNamespace wsa = omf.createOMNamespace(AddressingConstants.Final.WSA_NAMESPACE, "wsa");
+        OMElement replyTo = omf.createOMElement("ReplyTo", wsa);
+        OMElement address = omf.createOMElement("Address", wsa, replyTo);
+        address.setText(new String(AddressingConstants.Final.WSA_ANONYMOUS_URL));
+
+        EndpointReference epr = new EndpointReference("");
+        assertEquals(AddressingConstants.Final.WSA_NAMESPACE,
+                     EndpointReferenceHelper.fromOM(epr, replyTo));
+        assertSame(AddressingConstants.Final.WSA_ANONYMOUS_URL, epr.getAddress());
+        assertTrue(epr.hasAnonymousAddress());
+        assertNull(epr.getAllReferenceParameters());
+        assertNull(epr.getAttributes());
+        assertNull(epr.getExtensibleElements());
+    }
+
+    public void testFromOMWithReferenceParameters() throws Exception {
+        OMFactory omf = OMAbstractFactory.getOMFactory();
+        OMNamespace wsa = omf.createOMNamespace(AddressingConstants.Final.WSA_NAMESPACE, "wsa");
+        OMElement replyTo = omf.createOMElement("ReplyTo", wsa);
+        omf.createOMElement("Address", wsa, replyTo).setText("http://ws.apache.org/axis2");
+        OMElement refParams = omf.createOMElement("ReferenceParameters", wsa, replyTo);
+        QName rp1Qname = new QName("http://rp1uri", "refParm1", "rp1prefix");
+        QName rp2Qname = new QName("http://rp2uri", "refParm2", "rp2prefix");
+        omf.createOMElement(rp1Qname, refParams).setText("rp1");
+        omf.createOMElement(rp2Qname, refParams).setText("rp2");
+
+        EndpointReference epr = EndpointReferenceHelper.fromOM(replyTo);
+        epr.addReferenceParameter(rp2Qname, "rp2-override");
+
+        Map m = epr.getAllReferenceParameters();
+        assertEquals(2, m.size());
+        assertEquals("rp1", ((OMElement)m.get(rp1Qname)).getText());
+        assertEquals("rp2-override", ((OMElement)m.get(rp2Qname)).getText());
+    }
 }
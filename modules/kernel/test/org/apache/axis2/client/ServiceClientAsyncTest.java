@@ -0,0 +1,261 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.client;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMFactory;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.Constants;
+import org.apache.axis2.addressing.EndpointReference;
+import org.apache.axis2.client.async.AxisCallback;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.ConfigurationContextFactory;
+import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.description.TransportOutDescription;
+import org.apache.axis2.handlers.AbstractHandler;
+import org.apache.axis2.kernel.TransportSender;
+import org.apache.axis2.wsdl.WSDLConstants;
+
+/**
+ * Tests {@link ServiceClient#sendReceiveAsync(OMElement)} and
+ * {@link OperationClient#executeAsync()} against a transport that returns a canned response.
+ */
+public class ServiceClientAsyncTest extends TestCase {
+    private static final String RESPONSE =
+            "<soapenv:Envelope xmlns:soapenv='http://schemas.xmlsoap.org/soap/envelope/'>" +
+            "<soapenv:Body><echoResponse xmlns='urn:test'>hello</echoResponse></soapenv:Body>" +
+            "</soapenv:Envelope>";
+
+    private static final String FAULT =
+            "<soapenv:Envelope xmlns:soapenv='http://schemas.xmlsoap.org/soap/envelope/'>" +
+            "<soapenv:Body><soapenv:Fault><faultcode>soapenv:Server</faultcode>" +
+            "<faultstring>test fault</faultstring></soapenv:Fault></soapenv:Body>" +
+            "</soapenv:Envelope>";
+
+    /**
+     * A two way transport that returns a fixed response and records the message contexts it
+     * sends and cleans up.
+     */
+    public static class CannedResponseSender extends AbstractHandler implements TransportSender {
+        volatile String response = RESPONSE;
+        final List<MessageContext> sent = new CopyOnWriteArrayList<MessageContext>();
+        final List<MessageContext> cleanedUp = new CopyOnWriteArrayList<MessageContext>();
+
+        public InvocationResponse invoke(MessageContext msgContext) throws AxisFault {
+            sent.add(msgContext);
+            if (response != null) {
+                try {
+                    msgContext.setProperty(MessageContext.TRANSPORT_IN,
+                            new ByteArrayInputStream(response.getBytes("UTF-8")));
+                } catch (java.io.UnsupportedEncodingException e) {
+                    throw AxisFault.makeFault(e);
+                }
+            }
+            return InvocationResponse.CONTINUE;
+        }
+
+        public void cleanup(MessageContext msgContext) {
+            cleanedUp.add(msgContext);
+        }
+
+        public void init(ConfigurationContext confContext, TransportOutDescription transportOut) {
+        }
+
+        public void stop() {
+        }
+    }
+
+    /**
+     * Records the notifications it receives, and optionally throws from onMessage.
+     */
+    private static class RecordingCallback implements AxisCallback {
+        final List<String> events = new CopyOnWriteArrayList<String>();
+        boolean throwOnMessage;
+
+        public void onMessage(MessageContext msgContext) {
+            events.add("onMessage");
+            if (throwOnMessage) {
+                throw new RuntimeException("callback failure");
+            }
+        }
+
+        public void onFault(MessageContext msgContext) {
+            events.add("onFault");
+        }
+
+        public void onError(Exception e) {
+            events.add("onError");
+        }
+
+        public void onComplete() {
+            events.add("onComplete");
+        }
+    }
+
+    private CannedResponseSender sender;
+    private ConfigurationContext configContext;
+    private ServiceClient serviceClient;
+
+    protected void setUp() throws Exception {
+        configContext = ConfigurationContextFactory.createEmptyConfigurationContext();
+        sender = new CannedResponseSender();
+        TransportOutDescription transportOut = new TransportOutDescription("test");
+        transportOut.setSender(sender);
+        configContext.getAxisConfiguration().addTransportOut(transportOut);
+
+        serviceClient = new ServiceClient(configContext, null);
+        Options options = serviceClient.getOptions();
+        options.setTo(new EndpointReference("test://localhost/axis2/services/EchoService"));
+        options.setTransportOut(transportOut);
+        options.setProperty(ServiceClient.AUTO_OPERATION_CLEANUP, Boolean.FALSE);
+    }
+
+    private OMElement createPayload() {
+        OMFactory factory = OMAbstractFactory.getOMFactory();
+        OMElement payload = factory.createOMElement("echo", "urn:test", "t");
+        payload.setText("hello");
+        return payload;
+    }
+
+    private static Throwable getFailure(CompletableFuture<?> future) throws Exception {
+        try {
+            future.get(10, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+        fail("The future was completed normally");
+        return null;
+    }
+
+    public void testCompletesWithResponse() throws Exception {
+        OMElement response = serviceClient.sendReceiveAsync(createPayload())
+                .get(10, TimeUnit.SECONDS);
+        assertEquals("echoResponse", response.getLocalName());
+        assertEquals("hello", response.getText());
+    }
+
+    public void testCompletesExceptionallyOnFault() throws Exception {
+        sender.response = FAULT;
+        Throwable failure = getFailure(serviceClient.sendReceiveAsync(createPayload()));
+        assertTrue(failure instanceof AxisFault);
+        assertTrue(String.valueOf(failure.getMessage()).indexOf("test fault") >= 0);
+    }
+
+    public void testCompletesWithFaultIfNoExceptionIsThrownOnFault() throws Exception {
+        sender.response = FAULT;
+        serviceClient.getOptions().setExceptionToBeThrownOnSOAPFault(false);
+        RecordingCallback callback = new RecordingCallback();
+        OperationClient client = serviceClient.createClient(ServiceClient.ANON_OUT_IN_OP);
+        MessageContext request = new MessageContext();
+        request.setEnvelope(OMAbstractFactory.getSOAP11Factory().getDefaultEnvelope());
+        request.getEnvelope().getBody().addChild(createPayload());
+        client.addMessageContext(request);
+        client.setCallback(callback);
+
+        MessageContext response = client.executeAsync().get(10, TimeUnit.SECONDS);
+        assertTrue(response.getEnvelope().hasFault());
+        assertTrue(callback.events.contains("onFault"));
+    }
+
+    public void testCompletesExceptionallyWithoutResponse() throws Exception {
+        sender.response = null;
+        assertTrue(getFailure(serviceClient.sendReceiveAsync(createPayload()))
+                instanceof AxisFault);
+    }
+
+    public void testCallbackIsNotified() throws Exception {
+        RecordingCallback callback = new RecordingCallback();
+        callback.throwOnMessage = true;
+        OperationClient client = serviceClient.createClient(ServiceClient.ANON_OUT_IN_OP);
+        MessageContext request = new MessageContext();
+        request.setEnvelope(OMAbstractFactory.getSOAP11Factory().getDefaultEnvelope());
+        request.getEnvelope().getBody().addChild(createPayload());
+        client.addMessageContext(request);
+        client.setCallback(callback);
+
+        // the future is completed even though the callback throws
+        MessageContext response = client.executeAsync().get(10, TimeUnit.SECONDS);
+        assertEquals("echoResponse",
+                response.getEnvelope().getBody().getFirstElement().getLocalName());
+        assertEquals("onMessage", callback.events.get(0));
+    }
+
+    /**
+     * Use a separate channel for the response, which never arrives.
+     */
+    private void useSeparateChannel() {
+        sender.response = null;
+        Options options = serviceClient.getOptions();
+        options.setProperty(Constants.Configuration.USE_ASYNC_OPERATIONS, Boolean.TRUE);
+        options.setTimeOutInMilliSeconds(100);
+    }
+
+    public void testOperationContextIsUnregisteredOnExpiry() throws Exception {
+        useSeparateChannel();
+        serviceClient.getOptions().setProperty(Constants.Configuration.EXPIRE_CALLBACKS,
+                Boolean.TRUE);
+        CompletableFuture<OMElement> future = serviceClient.sendReceiveAsync(createPayload());
+        String messageID = sender.sent.get(0).getMessageID();
+        assertNotNull(configContext.getOperationContext(messageID));
+
+        assertTrue(getFailure(future) instanceof AxisFault);
+        assertNull(configContext.getOperationContext(messageID));
+    }
+
+    public void testWaitForCallbackIsBoundedWithoutExpiry() throws Exception {
+        useSeparateChannel();
+        configContext.getAxisConfiguration().addParameter(
+                Constants.Configuration.MAX_OUTSTANDING_CALLBACKS, "1");
+        serviceClient.sendReceiveAsync(createPayload());
+        try {
+            serviceClient.sendReceiveAsync(createPayload());
+            fail("Expected AxisFault");
+        } catch (AxisFault e) {
+            // the first callback never expires, so no further request can be sent
+        }
+        assertEquals(1, sender.sent.size());
+        assertNull(configContext.getOperationContext(
+                serviceClient.getLastOperationContext().getMessageContext(
+                        WSDLConstants.MESSAGE_LABEL_OUT_VALUE).getMessageID()));
+    }
+
+    public void testTransportCleanupPerInvocation() throws Exception {
+        serviceClient.getOptions().setCallTransportCleanup(true);
+        CompletableFuture<OMElement> first = serviceClient.sendReceiveAsync(createPayload());
+        CompletableFuture<OMElement> second = serviceClient.sendReceiveAsync(createPayload());
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+
+        assertEquals(2, sender.sent.size());
+        assertTrue(sender.cleanedUp.contains(sender.sent.get(0)));
+        assertTrue(sender.cleanedUp.contains(sender.sent.get(1)));
+        assertEquals(2, sender.cleanedUp.size());
+    }
+}
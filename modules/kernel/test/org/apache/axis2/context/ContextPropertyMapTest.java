@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.context;
+
+import junit.framework.TestCase;
+import org.apache.axis2.Constants;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+public class ContextPropertyMapTest extends TestCase {
+    private ContextPropertyMap map;
+
+    protected void setUp() throws Exception {
+        map = new ContextPropertyMap();
+    }
+
+    public void testSlotAndMapProperties() {
+        Map<String, String> headers = new HashMap<String, String>();
+        assertNull(map.put(MessageContext.TRANSPORT_HEADERS, headers));
+        assertNull(map.put("custom", "value"));
+        assertSame(headers, map.get(MessageContext.TRANSPORT_HEADERS));
+        assertSame(headers, map.get(new String(MessageContext.TRANSPORT_HEADERS)));
+        assertEquals("value", map.get("custom"));
+        assertEquals(2, map.size());
+
+        assertSame(headers, map.put(MessageContext.TRANSPORT_HEADERS, null));
+        assertTrue(map.containsKey(MessageContext.TRANSPORT_HEADERS));
+        assertNull(map.get(MessageContext.TRANSPORT_HEADERS));
+        assertEquals(2, map.size());
+
+        assertNull(map.remove(MessageContext.TRANSPORT_HEADERS));
+        assertFalse(map.containsKey(MessageContext.TRANSPORT_HEADERS));
+        assertEquals("value", map.remove("custom"));
+        assertTrue(map.isEmpty());
+    }
+
+    public void testNullKeysAndValues() {
+        map.put(null, "nullKey");
+        map.put("nullValue", null);
+        assertEquals("nullKey", map.get(null));
+        assertTrue(map.containsKey("nullValue"));
+        assertNull(map.get("nullValue"));
+        assertEquals(2, map.size());
+
+        Map<String, Object> copy = new HashMap<String, Object>(map);
+        assertEquals(copy, map);
+    }
+
+    public void testIteratorRemoveAndSetValue() {
+        map.put(Constants.Configuration.MESSAGE_TYPE, "text/xml");
+        map.put("a", "1");
+        map.put("b", "2");
+        for (Iterator<Map.Entry<String, Object>> it = map.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<String, Object> entry = it.next();
+            if ("a".equals(entry.getKey())) {
+                it.remove();
+            } else if (Constants.Configuration.MESSAGE_TYPE.equals(entry.getKey())) {
+                entry.setValue("application/xml");
+            }
+            // Modifications while iterating must not fail
+            map.put("c", "3");
+        }
+        assertFalse(map.containsKey("a"));
+        assertEquals("application/xml", map.get(Constants.Configuration.MESSAGE_TYPE));
+        assertEquals(3, map.size());
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertFalse(map.entrySet().iterator().hasNext());
+    }
+
+    public void testCopyConstructor() {
+        Map<String, Object> source = new HashMap<String, Object>();
+        source.put(Constants.Configuration.CHARACTER_SET_ENCODING, "UTF-8");
+        source.put("other", Boolean.TRUE);
+        assertEquals(source, new ContextPropertyMap(source));
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.context;
+
+import junit.framework.TestCase;
+import org.apache.axis2.Constants;
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.description.AxisServiceGroup;
+import org.apache.axis2.engine.AxisConfiguration;
+
+public class ServiceGroupContextExpiryTest extends TestCase {
+    private static final int TIMEOUT = 200;
+
+    private AxisServiceGroup axisServiceGroup;
+    private ConfigurationContext configurationContext;
+
+    protected void setUp() throws Exception {
+        AxisService axisService = new AxisService("Temp");
+        AxisConfiguration axisConfiguration = new AxisConfiguration();
+        axisConfiguration.addService(axisService);
+        axisServiceGroup = axisService.getAxisServiceGroup();
+        configurationContext = new ConfigurationContext(axisConfiguration);
+        configurationContext.setProperty(Constants.Configuration.CONFIG_CONTEXT_TIMEOUT_INTERVAL,
+                new Integer(TIMEOUT));
+    }
+
+    protected void tearDown() throws Exception {
+        configurationContext.getServiceGroupContextExpiry().stop();
+    }
+
+    private ServiceGroupContext addSession() {
+        ServiceGroupContext serviceGroupContext =
+                configurationContext.createServiceGroupContext(axisServiceGroup);
+        configurationContext.addServiceGroupContextIntoSoapSessionTable(serviceGroupContext);
+        return serviceGroupContext;
+    }
+
+    public void testExpiresUntouchedSessions() throws Exception {
+        int sessions = 10000;
+        for (int i = 0; i < sessions; i++) {
+            addSession();
+        }
+        ServiceGroupContextExpiry expiry = configurationContext.getServiceGroupContextExpiry();
+        long end = System.currentTimeMillis() + 10 * TIMEOUT + 5000;
+        while (expiry.getExpiredCount() < sessions && System.currentTimeMillis() < end) {
+            Thread.sleep(50);
+        }
+        assertEquals(sessions, expiry.getExpiredCount());
+        assertEquals(0, expiry.getScheduledCount());
+        assertEquals(0, configurationContext.getServiceGroupContextIDs().length);
+    }
+
+    public void testTouchedSessionIsRescheduled() throws Exception {
+        ServiceGroupContextExpiry expiry = configurationContext.getServiceGroupContextExpiry();
+        expiry.stop();
+        ServiceGroupContext serviceGroupContext = addSession();
+
+        ServiceGroupContextExpiry.Entry entry =
+                new ServiceGroupContextExpiry.Entry(serviceGroupContext, 0);
+        expiry.process(entry);
+        assertEquals(1, expiry.getRescheduledCount());
+        assertEquals(0, expiry.getExpiredCount());
+        assertSame(serviceGroupContext,
+                configurationContext.getServiceGroupContext(serviceGroupContext.getId()));
+
+        serviceGroupContext.setLastTouchedTime(System.currentTimeMillis() - 2 * TIMEOUT);
+        expiry.process(entry);
+        assertEquals(1, expiry.getExpiredCount());
+        assertNull(configurationContext.getServiceGroupContext(serviceGroupContext.getId()));
+    }
+
+    public void testRemovedSessionIsNotCountedAsExpired() throws Exception {
+        ServiceGroupContextExpiry expiry = configurationContext.getServiceGroupContextExpiry();
+        expiry.stop();
+        ServiceGroupContext serviceGroupContext = addSession();
+        configurationContext.removeServiceGroupContext(serviceGroupContext.getId());
+
+        serviceGroupContext.setLastTouchedTime(System.currentTimeMillis() - 2 * TIMEOUT);
+        expiry.process(new ServiceGroupContextExpiry.Entry(serviceGroupContext, 0));
+        assertEquals(0, expiry.getExpiredCount());
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.deployment;
+
+import junit.framework.TestCase;
+import org.apache.axis2.AbstractTestCase;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.ConfigurationContextFactory;
+import org.apache.axis2.engine.AxisConfiguration;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.util.Collections;
+
+public class IncrementalDeploymentTest extends TestCase {
+    private File repo;
+    private ConfigurationContext configContext;
+    private AxisConfiguration axisConfig;
+
+    protected void setUp() throws Exception {
+        repo = new File(AbstractTestCase.basedir, "target/test-resources/incrementalDeploymentRepo");
+        FileUtils.deleteDirectory(repo);
+        FileUtils.copyDirectory(new File(AbstractTestCase.basedir,
+                "test-resources/deployment/hierarchicalServiceRepo"), repo);
+        File axis2xml = new File(repo, "axis2.xml");
+        String config = FileUtils.readFileToString(axis2xml, "UTF-8");
+        config = config.replace("<parameter name=\"hotdeployment\">true</parameter>",
+                "<parameter name=\"hotdeployment\">false</parameter>\n"
+                + "    <parameter name=\"deploymentThreads\">4</parameter>");
+        FileUtils.writeStringToFile(axis2xml, config, "UTF-8");
+        configContext = ConfigurationContextFactory.createConfigurationContextFromFileSystem(
+                repo.getAbsolutePath(), axis2xml.getAbsolutePath());
+        axisConfig = configContext.getAxisConfiguration();
+    }
+
+    protected void tearDown() throws Exception {
+        configContext.terminate();
+    }
+
+    public void testConcurrentDeployment() throws Exception {
+        assertNotNull(axisConfig.getServiceGroup("foo/bar/1.0.0/testService"));
+        assertNotNull(axisConfig.getServiceGroup("foo/bar/1.0.1/testService"));
+        assertNotNull(axisConfig.getService("foo/bar/1.0.1/Hie101Service1"));
+    }
+
+    public void testCheckChangedFiles() throws Exception {
+        RepositoryListener listener =
+                ((DeploymentEngine)axisConfig.getConfigurator()).repoListener;
+        File version = new File(repo, "services/foo/bar/1.0.1");
+        File backup = new File(repo, "1.0.1");
+        FileUtils.moveDirectory(version, backup);
+
+        listener.checkChangedFiles(Collections.singleton(version));
+        assertNull(axisConfig.getServiceGroup("foo/bar/1.0.1/testService"));
+        assertNotNull(axisConfig.getServiceGroup("foo/bar/1.0.0/testService"));
+
+        FileUtils.moveDirectory(backup, version);
+        listener.checkChangedFiles(Collections.singleton(version));
+        assertNotNull(axisConfig.getServiceGroup("foo/bar/1.0.1/testService"));
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.description;
+
+import junit.framework.TestCase;
+import org.apache.axis2.wsdl.WSDLUtil;
+
+import javax.xml.namespace.QName;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class OperationDispatchIndexTest extends TestCase {
+    private AxisService service;
+    private AxisOperation echo;
+    private AxisOperation ping;
+
+    protected void setUp() throws Exception {
+        service = new AxisService("EchoService");
+        echo = new InOutAxisOperation(new QName("echo"));
+        ping = new InOnlyAxisOperation(new QName("ping"));
+        service.addOperation(echo);
+        service.addOperation(ping);
+    }
+
+    public void testOperationByName() {
+        OperationDispatchIndex index = service.getDispatchIndex();
+        String uri = "http://localhost/axis2/services/EchoService/echo?x=1";
+        int start = uri.indexOf("echo");
+        assertSame(echo, index.getOperation(uri, start, start + 4));
+        assertSame(echo, index.getOperation("urn:echo", 0, 8));
+        assertNull(index.getOperation(uri, start, start + 3));
+        assertNull(index.getOperation(uri, start, start));
+    }
+
+    public void testIndexIsRebuiltOnChange() {
+        OperationDispatchIndex index = service.getDispatchIndex();
+        assertSame(index, service.getDispatchIndex());
+
+        AxisOperation hello = new InOutAxisOperation(new QName("hello"));
+        service.addOperation(hello);
+        OperationDispatchIndex newIndex = service.getDispatchIndex();
+        assertNotSame(index, newIndex);
+        assertSame(hello, newIndex.getOperation("hello", 0, 5));
+
+        service.removeOperation(new QName("hello"));
+        assertNull(service.getDispatchIndex().getOperation("hello", 0, 5));
+    }
+
+    public void testHTTPLocation() {
+        Map<String, AxisOperation> httpLocationTable =
+                new TreeMap<String, AxisOperation>(Collections.<String>reverseOrder());
+        httpLocationTable.put(WSDLUtil.getConstantFromHTTPLocation("echo/{value}", "GET"), echo);
+        httpLocationTable.put(WSDLUtil.getConstantFromHTTPLocation("echo/ping/{value}", "GET"),
+                              ping);
+        AxisBinding binding = new AxisBinding();
+        binding.setProperty(WSDL2Constants.HTTP_LOCATION_TABLE, httpLocationTable);
+        AxisEndpoint endpoint = new AxisEndpoint();
+        endpoint.setBinding(binding);
+        service.addEndpoint("EchoServiceHttpEndpoint", endpoint);
+
+        OperationDispatchIndex index = service.getDispatchIndex();
+        String uri = "http://localhost/axis2/services/EchoService/echo/ping/hello";
+        int start = uri.indexOf("/echo");
+        assertSame(ping, index.getOperationByHTTPLocation(binding, "GET", uri, start,
+                                                          uri.length()));
+        uri = "http://localhost/axis2/services/EchoService/echo/hello";
+        assertSame(echo, index.getOperationByHTTPLocation(binding, "GET", uri, start,
+                                                          uri.length()));
+        assertNull(index.getOperationByHTTPLocation(binding, "POST", uri, start, uri.length()));
+
+        // changes to the table are picked up
+        httpLocationTable.put(WSDLUtil.getConstantFromHTTPLocation("echo/hello", "GET"), ping);
+        assertSame(ping, service.getDispatchIndex().getOperationByHTTPLocation(binding, "GET",
+                uri, start, uri.length()));
+    }
+}
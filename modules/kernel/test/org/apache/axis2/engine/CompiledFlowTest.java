@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.description.HandlerDescription;
+import org.apache.axis2.handlers.AbstractHandler;
+
+public class CompiledFlowTest extends TestCase {
+
+    private static class RecordingHandler extends AbstractHandler {
+        private final List<String> invoked;
+
+        RecordingHandler(String name, List<String> invoked) {
+            this.invoked = invoked;
+            init(new HandlerDescription(name));
+        }
+
+        public InvocationResponse invoke(MessageContext msgContext) throws AxisFault {
+            invoked.add(getName());
+            return InvocationResponse.CONTINUE;
+        }
+    }
+
+    /**
+     * Create a list of phases where only every third phase has handlers, similar to a
+     * configuration with a handful of modules engaged.
+     */
+    private static List<Phase> createPhases(String prefix, int handlerCount, List<String> invoked) {
+        List<Phase> phases = new ArrayList<Phase>();
+        int handlers = 0;
+        for (int i = 0; handlers < handlerCount; i++) {
+            Phase phase = new Phase(prefix + i);
+            if (i % 3 == 0) {
+                for (int j = 0; j < 2 && handlers < handlerCount; j++, handlers++) {
+                    phase.addHandler(new RecordingHandler(prefix + i + "-" + j, invoked));
+                }
+            }
+            phases.add(phase);
+        }
+        return phases;
+    }
+
+    private static void invoke(List<Handler> chain, MessageContext msgContext) throws AxisFault {
+        for (Handler phase : chain) {
+            assertEquals(Handler.InvocationResponse.CONTINUE, phase.invoke(msgContext));
+        }
+    }
+
+    public void testSkipsEmptyPhases() throws Exception {
+        List<String> invoked = new ArrayList<String>();
+        List<Phase> phases = createPhases("in", 10, invoked);
+        CompiledFlow flow = CompiledFlow.compile(phases, null);
+
+        assertEquals(5, flow.getPhaseCount());
+        assertEquals(phases.size() - 5, flow.getSkippedPhaseCount());
+        assertTrue(flow.isValid(phases, null));
+    }
+
+    public void testKeepsPhaseSubclasses() throws Exception {
+        List<Phase> phases = new ArrayList<Phase>();
+        phases.add(new DispatchPhase("Dispatch"));
+        phases.add(new Phase("Empty"));
+        CompiledFlow flow = CompiledFlow.compile(phases, null);
+
+        assertEquals(1, flow.getPhaseCount());
+        assertSame(phases.get(0), flow.newExecutionChain().get(0));
+    }
+
+    /**
+     * Runs the same flows with and without compilation, with 10 and 30 handlers engaged, and
+     * checks that the handlers are invoked in the same order.
+     */
+    public void testSameInvocationOrder() throws Exception {
+        for (int handlerCount = 10; handlerCount <= 30; handlerCount += 20) {
+            List<String> invoked = new ArrayList<String>();
+            List<Phase> operationPhases = createPhases("op", handlerCount / 2, invoked);
+            List<Phase> globalPhases = createPhases("global", handlerCount - handlerCount / 2,
+                    invoked);
+            MessageContext msgContext = new MessageContext();
+
+            ArrayList<Handler> plainChain = new ArrayList<Handler>(operationPhases);
+            plainChain.addAll(globalPhases);
+            invoke(plainChain, msgContext);
+            List<String> expected = new ArrayList<String>(invoked);
+            assertEquals(handlerCount, expected.size());
+
+            invoked.clear();
+            CompiledFlow flow = CompiledFlow.compile(operationPhases, globalPhases);
+            ArrayList<Handler> compiledChain = flow.newExecutionChain();
+            assertTrue(compiledChain.size() < plainChain.size());
+            invoke(compiledChain, msgContext);
+            assertEquals(expected, invoked);
+        }
+    }
+
+    public void testNewExecutionChainIsPrivateCopy() throws Exception {
+        List<Phase> phases = createPhases("in", 4, new ArrayList<String>());
+        CompiledFlow flow = CompiledFlow.compile(phases, null);
+        ArrayList<Handler> chain = flow.newExecutionChain();
+        chain.clear();
+        assertEquals(2, flow.newExecutionChain().size());
+    }
+
+    public void testInvalidatedWhenSkippedPhaseGetsHandler() throws Exception {
+        List<String> invoked = new ArrayList<String>();
+        List<Phase> phases = createPhases("in", 4, invoked);
+        CompiledFlow flow = CompiledFlow.compile(phases, null);
+        assertTrue(flow.isValid(phases, null));
+
+        phases.get(1).addHandler(new RecordingHandler("engaged", invoked));
+        assertFalse(flow.isValid(phases, null));
+        assertEquals(3, CompiledFlow.compile(phases, null).getPhaseCount());
+    }
+
+    public void testInvalidatedWhenPhaseListChanges() throws Exception {
+        List<Phase> phases = createPhases("in", 4, new ArrayList<String>());
+        List<Phase> global = createPhases("global", 2, new ArrayList<String>());
+        CompiledFlow flow = CompiledFlow.compile(phases, global);
+        assertTrue(flow.isValid(phases, global));
+
+        assertFalse(flow.isValid(new ArrayList<Phase>(phases), global));
+        assertFalse(flow.isValid(phases, null));
+
+        phases.set(0, new Phase("replaced"));
+        assertFalse(flow.isValid(phases, global));
+
+        phases.remove(0);
+        assertFalse(flow.isValid(phases, global));
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.util;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.addressing.RelatesTo;
+import org.apache.axis2.client.async.AxisCallback;
+import org.apache.axis2.context.MessageContext;
+
+public class CallbackReceiverTest extends TestCase {
+    private static class TestCallback implements AxisCallback {
+        final CountDownLatch completed = new CountDownLatch(1);
+        volatile MessageContext message;
+        volatile Exception error;
+
+        public void onMessage(MessageContext msgContext) {
+            message = msgContext;
+        }
+
+        public void onFault(MessageContext msgContext) {
+            message = msgContext;
+        }
+
+        public void onError(Exception e) {
+            error = e;
+        }
+
+        public void onComplete() {
+            completed.countDown();
+        }
+    }
+
+    private static MessageContext createResponse(String relatesTo) {
+        MessageContext msgContext = new MessageContext();
+        msgContext.getOptions().setRelatesTo(new RelatesTo(relatesTo));
+        return msgContext;
+    }
+
+    public void testReceive() throws Exception {
+        CallbackReceiver receiver = new CallbackReceiver();
+        TestCallback callback = new TestCallback();
+        receiver.addCallback("urn:uuid:1", callback, 60000);
+        assertEquals(1, receiver.getOutstandingCallbackCount());
+
+        MessageContext response = createResponse("urn:uuid:1");
+        receiver.receive(response);
+        assertSame(response, callback.message);
+        assertNull(callback.error);
+        assertEquals(0, callback.completed.getCount());
+        assertEquals(0, receiver.getOutstandingCallbackCount());
+        assertEquals(0, receiver.getExpiredCallbackCount());
+    }
+
+    public void testExpiry() throws Exception {
+        CallbackReceiver receiver = new CallbackReceiver();
+        TestCallback callback = new TestCallback();
+        receiver.addCallback("urn:uuid:1", callback, 50);
+        assertTrue(callback.completed.await(5, TimeUnit.SECONDS));
+        assertTrue(callback.error instanceof AxisFault);
+        assertNull(callback.message);
+        assertEquals(0, receiver.getOutstandingCallbackCount());
+        assertEquals(1, receiver.getExpiredCallbackCount());
+
+        // a late response no longer finds its callback
+        try {
+            receiver.receive(createResponse("urn:uuid:1"));
+            fail("Expected AxisFault");
+        } catch (AxisFault e) {
+            // expected
+        }
+    }
+
+    public void testNoExpiryWithoutTimeout() throws Exception {
+        CallbackReceiver receiver = new CallbackReceiver();
+        TestCallback callback = new TestCallback();
+        receiver.addCallback("urn:uuid:1", callback);
+        assertFalse(callback.completed.await(100, TimeUnit.MILLISECONDS));
+        assertEquals(1, receiver.getOutstandingCallbackCount());
+        assertSame(callback, receiver.lookupCallback("urn:uuid:1"));
+        assertEquals(0, receiver.getOutstandingCallbackCount());
+    }
+
+    public void testDuplicate() throws Exception {
+        CallbackReceiver receiver = new CallbackReceiver(1);
+        receiver.addCallback("urn:uuid:1", new TestCallback(), 60000);
+        try {
+            receiver.addCallback("urn:uuid:1", new TestCallback(), 10);
+            fail("Expected AxisFault");
+        } catch (AxisFault e) {
+            // expected
+        }
+        assertEquals(1, receiver.getOutstandingCallbackCount());
+    }
+
+    public void testMaxOutstandingCallbacks() throws Exception {
+        final CallbackReceiver receiver = new CallbackReceiver(1);
+        receiver.addCallback("urn:uuid:1", new TestCallback(), 60000);
+        try {
+            receiver.addCallback("urn:uuid:2", new TestCallback(), 50);
+            fail("Expected AxisFault");
+        } catch (AxisFault e) {
+            // expected
+        }
+
+        final TestCallback callback = new TestCallback();
+        final CountDownLatch added = new CountDownLatch(1);
+        Thread thread = new Thread() {
+            public void run() {
+                try {
+                    receiver.addCallback("urn:uuid:3", callback, 60000);
+                    added.countDown();
+                } catch (AxisFault e) {
+                    // leaves the latch open
+                }
+            }
+        };
+        thread.start();
+        assertFalse(added.await(100, TimeUnit.MILLISECONDS));
+        assertEquals(1, receiver.getWaitingCallbackCount());
+
+        receiver.receive(createResponse("urn:uuid:1"));
+        assertTrue(added.await(5, TimeUnit.SECONDS));
+        assertEquals(1, receiver.getOutstandingCallbackCount());
+        assertSame(callback, receiver.lookupCallback("urn:uuid:3"));
+    }
+
+    public void testWaitIsBoundedWithoutExpiry() throws Exception {
+        CallbackReceiver receiver = new CallbackReceiver(1);
+        receiver.addCallback("urn:uuid:1", new TestCallback(), 50, -1, null);
+        try {
+            receiver.addCallback("urn:uuid:2", new TestCallback(), 50, -1, null);
+            fail("Expected AxisFault");
+        } catch (AxisFault e) {
+            // expected
+        }
+        assertEquals(0, receiver.getExpiredCallbackCount());
+        assertEquals(1, receiver.getOutstandingCallbackCount());
+    }
+
+    public void testExpiryHandler() throws Exception {
+        CallbackReceiver receiver = new CallbackReceiver();
+        final CountDownLatch handled = new CountDownLatch(2);
+        Runnable expiryHandler = new Runnable() {
+            public void run() {
+                handled.countDown();
+            }
+        };
+        TestCallback callback = new TestCallback();
+        receiver.addCallback("urn:uuid:1", callback, 60000, 50, expiryHandler);
+        assertTrue(callback.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(1, handled.getCount());
+
+        // the handler is not run when the response arrives
+        receiver.addCallback("urn:uuid:2", new TestCallback(), 60000, 100, expiryHandler);
+        receiver.receive(createResponse("urn:uuid:2"));
+        assertFalse(handled.await(300, TimeUnit.MILLISECONDS));
+    }
+
+    public void testExpiryReleasesPermit() throws Exception {
+        CallbackReceiver receiver = new CallbackReceiver(1);
+        receiver.addCallback("urn:uuid:1", new TestCallback(), 50);
+        TestCallback callback = new TestCallback();
+        receiver.addCallback("urn:uuid:2", callback, 5000);
+        assertEquals(1, receiver.getExpiredCallbackCount());
+        assertSame(callback, receiver.lookupCallback("urn:uuid:2"));
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.util;
+
+import junit.framework.TestCase;
+
+import org.apache.axis2.builder.ApplicationXMLBuilder;
+import org.apache.axis2.builder.Builder;
+import org.apache.axis2.engine.AxisConfiguration;
+import org.apache.axis2.kernel.http.ApplicationXMLFormatter;
+
+public class MessageProcessorSelectorTest extends TestCase {
+    private AxisConfiguration configuration;
+
+    protected void setUp() throws Exception {
+        configuration = new AxisConfiguration();
+        configuration.addMessageFormatter("text/xml", new ApplicationXMLFormatter());
+        configuration.addMessageFormatter("application/xml", new ApplicationXMLFormatter());
+        configuration.addMessageFormatter("application/json", new ApplicationXMLFormatter());
+    }
+
+    public void testSelectFirstSupportedType() throws Exception {
+        assertEquals("application/json", MessageProcessorSelector.selectAcceptedMessageType(
+                "image/png, application/json, application/xml", configuration));
+    }
+
+    public void testIgnoreParametersAndWhitespace() throws Exception {
+        assertEquals("application/xml", MessageProcessorSelector.selectAcceptedMessageType(
+                "image/png;q=0.9 ,  application/xml ;q=0.5", configuration));
+        assertEquals("application/json", MessageProcessorSelector.selectAcceptedMessageType(
+                "application/json;charset=UTF-8", configuration));
+    }
+
+    public void testTextXMLIsNotNegotiated() throws Exception {
+        assertEquals("application/xml", MessageProcessorSelector.selectAcceptedMessageType(
+                "text/xml, application/xml", configuration));
+        assertNull(MessageProcessorSelector.selectAcceptedMessageType("text/xml", configuration));
+    }
+
+    public void testNoSupportedType() throws Exception {
+        assertNull(MessageProcessorSelector.selectAcceptedMessageType("", configuration));
+        assertNull(MessageProcessorSelector.selectAcceptedMessageType(" , ;q=1,", configuration));
+        assertNull(MessageProcessorSelector.selectAcceptedMessageType("image/*", configuration));
+    }
+
+    public void testResolvedBuilderCacheIsInvalidated() throws Exception {
+        Builder xmlBuilder = new ApplicationXMLBuilder();
+        configuration.addMessageBuilder("application/xml", xmlBuilder);
+        assertNull(configuration.getMessageBuilder("application/atom+xml"));
+        assertNull(configuration.getMessageBuilder("application/atom+xml"));
+
+        Builder patternBuilder = new ApplicationXMLBuilder();
+        configuration.addMessageBuilder("application/.*\\+xml", patternBuilder);
+        assertSame(patternBuilder, configuration.getMessageBuilder("application/atom+xml"));
+        assertSame(patternBuilder, configuration.getMessageBuilder("application/atom+xml"));
+        assertSame(xmlBuilder, configuration.getMessageBuilder("application/xml"));
+    }
+}
@@ -24,6 +24,9 @@ import org.apache.axis2.AxisFault;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class TestThreadPool extends AbstractTestCase {
     /**
@@ -64,4 +67,40 @@ public class TestThreadPool extends AbstractTestCase {
 
     }
 
+    public void testVirtualThreadPoolBoundsConcurrency() throws Exception {
+        final VirtualThreadPool tPool = new VirtualThreadPool(2);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(6);
+        final AtomicInteger maxActive = new AtomicInteger();
+
+        for (int i = 0; i < 6; i++) {
+            tPool.execute(new Runnable() {
+                public void run() {
+                    int active = tPool.getActiveCount();
+                    while (active > maxActive.get()) {
+                        maxActive.compareAndSet(maxActive.get(), active);
+                    }
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    done.countDown();
+                }
+            });
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (tPool.getQueueDepth() != 4 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(4, tPool.getQueueDepth());
+        assertEquals(2, tPool.getActiveCount());
+
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(maxActive.get() <= 2);
+        tPool.safeShutDown();
+    }
+
 }
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.validation;
+
+import java.io.UnsupportedEncodingException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import javax.xml.XMLConstants;
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.Validator;
+
+import org.apache.axiom.blob.Blobs;
+import org.apache.axiom.blob.MemoryBlob;
+import org.apache.axiom.blob.MemoryBlobOutputStream;
+import org.apache.axis2.AxisFault;
+import org.apache.ws.commons.schema.XmlSchema;
+import org.xml.sax.SAXException;
+
+/**
+ * The compiled form of the schemas of a single service, together with a pool of idle
+ * {@link Validator} instances. {@link Schema} is thread safe, but {@link Validator} is not, so
+ * each message borrows a validator for the duration of the validation.
+ */
+final class CompiledSchema {
+    private static final int MAX_IDLE_VALIDATORS = 16;
+
+    private final XmlSchema[] sourceSchemas;
+    private final Schema schema;
+    private final BlockingQueue<Validator> idleValidators =
+            new ArrayBlockingQueue<Validator>(MAX_IDLE_VALIDATORS);
+
+    private CompiledSchema(XmlSchema[] sourceSchemas, Schema schema) {
+        this.sourceSchemas = sourceSchemas;
+        this.schema = schema;
+    }
+
+    static CompiledSchema compile(List<XmlSchema> schemas) throws AxisFault {
+        SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+        schemaFactory.setErrorHandler(new SchemaFactoryErrorHandler());
+        XmlSchema[] sourceSchemas = schemas.toArray(new XmlSchema[schemas.size()]);
+        Source[] schemaSources = new Source[sourceSchemas.length];
+        for (int i = 0; i < sourceSchemas.length; i++) {
+            MemoryBlob blob = Blobs.createMemoryBlob();
+            MemoryBlobOutputStream out = blob.getOutputStream();
+            try {
+                sourceSchemas[i].write(out);
+            } catch (UnsupportedEncodingException ex) {
+                throw AxisFault.makeFault(ex);
+            }
+            out.close();
+            schemaSources[i] = new StreamSource(blob.getInputStream());
+        }
+        try {
+            return new CompiledSchema(sourceSchemas, schemaFactory.newSchema(schemaSources));
+        } catch (SAXException ex) {
+            throw new AxisFault("Failed to compile schemas", ex);
+        }
+    }
+
+    /**
+     * Check whether this compiled schema was built from the given schemas.
+     */
+    boolean isCompiledFrom(List<XmlSchema> schemas) {
+        if (schemas.size() != sourceSchemas.length) {
+            return false;
+        }
+        for (int i = 0; i < sourceSchemas.length; i++) {
+            if (schemas.get(i) != sourceSchemas[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    Validator borrowValidator() {
+        Validator validator = idleValidators.poll();
+        return validator == null ? schema.newValidator() : validator;
+    }
+
+    /**
+     * Return a validator to the pool. Only validators that completed a validation without error
+     * should be returned.
+     */
+    void returnValidator(Validator validator) {
+        validator.reset();
+        idleValidators.offer(validator);
+    }
+}
@@ -19,19 +19,13 @@
 package org.apache.axis2.validation;
 
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 
-import javax.xml.XMLConstants;
-import javax.xml.transform.Source;
-import javax.xml.transform.stream.StreamSource;
-import javax.xml.validation.Schema;
-import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.Validator;
 
-import org.apache.axiom.blob.Blobs;
-import org.apache.axiom.blob.MemoryBlob;
-import org.apache.axiom.blob.MemoryBlobOutputStream;
 import org.apache.axiom.om.OMException;
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.context.MessageContext;
@@ -43,6 +37,14 @@ import org.apache.ws.commons.schema.XmlSchema;
 import org.xml.sax.SAXException;
 
 public class SchemaValidationHandler extends AbstractHandler {
+    /**
+     * The compiled schemas, keyed by service. A redeployed service is a new {@link AxisService}
+     * instance, so it gets a new entry, and the entry of the old instance goes away together
+     * with it.
+     */
+    private final Map<AxisService, CompiledSchema> compiledSchemas =
+            Collections.synchronizedMap(new WeakHashMap<AxisService, CompiledSchema>());
+
     public InvocationResponse invoke(MessageContext msgContext) throws AxisFault {
         AxisService service = msgContext.getAxisService();
         Parameter parameter = service.getParameter("disableSchemaValidation");
@@ -53,33 +55,22 @@ public class SchemaValidationHandler extends AbstractHandler {
         if (schemas.isEmpty()) {
             return InvocationResponse.CONTINUE;
         }
-        SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-        schemaFactory.setErrorHandler(new SchemaFactoryErrorHandler());
-        List<Source> schemaSources = new ArrayList<Source>();
-        for (XmlSchema schema : schemas) {
-            MemoryBlob blob = Blobs.createMemoryBlob();
-            MemoryBlobOutputStream out = blob.getOutputStream();
-            try {
-                schema.write(out);
-            } catch (UnsupportedEncodingException ex) {
-                throw AxisFault.makeFault(ex);
-            }
-            out.close();
-            schemaSources.add(new StreamSource(blob.getInputStream()));
-        }
-        Schema schema;
-        try {
-            schema = schemaFactory.newSchema(schemaSources.toArray(new Source[schemaSources.size()]));
-        } catch (SAXException ex) {
-            throw new AxisFault("Failed to compile schemas", ex);
+        CompiledSchema compiledSchema = compiledSchemas.get(service);
+        if (compiledSchema == null || !compiledSchema.isCompiledFrom(schemas)) {
+            compiledSchema = CompiledSchema.compile(schemas);
+            compiledSchemas.put(service, compiledSchema);
         }
+        Validator validator = compiledSchema.borrowValidator();
         try {
-            schema.newValidator().validate(msgContext.getEnvelope().getBody().getFirstElement().getSAXSource(true));
+            // The SAX source pulls the body through the builder, so the validator sees the
+            // events as they are parsed and stops at the first error.
+            validator.validate(msgContext.getEnvelope().getBody().getFirstElement().getSAXSource(true));
         } catch (SAXException ex) {
             throw new AxisFault("Failed to validate message: " + ex.getMessage(), ex);
         } catch (OMException | IOException ex) {
             throw new AxisFault("Failed to validate message", ex);
         }
+        compiledSchema.returnValidator(validator);
         return InvocationResponse.CONTINUE;
     }
 }
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.validation;
+
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.List;
+
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Validator;
+
+import junit.framework.TestCase;
+
+import org.apache.ws.commons.schema.XmlSchema;
+import org.apache.ws.commons.schema.XmlSchemaCollection;
+import org.xml.sax.SAXException;
+
+public class CompiledSchemaTest extends TestCase {
+    static final String SCHEMA =
+            "<xs:schema xmlns:xs='http://www.w3.org/2001/XMLSchema' targetNamespace='urn:test'"
+            + " elementFormDefault='qualified'>"
+            + "<xs:element name='echo'><xs:complexType><xs:sequence>"
+            + "<xs:element name='value' type='xs:int'/>"
+            + "</xs:sequence></xs:complexType></xs:element>"
+            + "</xs:schema>";
+
+    static final String VALID = "<echo xmlns='urn:test'><value>42</value></echo>";
+    static final String INVALID = "<echo xmlns='urn:test'><value>forty-two</value></echo>";
+
+    static List<XmlSchema> readSchemas() {
+        return Collections.singletonList(
+                new XmlSchemaCollection().read(new StreamSource(new StringReader(SCHEMA))));
+    }
+
+    private static void validate(Validator validator, String xml) throws Exception {
+        validator.validate(new StreamSource(new StringReader(xml)));
+    }
+
+    public void testValidatorReuse() throws Exception {
+        CompiledSchema compiledSchema = CompiledSchema.compile(readSchemas());
+        Validator validator = compiledSchema.borrowValidator();
+        validate(validator, VALID);
+        compiledSchema.returnValidator(validator);
+        assertSame(validator, compiledSchema.borrowValidator());
+        // while the pooled validator is borrowed, a new one is created
+        Validator other = compiledSchema.borrowValidator();
+        assertNotSame(validator, other);
+        validate(other, VALID);
+    }
+
+    public void testFailedValidationIsNotPooled() throws Exception {
+        CompiledSchema compiledSchema = CompiledSchema.compile(readSchemas());
+        Validator validator = compiledSchema.borrowValidator();
+        try {
+            validate(validator, INVALID);
+            fail("Expected SAXException");
+        } catch (SAXException ex) {
+            // expected; like SchemaValidationHandler, don't return the validator
+        }
+        Validator next = compiledSchema.borrowValidator();
+        assertNotSame(validator, next);
+        validate(next, VALID);
+        compiledSchema.returnValidator(next);
+        assertSame(next, compiledSchema.borrowValidator());
+    }
+
+    public void testIsCompiledFrom() throws Exception {
+        List<XmlSchema> schemas = readSchemas();
+        CompiledSchema compiledSchema = CompiledSchema.compile(schemas);
+        assertTrue(compiledSchema.isCompiledFrom(schemas));
+        assertFalse(compiledSchema.isCompiledFrom(readSchemas()));
+        assertFalse(compiledSchema.isCompiledFrom(Collections.<XmlSchema>emptyList()));
+    }
+}
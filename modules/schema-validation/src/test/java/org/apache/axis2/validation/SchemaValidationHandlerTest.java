@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.validation;
+
+import java.io.StringReader;
+
+import junit.framework.TestCase;
+
+import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axiom.soap.SOAPEnvelope;
+import org.apache.axiom.soap.SOAPFactory;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.engine.Handler.InvocationResponse;
+import org.apache.ws.commons.schema.XmlSchema;
+
+public class SchemaValidationHandlerTest extends TestCase {
+    private AxisService service;
+    private SchemaValidationHandler handler;
+
+    protected void setUp() throws Exception {
+        service = new AxisService("EchoService");
+        for (XmlSchema schema : CompiledSchemaTest.readSchemas()) {
+            service.addSchema(schema);
+        }
+        handler = new SchemaValidationHandler();
+    }
+
+    private MessageContext createMessageContext(String payload) throws Exception {
+        SOAPFactory factory = OMAbstractFactory.getSOAP11Factory();
+        SOAPEnvelope envelope = factory.getDefaultEnvelope();
+        envelope.getBody().addChild(
+                OMXMLBuilderFactory.createOMBuilder(new StringReader(payload))
+                        .getDocumentElement());
+        MessageContext msgContext = new MessageContext();
+        msgContext.setAxisService(service);
+        msgContext.setEnvelope(envelope);
+        return msgContext;
+    }
+
+    public void testValidMessage() throws Exception {
+        assertSame(InvocationResponse.CONTINUE,
+                handler.invoke(createMessageContext(CompiledSchemaTest.VALID)));
+        // the second message reuses the compiled schema and the pooled validator
+        assertSame(InvocationResponse.CONTINUE,
+                handler.invoke(createMessageContext(CompiledSchemaTest.VALID)));
+    }
+
+    public void testValidAfterInvalidMessage() throws Exception {
+        try {
+            handler.invoke(createMessageContext(CompiledSchemaTest.INVALID));
+            fail("Expected AxisFault");
+        } catch (AxisFault ex) {
+            // expected
+        }
+        assertSame(InvocationResponse.CONTINUE,
+                handler.invoke(createMessageContext(CompiledSchemaTest.VALID)));
+    }
+
+    public void testDisabled() throws Exception {
+        service.addParameter("disableSchemaValidation", "true");
+        assertSame(InvocationResponse.CONTINUE,
+                handler.invoke(createMessageContext(CompiledSchemaTest.INVALID)));
+    }
+}
@@ -19,18 +19,44 @@
 
 package org.apache.axis2.handlers.soapmonitor;
 
+import org.apache.axiom.soap.SOAPEnvelope;
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.addressing.EndpointReference;
 import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.description.Parameter;
 import org.apache.axis2.handlers.AbstractHandler;
 import org.apache.axis2.soapmonitor.servlet.SOAPMonitorConstants;
 import org.apache.axis2.soapmonitor.servlet.SOAPMonitorService;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes SOAP messages to the SOAP monitor applet. Nothing is captured while no applet is
+ * connected. The <code>sampleRate</code> module parameter can be set to N to capture only
+ * every Nth request (and its response).
+ */
 public class SOAPMonitorHandler extends AbstractHandler {
 
+    private static final Log log = LogFactory.getLog(SOAPMonitorHandler.class);
+
+    /**
+     * Module parameter for capturing only every Nth request
+     */
+    public static final String SAMPLE_RATE = "sampleRate";
+
     private String name;
 
-    private static long next_message_id = 1;
+    private static final AtomicLong next_message_id = new AtomicLong(1);
+
+    private final AtomicLong requestCount = new AtomicLong();
+
+    /**
+     * The value of the <code>sampleRate</code> parameter, or 0 if it has not been read yet
+     */
+    private volatile long sampleRate;
 
     /**
      * Constructor
@@ -55,6 +81,9 @@ public class SOAPMonitorHandler extends AbstractHandler {
      * Process and SOAP message
      */
     public InvocationResponse invoke(MessageContext messageContext) throws AxisFault {
+        if (!SOAPMonitorService.hasSubscribers()) {
+            return InvocationResponse.CONTINUE;
+        }
 
         EndpointReference ref = null;
 
@@ -64,6 +93,9 @@ public class SOAPMonitorHandler extends AbstractHandler {
         // 'soap request' must be called first
         if (messageContext.getFLOW() == MessageContext.IN_FLOW) {
             // show soap message inside the 'soap request' pane in the applet
+            if (!isSampled()) {
+                return InvocationResponse.CONTINUE;
+            }
             id = assignMessageId(messageContext);
             type = new Integer(SOAPMonitorConstants.SOAP_MONITOR_REQUEST);
             ref = messageContext.getTo();
@@ -85,6 +117,10 @@ public class SOAPMonitorHandler extends AbstractHandler {
         } else {
             throw new IllegalStateException("unknown FLOW detected in messageContext: " + messageContext.getFLOW());
         }
+        // Only messages that belong to a captured request are published
+        if (id == null) {
+            return InvocationResponse.CONTINUE;
+        }
 
         String target = null;
         if (ref != null) {
@@ -95,28 +131,56 @@ public class SOAPMonitorHandler extends AbstractHandler {
             target = "";
         }
 
-        // Get the SOAP portion of the message
-        String soap = null;
-        if (messageContext.getEnvelope() != null) {
-            soap = messageContext.getEnvelope().toString();
-        }
-        // If we have an id and a SOAP portion, then send the
-        // message to the SOAP monitor service
-        if ((id != null) && (soap != null)) {
-            SOAPMonitorService.publishMessage(id, type, target, soap);
+        // Get the SOAP portion of the message as UTF-8 bytes; it is only decoded by the
+        // SOAP monitor service threads that write to the applets
+        SOAPEnvelope envelope = messageContext.getEnvelope();
+        if (envelope != null) {
+            ByteArrayOutputStream soap = new ByteArrayOutputStream();
+            try {
+                envelope.serialize(soap);
+            } catch (Exception e) {
+                log.debug("Unable to capture SOAP message " + id, e);
+                return InvocationResponse.CONTINUE;
+            }
+            SOAPMonitorService.publishMessage(id, type, target, soap.toByteArray());
         }
         return InvocationResponse.CONTINUE;
     }
 
+    /**
+     * Decide whether the current request should be captured
+     */
+    private boolean isSampled() {
+        long rate = sampleRate;
+        if (rate == 0) {
+            rate = getSampleRate(getParameter(SAMPLE_RATE));
+            sampleRate = rate;
+        }
+        return rate == 1 || requestCount.getAndIncrement() % rate == 0;
+    }
+
+    /**
+     * Read the sample rate from the given parameter, capturing every request if it is not set
+     * or not a number
+     */
+    private static long getSampleRate(Parameter param) {
+        if (param == null || param.getValue() == null) {
+            return 1;
+        }
+        try {
+            return Math.max(1, Long.parseLong(param.getValue().toString().trim()));
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value '" + param.getValue() + "' for the " + SAMPLE_RATE +
+                     " parameter; every request will be captured");
+            return 1;
+        }
+    }
+
     /**
      * Assign a new message id
      */
     private Long assignMessageId(MessageContext messageContext) {
-        Long id;
-        synchronized (SOAPMonitorConstants.SOAP_MONITOR_ID) {
-            id = new Long(next_message_id);
-            next_message_id++;
-        }
+        Long id = new Long(next_message_id.getAndIncrement());
         messageContext.getOperationContext().setProperty(
                 SOAPMonitorConstants.SOAP_MONITOR_ID, id);
         return id;
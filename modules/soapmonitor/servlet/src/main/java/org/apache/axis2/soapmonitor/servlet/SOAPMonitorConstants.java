@@ -41,6 +41,12 @@ public class SOAPMonitorConstants {
      */
     public static final String SOAP_MONITOR_HOST_NAME = "SOAPMonitorHostName";
 
+    /**
+     * Servlet initialization parameter for the number of messages that may be waiting to be
+     * sent to each monitor client before further messages are dropped
+     */
+    public static final String SOAP_MONITOR_QUEUE_SIZE = "SOAPMonitorQueueSize";
+
     /**
      * Unique SOAP monitor id tag
      */
@@ -33,8 +33,12 @@ import java.io.ObjectOutputStream;
 import java.net.InetAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
-import java.util.Enumeration;
-import java.util.Vector;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This is a SOAP Monitor Service class.
@@ -59,6 +63,12 @@ import java.util.Vector;
  * detected.  The information about the SOAP message is
  * then forwared to all current socket connections for
  * display by the applet.
+ * <p/>
+ * Publishing never blocks: each connection has a bounded
+ * queue that is drained by its own writer thread, and
+ * messages for a connection whose queue is full are
+ * dropped, so a slow applet can not stall the threads
+ * that process SOAP messages.
  */
 
 public class SOAPMonitorService extends HttpServlet {
@@ -66,8 +76,13 @@ public class SOAPMonitorService extends HttpServlet {
     /**
      * Private data
      */
+    private static final int DEFAULT_QUEUE_SIZE = 100;
+
     private static ServerSocket serverSocket = null;
-    private static Vector connections = null;
+    private static final List<ConnectionThread> connections =
+            new CopyOnWriteArrayList<ConnectionThread>();
+    private static int queueSize = DEFAULT_QUEUE_SIZE;
+    private static final AtomicLong droppedMessageCount = new AtomicLong();
 
     private static final Log log = LogFactory.getLog(SOAPMonitorService.class);
 
@@ -78,6 +93,21 @@ public class SOAPMonitorService extends HttpServlet {
     }
 
 
+    /**
+     * Check whether any monitor client is connected. Publishers use this to avoid capturing
+     * messages that nobody would see.
+     */
+    public static boolean hasSubscribers() {
+        return !connections.isEmpty();
+    }
+
+    /**
+     * @return the number of messages that were dropped because a client did not keep up
+     */
+    public static long getDroppedMessageCount() {
+        return droppedMessageCount.get();
+    }
+
     /**
      * Publish a SOAP message to listeners
      */
@@ -85,12 +115,23 @@ public class SOAPMonitorService extends HttpServlet {
                                       Integer type,
                                       String target,
                                       String soap) {
-        if (connections != null) {
-            Enumeration e = connections.elements();
-            while (e.hasMoreElements()) {
-                ConnectionThread ct = (ConnectionThread) e.nextElement();
-                ct.publishMessage(id, type, target, soap);
-            }
+        publish(new Object[]{id, type, target, soap});
+    }
+
+    /**
+     * Publish a SOAP message, given as UTF-8 encoded bytes, to listeners. The bytes are only
+     * decoded by the threads that write to the clients.
+     */
+    public static void publishMessage(Long id,
+                                      Integer type,
+                                      String target,
+                                      byte[] soap) {
+        publish(new Object[]{id, type, target, soap});
+    }
+
+    private static void publish(Object[] message) {
+        for (ConnectionThread ct : connections) {
+            ct.publishMessage(message);
         }
     }
 
@@ -98,13 +139,13 @@ public class SOAPMonitorService extends HttpServlet {
      * Servlet initialiation
      */
     public void init() throws ServletException {
-        if (connections == null) {
-            // Create vector to hold connection information
-            connections = new Vector();
-        }
         if (serverSocket == null) {
             // Get the server socket port from the init params
             ServletConfig config = super.getServletConfig();
+            String size = config.getInitParameter(SOAPMonitorConstants.SOAP_MONITOR_QUEUE_SIZE);
+            if (size != null) {
+                queueSize = Integer.parseInt(size);
+            }
             String hostName = config.getInitParameter(SOAPMonitorConstants.SOAP_MONITOR_HOST_NAME);
             String port = config.getInitParameter(SOAPMonitorConstants.SOAP_MONITOR_PORT);
             if (port == null) {
@@ -140,9 +181,7 @@ public class SOAPMonitorService extends HttpServlet {
      */
     public void destroy() {
         // End all connection threads
-        Enumeration e = connections.elements();
-        while (e.hasMoreElements()) {
-            ConnectionThread ct = (ConnectionThread) e.nextElement();
+        for (ConnectionThread ct : connections) {
             ct.close();
         }
         // End main server socket thread
@@ -216,7 +255,9 @@ public class SOAPMonitorService extends HttpServlet {
         private Socket socket = null;
         private ObjectInputStream in = null;
         private ObjectOutputStream out = null;
-        private boolean closed = false;
+        private volatile boolean closed = false;
+        private final BlockingQueue<Object[]> queue = new ArrayBlockingQueue<Object[]>(queueSize);
+        private Thread writer;
 
         /**
          * Constructor
@@ -235,10 +276,15 @@ public class SOAPMonitorService extends HttpServlet {
                 in = new ObjectInputStream(socket.getInputStream());
             } catch (Exception e) {
             }
-            // Add the connection to our list
-            synchronized (connections) {
-                connections.addElement(this);
-            }
+            // Start writing queued messages, then add the connection to our list
+            writer = new Thread(new Runnable() {
+                public void run() {
+                    writeMessages();
+                }
+            });
+            writer.setDaemon(true);
+            writer.start();
+            connections.add(this);
         }
 
         /**
@@ -246,6 +292,7 @@ public class SOAPMonitorService extends HttpServlet {
          */
         public void close() {
             closed = true;
+            writer.interrupt();
             try {
                 socket.close();
             } catch (IOException ioe) {
@@ -263,17 +310,9 @@ public class SOAPMonitorService extends HttpServlet {
             } catch (Exception e) {
             }
             // Cleanup connection list
-            synchronized (connections) {
-                connections.removeElement(this);
-            }
-            // Cleanup I/O streams
-            if (out != null) {
-                try {
-                    out.close();
-                } catch (IOException ioe) {
-                }
-                out = null;
-            }
+            connections.remove(this);
+            // Stop the writer, which closes the output stream
+            writer.interrupt();
             if (in != null) {
                 try {
                     in.close();
@@ -286,33 +325,57 @@ public class SOAPMonitorService extends HttpServlet {
         }
 
         /**
-         * Publish SOAP message information
+         * Queue SOAP message information for the applet. If the applet does not keep up and
+         * the queue is full, the message is dropped.
+         */
+        public void publishMessage(Object[] message) {
+            if (!closed && !queue.offer(message)) {
+                droppedMessageCount.incrementAndGet();
+            }
+        }
+
+        /**
+         * Thread to send queued messages to the applet
          */
-        public synchronized void publishMessage(Long id,
-                                                Integer message_type,
-                                                String target,
-                                                String soap) {
-            // If we have a valid output stream, then
-            // send the data to the applet
+        private void writeMessages() {
+            try {
+                while (!closed && out != null) {
+                    writeMessage(queue.take());
+                }
+            } catch (InterruptedException e) {
+            } catch (Exception e) {
+                close();
+            }
+            queue.clear();
             if (out != null) {
                 try {
-                    switch (message_type.intValue()) {
-                        case SOAPMonitorConstants.SOAP_MONITOR_REQUEST:
-                            out.writeObject(message_type);
-                            out.writeObject(id);
-                            out.writeObject(target);
-                            out.writeObject(soap);
-                            out.flush();
-                            break;
-                        case SOAPMonitorConstants.SOAP_MONITOR_RESPONSE:
-                            out.writeObject(message_type);
-                            out.writeObject(id);
-                            out.writeObject(soap);
-                            out.flush();
-                            break;
-                    }
-                } catch (Exception e) {
+                    out.close();
+                } catch (IOException ioe) {
                 }
+                out = null;
+            }
+        }
+
+        private void writeMessage(Object[] message) throws IOException {
+            Integer message_type = (Integer) message[1];
+            Object soap = message[3];
+            if (soap instanceof byte[]) {
+                soap = new String((byte[]) soap, StandardCharsets.UTF_8);
+            }
+            switch (message_type.intValue()) {
+                case SOAPMonitorConstants.SOAP_MONITOR_REQUEST:
+                    out.writeObject(message_type);
+                    out.writeObject(message[0]);
+                    out.writeObject(message[2]);
+                    out.writeObject(soap);
+                    out.flush();
+                    break;
+                case SOAPMonitorConstants.SOAP_MONITOR_RESPONSE:
+                    out.writeObject(message_type);
+                    out.writeObject(message[0]);
+                    out.writeObject(soap);
+                    out.flush();
+                    break;
             }
         }
     }
@@ -325,7 +325,14 @@ public abstract class AbstractTransportListener implements TransportListener {
                 synchronousCallback.setInMessageContext(msgCtx);
                 callBackMap.remove(replyToMessageID);
             } else {
-                AxisEngine.receive(msgCtx);
+                long start = System.nanoTime();
+                try {
+                    AxisEngine.receive(msgCtx);
+                } finally {
+                    if (metrics != null) {
+                        metrics.notifyLatency(msgCtx, System.nanoTime() - start);
+                    }
+                }
             }
 
         } catch (AxisFault e) {
@@ -506,6 +513,13 @@ public abstract class AbstractTransportListener implements TransportListener {
         return null;
     }
 
+    public Map getLatencyStatistics() {
+        if (metrics != null) {
+            return metrics.getLatencyStatistics();
+        }
+        return null;
+    }
+
     public void resetStatistics() {
         if (metrics != null) {
             metrics.reset();
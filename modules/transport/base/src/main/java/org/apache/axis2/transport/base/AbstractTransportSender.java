@@ -37,6 +37,7 @@ import org.apache.axiom.util.UIDGenerator;
 
 import javax.management.MBeanServer;
 import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
 import java.util.Map;
 import java.util.Set;
 
@@ -104,25 +105,41 @@ public abstract class AbstractTransportSender extends AbstractHandler implements
             Constants.Configuration.TRANSPORT_URL);
 
         if (targetAddress != null) {
-            sendMessage(msgContext, targetAddress, null);
+            timedSendMessage(msgContext, targetAddress, null);
         } else if (msgContext.getTo() != null && !msgContext.getTo().hasAnonymousAddress()) {
             targetAddress = msgContext.getTo().getAddress();
 
             if (!msgContext.getTo().hasNoneAddress()) {
-                sendMessage(msgContext, targetAddress, null);
+                timedSendMessage(msgContext, targetAddress, null);
             } else {
                 //Don't send the message.
                 return InvocationResponse.CONTINUE;
             }
         } else if (msgContext.isServerSide()) {
             // get the out transport info for server side when target EPR is unknown
-            sendMessage(msgContext, null,
+            timedSendMessage(msgContext, null,
                 (OutTransportInfo) msgContext.getProperty(Constants.OUT_TRANSPORT_INFO));
         }
 
         return InvocationResponse.CONTINUE;
     }
 
+    /**
+     * Send the message and record the time it took in the per operation latency metrics.
+     */
+    private void timedSendMessage(MessageContext msgCtx, String targetEPR,
+        OutTransportInfo outTransportInfo) throws AxisFault {
+
+        long start = System.nanoTime();
+        try {
+            sendMessage(msgCtx, targetEPR, outTransportInfo);
+        } finally {
+            if (metrics != null) {
+                metrics.notifyLatency(msgCtx, System.nanoTime() - start);
+            }
+        }
+    }
+
     /**
      * Process a new incoming message (Response) through the axis engine
      * @param msgCtx the axis MessageContext
@@ -378,6 +395,13 @@ public abstract class AbstractTransportSender extends AbstractHandler implements
         return null;
     }
 
+    public Map getLatencyStatistics() {
+        if (metrics != null) {
+            return metrics.getLatencyStatistics();
+        }
+        return null;
+    }
+
     public void resetStatistics() {
         if (metrics != null) {
             metrics.reset();
@@ -398,8 +422,23 @@ public abstract class AbstractTransportSender extends AbstractHandler implements
         return -1;
     } 
 
-    private void registerMBean(MBeanServer mbs, Object mbeanInstance, String objectName) {
+    /**
+     * Return the name of the {@link TransportView} MBean of this sender. Transports can
+     * register MBeans for their own resources under this name.
+     * @return the MBean name
+     */
+    protected String getMBeanName() {
+        return String.valueOf(mbeanSupport.getMBeanName());
+    }
+
+    /**
+     * Utility method to allow transports to register MBeans
+     * @param mbeanInstance bean instance
+     * @param objectName name
+     */
+    protected void registerMBean(Object mbeanInstance, String objectName) {
         try {
+            MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
             ObjectName name = new ObjectName(objectName);
             Set set = mbs.queryNames(name, null);
             if (set != null && set.isEmpty()) {
@@ -414,4 +453,16 @@ public abstract class AbstractTransportSender extends AbstractHandler implements
         }
     }
 
+    protected void unregisterMBean(String objectName) {
+        try {
+            MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objName = new ObjectName(objectName);
+            if (mbs.isRegistered(objName)) {
+                mbs.unregisterMBean(objName);
+            }
+        } catch (Exception e) {
+            log.warn("Error un-registering a MBean with objectname ' " + objectName +
+                " ' for JMX management", e);
+        }
+    }
 }
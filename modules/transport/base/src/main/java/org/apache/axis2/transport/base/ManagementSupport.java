@@ -43,6 +43,7 @@ public interface ManagementSupport {
     public long getMaxSizeSent();
     public double getAvgSizeSent();
     public Map getResponseCodeTable();
+    public Map getLatencyStatistics();
 
     public void resetStatistics();
     public long getLastResetTime();
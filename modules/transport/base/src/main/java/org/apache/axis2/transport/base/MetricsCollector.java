@@ -19,63 +19,79 @@
 
 package org.apache.axis2.transport.base;
 import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.description.AxisOperation;
+import org.apache.axis2.description.AxisService;
 
 import java.util.Map;
-import java.util.Collections;
 import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * Collects metrics related to a transport that has metrics support enabled
+ * Collects metrics related to a transport that has metrics support enabled. All counters are
+ * lock-free, so that concurrent transport workers don't contend on a common monitor.
  */
 public class MetricsCollector {
 
     public static final int LEVEL_NONE = 0;
     public static final int LEVEL_TRANSPORT = 1;
     public static final int LEVEL_FULL = 2;
-    private static final Long ONE = (long) 1;
+
+    /** Key used for latencies of messages that were not dispatched to an operation */
+    public static final String UNKNOWN_OPERATION = "unknown";
 
     /** By default, full metrics collection is enabled */
     private int level = LEVEL_FULL;
 
-    private long messagesReceived;
-    private long faultsReceiving;
-    private long timeoutsReceiving;
-    private long bytesReceived;
-    private long minSizeReceived;
-    private long maxSizeReceived;
-    private double avgSizeReceived;
+    private final LongAdder messagesReceived = new LongAdder();
+    private final LongAdder faultsReceiving = new LongAdder();
+    private final LongAdder timeoutsReceiving = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final AtomicLong minSizeReceived = new AtomicLong();
+    private final AtomicLong maxSizeReceived = new AtomicLong();
+    private final LongAdder sizeReceivedCount = new LongAdder();
+    private final LongAdder sizeReceivedTotal = new LongAdder();
+
+    private final LongAdder messagesSent = new LongAdder();
+    private final LongAdder faultsSending = new LongAdder();
+    private final LongAdder timeoutsSending = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    private final AtomicLong minSizeSent = new AtomicLong();
+    private final AtomicLong maxSizeSent = new AtomicLong();
+    private final LongAdder sizeSentCount = new LongAdder();
+    private final LongAdder sizeSentTotal = new LongAdder();
 
-    private long messagesSent;
-    private long faultsSending;
-    private long timeoutsSending;
-    private long bytesSent;
-    private long minSizeSent;
-    private long maxSizeSent;
-    private double avgSizeSent;
+    private final ConcurrentMap<Integer, LongAdder> responseCodeTable =
+        new ConcurrentHashMap<Integer, LongAdder>();
 
-    private final Map<Integer, Long> responseCodeTable =
-        Collections.synchronizedMap(new HashMap<Integer, Long>());
+    private final ConcurrentMap<String, LatencyHistogram> latencyTable =
+        new ConcurrentHashMap<String, LatencyHistogram>();
 
-    private long lastResetTime = System.currentTimeMillis();
+    private volatile long lastResetTime = System.currentTimeMillis();
 
     public void reset() {
-        messagesReceived  = 0;
-        faultsReceiving   = 0;
-        timeoutsReceiving = 0;
-        bytesReceived     = 0;
-        minSizeReceived   = 0;
-        maxSizeReceived   = 0;
-        avgSizeReceived   = 0;
-
-        messagesSent      = 0;
-        faultsSending     = 0;
-        timeoutsSending   = 0;
-        bytesSent         = 0;
-        minSizeSent       = 0;
-        maxSizeSent       = 0;
-        avgSizeSent       = 0;
+        messagesReceived.reset();
+        faultsReceiving.reset();
+        timeoutsReceiving.reset();
+        bytesReceived.reset();
+        minSizeReceived.set(0);
+        maxSizeReceived.set(0);
+        sizeReceivedCount.reset();
+        sizeReceivedTotal.reset();
+
+        messagesSent.reset();
+        faultsSending.reset();
+        timeoutsSending.reset();
+        bytesSent.reset();
+        minSizeSent.set(0);
+        maxSizeSent.set(0);
+        sizeSentCount.reset();
+        sizeSentTotal.reset();
 
         responseCodeTable.clear();
+        latencyTable.clear();
         lastResetTime = System.currentTimeMillis();
     }
 
@@ -92,19 +108,19 @@ public class MetricsCollector {
     }
 
     public long getMessagesReceived() {
-        return messagesReceived;
+        return messagesReceived.sum();
     }
 
     public long getFaultsReceiving() {
-        return faultsReceiving;
+        return faultsReceiving.sum();
     }
 
     public long getTimeoutsReceiving() {
-        return timeoutsReceiving;
+        return timeoutsReceiving.sum();
     }
 
     public long getBytesReceived() {
-        return bytesReceived;
+        return bytesReceived.sum();
     }
 
     /**
@@ -114,110 +130,169 @@ public class MetricsCollector {
      * @return the number of messages sent
      */
     public long getMessagesSent() {
-        return messagesSent;
+        return messagesSent.sum();
     }
 
     public long getFaultsSending() {
-        return faultsSending;
+        return faultsSending.sum();
     }
 
     public long getTimeoutsSending() {
-        return timeoutsSending;
+        return timeoutsSending.sum();
     }
 
     public long getBytesSent() {
-        return bytesSent;
+        return bytesSent.sum();
     }
 
     public long getMinSizeReceived() {
-        return minSizeReceived;
+        return minSizeReceived.get();
     }
 
     public long getMaxSizeReceived() {
-        return maxSizeReceived;
+        return maxSizeReceived.get();
     }
 
     public long getMinSizeSent() {
-        return minSizeSent;
+        return minSizeSent.get();
     }
 
     public long getMaxSizeSent() {
-        return maxSizeSent;
+        return maxSizeSent.get();
     }
 
     public double getAvgSizeReceived() {
-        return avgSizeReceived;
+        long count = sizeReceivedCount.sum();
+        return count == 0 ? 0 : (double) sizeReceivedTotal.sum() / count;
     }
 
     public double getAvgSizeSent() {
-        return avgSizeSent;
+        long count = sizeSentCount.sum();
+        return count == 0 ? 0 : (double) sizeSentTotal.sum() / count;
     }
 
+    /**
+     * @return a snapshot of the number of times each response code has been reported
+     */
     public Map<Integer, Long> getResponseCodeTable() {
-        return responseCodeTable;
+        Map<Integer, Long> table = new HashMap<Integer, Long>();
+        for (Map.Entry<Integer, LongAdder> entry : responseCodeTable.entrySet()) {
+            table.put(entry.getKey(), entry.getValue().sum());
+        }
+        return table;
     }
 
-    public synchronized void incrementMessagesReceived() {
-        messagesReceived++;
+    /**
+     * @return the latency histogram of each operation, keyed by service and operation name
+     */
+    public Map<String, LatencyHistogram> getLatencyTable() {
+        return latencyTable;
     }
 
-    public synchronized void incrementFaultsReceiving() {
-        faultsReceiving++;
+    /**
+     * @return a summary of the latency percentiles of each operation, keyed by service and
+     *         operation name
+     */
+    public Map<String, String> getLatencyStatistics() {
+        Map<String, String> statistics = new HashMap<String, String>();
+        for (Map.Entry<String, LatencyHistogram> entry : latencyTable.entrySet()) {
+            statistics.put(entry.getKey(), entry.getValue().toString());
+        }
+        return statistics;
+    }
+
+    public void incrementMessagesReceived() {
+        messagesReceived.increment();
+    }
+
+    public void incrementFaultsReceiving() {
+        faultsReceiving.increment();
     }
 
-    public synchronized void incrementTimeoutsReceiving() {
-        timeoutsReceiving++;
+    public void incrementTimeoutsReceiving() {
+        timeoutsReceiving.increment();
     }
 
-    public synchronized void incrementBytesReceived(long size) {
-        bytesReceived += size;
+    public void incrementBytesReceived(long size) {
+        bytesReceived.add(size);
     }
 
-    public synchronized void incrementMessagesSent() {
-        messagesSent++;
+    public void incrementMessagesSent() {
+        messagesSent.increment();
     }
 
-    public synchronized void incrementFaultsSending() {
-        faultsSending++;
+    public void incrementFaultsSending() {
+        faultsSending.increment();
     }
 
-    public synchronized void incrementTimeoutsSending() {
-        timeoutsSending++;
+    public void incrementTimeoutsSending() {
+        timeoutsSending.increment();
     }
 
-    public synchronized void incrementBytesSent(long size) {
-        bytesSent += size;
+    public void incrementBytesSent(long size) {
+        bytesSent.add(size);
     }
     
-    public synchronized void notifyReceivedMessageSize(long size) {
-        if (minSizeReceived == 0 || size < minSizeReceived) {
-            minSizeReceived = size;
-        }
-        if (size > maxSizeReceived) {
-            maxSizeReceived = size;
-        }
-        avgSizeReceived = (avgSizeReceived == 0 ? size : (avgSizeReceived + size) / 2);
+    public void notifyReceivedMessageSize(long size) {
+        updateMin(minSizeReceived, size);
+        updateMax(maxSizeReceived, size);
+        sizeReceivedCount.increment();
+        sizeReceivedTotal.add(size);
     }
 
-    public synchronized void notifySentMessageSize(long size) {
-        if (minSizeSent == 0 || size < minSizeSent) {
-            minSizeSent = size;
+    public void notifySentMessageSize(long size) {
+        updateMin(minSizeSent, size);
+        updateMax(maxSizeSent, size);
+        sizeSentCount.increment();
+        sizeSentTotal.add(size);
+    }
+
+    private static void updateMin(AtomicLong min, long size) {
+        long current;
+        while (((current = min.get()) == 0 || size < current)
+                && !min.compareAndSet(current, size)) {
+            // retry
         }
-        if (size > maxSizeSent) {
-            maxSizeSent = size;
+    }
+
+    private static void updateMax(AtomicLong max, long size) {
+        long current;
+        while (size > (current = max.get()) && !max.compareAndSet(current, size)) {
+            // retry
         }
-        avgSizeSent = (avgSizeSent == 0 ? size : (avgSizeSent + size) / 2);
     }
 
     public void reportResponseCode(int respCode) {
-        synchronized(responseCodeTable) {
-            Object o = responseCodeTable.get(respCode);
-            if (o == null) {
-                responseCodeTable.put(respCode, ONE);
-            } else {
-                responseCodeTable.put(respCode, (Long) o + 1);
+        LongAdder counter = responseCodeTable.get(respCode);
+        if (counter == null) {
+            LongAdder newCounter = new LongAdder();
+            counter = responseCodeTable.putIfAbsent(respCode, newCounter);
+            if (counter == null) {
+                counter = newCounter;
+            }
+        }
+        counter.increment();
+    }
+
+    /**
+     * Record the time taken to process or send a message for the given operation.
+     *
+     * @param operation the operation name, qualified by the service name
+     * @param nanos the latency in nanoseconds
+     */
+    public void notifyLatency(String operation, long nanos) {
+        if (level == LEVEL_NONE) {
+            return;
+        }
+        LatencyHistogram histogram = latencyTable.get(operation);
+        if (histogram == null) {
+            LatencyHistogram newHistogram = new LatencyHistogram();
+            histogram = latencyTable.putIfAbsent(operation, newHistogram);
+            if (histogram == null) {
+                histogram = newHistogram;
             }
         }
+        histogram.record(nanos / 1000);
     }
 
     // --- enhanced methods ---
@@ -318,4 +393,24 @@ public class MetricsCollector {
             m.reportResponseCode(respCode);
         }
     }
+
+    /**
+     * Record the time taken to process or send the given message. The latency is recorded
+     * against the operation of the message, qualified by the name of its service (e.g.
+     * <tt>EchoService/echo</tt>), so that operations with the same name in different services
+     * are kept apart.
+     */
+    public void notifyLatency(MessageContext mc, long nanos) {
+        AxisOperation operation = mc == null ? null : mc.getAxisOperation();
+        if (operation == null || operation.getName() == null) {
+            notifyLatency(UNKNOWN_OPERATION, nanos);
+            return;
+        }
+        AxisService service = mc.getAxisService();
+        if (service == null) {
+            service = operation.getAxisService();
+        }
+        String name = operation.getName().getLocalPart();
+        notifyLatency(service == null ? name : service.getName() + "/" + name, nanos);
+    }
 }
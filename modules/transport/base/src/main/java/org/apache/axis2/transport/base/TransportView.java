@@ -153,6 +153,13 @@ public class TransportView implements TransportViewMBean {
         return null;
     }    
 
+    public Map getLatencyStatistics() {
+        if (managementSupport != null) {
+            return managementSupport.getLatencyStatistics();
+        }
+        return null;
+    }
+
     public int getActiveThreadCount() {
         if (managementSupport != null) {
             return managementSupport.getActiveThreadCount();
@@ -40,6 +40,7 @@ public interface TransportViewMBean {
     public int  getActiveThreadCount();
     public int getQueueSize();
     public Map getResponseCodeTable();
+    public Map getLatencyStatistics();
 
     // JMX Operations
     public void start() throws Exception;
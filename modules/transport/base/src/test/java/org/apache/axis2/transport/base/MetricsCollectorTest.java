@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.base;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import javax.xml.namespace.QName;
+
+import junit.framework.TestCase;
+
+import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.description.AxisOperation;
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.description.InOutAxisOperation;
+
+public class MetricsCollectorTest extends TestCase {
+
+    public void testConcurrentUpdates() throws Exception {
+        final MetricsCollector metrics = new MetricsCollector();
+        final int threads = 8;
+        final int iterations = 10000;
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread() {
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int j = 1; j <= iterations; j++) {
+                        metrics.incrementMessagesReceived();
+                        metrics.incrementBytesReceived(10);
+                        metrics.notifyReceivedMessageSize(j);
+                        metrics.reportResponseCode(j % 2 == 0 ? 200 : 500);
+                        metrics.notifyLatency("echo", j * 1000L);
+                    }
+                }
+            };
+            workers[i].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(threads * iterations, metrics.getMessagesReceived());
+        assertEquals(threads * iterations * 10L, metrics.getBytesReceived());
+        assertEquals(1, metrics.getMinSizeReceived());
+        assertEquals(iterations, metrics.getMaxSizeReceived());
+        assertEquals((iterations + 1) / 2.0, metrics.getAvgSizeReceived(), 0.001);
+
+        Map<Integer, Long> responseCodes = metrics.getResponseCodeTable();
+        assertEquals(Long.valueOf(threads * iterations / 2), responseCodes.get(200));
+        assertEquals(Long.valueOf(threads * iterations / 2), responseCodes.get(500));
+
+        LatencyHistogram histogram = metrics.getLatencyTable().get("echo");
+        assertEquals(threads * iterations, histogram.getCount());
+        assertEquals(iterations, histogram.getMax());
+        assertTrue(metrics.getLatencyStatistics().containsKey("echo"));
+
+        metrics.reset();
+        assertEquals(0, metrics.getMessagesReceived());
+        assertTrue(metrics.getResponseCodeTable().isEmpty());
+        assertTrue(metrics.getLatencyStatistics().isEmpty());
+    }
+
+    public void testLatencyIsRecordedPerService() throws Exception {
+        MetricsCollector metrics = new MetricsCollector();
+        metrics.notifyLatency(createMessageContext("EchoService", "echo"), 1000000L);
+        metrics.notifyLatency(createMessageContext("EchoService", "echo"), 1000000L);
+        metrics.notifyLatency(createMessageContext("OtherService", "echo"), 1000000L);
+        metrics.notifyLatency(new MessageContext(), 1000000L);
+
+        Map<String, LatencyHistogram> table = metrics.getLatencyTable();
+        assertEquals(2, table.get("EchoService/echo").getCount());
+        assertEquals(1, table.get("OtherService/echo").getCount());
+        assertEquals(1, table.get(MetricsCollector.UNKNOWN_OPERATION).getCount());
+        assertEquals(3, table.size());
+    }
+
+    private static MessageContext createMessageContext(String serviceName, String operationName)
+            throws Exception {
+        AxisService service = new AxisService(serviceName);
+        AxisOperation operation = new InOutAxisOperation(new QName(operationName));
+        service.addOperation(operation);
+        MessageContext mc = new MessageContext();
+        mc.setAxisService(service);
+        mc.setAxisOperation(operation);
+        return mc;
+    }
+
+    public void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 100);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(50050, histogram.getMean(), 0.001);
+        assertEquals(100000, histogram.getMax());
+        assertWithin(50000, histogram.getValueAtPercentile(50));
+        assertWithin(90000, histogram.getValueAtPercentile(90));
+        assertWithin(99000, histogram.getValueAtPercentile(99));
+        assertEquals(100000, histogram.getValueAtPercentile(100));
+    }
+
+    public void testBucketBoundaries() {
+        for (long value = 0; value < 1 << 20; value++) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertTrue(LatencyHistogram.bucketLowerBound(index) <= value);
+            assertTrue(LatencyHistogram.bucketLowerBound(index + 1) > value);
+        }
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue("expected ~" + expected + " but was " + actual,
+                Math.abs(actual - expected) <= expected * 0.04);
+    }
+}
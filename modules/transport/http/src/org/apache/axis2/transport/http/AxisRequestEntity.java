@@ -20,12 +20,14 @@
 package org.apache.axis2.transport.http;
 
 import org.apache.axiom.blob.Blobs;
-import org.apache.axiom.blob.MemoryBlob;
+import org.apache.axiom.blob.WritableBlob;
 import org.apache.axiom.om.OMOutputFormat;
 import org.apache.axis2.AxisFault;
+import org.apache.axis2.Constants;
 import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.kernel.MessageFormatter;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.zip.GZIPOutputStream;
@@ -36,6 +38,12 @@ import java.util.zip.GZIPOutputStream;
  */
 public final class AxisRequestEntity  {
 
+    /**
+     * The size above which the buffered content of a message with attachments is moved from
+     * memory to a temporary file.
+     */
+    private static final int OVERFLOW_THRESHOLD = 1024 * 1024;
+
     private MessageFormatter messageFormatter;
 
     private final boolean chunked;
@@ -44,7 +52,7 @@ public final class AxisRequestEntity  {
 
     private MessageContext messageContext;
 
-    private final MemoryBlob content;
+    private final WritableBlob content;
 
     private final boolean preserve;
 
@@ -72,7 +80,14 @@ public final class AxisRequestEntity  {
         if (chunked) {
             content = null;
         } else {
-            content = Blobs.createMemoryBlob();
+            if (format.isOptimized() || format.isDoingSWA()) {
+                // Attachments may be arbitrarily large; don't buffer them in memory
+                Object tempDir = msgContext.getProperty(Constants.Configuration.ATTACHMENT_TEMP_DIR);
+                content = Blobs.createOverflowableBlob(OVERFLOW_THRESHOLD, "axis2", ".tmp",
+                        tempDir instanceof String ? new File((String)tempDir) : null);
+            } else {
+                content = Blobs.createMemoryBlob();
+            }
             OutputStream out = content.getOutputStream();
             try {
                 internalWriteRequest(out);
@@ -129,4 +144,18 @@ public final class AxisRequestEntity  {
     public boolean isChunked() {
         return chunked;
     }
+
+    /**
+     * Release the buffered content, if any. This deletes the temporary file used to buffer
+     * large messages. The entity can no longer be written after this method has been called.
+     */
+    public void release() {
+        if (content != null) {
+            try {
+                content.release();
+            } catch (IOException ex) {
+                // The temporary file will be deleted on exit
+            }
+        }
+    }
 }
@@ -264,6 +264,10 @@ public abstract class HTTPSender {
         } catch (IOException e) {
             log.info("Unable to send to url[" + url + "]", e);
             throw AxisFault.makeFault(e);
+        } finally {
+            if (requestEntity != null) {
+                requestEntity.release();
+            }
         }
     }   
 
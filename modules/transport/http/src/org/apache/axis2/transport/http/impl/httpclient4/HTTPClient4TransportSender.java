@@ -26,6 +26,7 @@ import org.apache.axis2.AxisFault;
 import org.apache.axis2.context.ConfigurationContext;
 import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.context.OperationContext;
+import org.apache.axis2.description.TransportOutDescription;
 import org.apache.axis2.kernel.http.HTTPConstants;
 import org.apache.axis2.transport.http.HTTPSender;
 import org.apache.axis2.transport.http.AbstractHTTPTransportSender;
@@ -40,6 +41,49 @@ public class HTTPClient4TransportSender extends AbstractHTTPTransportSender {
 
     private static final Log log = LogFactory.getLog(HTTPClient4TransportSender.class);
 
+    private volatile ConfigurationContext configurationContext;
+
+    private TransportOutDescription transportOut;
+
+    @Override
+    public void init(ConfigurationContext confContext,
+                     TransportOutDescription transportOut) throws AxisFault {
+        super.init(confContext, transportOut);
+        this.configurationContext = confContext;
+        this.transportOut = transportOut;
+        HTTPConnectionPool.register(confContext, transportOut);
+    }
+
+    @Override
+    public synchronized void stop() {
+        super.stop();
+        if (configurationContext != null) {
+            HTTPConnectionPool.release(configurationContext, transportOut);
+            configurationContext = null;
+        }
+    }
+
+    @Override
+    public InvocationResponse invoke(MessageContext msgContext) throws AxisFault {
+        if (configurationContext == null) {
+            register(msgContext);
+        }
+        return super.invoke(msgContext);
+    }
+
+    /**
+     * Register with the connection pool if this sender has not been initialized (or has been
+     * stopped), so that the pool created for the message is closed when this sender is stopped.
+     */
+    private synchronized void register(MessageContext msgContext) {
+        if (configurationContext == null && msgContext.getConfigurationContext() != null
+                && msgContext.getTransportOut() != null) {
+            configurationContext = msgContext.getConfigurationContext();
+            transportOut = msgContext.getTransportOut();
+            HTTPConnectionPool.register(configurationContext, transportOut);
+        }
+    }
+
     @Override
     public void cleanup(MessageContext msgContext) throws AxisFault {
         log.trace("cleanup() releasing connection");
@@ -0,0 +1,531 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http.impl.httpclient4;
+
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.description.Parameter;
+import org.apache.axis2.description.TransportOutDescription;
+import org.apache.axis2.kernel.http.HTTPConstants;
+import org.apache.axis2.transport.http.HTTPTransportConstants;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.client.HttpClient;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.ssl.SSLContexts;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.net.ssl.SSLContext;
+
+/**
+ * The HTTP client and connection pool shared by all {@link HTTPSenderImpl} instances of a
+ * configuration context. {@link HttpClient} instances built by {@link HttpClientBuilder} are
+ * thread safe (all per request state lives in the <code>HttpClientContext</code> created by
+ * {@link RequestImpl}), so a single client is created when the first message is sent. It is
+ * shared by the transport senders of the configuration context (typically http and https), and
+ * is closed when the last of them is stopped.
+ * <p>
+ * The pool is configured from the message context properties (i.e. the {@link
+ * org.apache.axis2.client.Options}) of the first message, falling back to the parameters of the
+ * transport sender of that message in axis2.xml, and then to those of the other registered
+ * transport senders. A setting should therefore be given on one sender only, or with the same
+ * value on all of them. Pool statistics are exposed through a
+ * {@link HTTPConnectionPoolViewMBean}.
+ * <p>
+ * If the application has set a connection manager on the configuration context (see {@link
+ * HTTPConstants#MULTITHREAD_HTTP_CONNECTION_MANAGER}), that manager is used and is never
+ * closed by this pool.
+ */
+public class HTTPConnectionPool {
+
+    private static final Log log = LogFactory.getLog(HTTPConnectionPool.class);
+
+    private static final String POOL_PROPERTY = HTTPConnectionPool.class.getName();
+
+    /** Used to give the MBean of each pool a unique name */
+    private static final AtomicInteger poolCount = new AtomicInteger();
+
+    private final ConfigurationContext configContext;
+    private final CloseableHttpClient httpClient;
+    private final HttpClientConnectionManager connManager;
+    /** Was the connection manager created by this pool, rather than by the application? */
+    private final boolean ownsConnectionManager;
+    /** The per host limits applied to the pool, keyed by <tt>host:port</tt> */
+    private final Map<String, Integer> hostLimits = new ConcurrentHashMap<String, Integer>();
+
+    private final AtomicLong leaseCount = new AtomicLong();
+    private final AtomicLong leaseTimeouts = new AtomicLong();
+    private final AtomicLong totalLeaseWaitTime = new AtomicLong();
+    private final AtomicLong maxLeaseWaitTime = new AtomicLong();
+
+    private MBeanServer mbs;
+    private ObjectName mbeanName;
+
+    private HTTPConnectionPool(ConfigurationContext configContext,
+                               CloseableHttpClient httpClient,
+                               HttpClientConnectionManager connManager,
+                               boolean ownsConnectionManager) {
+        this.configContext = configContext;
+        this.httpClient = httpClient;
+        this.connManager = connManager;
+        this.ownsConnectionManager = ownsConnectionManager;
+    }
+
+    /**
+     * Get the pool of the configuration context of the given message, creating it if necessary.
+     * If no transport sender has been registered, the transport sender of the message is
+     * registered, so that the pool is closed when that sender is released.
+     */
+    public static HTTPConnectionPool getInstance(MessageContext msgContext) {
+        ConfigurationContext configContext = msgContext.getConfigurationContext();
+        SharedPool shared = (SharedPool) configContext.getProperty(POOL_PROPERTY);
+        HTTPConnectionPool pool = shared == null ? null : shared.pool;
+        if (pool == null) {
+            synchronized (configContext) {
+                shared = getSharedPool(configContext);
+                if (shared.pool == null) {
+                    TransportOutDescription transportOut = msgContext.getTransportOut();
+                    if (shared.transports.isEmpty() && transportOut != null) {
+                        shared.transports.add(transportOut);
+                    }
+                    shared.pool = create(msgContext, shared.transports);
+                }
+                pool = shared.pool;
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Register a transport sender that uses the pool of the given configuration context. The
+     * pool is closed once all registered senders have been released.
+     */
+    public static void register(ConfigurationContext configContext,
+                                TransportOutDescription transportOut) {
+        synchronized (configContext) {
+            List<TransportOutDescription> transports = getSharedPool(configContext).transports;
+            if (!transports.contains(transportOut)) {
+                transports.add(transportOut);
+            }
+        }
+    }
+
+    /**
+     * Release a transport sender registered through {@link #register}, closing the pool of the
+     * given configuration context if no other sender is registered.
+     */
+    public static void release(ConfigurationContext configContext,
+                               TransportOutDescription transportOut) {
+        HTTPConnectionPool pool;
+        synchronized (configContext) {
+            SharedPool shared = (SharedPool) configContext.getProperty(POOL_PROPERTY);
+            if (shared == null) {
+                return;
+            }
+            shared.transports.remove(transportOut);
+            if (!shared.transports.isEmpty()) {
+                return;
+            }
+            configContext.removeProperty(POOL_PROPERTY);
+            pool = shared.pool;
+        }
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    /**
+     * Close the pool of the given configuration context, if one has been created, regardless
+     * of the transport senders still registered. Only used by tests.
+     */
+    static void close(ConfigurationContext configContext) {
+        HTTPConnectionPool pool;
+        synchronized (configContext) {
+            SharedPool shared = (SharedPool) configContext.getProperty(POOL_PROPERTY);
+            if (shared == null || shared.pool == null) {
+                return;
+            }
+            pool = shared.pool;
+            shared.pool = null;
+        }
+        pool.close();
+    }
+
+    private static SharedPool getSharedPool(ConfigurationContext configContext) {
+        SharedPool shared = (SharedPool) configContext.getProperty(POOL_PROPERTY);
+        if (shared == null) {
+            shared = new SharedPool();
+            configContext.setProperty(POOL_PROPERTY, shared);
+        }
+        return shared;
+    }
+
+    private static HTTPConnectionPool create(MessageContext msgContext,
+                                             List<TransportOutDescription> transports) {
+        ConfigurationContext configContext = msgContext.getConfigurationContext();
+        List<TransportOutDescription> transportOuts = new ArrayList<TransportOutDescription>();
+        if (msgContext.getTransportOut() != null) {
+            transportOuts.add(msgContext.getTransportOut());
+        }
+        for (TransportOutDescription transportOut : transports) {
+            if (!transportOuts.contains(transportOut)) {
+                transportOuts.add(transportOut);
+            }
+        }
+
+        HttpClientConnectionManager connManager = (HttpClientConnectionManager) configContext
+                .getProperty(HTTPConstants.MULTITHREAD_HTTP_CONNECTION_MANAGER);
+        boolean shared = connManager != null;
+        HTTPConnectionPool pool;
+        if (shared) {
+            // The connection manager is owned by the application
+            pool = new HTTPConnectionPool(configContext, HttpClientBuilder.create()
+                    .setConnectionManager(connManager)
+                    .setConnectionManagerShared(true)
+                    .build(), connManager, false);
+        } else {
+            log.trace("Making new ConnectionManager");
+            SSLContext sslContext = (SSLContext)configContext.getProperty(SSLContext.class.getName());
+            if (sslContext == null) {
+                sslContext = SSLContexts.createDefault();
+            }
+            Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory>create()
+                    .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                    .register("https", new SSLConnectionSocketFactory(sslContext))
+                    .build();
+
+            long timeToLive = getLong(msgContext, transportOuts,
+                    HTTPConstants.CONNECTION_TIME_TO_LIVE, -1);
+            PoolHolder holder = new PoolHolder();
+            InstrumentedConnectionManager poolingManager = new InstrumentedConnectionManager(
+                    socketFactoryRegistry, timeToLive, holder);
+            poolingManager.setMaxTotal((int) getLong(msgContext, transportOuts,
+                    HTTPConstants.MAX_TOTAL_CONNECTIONS, HTTPConstants.DEFAULT_MAX_TOTAL_CONNECTIONS));
+            poolingManager.setDefaultMaxPerRoute((int) getLong(msgContext, transportOuts,
+                    HTTPConstants.DEFAULT_MAX_CONNECTIONS_PER_HOST,
+                    HTTPConstants.DEFAULT_MAX_CONNECTIONS_PER_HOST_VALUE));
+            long validateAfterInactivity = getLong(msgContext, transportOuts,
+                    HTTPConstants.VALIDATE_AFTER_INACTIVITY, -1);
+            if (validateAfterInactivity >= 0) {
+                poolingManager.setValidateAfterInactivity((int) validateAfterInactivity);
+            }
+            Object perHost = getParameterValue(transportOuts,
+                    HTTPConstants.MAX_CONNECTIONS_PER_HOST);
+            if (perHost != null) {
+                setHostLimits(poolingManager, perHost.toString());
+            }
+
+            HttpClientBuilder builder = HttpClientBuilder.create()
+                    .setConnectionManager(poolingManager);
+            long idleTimeout = getLong(msgContext, transportOuts,
+                    HTTPConstants.CONNECTION_IDLE_TIMEOUT, -1);
+            if (idleTimeout > 0) {
+                builder.evictIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
+            }
+            if (timeToLive > 0) {
+                builder.evictExpiredConnections();
+            }
+            connManager = poolingManager;
+            pool = new HTTPConnectionPool(configContext, builder.build(), connManager, true);
+            holder.pool = pool;
+            configContext.setProperty(
+                    HTTPConstants.MULTITHREAD_HTTP_CONNECTION_MANAGER, connManager);
+        }
+        if (connManager instanceof PoolingHttpClientConnectionManager) {
+            pool.registerMBean(String.valueOf(poolCount.incrementAndGet()));
+        }
+        return pool;
+    }
+
+    /**
+     * Parse a comma separated list of <tt>host:port=max</tt> entries.
+     */
+    private static void setHostLimits(PoolingHttpClientConnectionManager poolingManager,
+                                      String limits) {
+        for (String entry : limits.split(",")) {
+            entry = entry.trim();
+            if (entry.length() == 0) {
+                continue;
+            }
+            int eq = entry.lastIndexOf('=');
+            int colon = entry.lastIndexOf(':', eq);
+            if (eq < 0 || colon < 0) {
+                log.warn("Ignoring invalid " + HTTPConstants.MAX_CONNECTIONS_PER_HOST
+                        + " entry '" + entry + "'; expected host:port=max");
+                continue;
+            }
+            try {
+                String host = entry.substring(0, colon).trim();
+                int port = Integer.parseInt(entry.substring(colon + 1, eq).trim());
+                int max = Integer.parseInt(entry.substring(eq + 1).trim());
+                setHostLimit(poolingManager, host, port, max);
+            } catch (NumberFormatException ex) {
+                log.warn("Ignoring invalid " + HTTPConstants.MAX_CONNECTIONS_PER_HOST
+                        + " entry '" + entry + "'; expected host:port=max");
+            }
+        }
+    }
+
+    private static void setHostLimit(PoolingHttpClientConnectionManager poolingManager,
+                                     String host, int port, int max) {
+        // The pool is keyed by route, which includes the scheme; a limit applies to both
+        // plain and secure connections to the host. Proxied routes are not covered.
+        poolingManager.setMaxPerRoute(new HttpRoute(
+                new HttpHost(host, port, HTTPTransportConstants.PROTOCOL_HTTP)), max);
+        poolingManager.setMaxPerRoute(new HttpRoute(
+                new HttpHost(host, port, HTTPTransportConstants.PROTOCOL_HTTPS), null, true), max);
+    }
+
+    /**
+     * Get the value of the first of the given transport senders that has the named parameter.
+     */
+    private static Object getParameterValue(List<TransportOutDescription> transportOuts,
+                                            String name) {
+        for (TransportOutDescription transportOut : transportOuts) {
+            Parameter param = transportOut.getParameter(name);
+            if (param != null && param.getValue() != null) {
+                return param.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static long getLong(MessageContext msgContext,
+                                List<TransportOutDescription> transportOuts,
+                                String name, long defaultValue) {
+        Object value = msgContext.getProperty(name);
+        if (value == null) {
+            value = getParameterValue(transportOuts, name);
+        }
+        if (value == null) {
+            return defaultValue;
+        } else if (value instanceof Number) {
+            return ((Number) value).longValue();
+        } else {
+            try {
+                return Long.parseLong(value.toString().trim());
+            } catch (NumberFormatException ex) {
+                log.warn("Invalid value '" + value + "' for " + name + "; using default "
+                        + defaultValue);
+                return defaultValue;
+            }
+        }
+    }
+
+    /**
+     * Get the client to use for the given message and target URL. If the message specifies a
+     * connection limit for its target host ({@link HTTPConstants#MAX_CONNECTIONS_PER_HOST}),
+     * the limit is applied to the pool, unless it has already been applied.
+     */
+    public HttpClient getHttpClient(MessageContext msgContext, URL url) {
+        if (connManager instanceof PoolingHttpClientConnectionManager) {
+            Object max = msgContext.getProperty(HTTPConstants.MAX_CONNECTIONS_PER_HOST);
+            if (max != null) {
+                try {
+                    int limit = max instanceof Number ? ((Number) max).intValue()
+                            : Integer.parseInt(max.toString().trim());
+                    int port = url.getPort() != -1 ? url.getPort() : url.getDefaultPort();
+                    Integer previous = hostLimits.put(url.getHost() + ":" + port, limit);
+                    if (previous == null || previous.intValue() != limit) {
+                        setHostLimit((PoolingHttpClientConnectionManager) connManager,
+                                url.getHost(), port, limit);
+                    }
+                } catch (NumberFormatException ex) {
+                    log.warn("Invalid value '" + max + "' for "
+                            + HTTPConstants.MAX_CONNECTIONS_PER_HOST);
+                }
+            }
+        }
+        return httpClient;
+    }
+
+    public HttpClientConnectionManager getConnectionManager() {
+        return connManager;
+    }
+
+    ObjectName getMBeanName() {
+        return mbeanName;
+    }
+
+    long getLeaseCount() {
+        return leaseCount.get();
+    }
+
+    long getLeaseTimeouts() {
+        return leaseTimeouts.get();
+    }
+
+    long getTotalLeaseWaitTime() {
+        return totalLeaseWaitTime.get();
+    }
+
+    long getMaxLeaseWaitTime() {
+        return maxLeaseWaitTime.get();
+    }
+
+    void resetStatistics() {
+        leaseCount.set(0);
+        leaseTimeouts.set(0);
+        totalLeaseWaitTime.set(0);
+        maxLeaseWaitTime.set(0);
+    }
+
+    void leased(long waitTime) {
+        leaseCount.incrementAndGet();
+        totalLeaseWaitTime.addAndGet(waitTime);
+        long max;
+        while (waitTime > (max = maxLeaseWaitTime.get())) {
+            if (maxLeaseWaitTime.compareAndSet(max, waitTime)) {
+                break;
+            }
+        }
+    }
+
+    void leaseTimedOut() {
+        leaseTimeouts.incrementAndGet();
+    }
+
+    private void registerMBean(String name) {
+        try {
+            mbs = ManagementFactory.getPlatformMBeanServer();
+            String jmxAgentName = System.getProperty("jmx.agent.name");
+            if (jmxAgentName == null || "".equals(jmxAgentName)) {
+                jmxAgentName = "org.apache.axis2";
+            }
+            mbeanName = ObjectName.getInstance(jmxAgentName
+                    + ":Type=Transport,ConnectorName=http-sender-pool-" + name);
+            mbs.registerMBean(new HTTPConnectionPoolView(this,
+                    (PoolingHttpClientConnectionManager) connManager), mbeanName);
+        } catch (Exception e) {
+            log.warn("Error registering a MBean with objectname ' " + mbeanName +
+                    " ' for JMX management", e);
+            mbeanName = null;
+        }
+    }
+
+    private void close() {
+        if (mbeanName != null) {
+            try {
+                mbs.unregisterMBean(mbeanName);
+            } catch (Exception e) {
+                log.warn("Error un-registering a MBean with objectname ' " + mbeanName +
+                        " ' for JMX management", e);
+            }
+            mbeanName = null;
+        }
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            log.debug("Error closing the HTTP client", e);
+        }
+        if (ownsConnectionManager) {
+            synchronized (configContext) {
+                // don't mistake the closed manager for one supplied by the application
+                if (configContext.getProperty(
+                        HTTPConstants.MULTITHREAD_HTTP_CONNECTION_MANAGER) == connManager) {
+                    configContext.removeProperty(HTTPConstants.MULTITHREAD_HTTP_CONNECTION_MANAGER);
+                }
+            }
+        }
+    }
+
+    /**
+     * The pool of a configuration context, together with the transport senders using it.
+     */
+    private static class SharedPool {
+        final List<TransportOutDescription> transports = new ArrayList<TransportOutDescription>();
+        HTTPConnectionPool pool;
+    }
+
+    /**
+     * Breaks the cycle between the connection manager and the pool, which is created after it.
+     */
+    private static class PoolHolder {
+        volatile HTTPConnectionPool pool;
+    }
+
+    /**
+     * Connection manager that records how long callers wait to lease a connection.
+     */
+    private static class InstrumentedConnectionManager extends PoolingHttpClientConnectionManager {
+        private final PoolHolder holder;
+
+        InstrumentedConnectionManager(Registry<ConnectionSocketFactory> socketFactoryRegistry,
+                                      long timeToLive, PoolHolder holder) {
+            super(socketFactoryRegistry, null, null, null, timeToLive, TimeUnit.MILLISECONDS);
+            this.holder = holder;
+        }
+
+        @Override
+        public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+            final ConnectionRequest request = super.requestConnection(route, state);
+            final long start = System.currentTimeMillis();
+            return new ConnectionRequest() {
+                public HttpClientConnection get(long timeout, TimeUnit tunit)
+                        throws InterruptedException, ExecutionException,
+                        ConnectionPoolTimeoutException {
+                    HTTPConnectionPool pool = holder.pool;
+                    try {
+                        HttpClientConnection conn = request.get(timeout, tunit);
+                        if (pool != null) {
+                            pool.leased(System.currentTimeMillis() - start);
+                        }
+                        return conn;
+                    } catch (ConnectionPoolTimeoutException ex) {
+                        if (pool != null) {
+                            pool.leaseTimedOut();
+                        }
+                        throw ex;
+                    }
+                }
+
+                public boolean cancel() {
+                    return request.cancel();
+                }
+            };
+        }
+    }
+}
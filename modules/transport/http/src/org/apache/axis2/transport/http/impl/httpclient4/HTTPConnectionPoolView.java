@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http.impl.httpclient4;
+
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Exposes the statistics of the {@link HTTPConnectionPool} of a configuration context. The
+ * lease counters are cumulative since the last reset; the connection counts are a snapshot of
+ * the current state of the pool.
+ */
+public class HTTPConnectionPoolView implements HTTPConnectionPoolViewMBean {
+
+    private final HTTPConnectionPool pool;
+    private final PoolingHttpClientConnectionManager connManager;
+
+    public HTTPConnectionPoolView(HTTPConnectionPool pool,
+                                  PoolingHttpClientConnectionManager connManager) {
+        this.pool = pool;
+        this.connManager = connManager;
+    }
+
+    public int getMaxTotal() {
+        return connManager.getMaxTotal();
+    }
+
+    public int getDefaultMaxPerRoute() {
+        return connManager.getDefaultMaxPerRoute();
+    }
+
+    public int getLeasedConnections() {
+        return connManager.getTotalStats().getLeased();
+    }
+
+    public int getPendingRequests() {
+        return connManager.getTotalStats().getPending();
+    }
+
+    public int getAvailableConnections() {
+        return connManager.getTotalStats().getAvailable();
+    }
+
+    public long getLeaseCount() {
+        return pool.getLeaseCount();
+    }
+
+    public long getLeaseTimeouts() {
+        return pool.getLeaseTimeouts();
+    }
+
+    public double getAvgLeaseWaitTime() {
+        long count = pool.getLeaseCount();
+        return count == 0 ? 0 : (double) pool.getTotalLeaseWaitTime() / count;
+    }
+
+    public long getMaxLeaseWaitTime() {
+        return pool.getMaxLeaseWaitTime();
+    }
+
+    /**
+     * @return a map from route to a description of its leased, pending and available
+     *         connections and its connection limit
+     */
+    public Map getRouteStatistics() {
+        Map<String,String> stats = new HashMap<String,String>();
+        for (HttpRoute route : connManager.getRoutes()) {
+            PoolStats routeStats = connManager.getStats(route);
+            stats.put(route.toString(), routeStats.toString());
+        }
+        return stats;
+    }
+
+    public void resetStatistics() {
+        pool.resetStatistics();
+    }
+}
@@ -29,20 +29,11 @@ import org.apache.axis2.transport.http.Request;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.http.client.HttpClient;
-import org.apache.http.config.Registry;
-import org.apache.http.config.RegistryBuilder;
 import org.apache.http.conn.HttpClientConnectionManager;
-import org.apache.http.conn.socket.ConnectionSocketFactory;
-import org.apache.http.conn.socket.PlainConnectionSocketFactory;
-import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
-import org.apache.http.ssl.SSLContexts;
 
 import java.net.URL;
 
-import javax.net.ssl.SSLContext;
-
 public class HTTPSenderImpl extends HTTPSender {
 
     private static final Log log = LogFactory.getLog(HTTPSenderImpl.class);
@@ -50,9 +41,23 @@ public class HTTPSenderImpl extends HTTPSender {
     @Override
     protected Request createRequest(MessageContext msgContext, String methodName, URL url,
             AxisRequestEntity requestEntity) throws AxisFault {
-        return new RequestImpl(getHttpClient(msgContext), msgContext, methodName, url, requestEntity);
+        HttpClient httpClient = getHttpClient(msgContext);
+        if (httpClient != null) {
+            return new RequestImpl(httpClient, msgContext, methodName, url, requestEntity);
+        }
+        RequestImpl request = new RequestImpl(HTTPConnectionPool.getInstance(msgContext)
+                .getHttpClient(msgContext, url), msgContext, methodName, url, requestEntity);
+        // The pooled client is shared by all messages of the configuration context
+        request.useRequestCookieStore();
+        return request;
     }
 
+    /**
+     * Get the client configured by the application for this message, if any.
+     *
+     * @return the client, or <code>null</code> if the shared {@link HTTPConnectionPool} is to
+     *         be used
+     */
     private HttpClient getHttpClient(MessageContext msgContext) {
         ConfigurationContext configContext = msgContext.getConfigurationContext();
 
@@ -68,58 +73,18 @@ public class HTTPSenderImpl extends HTTPSender {
             return httpClient;
         }
 
-        synchronized (this) {
-            httpClient = (HttpClient) msgContext.
-                    getProperty(HTTPConstants.CACHED_HTTP_CLIENT);
-
-            if (httpClient == null) {
-                httpClient = (HttpClient) configContext
-                        .getProperty(HTTPConstants.CACHED_HTTP_CLIENT);
-            }
-
-            if (httpClient != null) {
-                return httpClient;
-            }
-
-            HttpClientConnectionManager connManager = (HttpClientConnectionManager) msgContext
-                    .getProperty(HTTPConstants.MULTITHREAD_HTTP_CONNECTION_MANAGER);
-            if (connManager == null) {
-                connManager = (HttpClientConnectionManager) msgContext
-                        .getProperty(HTTPConstants.MULTITHREAD_HTTP_CONNECTION_MANAGER);
-            }
-            if (connManager == null) {
-                // reuse HttpConnectionManager
-                synchronized (configContext) {
-                    connManager = (HttpClientConnectionManager) configContext
-                            .getProperty(HTTPConstants.MULTITHREAD_HTTP_CONNECTION_MANAGER);
-                    if (connManager == null) {
-                        log.trace("Making new ConnectionManager");
-                        SSLContext sslContext = (SSLContext)configContext.getProperty(SSLContext.class.getName());
-                        if (sslContext == null) {
-                            sslContext = SSLContexts.createDefault();
-                        }
-                        Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory>create()
-                                .register("http", PlainConnectionSocketFactory.getSocketFactory())
-                                .register("https", new SSLConnectionSocketFactory(sslContext))
-                                .build();
-
-                        connManager = new PoolingHttpClientConnectionManager(socketFactoryRegistry);
-                        ((PoolingHttpClientConnectionManager)connManager).setMaxTotal(200);
-                        ((PoolingHttpClientConnectionManager)connManager).setDefaultMaxPerRoute(200);
-                        configContext.setProperty(
-                                HTTPConstants.MULTITHREAD_HTTP_CONNECTION_MANAGER, connManager);
-                    }
-                }
-            }
-            /*
-             * Create a new instance of HttpClient since the way it is used here
-             * it's not fully thread-safe.
-             */
+        HttpClientConnectionManager connManager = (HttpClientConnectionManager) msgContext
+                .getProperty(HTTPConstants.MULTITHREAD_HTTP_CONNECTION_MANAGER);
+        if (connManager != null && connManager != configContext
+                .getProperty(HTTPConstants.MULTITHREAD_HTTP_CONNECTION_MANAGER)) {
+            // A connection manager specific to this message; don't cache the client
             return HttpClientBuilder.create()
                     .setConnectionManager(connManager)
                     .setConnectionManagerShared(true)
                     .build();
         }
+
+        return null;
     }
 
 }
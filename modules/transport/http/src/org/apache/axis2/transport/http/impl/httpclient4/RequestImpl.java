@@ -53,6 +53,7 @@ import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.params.AuthPolicy;
 import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.impl.client.BasicCookieStore;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.util.EntityUtils;
 
@@ -109,6 +110,14 @@ final class RequestImpl implements Request {
         httpHost = new HttpHost(url.getHost(), port, url.getProtocol());
     }
 
+    /**
+     * Use a cookie store private to this request instead of the default store of the
+     * {@link HttpClient}, so that cookies don't leak between requests sharing the client.
+     */
+    void useRequestCookieStore() {
+        clientContext.setCookieStore(new BasicCookieStore());
+    }
+
     @Override
     public void enableHTTP10() {
         method.setProtocolVersion(HttpVersion.HTTP_1_0);
@@ -43,6 +43,7 @@ import org.apache.http.impl.io.IdentityInputStream;
 import org.apache.http.impl.io.IdentityOutputStream;
 import org.apache.http.impl.io.SocketInputBuffer;
 import org.apache.http.impl.io.SocketOutputBuffer;
+import org.apache.http.io.BufferInfo;
 import org.apache.http.io.HttpMessageParser;
 import org.apache.http.io.HttpMessageWriter;
 import org.apache.http.io.SessionInputBuffer;
@@ -56,6 +57,7 @@ import java.io.OutputStream;
 import java.net.InetAddress;
 import java.net.Socket;
 import java.net.SocketException;
+import java.nio.ByteBuffer;
 
 public class AxisHttpConnectionImpl implements AxisHttpConnection {
 
@@ -74,6 +76,19 @@ public class AxisHttpConnectionImpl implements AxisHttpConnection {
     
     public AxisHttpConnectionImpl(final Socket socket, final HttpParams params) 
             throws IOException {
+        this(socket, null, params);
+    }
+
+    /**
+     * Creates a connection for a socket from which the first bytes of the request have
+     * already been read.
+     *
+     * @param socket     the connected socket
+     * @param prefetched the bytes already read from the socket, or <code>null</code>
+     * @param params     the HTTP parameters
+     */
+    public AxisHttpConnectionImpl(final Socket socket, final ByteBuffer prefetched,
+            final HttpParams params) throws IOException {
         super();
         if (socket == null) {
             throw new IllegalArgumentException("Socket may not be null"); 
@@ -92,7 +107,11 @@ public class AxisHttpConnectionImpl implements AxisHttpConnection {
         int buffersize = HttpConnectionParams.getSocketBufferSize(params);
         this.socket = socket;
         this.outbuffer = new SocketOutputBuffer(socket, buffersize, params); 
-        this.inbuffer = new SocketInputBuffer(socket, buffersize, params); 
+        if (prefetched != null) {
+            this.inbuffer = new PrefetchedSocketInputBuffer(socket, prefetched, buffersize, params);
+        } else {
+            this.inbuffer = new SocketInputBuffer(socket, buffersize, params);
+        }
         this.contentLenStrategy = new StrictContentLengthStrategy();
         this.requestParser = new HttpRequestParser(
                 this.inbuffer, null, new DefaultHttpRequestFactory(), params);
@@ -117,6 +136,20 @@ public class AxisHttpConnectionImpl implements AxisHttpConnection {
         return !this.socket.isClosed();
     }
 
+    /**
+     * Checks whether input has already been read from the socket but not yet consumed,
+     * i.e. whether another request can be parsed without waiting on the socket.
+     */
+    public boolean hasBufferedInput() {
+        if (this.inbuffer instanceof PrefetchedSocketInputBuffer) {
+            return ((PrefetchedSocketInputBuffer) this.inbuffer).hasBufferedInput();
+        } else if (this.inbuffer instanceof BufferInfo) {
+            return ((BufferInfo) this.inbuffer).length() > 0;
+        } else {
+            return false;
+        }
+    }
+
     public boolean isStale() {
         try {
             this.inbuffer.isDataAvailable(1);
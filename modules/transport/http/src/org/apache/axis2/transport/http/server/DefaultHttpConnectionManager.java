@@ -147,7 +147,30 @@ public class DefaultHttpConnectionManager implements HttpConnectionManager {
         // Evict destroyed processors
         cleanup();
 
-        // Assemble new Axis HTTP service
+        AxisHttpService httpService = newHttpService();
+
+        // Create I/O processor to execute HTTP service
+        IOProcessorCallback callback = new IOProcessorCallback() {
+
+            public void completed(final IOProcessor processor) {
+                removeProcessor(processor);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug(processor + " terminated");
+                }
+            }
+
+        };
+        IOProcessor processor = newProcessor(httpService, conn, callback);
+
+        addProcessor(processor);
+        this.executor.execute(processor);
+    }
+
+
+    /**
+     * Assembles a new Axis HTTP service.
+     */
+    protected AxisHttpService newHttpService() {
         HttpProcessor httpProcessor;
         ConnectionReuseStrategy connStrategy;
         HttpResponseFactory responseFactory;
@@ -172,22 +195,16 @@ public class DefaultHttpConnectionManager implements HttpConnectionManager {
         AxisHttpService httpService = new AxisHttpService(httpProcessor, connStrategy,
             responseFactory, this.configurationContext, this.workerfactory.newWorker());
         httpService.setParams(this.params);
+        return httpService;
+    }
 
-        // Create I/O processor to execute HTTP service
-        IOProcessorCallback callback = new IOProcessorCallback() {
-
-            public void completed(final IOProcessor processor) {
-                removeProcessor(processor);
-                if (LOG.isDebugEnabled()) {
-                    LOG.debug(processor + " terminated");
-                }
-            }
-
-        };
-        IOProcessor processor = new HttpServiceProcessor(httpService, conn, callback);
 
-        addProcessor(processor);
-        this.executor.execute(processor);
+    /**
+     * Creates the I/O processor that executes the HTTP service on the given connection.
+     */
+    protected IOProcessor newProcessor(final AxisHttpService httpService,
+            final AxisHttpConnection conn, final IOProcessorCallback callback) {
+        return new HttpServiceProcessor(httpService, conn, callback);
     }
 
 
@@ -100,6 +100,16 @@ public class HttpFactory {
      */
     public static final String PARAMETER_THREAD_KEEP_ALIVE_TIME_UNIT = "threadKeepAliveTimeUnit";
 
+    /**
+     * Name of axis2.xml nioConnectionListener parameter for SimpleHTTPServer configuration
+     */
+    public static final String PARAMETER_NIO_CONNECTION_LISTENER = "nioConnectionListener";
+
+    /**
+     * Name of axis2.xml selectorThreads parameter for SimpleHTTPServer configuration
+     */
+    public static final String PARAMETER_SELECTOR_THREADS = "selectorThreads";
+
     private ConfigurationContext configurationContext;
     private TransportInDescription httpConfiguration;
     private int port;
@@ -111,6 +121,8 @@ public class HttpFactory {
     private int requestMaxThreadPoolSize;
     private long threadKeepAliveTime;
     private TimeUnit threadKeepAliveTimeUnit;
+    private boolean nioConnectionListener;
+    private int selectorThreads;
 
     private WorkerFactory requestWorkerFactory = null;
 
@@ -130,6 +142,9 @@ public class HttpFactory {
         threadKeepAliveTime = getLongParam(PARAMETER_THREAD_KEEP_ALIVE_TIME, 180L);
         threadKeepAliveTimeUnit =
                 getTimeUnitParam(PARAMETER_THREAD_KEEP_ALIVE_TIME_UNIT, TimeUnit.SECONDS);
+        nioConnectionListener = getBooleanParam(PARAMETER_NIO_CONNECTION_LISTENER, false);
+        selectorThreads = getIntParam(PARAMETER_SELECTOR_THREADS,
+                Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
     }
 
     /**
@@ -236,6 +251,14 @@ public class HttpFactory {
             int port,
             final HttpConnectionManager manager, 
             final HttpParams params) throws IOException {
+        if (nioConnectionListener) {
+            return new NIOConnectionListener(
+                    port,
+                    manager,
+                    new DefaultConnectionListenerFailureHandler(),
+                    params,
+                    selectorThreads);
+        }
         return new DefaultConnectionListener(
                 port, 
                 manager, 
@@ -264,6 +287,10 @@ public class HttpFactory {
     public HttpConnectionManager newRequestConnectionManager(ExecutorService requestExecutor,
                                                              WorkerFactory workerFactory,
                                                              HttpParams params) {
+        if (nioConnectionListener) {
+            return new SelectorHttpConnectionManager(configurationContext, requestExecutor,
+                                                     workerFactory, params);
+        }
         return new DefaultHttpConnectionManager(configurationContext, requestExecutor,
                                                 workerFactory, params);
     }
@@ -481,4 +508,38 @@ public class HttpFactory {
         this.threadKeepAliveTimeUnit = threadKeepAliveTimeUnit;
     }
 
+    /**
+     * Getter for nioConnectionListener
+     *
+     * @return true if idle connections are multiplexed on selector threads instead of holding a
+     *         request thread each (default false)
+     */
+    public boolean isNioConnectionListener() {
+        return nioConnectionListener;
+    }
+
+    /**
+     * Setter for nioConnectionListener
+     */
+    public void setNioConnectionListener(boolean nioConnectionListener) {
+        this.nioConnectionListener = nioConnectionListener;
+    }
+
+    /**
+     * Getter for selectorThreads
+     *
+     * @return the number of selector threads used by the NIO connection listener (default half
+     *         the number of available processors)
+     */
+    public int getSelectorThreads() {
+        return selectorThreads;
+    }
+
+    /**
+     * Setter for selectorThreads
+     */
+    public void setSelectorThreads(int selectorThreads) {
+        this.selectorThreads = selectorThreads;
+    }
+
 }
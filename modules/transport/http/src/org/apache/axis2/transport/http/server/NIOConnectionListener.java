@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http.server;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.params.HttpParams;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Connection listener that multiplexes idle connections on a small number of selector
+ * threads. Accepted connections are distributed round-robin over the selectors, which hand a
+ * connection to the {@link HttpConnectionManager} only once a complete request header has
+ * arrived. Use together with {@link SelectorHttpConnectionManager} so that connections are
+ * returned to the selectors between requests.
+ */
+public class NIOConnectionListener implements ConnectionListener {
+
+    private static Log LOG = LogFactory.getLog(NIOConnectionListener.class);
+
+    /** Default upper limit for the size of a request header. */
+    public static final int DEFAULT_MAX_HEADER_SIZE = 64 * 1024;
+
+    private volatile boolean destroyed = false;
+
+    private final int port;
+    private final HttpConnectionManager connmanager;
+    private final ConnectionListenerFailureHandler failureHandler;
+    private final HttpParams params;
+    private final int selectorCount;
+
+    private ServerSocketChannel serverChannel = null;
+    private SelectorLoop[] selectors = null;
+    private ExecutorService selectorExecutor = null;
+    private int nextSelector = 0;
+
+    public NIOConnectionListener(
+            int port,
+            final HttpConnectionManager connmanager,
+            final ConnectionListenerFailureHandler failureHandler,
+            final HttpParams params,
+            int selectorCount) throws IOException {
+        super();
+        if (connmanager == null) {
+            throw new IllegalArgumentException("Connection manager may not be null");
+        }
+        if (failureHandler == null) {
+            throw new IllegalArgumentException("Failure handler may not be null");
+        }
+        if (params == null) {
+            throw new IllegalArgumentException("HTTP parameters may not be null");
+        }
+        if (selectorCount < 1) {
+            throw new IllegalArgumentException("At least one selector thread is required");
+        }
+        this.port = port;
+        this.connmanager = connmanager;
+        this.failureHandler = failureHandler;
+        this.params = params;
+        this.selectorCount = selectorCount;
+    }
+
+    public void run() {
+        try {
+            while (!Thread.interrupted() && !isDestroyed()) {
+                try {
+                    if (serverChannel == null || !serverChannel.isOpen()) {
+                        if (LOG.isInfoEnabled()) {
+                            LOG.info("Listening on port " + port);
+                        }
+                        openChannel();
+                    }
+                    LOG.debug("Waiting for incoming HTTP connection");
+                    SocketChannel channel = this.serverChannel.accept();
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("Incoming HTTP connection from " +
+                                channel.socket().getRemoteSocketAddress());
+                    }
+                    nextSelector().register(channel);
+                } catch(java.io.InterruptedIOException ie) {
+                    break;
+                } catch (Throwable ex) {
+                    if (Thread.interrupted() || isDestroyed()) {
+                        break;
+                    }
+                    if (!failureHandler.failed(this, ex)) {
+                        break;
+                    }
+                }
+            }
+        } finally {
+            destroy();
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    private synchronized void openChannel() throws IOException {
+        if (selectors == null) {
+            selectors = new SelectorLoop[selectorCount];
+            selectorExecutor = Executors.newFixedThreadPool(selectorCount,
+                    new DefaultThreadFactory(new ThreadGroup("Selector thread group"),
+                            "HttpSelector-" + port));
+            for (int i = 0; i < selectorCount; i++) {
+                selectors[i] = new SelectorLoop(connmanager, params, DEFAULT_MAX_HEADER_SIZE);
+                selectorExecutor.execute(selectors[i]);
+            }
+        }
+        ServerSocketChannel channel = ServerSocketChannel.open();
+        channel.socket().setReuseAddress(true);
+        channel.socket().bind(new InetSocketAddress(port));
+        serverChannel = channel;
+        notifyAll();
+    }
+
+    private synchronized SelectorLoop nextSelector() {
+        SelectorLoop selector = selectors[nextSelector];
+        nextSelector = (nextSelector + 1) % selectors.length;
+        return selector;
+    }
+
+    /**
+     * @return the number of open connections that are waiting for a request header
+     */
+    public synchronized int getIdleConnectionCount() {
+        int count = 0;
+        if (selectors != null) {
+            for (int i = 0; i < selectors.length; i++) {
+                count += selectors[i].getIdleConnectionCount();
+            }
+        }
+        return count;
+    }
+
+    public synchronized void awaitSocketOpen() throws InterruptedException {
+        while (serverChannel == null && !destroyed) {
+            wait();
+        }
+    }
+
+    public synchronized int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public synchronized void close() throws IOException {
+        if (this.serverChannel != null) {
+            this.serverChannel.close();
+            this.serverChannel = null;
+        }
+    }
+
+    public synchronized void destroy() {
+        this.destroyed = true;
+        try {
+            close();
+        } catch (IOException ex) {
+            if (LOG.isWarnEnabled()) {
+                LOG.warn("I/O error closing listener", ex);
+            }
+        }
+        if (selectors != null) {
+            for (int i = 0; i < selectors.length; i++) {
+                selectors[i].destroy();
+            }
+            selectorExecutor.shutdownNow();
+        }
+    }
+
+    public synchronized boolean isDestroyed() {
+        return this.destroyed;
+    }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http.server;
+
+import org.apache.http.impl.io.AbstractSessionInputBuffer;
+import org.apache.http.io.EofSensor;
+import org.apache.http.params.HttpParams;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+
+/**
+ * Session input buffer for a socket from which some bytes have already been read, typically
+ * by a selector thread that waited for a complete request header. The prefetched bytes are
+ * returned first, followed by the data read from the socket.
+ */
+class PrefetchedSocketInputBuffer extends AbstractSessionInputBuffer implements EofSensor {
+
+    private final Socket socket;
+    private final ByteArrayInputStream prefetched;
+    private boolean eof;
+
+    PrefetchedSocketInputBuffer(final Socket socket, final ByteBuffer prefetched,
+            int buffersize, final HttpParams params) throws IOException {
+        super();
+        if (socket == null) {
+            throw new IllegalArgumentException("Socket may not be null");
+        }
+        this.socket = socket;
+        this.eof = false;
+        this.prefetched = new ByteArrayInputStream(prefetched.array(),
+                prefetched.arrayOffset() + prefetched.position(), prefetched.remaining());
+        InputStream in = new SequenceInputStream(this.prefetched, socket.getInputStream());
+        if (buffersize < 0) {
+            buffersize = socket.getReceiveBufferSize();
+        }
+        if (buffersize < 1024) {
+            buffersize = 1024;
+        }
+        init(in, buffersize, params);
+    }
+
+    protected int fillBuffer() throws IOException {
+        int i = super.fillBuffer();
+        this.eof = i == -1;
+        return i;
+    }
+
+    public boolean isDataAvailable(int timeout) throws IOException {
+        boolean result = hasBufferedInput();
+        if (!result) {
+            int oldtimeout = this.socket.getSoTimeout();
+            try {
+                this.socket.setSoTimeout(timeout);
+                fillBuffer();
+                result = hasBufferedData();
+            } finally {
+                socket.setSoTimeout(oldtimeout);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether there is input that has already been read from the socket but not yet
+     * consumed, e.g. a pipelined request.
+     *
+     * @return <code>true</code> if data can be read without touching the socket
+     */
+    boolean hasBufferedInput() {
+        return hasBufferedData() || this.prefetched.available() > 0;
+    }
+
+    public boolean isEof() {
+        return this.eof;
+    }
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http.server;
+
+import org.apache.http.params.HttpParams;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Connection handed over by a {@link SelectorLoop} once a complete request header has been
+ * received. After the request has been processed, the connection can be {@linkplain #release()
+ * released} so that the selector waits for the next request without holding a worker thread.
+ */
+class SelectableHttpConnection extends AxisHttpConnectionImpl {
+
+    private final SocketChannel channel;
+    private final SelectorLoop loop;
+
+    SelectableHttpConnection(final SocketChannel channel, final ByteBuffer prefetched,
+            final HttpParams params, final SelectorLoop loop) throws IOException {
+        super(channel.socket(), prefetched, params);
+        this.channel = channel;
+        this.loop = loop;
+    }
+
+    /**
+     * Returns the idle connection to the selector it was received from.
+     */
+    void release() {
+        this.loop.register(this.channel);
+    }
+
+}
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http.server;
+
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.ConnectionClosedException;
+import org.apache.http.HttpException;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Connection manager to be used together with {@link NIOConnectionListener}. Instead of
+ * holding a worker thread for the whole lifetime of a keep-alive connection, a worker only
+ * processes the requests that have already been received and then returns the connection to
+ * the selector it came from.
+ */
+public class SelectorHttpConnectionManager extends DefaultHttpConnectionManager {
+
+    private static final Log LOG = LogFactory.getLog(SelectorHttpConnectionManager.class);
+
+    public SelectorHttpConnectionManager(final ConfigurationContext configurationContext,
+            final Executor executor, final WorkerFactory workerfactory,
+            final HttpParams params) {
+        super(configurationContext, executor, workerfactory, params);
+    }
+
+    public SelectorHttpConnectionManager(final ConfigurationContext configurationContext,
+            final Executor executor, final WorkerFactory workerfactory,
+            final HttpParams params, final HttpFactory httpFactory) {
+        super(configurationContext, executor, workerfactory, params, httpFactory);
+    }
+
+    protected IOProcessor newProcessor(final AxisHttpService httpService,
+            final AxisHttpConnection conn, final IOProcessorCallback callback) {
+        if (conn instanceof SelectableHttpConnection) {
+            return new RequestProcessor(httpService, (SelectableHttpConnection) conn, callback);
+        } else {
+            return super.newProcessor(httpService, conn, callback);
+        }
+    }
+
+    /**
+     * I/O processor that handles the requests available on a connection and then releases
+     * the connection back to its selector instead of waiting for the next request.
+     */
+    static class RequestProcessor implements IOProcessor {
+
+        /** Counter used to create unique IDs. */
+        private static AtomicLong counter = new AtomicLong(0L);
+
+        private final AtomicBoolean terminated = new AtomicBoolean(false);
+
+        private final AxisHttpService httpservice;
+
+        private final SelectableHttpConnection conn;
+
+        private final IOProcessorCallback callback;
+
+        /**
+         * Unique identifier used by {@linkplain #equals(Object)} and {@linkplain #hashCode()}.
+         */
+        private final long id;
+
+        RequestProcessor(final AxisHttpService httpservice,
+                final SelectableHttpConnection conn, final IOProcessorCallback callback) {
+            this.httpservice = httpservice;
+            this.conn = conn;
+            this.callback = callback;
+            this.id = counter.incrementAndGet();
+        }
+
+        public void run() {
+            boolean released = false;
+            HttpContext context = new BasicHttpContext(null);
+            try {
+                do {
+                    this.httpservice.handleRequest(this.conn, context);
+                } while (!Thread.interrupted() && !isDestroyed() && this.conn.isOpen()
+                        && this.conn.hasBufferedInput());
+                if (!isDestroyed() && this.conn.isOpen()) {
+                    // Mark this processor as terminated without closing the connection
+                    released = this.terminated.compareAndSet(false, true);
+                    if (released) {
+                        this.conn.release();
+                    }
+                }
+            } catch (ConnectionClosedException ex) {
+                LOG.debug("Client closed connection");
+            } catch (IOException ex) {
+                if (ex instanceof SocketTimeoutException) {
+                    LOG.debug(ex.getMessage());
+                } else if (ex instanceof SocketException) {
+                    LOG.debug(ex.getMessage());
+                } else {
+                    LOG.warn(ex.getMessage(), ex);
+                }
+            } catch (HttpException ex) {
+                if (LOG.isWarnEnabled()) {
+                    LOG.warn("HTTP protocol error: " + ex.getMessage());
+                }
+            } finally {
+                if (!released) {
+                    destroy();
+                }
+                this.callback.completed(this);
+            }
+        }
+
+        public void close() throws IOException {
+            this.conn.close();
+        }
+
+        public void destroy() {
+            if (this.terminated.compareAndSet(false, true)) {
+                try {
+                    close();
+                } catch (IOException ex) {
+                    LOG.debug("I/O error shutting down connection");
+                }
+            }
+        }
+
+        public boolean isDestroyed() {
+            return this.terminated.get();
+        }
+
+        public int hashCode() {
+            return (int) (id ^ (id >>> 32));
+        }
+
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            return id == ((RequestProcessor) obj).id;
+        }
+
+    }
+
+}
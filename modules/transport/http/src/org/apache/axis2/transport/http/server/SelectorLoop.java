@@ -0,0 +1,326 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http.server;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.impl.DefaultHttpResponseFactory;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.BasicHttpContext;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Multiplexes idle connections on a single selector thread. Each connection is read without
+ * blocking until a complete request header has arrived; only then is it handed over to the
+ * {@link HttpConnectionManager}, so that idle keep-alive connections don't hold a worker thread.
+ */
+class SelectorLoop implements Runnable {
+
+    private static final Log LOG = LogFactory.getLog(SelectorLoop.class);
+
+    /** Maximum time in millis to block in a select, which is also the idle check interval. */
+    private static final long SELECT_TIMEOUT = 1000;
+
+    private static final int INITIAL_HEADER_BUFFER_SIZE = 2048;
+
+    private final Selector selector;
+    private final HttpConnectionManager connmanager;
+    private final HttpParams params;
+    private final int idleTimeout;
+    private final int maxHeaderSize;
+
+    /** Channels waiting to be registered with the selector by the selector thread. */
+    private final Queue<SocketChannel> pending = new ConcurrentLinkedQueue<SocketChannel>();
+
+    private volatile boolean destroyed = false;
+
+    private long lastIdleCheck;
+
+    SelectorLoop(final HttpConnectionManager connmanager, final HttpParams params,
+            int maxHeaderSize) throws IOException {
+        this.selector = Selector.open();
+        this.connmanager = connmanager;
+        this.params = params;
+        this.idleTimeout = HttpConnectionParams.getSoTimeout(params);
+        this.maxHeaderSize = maxHeaderSize;
+    }
+
+    /**
+     * Hands a connection to this selector so that it is watched for the next request. This
+     * method may be called from any thread.
+     */
+    void register(final SocketChannel channel) {
+        if (this.destroyed) {
+            closeQuietly(channel);
+            return;
+        }
+        this.pending.add(channel);
+        this.selector.wakeup();
+        if (this.destroyed && this.pending.remove(channel)) {
+            closeQuietly(channel);
+        }
+    }
+
+    /**
+     * @return the number of connections currently waiting for a request header
+     */
+    int getIdleConnectionCount() {
+        try {
+            return this.selector.keys().size();
+        } catch (ClosedSelectorException ex) {
+            return 0;
+        }
+    }
+
+    public void run() {
+        try {
+            while (!this.destroyed && !Thread.interrupted()) {
+                if (this.selector.selectedKeys().isEmpty()) {
+                    this.selector.select(SELECT_TIMEOUT);
+                }
+                registerPending();
+
+                List<PendingRequest> ready = null;
+                for (Iterator<SelectionKey> it = this.selector.selectedKeys().iterator(); it.hasNext();) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    PendingRequest request = (PendingRequest) key.attachment();
+                    if (request.read()) {
+                        key.cancel();
+                        if (ready == null) {
+                            ready = new ArrayList<PendingRequest>();
+                        }
+                        ready.add(request);
+                    }
+                }
+                if (ready != null) {
+                    // Flush the cancelled keys so that the channels can be switched back to
+                    // blocking mode
+                    this.selector.selectNow();
+                    for (PendingRequest request : ready) {
+                        dispatch(request);
+                    }
+                }
+                closeIdleConnections();
+            }
+        } catch (ClosedSelectorException ex) {
+            LOG.debug("Selector closed");
+        } catch (IOException ex) {
+            if (!this.destroyed) {
+                LOG.warn("I/O error in selector loop", ex);
+            }
+        } finally {
+            this.destroyed = true;
+            closeSelector();
+        }
+    }
+
+    private void registerPending() {
+        SocketChannel channel;
+        while ((channel = this.pending.poll()) != null) {
+            try {
+                channel.configureBlocking(false);
+                channel.register(this.selector, SelectionKey.OP_READ, new PendingRequest(channel));
+            } catch (IOException ex) {
+                LOG.debug("Unable to register connection: " + ex.getMessage());
+                closeQuietly(channel);
+            }
+        }
+    }
+
+    private void dispatch(final PendingRequest request) {
+        SelectableHttpConnection conn;
+        try {
+            request.channel.configureBlocking(true);
+            request.buffer.flip();
+            conn = new SelectableHttpConnection(request.channel, request.buffer, this.params, this);
+        } catch (IOException ex) {
+            LOG.debug("Unable to hand over connection: " + ex.getMessage());
+            closeQuietly(request.channel);
+            return;
+        }
+        try {
+            this.connmanager.process(conn);
+        } catch (RejectedExecutionException e) {
+            try {
+                conn.sendResponse(new DefaultHttpResponseFactory().newHttpResponse(
+                        HttpVersion.HTTP_1_0, HttpStatus.SC_SERVICE_UNAVAILABLE, new BasicHttpContext(null)));
+                conn.close();
+            } catch (Exception ex) {
+                closeQuietly(request.channel);
+            }
+        }
+    }
+
+    private void closeIdleConnections() {
+        if (this.idleTimeout <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (now - this.lastIdleCheck < SELECT_TIMEOUT) {
+            return;
+        }
+        this.lastIdleCheck = now;
+        for (SelectionKey key : this.selector.keys()) {
+            PendingRequest request = (PendingRequest) key.attachment();
+            if (key.isValid() && now - request.lastActivity > this.idleTimeout) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Closing idle connection from "
+                            + request.channel.socket().getRemoteSocketAddress());
+                }
+                key.cancel();
+                closeQuietly(request.channel);
+            }
+        }
+    }
+
+    /**
+     * Stops the selector loop. Connections that are still idle are closed by the selector
+     * thread when it terminates.
+     */
+    void destroy() {
+        this.destroyed = true;
+        this.selector.wakeup();
+        SocketChannel channel;
+        while ((channel = this.pending.poll()) != null) {
+            closeQuietly(channel);
+        }
+    }
+
+    private void closeSelector() {
+        try {
+            for (SelectionKey key : this.selector.keys()) {
+                closeQuietly(key.channel());
+            }
+            this.selector.close();
+        } catch (ClosedSelectorException ignore) {
+        } catch (IOException ex) {
+            LOG.debug("I/O error closing selector");
+        }
+        SocketChannel channel;
+        while ((channel = this.pending.poll()) != null) {
+            closeQuietly(channel);
+        }
+    }
+
+    private static void closeQuietly(final java.nio.channels.Channel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignore) {
+        }
+    }
+
+    /**
+     * Accumulates the bytes of a request header until the empty line that terminates it.
+     */
+    private class PendingRequest {
+
+        final SocketChannel channel;
+        ByteBuffer buffer;
+        long lastActivity;
+        private int scanned;
+        private boolean started;
+
+        PendingRequest(final SocketChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocate(INITIAL_HEADER_BUFFER_SIZE);
+            this.lastActivity = System.currentTimeMillis();
+        }
+
+        /**
+         * Reads the available bytes from the channel.
+         *
+         * @return <code>true</code> if a complete request header has been received
+         */
+        boolean read() {
+            try {
+                int n;
+                while ((n = this.channel.read(this.buffer)) > 0) {
+                    if (!this.buffer.hasRemaining()) {
+                        if (this.buffer.capacity() >= maxHeaderSize) {
+                            if (LOG.isDebugEnabled()) {
+                                LOG.debug("Request header exceeds " + maxHeaderSize + " bytes");
+                            }
+                            closeQuietly(this.channel);
+                            return false;
+                        }
+                        ByteBuffer larger = ByteBuffer.allocate(
+                                Math.min(this.buffer.capacity() * 2, maxHeaderSize));
+                        this.buffer.flip();
+                        larger.put(this.buffer);
+                        this.buffer = larger;
+                    }
+                }
+                if (n < 0) {
+                    LOG.debug("Client closed connection");
+                    closeQuietly(this.channel);
+                    return false;
+                }
+            } catch (IOException ex) {
+                LOG.debug(ex.getMessage());
+                closeQuietly(this.channel);
+                return false;
+            }
+            this.lastActivity = System.currentTimeMillis();
+            return isHeaderComplete();
+        }
+
+        /**
+         * Looks for the empty line terminating the header, ignoring any empty lines that
+         * precede the request line.
+         */
+        private boolean isHeaderComplete() {
+            byte[] b = this.buffer.array();
+            int end = this.buffer.position();
+            for (int i = this.scanned; i < end; i++) {
+                if (b[i] == '\n') {
+                    if (this.started && (b[i - 1] == '\n'
+                            || (b[i - 1] == '\r' && i >= 2 && b[i - 2] == '\n'))) {
+                        return true;
+                    }
+                } else if (b[i] != '\r') {
+                    this.started = true;
+                }
+            }
+            this.scanned = end;
+            return false;
+        }
+
+    }
+
+}
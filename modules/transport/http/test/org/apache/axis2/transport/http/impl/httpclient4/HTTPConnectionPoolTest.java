@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http.impl.httpclient4;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import junit.framework.TestCase;
+
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.ConfigurationContextFactory;
+import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.description.Parameter;
+import org.apache.axis2.description.TransportOutDescription;
+import org.apache.axis2.kernel.http.HTTPConstants;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+public class HTTPConnectionPoolTest extends TestCase {
+    private ConfigurationContext configContext;
+    private TransportOutDescription httpTransport;
+    private TransportOutDescription httpsTransport;
+    private HTTPClient4TransportSender httpSender;
+    private HTTPClient4TransportSender httpsSender;
+
+    protected void setUp() throws Exception {
+        configContext = ConfigurationContextFactory.createEmptyConfigurationContext();
+        httpTransport = new TransportOutDescription("http");
+        httpsTransport = new TransportOutDescription("https");
+        httpSender = new HTTPClient4TransportSender();
+        httpsSender = new HTTPClient4TransportSender();
+    }
+
+    protected void tearDown() throws Exception {
+        HTTPConnectionPool.close(configContext);
+    }
+
+    private MessageContext createMessageContext(TransportOutDescription transportOut) {
+        MessageContext msgContext = new MessageContext();
+        msgContext.setConfigurationContext(configContext);
+        msgContext.setTransportOut(transportOut);
+        return msgContext;
+    }
+
+    private static boolean isShutDown(HttpClientConnectionManager connManager) {
+        try {
+            connManager.requestConnection(
+                    new HttpRoute(new HttpHost("localhost", 80)), null).cancel();
+            return false;
+        } catch (IllegalStateException ex) {
+            return true;
+        }
+    }
+
+    public void testSharedBetweenSenders() throws Exception {
+        httpSender.init(configContext, httpTransport);
+        httpsSender.init(configContext, httpsTransport);
+        HTTPConnectionPool pool = HTTPConnectionPool.getInstance(
+                createMessageContext(httpTransport));
+        assertSame(pool, HTTPConnectionPool.getInstance(createMessageContext(httpsTransport)));
+        assertSame(pool.getConnectionManager(),
+                configContext.getProperty(HTTPConstants.MULTITHREAD_HTTP_CONNECTION_MANAGER));
+    }
+
+    public void testStopOneSender() throws Exception {
+        httpSender.init(configContext, httpTransport);
+        httpsSender.init(configContext, httpsTransport);
+        HTTPConnectionPool pool = HTTPConnectionPool.getInstance(
+                createMessageContext(httpTransport));
+        httpSender.stop();
+        assertFalse(isShutDown(pool.getConnectionManager()));
+        assertSame(pool, HTTPConnectionPool.getInstance(createMessageContext(httpsTransport)));
+    }
+
+    public void testStopAndRestart() throws Exception {
+        httpSender.init(configContext, httpTransport);
+        httpsSender.init(configContext, httpsTransport);
+        HTTPConnectionPool pool = HTTPConnectionPool.getInstance(
+                createMessageContext(httpTransport));
+        httpSender.stop();
+        httpsSender.stop();
+        assertTrue(isShutDown(pool.getConnectionManager()));
+        assertNull(configContext.getProperty(HTTPConstants.MULTITHREAD_HTTP_CONNECTION_MANAGER));
+
+        httpSender.init(configContext, httpTransport);
+        HTTPConnectionPool newPool = HTTPConnectionPool.getInstance(
+                createMessageContext(httpTransport));
+        assertNotSame(pool, newPool);
+        assertNotSame(pool.getConnectionManager(), newPool.getConnectionManager());
+        assertFalse(isShutDown(newPool.getConnectionManager()));
+    }
+
+    public void testSenderNotInitialized() throws Exception {
+        HTTPConnectionPool pool = HTTPConnectionPool.getInstance(
+                createMessageContext(httpTransport));
+        HTTPConnectionPool.release(configContext, httpTransport);
+        assertTrue(isShutDown(pool.getConnectionManager()));
+        assertNull(configContext.getProperty(HTTPConstants.MULTITHREAD_HTTP_CONNECTION_MANAGER));
+    }
+
+    public void testMBeanIsUnregisteredOnClose() throws Exception {
+        httpSender.init(configContext, httpTransport);
+        HTTPConnectionPool pool = HTTPConnectionPool.getInstance(
+                createMessageContext(httpTransport));
+        ObjectName mbeanName = pool.getMBeanName();
+        assertNotNull(mbeanName);
+        MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+        assertTrue(mbs.isRegistered(mbeanName));
+
+        ConfigurationContext otherConfigContext =
+                ConfigurationContextFactory.createEmptyConfigurationContext();
+        MessageContext msgContext = new MessageContext();
+        msgContext.setConfigurationContext(otherConfigContext);
+        msgContext.setTransportOut(httpTransport);
+        HTTPConnectionPool otherPool = HTTPConnectionPool.getInstance(msgContext);
+        try {
+            assertFalse(mbeanName.equals(otherPool.getMBeanName()));
+        } finally {
+            HTTPConnectionPool.close(otherConfigContext);
+        }
+
+        httpSender.stop();
+        assertFalse(mbs.isRegistered(mbeanName));
+    }
+
+    public void testApplicationSuppliedConnectionManager() throws Exception {
+        PoolingHttpClientConnectionManager connManager = new PoolingHttpClientConnectionManager();
+        try {
+            configContext.setProperty(HTTPConstants.MULTITHREAD_HTTP_CONNECTION_MANAGER,
+                    connManager);
+            httpSender.init(configContext, httpTransport);
+            HTTPConnectionPool pool = HTTPConnectionPool.getInstance(
+                    createMessageContext(httpTransport));
+            assertSame(connManager, pool.getConnectionManager());
+            httpSender.stop();
+            assertFalse(isShutDown(connManager));
+            assertSame(connManager,
+                    configContext.getProperty(HTTPConstants.MULTITHREAD_HTTP_CONNECTION_MANAGER));
+        } finally {
+            connManager.shutdown();
+        }
+    }
+
+    public void testSettingsOfOtherSender() throws Exception {
+        httpsTransport.addParameter(new Parameter(HTTPConstants.MAX_TOTAL_CONNECTIONS, "42"));
+        httpSender.init(configContext, httpTransport);
+        httpsSender.init(configContext, httpsTransport);
+        HTTPConnectionPool pool = HTTPConnectionPool.getInstance(
+                createMessageContext(httpTransport));
+        assertEquals(42, ((PoolingHttpClientConnectionManager) pool.getConnectionManager())
+                .getMaxTotal());
+    }
+}
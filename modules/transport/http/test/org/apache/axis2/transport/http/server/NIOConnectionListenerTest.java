@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http.server;
+
+import junit.framework.TestCase;
+
+import org.apache.http.HttpRequest;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class NIOConnectionListenerTest extends TestCase {
+
+    private static class RecordingConnectionManager implements HttpConnectionManager {
+        final BlockingQueue<AxisHttpConnection> connections =
+                new LinkedBlockingQueue<AxisHttpConnection>();
+
+        public void process(AxisHttpConnection incoming) {
+            connections.add(incoming);
+        }
+
+        public void shutdown() {
+        }
+    }
+
+    private RecordingConnectionManager connmanager;
+    private NIOConnectionListener listener;
+    private Thread listenerThread;
+
+    protected void setUp() throws Exception {
+        HttpParams params = new BasicHttpParams();
+        params.setIntParameter(HttpConnectionParams.SO_TIMEOUT, 5000);
+        connmanager = new RecordingConnectionManager();
+        listener = new NIOConnectionListener(0, connmanager,
+                new DefaultConnectionListenerFailureHandler(), params, 1);
+        listenerThread = new Thread(listener);
+        listenerThread.start();
+        listener.awaitSocketOpen();
+    }
+
+    protected void tearDown() throws Exception {
+        listener.destroy();
+        listenerThread.interrupt();
+        listenerThread.join(5000);
+    }
+
+    public void testConnectionHandedOverOnlyAfterCompleteHeader() throws Exception {
+        Socket socket = new Socket("localhost", listener.getPort());
+        try {
+            OutputStream out = socket.getOutputStream();
+            out.write("GET /axis2/services/Echo HTTP/1.1\r\nHost: localhost\r\n".getBytes("US-ASCII"));
+            out.flush();
+            assertNull(connmanager.connections.poll(500, TimeUnit.MILLISECONDS));
+            assertEquals(1, listener.getIdleConnectionCount());
+
+            out.write("\r\n".getBytes("US-ASCII"));
+            out.flush();
+            AxisHttpConnection conn = connmanager.connections.poll(5, TimeUnit.SECONDS);
+            assertNotNull(conn);
+            HttpRequest request = conn.receiveRequest();
+            assertEquals("/axis2/services/Echo", request.getRequestLine().getUri());
+            assertEquals("localhost", request.getFirstHeader("Host").getValue());
+            conn.close();
+        } finally {
+            socket.close();
+        }
+    }
+
+    public void testReleasedConnectionIsWatchedForNextRequest() throws Exception {
+        Socket socket = new Socket("localhost", listener.getPort());
+        try {
+            OutputStream out = socket.getOutputStream();
+            out.write("GET /first HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes("US-ASCII"));
+            out.flush();
+            SelectableHttpConnection conn =
+                    (SelectableHttpConnection) connmanager.connections.poll(5, TimeUnit.SECONDS);
+            assertNotNull(conn);
+            assertEquals("/first", conn.receiveRequest().getRequestLine().getUri());
+            assertFalse(conn.hasBufferedInput());
+            conn.release();
+
+            out.write("GET /second HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes("US-ASCII"));
+            out.flush();
+            conn = (SelectableHttpConnection) connmanager.connections.poll(5, TimeUnit.SECONDS);
+            assertNotNull(conn);
+            assertEquals("/second", conn.receiveRequest().getRequestLine().getUri());
+            conn.close();
+        } finally {
+            socket.close();
+        }
+    }
+}
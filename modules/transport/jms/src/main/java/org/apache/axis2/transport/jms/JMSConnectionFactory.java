@@ -31,6 +31,8 @@ import javax.naming.Context;
 import javax.naming.InitialContext;
 import javax.naming.NamingException;
 import java.util.Hashtable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Encapsulate a JMS Connection factory definition within an Axis2.xml
@@ -39,7 +41,7 @@ import java.util.Hashtable;
  * level parameters to be defined, and re-used by each service that binds to it
  *
  * When used for sending messages out, the JMSConnectionFactory'ies are able to cache
- * a Connection, Session or Producer
+ * a Connection, or pool Sessions and Producers on a cached Connection
  */
 public class JMSConnectionFactory {
 
@@ -64,6 +66,13 @@ public class JMSConnectionFactory {
     private Destination sharedDestination = null;
     /** The shared JMS connection for this JMS connection factory */
     private int cacheLevel = JMSConstants.CACHE_CONNECTION;
+    /** The shared reply listeners of this JMS CF, keyed by their named reply Destination */
+    private final Map<Destination, JMSReplyDispatcher> replyDispatchers =
+        new ConcurrentHashMap<Destination, JMSReplyDispatcher>();
+    /** The shared reply listener of this JMS CF on a temporary Destination */
+    private volatile JMSReplyDispatcher temporaryReplyDispatcher = null;
+    /** The pool of Sessions used for sending, at the session or producer cache levels */
+    private JMSSessionPool sessionPool = null;
 
     /**
      * Digest a JMS CF definition from an axis2.xml 'Parameter' and construct
@@ -86,6 +95,14 @@ public class JMSConnectionFactory {
         }
 
         digestCacheLevel();
+        if (cacheLevel > JMSConstants.CACHE_CONNECTION) {
+            sessionPool = new JMSSessionPool(this,
+                (int) getLongParameter(JMSConstants.PARAM_MAX_POOLED_SESSIONS,
+                    JMSConstants.DEFAULT_MAX_POOLED_SESSIONS),
+                getLongParameter(JMSConstants.PARAM_POOLED_SESSION_IDLE_TIMEOUT,
+                    JMSConstants.DEFAULT_POOLED_SESSION_IDLE_TIMEOUT),
+                cacheLevel > JMSConstants.CACHE_SESSION);
+        }
         try {
             context = new InitialContext(parameters);
             conFactory = JMSUtils.lookup(context, ConnectionFactory.class,
@@ -129,10 +146,38 @@ public class JMSConnectionFactory {
         }
     }
     
+    /**
+     * Return the positive numeric value of a parameter, or the default if it is not specified
+     */
+    private long getLongParameter(String key, long defaultValue) {
+        String val = parameters.get(key);
+        if (val == null) {
+            return defaultValue;
+        }
+        try {
+            long value = Long.parseLong(val.trim());
+            if (value > 0) {
+                return value;
+            }
+        } catch (NumberFormatException ignore) {}
+        throw new AxisJMSException("Invalid " + key + " : " + val + " for JMS CF : " + name);
+    }
+
     /**
      * Close all connections, sessions etc.. and stop this connection factory
      */
     public synchronized void stop() {
+        if (sessionPool != null) {
+            sessionPool.close();
+        }
+        for (JMSReplyDispatcher dispatcher : replyDispatchers.values()) {
+            dispatcher.close();
+        }
+        replyDispatchers.clear();
+        if (temporaryReplyDispatcher != null) {
+            temporaryReplyDispatcher.close();
+            temporaryReplyDispatcher = null;
+        }
         if (sharedConnection != null) {
             try {
             	sharedConnection.close();
@@ -174,6 +219,14 @@ public class JMSConnectionFactory {
         return cacheLevel;
     }
 
+    /**
+     * Get the pool of Sessions used for sending
+     * @return the Session pool, or null if Sessions are not cached at the configured cache level
+     */
+    public JMSSessionPool getSessionPool() {
+        return sessionPool;
+    }
+
     /**
      * Get the shared Destination - if defined
      * @return
@@ -218,6 +271,52 @@ public class JMSConnectionFactory {
                 JMSConstants.DESTINATION_TYPE_GENERIC;
     }
 
+    /**
+     * Should synchronous replies be received through a shared {@link JMSReplyDispatcher}, as
+     * set by the PARAM_REPLY_LISTENER parameter?
+     * @param temporaryDestination true if replies are expected on a temporary destination
+     * @return true if a shared reply listener should be used
+     */
+    public boolean isReplyListenerEnabled(boolean temporaryDestination) {
+        String val = parameters.get(JMSConstants.PARAM_REPLY_LISTENER);
+        return val == null ? temporaryDestination : Boolean.valueOf(val);
+    }
+
+    /**
+     * Get the shared reply listener for the given reply Destination, starting a new one on a
+     * dedicated Connection if there is none, or the previous one has failed
+     * @param replyDestination the reply Destination, or null for a temporary destination
+     *                         owned by the listener
+     * @return the shared reply listener
+     */
+    public JMSReplyDispatcher getReplyDispatcher(Destination replyDestination) {
+        JMSReplyDispatcher dispatcher = replyDestination == null ?
+            temporaryReplyDispatcher : replyDispatchers.get(replyDestination);
+        if (dispatcher != null && dispatcher.isActive()) {
+            return dispatcher;
+        }
+
+        synchronized (this) {
+            dispatcher = replyDestination == null ?
+                temporaryReplyDispatcher : replyDispatchers.get(replyDestination);
+            if (dispatcher == null || !dispatcher.isActive()) {
+                try {
+                    dispatcher = new JMSReplyDispatcher(
+                        name, createConnection(), replyDestination, isJmsSpec11(), isQueue());
+                } catch (JMSException e) {
+                    handleException("Error starting a reply listener on destination : " +
+                        replyDestination + " for JMS CF : " + name, e);
+                }
+                if (replyDestination == null) {
+                    temporaryReplyDispatcher = dispatcher;
+                } else {
+                    replyDispatchers.put(replyDestination, dispatcher);
+                }
+            }
+            return dispatcher;
+        }
+    }
+
     private void handleException(String msg, Exception e) {
         log.error(msg, e);
         throw new AxisJMSException(msg, e);
@@ -302,7 +401,7 @@ public class JMSConnectionFactory {
      * @param connection Connection to use
      * @return A new Session
      */
-    private Session createSession(Connection connection) {
+    Session createSession(Connection connection) {
         try {
             if (log.isDebugEnabled()) {
                 log.debug("Creating a new JMS Session from JMS CF : " + name);
@@ -322,7 +421,7 @@ public class JMSConnectionFactory {
      * @param destination Destination to be used
      * @return a new MessageProducer
      */
-    private MessageProducer createProducer(Session session, Destination destination) {
+    MessageProducer createProducer(Session session, Destination destination) {
         try {
             if (log.isDebugEnabled()) {
                 log.debug("Creating a new JMS MessageProducer from JMS CF : " + name);
@@ -350,7 +449,8 @@ public class JMSConnectionFactory {
     }
 
     /**
-     * Get a new Session or shared Session from this JMS CF
+     * Get a new Session or shared Session from this JMS CF. A shared Session must only be used
+     * by one thread at a time; senders lease a Session from {@link #getSessionPool()} instead
      * @param connection the Connection to be used
      * @return new or shared Session from this JMS CF
      */
@@ -392,6 +492,21 @@ public class JMSConnectionFactory {
         return sharedConnection;
     }
 
+    /**
+     * Forget the shared Connection after it failed, so that a new one is created on next use
+     * @param connection the failed Connection
+     */
+    synchronized void resetSharedConnection(Connection connection) {
+        if (sharedConnection == connection) {
+            sharedConnection = null;
+            sharedSession = null;
+            sharedProducer = null;
+            try {
+                connection.close();
+            } catch (JMSException ignore) {}
+        }
+    }
+
     /**
      * Get a shared Session from this JMS CF
      * @return shared Session from this JMS CF
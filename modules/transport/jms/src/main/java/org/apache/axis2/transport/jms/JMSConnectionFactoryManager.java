@@ -15,6 +15,8 @@
 */
 package org.apache.axis2.transport.jms;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -114,6 +116,14 @@ public class JMSConnectionFactoryManager {
         return s1 == s2 || s1 != null && s1.equals(s2);
     }
     
+    /**
+     * Get all the JMS connection factories managed by this
+     * @return the JMS connection factories
+     */
+    public Collection<JMSConnectionFactory> getJMSConnectionFactories() {
+        return Collections.unmodifiableCollection(connectionFactories.values());
+    }
+
     /**
      * Stop all connection factories.
      */
@@ -92,6 +92,14 @@ public class JMSConstants {
      * also see {@link DESTINATION_TYPE_QUEUE}, {@link DESTINATION_TYPE_TOPIC}
      */
     public static final String PARAM_REPLY_DEST_TYPE = "transport.jms.ReplyDestinationType";
+    /**
+     * The JMS CF Parameter name indicating whether synchronous replies are received through a
+     * single long lived listener on the reply destination - "true" or "false". Defaults to
+     * "true" when replies are received on a temporary destination. A named reply destination
+     * must be exclusive to this client before enabling the listener for it, as the listener
+     * consumes every message arriving at the destination. See {@link JMSReplyDispatcher}
+     */
+    public static final String PARAM_REPLY_LISTENER = "transport.jms.ReplyListener";
     /**
      * The Parameter name of an Axis2 service, indicating the JMS connection
      * factory which should be used to listen for messages for it. This is
@@ -148,6 +156,21 @@ public class JMSConstants {
      * {@link CACHE_CONSUMER}, or {@link CACHE_AUTO} - to let the transport decide
      */
     public static final String PARAM_CACHE_LEVEL = "transport.jms.CacheLevel";
+    /**
+     * The maximum number of Sessions a JMS CF pools for sending at the session or producer
+     * cache levels - see {@link JMSSessionPool}
+     */
+    public static final String PARAM_MAX_POOLED_SESSIONS = "transport.jms.MaxPooledSessions";
+    /** The default maximum number of pooled Sessions of a JMS CF */
+    public static final int DEFAULT_MAX_POOLED_SESSIONS = 10;
+    /**
+     * The number of milliseconds after which an idle pooled Session of a JMS CF is closed
+     * - see {@link PARAM_MAX_POOLED_SESSIONS}
+     */
+    public static final String PARAM_POOLED_SESSION_IDLE_TIMEOUT =
+        "transport.jms.PooledSessionIdleTimeout";
+    /** The default idle timeout of a pooled Session of a JMS CF */
+    public static final long DEFAULT_POOLED_SESSION_IDLE_TIMEOUT = 60000;
     /** Should a pub-sub connection receive messages published by itself? */
     public static final String PARAM_PUBSUB_NO_LOCAL = "transport.jms.PubSubNoLocal";
     /**
@@ -176,6 +199,19 @@ public class JMSConstants {
      * prevent many longer running threads - default is unlimited (i.e. a worker task will live forever)
      */
     public static final String PARAM_MAX_MSGS_PER_TASK = "transport.jms.MaxMessagesPerTask";
+    /**
+     * The maximum number of messages a polling worker task receives at once, and then commits or
+     * acknowledges together - default is 1. Applies to transacted Sessions and CLIENT_ACKNOWLEDGE
+     * without JTA. If a message of a batch fails, the whole batch is redelivered
+     */
+    public static final String PARAM_BATCH_SIZE = "transport.jms.BatchSize";
+    /**
+     * The number of milliseconds a message may have waited at the JMS provider, before another
+     * polling worker task is started (up to {@link PARAM_MAX_CONSUMERS}) to help drain the
+     * destination. A full batch also starts another task. If not set, another task is started
+     * whenever a message is received while no task is idle
+     */
+    public static final String PARAM_SCALE_UP_LATENCY = "transport.jms.ScaleUpLatency";
     /**
      * Number of milliseconds before the first reconnection attempt is tried, on detection of an
      * error. Subsequent retries follow a geometric series, where the
@@ -58,6 +58,8 @@ public class JMSMessageSender {
     private boolean jmsSpec11 = true;
     /** Are we sending to a Queue ? */
     private Boolean isQueue = null;
+    /** The Session leased from the Session pool of the JMS CF, if any */
+    private JMSSessionPool.PooledSession pooledSession = null;
 
     /**
      * This is a low-end method to support the one-time sends using JMS 1.0.2b
@@ -91,14 +93,29 @@ public class JMSMessageSender {
 
         this.cacheLevel  = jmsConnectionFactory.getCacheLevel();
         this.jmsSpec11   = jmsConnectionFactory.isJmsSpec11();
-        this.connection  = jmsConnectionFactory.getConnection();
-        this.session     = jmsConnectionFactory.getSession(connection);
         this.destination =
             jmsConnectionFactory.getSharedDestination() == null ?
                 jmsConnectionFactory.getDestination(JMSUtils.getDestination(targetAddress),
                         JMSConstants.DESTINATION_TYPE_GENERIC) :
                 jmsConnectionFactory.getSharedDestination();
-        this.producer = jmsConnectionFactory.getMessageProducer(connection, session, destination);
+
+        JMSSessionPool sessionPool = jmsConnectionFactory.getSessionPool();
+        if (sessionPool != null) {
+            this.pooledSession = sessionPool.borrow();
+            this.connection    = pooledSession.getConnection();
+            this.session       = pooledSession.getSession();
+            try {
+                this.producer  = pooledSession.getProducer(destination);
+            } catch (RuntimeException e) {
+                pooledSession.invalidate();
+                close();
+                throw e;
+            }
+        } else {
+            this.connection  = jmsConnectionFactory.getConnection();
+            this.session     = jmsConnectionFactory.getSession(connection);
+            this.producer = jmsConnectionFactory.getMessageProducer(connection, session, destination);
+        }
     }
 
     /**
@@ -177,6 +194,10 @@ public class JMSMessageSender {
         } catch (JMSException e) {
             log.error("Error sending message with MessageContext ID : " +
                 msgCtx.getMessageID() + " to destination : " + destination, e);
+            // do not reuse a pooled session that may have failed
+            if (pooledSession != null) {
+                pooledSession.invalidate();
+            }
 
         } finally {
 
@@ -230,9 +251,18 @@ public class JMSMessageSender {
     }
 
     /**
-     * Close non-shared producer, session and connection if any
+     * Close non-shared producer, session and connection if any, or return the pooled session
      */
     public void close() {
+        if (pooledSession != null) {
+            // the pooled session closes a producer that is not cached
+            pooledSession.release();
+            pooledSession = null;
+            producer = null;
+            session = null;
+            return;
+        }
+
         if (producer != null && cacheLevel < JMSConstants.CACHE_PRODUCER) {
             try {
                 producer.close();
@@ -0,0 +1,361 @@
+/*
+* Copyright 2004,2005 The Apache Software Foundation.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*      http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.axis2.transport.jms;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import jakarta.jms.Connection;
+import jakarta.jms.Destination;
+import jakarta.jms.ExceptionListener;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.MessageListener;
+import jakarta.jms.Session;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+
+/**
+ * A long lived listener on a reply destination, shared by all synchronous request/reply
+ * exchanges of a JMS connection factory that expect their replies on that destination.
+ *
+ * Instead of creating a consumer with a JMSCorrelationID message selector for every request,
+ * a single consumer receives all replies arriving at the destination and hands each one to the
+ * caller waiting for its correlation ID. Callers may block for the reply through
+ * {@link #waitForReply(String, long)}, or obtain a CompletableFuture through
+ * {@link #getReply(String, long)}.
+ *
+ * As the listener consumes every message arriving at the reply destination, a named reply
+ * destination must not be shared with other clients. If no reply destination is given, the
+ * dispatcher creates a temporary destination of its own.
+ */
+public class JMSReplyDispatcher implements MessageListener, ExceptionListener {
+
+    private static final Log log = LogFactory.getLog(JMSReplyDispatcher.class);
+
+    /** The maximum number of replies kept for callers that have not registered yet */
+    private static final int MAX_EARLY_REPLIES = 1000;
+    /** The time in milliseconds a reply is kept for a caller that has not registered yet */
+    private static final long EARLY_REPLY_TIMEOUT = 60000;
+
+    /** Expires CompletableFuture based waits that do not receive a reply in time */
+    private static final ScheduledThreadPoolExecutor timeoutScheduler;
+
+    static {
+        timeoutScheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "JMSReplyTimeout");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        timeoutScheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    /** The name of the JMS CF that owns this dispatcher */
+    private final String name;
+    /** The dedicated Connection of this dispatcher */
+    private final Connection connection;
+    /** The Session the reply consumer is bound to */
+    private final Session session;
+    /** The destination replies are received on */
+    private final Destination replyDestination;
+    /** The consumer delivering replies to {@link #onMessage(Message)} */
+    private final MessageConsumer consumer;
+
+    /** Callers waiting for a reply, keyed by JMS correlation ID */
+    private final Map<String, CompletableFuture<Message>> pendingReplies =
+        new ConcurrentHashMap<String, CompletableFuture<Message>>();
+    /**
+     * Replies that arrived before their caller registered, in order of arrival. Guarded by
+     * itself, which also serializes registration against the dispatch of such replies
+     */
+    private final LinkedHashMap<String, EarlyReply> earlyReplies =
+        new LinkedHashMap<String, EarlyReply>();
+
+    private volatile boolean active = true;
+
+    /**
+     * Start listening for replies on the given destination
+     *
+     * @param name the name of the JMS CF that owns this dispatcher
+     * @param connection a Connection dedicated to this dispatcher, which is closed with it
+     * @param replyDestination the reply Destination, or null to create a temporary destination
+     * @param jmsSpec11 should the JMS 1.1 API be used
+     * @param isQueue TRUE if a Queue, FALSE for a Topic and NULL for a JMS 1.1 Generic Destination
+     * @throws JMSException if the listener could not be started
+     */
+    JMSReplyDispatcher(String name, Connection connection, Destination replyDestination,
+        boolean jmsSpec11, Boolean isQueue) throws JMSException {
+
+        this.name = name;
+        this.connection = connection;
+        try {
+            session = JMSUtils.createSession(
+                connection, false, Session.AUTO_ACKNOWLEDGE, jmsSpec11, isQueue);
+            if (replyDestination == null) {
+                replyDestination = JMSUtils.createTemporaryDestination(session);
+            }
+            this.replyDestination = replyDestination;
+            consumer = JMSUtils.createConsumer(session, replyDestination, null);
+            consumer.setMessageListener(this);
+            connection.setExceptionListener(this);
+            connection.start();
+        } catch (JMSException e) {
+            try {
+                connection.close();
+            } catch (JMSException ignore) {}
+            throw e;
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Started reply listener on destination : " + replyDestination +
+                " for JMS CF : " + name);
+        }
+    }
+
+    /**
+     * Return the destination replies are received on
+     * @return the reply destination, which is a temporary destination if none was given
+     */
+    public Destination getReplyDestination() {
+        return replyDestination;
+    }
+
+    /**
+     * Is this dispatcher still listening for replies?
+     * @return false once the dispatcher is closed, or its connection failed
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Return the number of callers currently waiting for a reply
+     * @return the number of pending replies
+     */
+    public int getPendingReplyCount() {
+        return pendingReplies.size();
+    }
+
+    /**
+     * Wait for the reply with the given correlation ID
+     *
+     * @param correlationId the JMS correlation ID of the expected reply
+     * @param timeout the maximum number of milliseconds to wait
+     * @return the reply, or null if none arrived within the timeout
+     * @throws JMSException if the dispatcher was closed, or the wait was interrupted
+     */
+    public Message waitForReply(String correlationId, long timeout) throws JMSException {
+        CompletableFuture<Message> reply = register(correlationId);
+        try {
+            // like MessageConsumer.receive(), a timeout of zero waits forever
+            return timeout > 0 ? reply.get(timeout, TimeUnit.MILLISECONDS) : reply.get();
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JMSException("Interrupted while waiting for the reply with JMS " +
+                "correlation ID : " + correlationId);
+        } catch (ExecutionException e) {
+            throw toJMSException(e.getCause());
+        } finally {
+            pendingReplies.remove(correlationId, reply);
+        }
+    }
+
+    /**
+     * Obtain a future for the reply with the given correlation ID. The future completes
+     * exceptionally with a TimeoutException if no reply arrives within the timeout, or with a
+     * JMSException if the dispatcher is closed first.
+     *
+     * @param correlationId the JMS correlation ID of the expected reply
+     * @param timeout the maximum number of milliseconds to wait
+     * @return a future completed with the reply
+     * @throws JMSException if another caller is already waiting for the same correlation ID
+     */
+    public CompletableFuture<Message> getReply(final String correlationId, final long timeout)
+        throws JMSException {
+
+        final CompletableFuture<Message> reply = register(correlationId);
+        if (!reply.isDone()) {
+            final ScheduledFuture<?> expiry = timeoutScheduler.schedule(new Runnable() {
+                public void run() {
+                    if (pendingReplies.remove(correlationId, reply)) {
+                        reply.completeExceptionally(new TimeoutException(
+                            "Did not receive a JMS response within " + timeout +
+                            " ms to destination : " + replyDestination +
+                            " with JMS correlation ID : " + correlationId));
+                    }
+                }
+            }, timeout, TimeUnit.MILLISECONDS);
+            reply.whenComplete(new BiConsumer<Message, Throwable>() {
+                public void accept(Message message, Throwable t) {
+                    expiry.cancel(false);
+                }
+            });
+        }
+        return reply;
+    }
+
+    /**
+     * Register a caller for the reply with the given correlation ID, handing it a reply that
+     * already arrived if there is one
+     */
+    private CompletableFuture<Message> register(String correlationId) throws JMSException {
+        if (!active) {
+            throw new JMSException("The reply listener for JMS CF : " + name + " is closed");
+        }
+        CompletableFuture<Message> reply = new CompletableFuture<Message>();
+        synchronized (earlyReplies) {
+            EarlyReply earlyReply = earlyReplies.remove(correlationId);
+            if (earlyReply != null) {
+                reply.complete(earlyReply.message);
+                return reply;
+            }
+            if (pendingReplies.putIfAbsent(correlationId, reply) != null) {
+                throw new JMSException("A caller is already waiting for a reply with JMS " +
+                    "correlation ID : " + correlationId);
+            }
+        }
+        return reply;
+    }
+
+    /**
+     * Dispatch a reply to the caller waiting for its correlation ID. Replies that arrive before
+     * their caller registered are kept for a limited time.
+     * @param message the reply
+     */
+    public void onMessage(Message message) {
+        String correlationId;
+        try {
+            correlationId = message.getJMSCorrelationID();
+        } catch (JMSException e) {
+            log.warn("Error reading the JMS correlation ID of a reply on destination : " +
+                replyDestination, e);
+            return;
+        }
+        if (correlationId == null) {
+            log.warn("Discarding a reply without a JMS correlation ID on destination : " +
+                replyDestination);
+            return;
+        }
+
+        CompletableFuture<Message> reply = pendingReplies.remove(correlationId);
+        if (reply == null) {
+            synchronized (earlyReplies) {
+                reply = pendingReplies.remove(correlationId);
+                if (reply == null) {
+                    keepEarlyReply(correlationId, message);
+                    return;
+                }
+            }
+        }
+        reply.complete(message);
+    }
+
+    /**
+     * Keep a reply no caller has registered for (yet), expiring replies that were never claimed
+     */
+    private void keepEarlyReply(String correlationId, Message message) {
+        long now = System.currentTimeMillis();
+        Iterator<EarlyReply> it = earlyReplies.values().iterator();
+        while (it.hasNext()) {
+            EarlyReply earlyReply = it.next();
+            if (now - earlyReply.receivedTime < EARLY_REPLY_TIMEOUT
+                && earlyReplies.size() < MAX_EARLY_REPLIES) {
+                break;
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Discarding unclaimed reply on destination : " + replyDestination);
+            }
+            it.remove();
+        }
+        earlyReplies.put(correlationId, new EarlyReply(message, now));
+    }
+
+    /**
+     * Close the dispatcher if its connection fails, so that its JMS CF creates a new one
+     * @param e the connection failure
+     */
+    public void onException(JMSException e) {
+        log.warn("Reply listener connection failed for JMS CF : " + name, e);
+        close(e);
+    }
+
+    /**
+     * Stop listening for replies, failing all callers that are still waiting
+     */
+    public void close() {
+        close(new JMSException("The reply listener for JMS CF : " + name + " was closed"));
+    }
+
+    private void close(JMSException cause) {
+        active = false;
+        try {
+            connection.close();
+        } catch (JMSException e) {
+            log.warn("Error closing the reply listener connection for JMS CF : " + name, e);
+        }
+
+        List<CompletableFuture<Message>> waiting;
+        synchronized (earlyReplies) {
+            earlyReplies.clear();
+            waiting = new ArrayList<CompletableFuture<Message>>(pendingReplies.values());
+            pendingReplies.clear();
+        }
+        for (CompletableFuture<Message> reply : waiting) {
+            reply.completeExceptionally(cause);
+        }
+    }
+
+    private static JMSException toJMSException(Throwable t) {
+        if (t instanceof JMSException) {
+            return (JMSException) t;
+        }
+        JMSException e = new JMSException(t.getMessage());
+        if (t instanceof Exception) {
+            e.setLinkedException((Exception) t);
+        }
+        e.initCause(t);
+        return e;
+    }
+
+    /** A reply that arrived before its caller registered */
+    private static final class EarlyReply {
+        private final Message message;
+        private final long receivedTime;
+
+        private EarlyReply(Message message, long receivedTime) {
+            this.message = message;
+            this.receivedTime = receivedTime;
+        }
+    }
+}
@@ -72,18 +72,36 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
     public void init(ConfigurationContext cfgCtx, TransportOutDescription transportOut) throws AxisFault {
         super.init(cfgCtx, transportOut);
         connFacManager = new JMSConnectionFactoryManager(transportOut);
+        for (JMSConnectionFactory jmsConnectionFactory : connFacManager.getJMSConnectionFactories()) {
+            JMSSessionPool sessionPool = jmsConnectionFactory.getSessionPool();
+            if (sessionPool != null) {
+                registerMBean(new JMSSessionPoolView(sessionPool),
+                        getSessionPoolMBeanName(jmsConnectionFactory));
+            }
+        }
         log.info("JMS Transport Sender initialized...");
     }
     
     @Override
     public void stop() {
         
+        for (JMSConnectionFactory jmsConnectionFactory : connFacManager.getJMSConnectionFactories()) {
+            if (jmsConnectionFactory.getSessionPool() != null) {
+                unregisterMBean(getSessionPoolMBeanName(jmsConnectionFactory));
+            }
+        }
+
         // clean up any shared JMS resources in this sender's connection factories
         connFacManager.stop();
         
         super.stop();
     }
 
+    private String getSessionPoolMBeanName(JMSConnectionFactory jmsConnectionFactory) {
+        return getMBeanName() + ",Group=SessionPools,ConnectionFactory="
+                + jmsConnectionFactory.getName();
+    }
+
     /**
      * Get corresponding JMS connection factory defined within the transport sender for the
      * transport-out information - usually constructed from a targetEPR
@@ -159,19 +177,28 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
         }
 
         // need to synchronize as Sessions are not thread safe
+        PendingReply pendingReply;
         synchronized (messageSender.getSession()) {
             try {
-                sendOverJMS(msgCtx, messageSender, contentTypeProperty, jmsConnectionFactory, jmsOut);
+                pendingReply = sendOverJMS(
+                    msgCtx, messageSender, contentTypeProperty, jmsConnectionFactory, jmsOut);
             } finally {
                 messageSender.close();
             }
         }
+
+        // a reply dispatched by a shared reply listener does not need the Session, and is
+        // waited for without holding it
+        if (pendingReply != null) {
+            waitForDispatchedResponseAndProcess(msgCtx, pendingReply, contentTypeProperty);
+        }
     }
 
     /**
      * Perform actual sending of the JMS message
+     * @return the reply to wait for through a shared reply listener, if any
      */
-    private void sendOverJMS(MessageContext msgCtx, JMSMessageSender messageSender,
+    private PendingReply sendOverJMS(MessageContext msgCtx, JMSMessageSender messageSender,
         String contentTypeProperty, JMSConnectionFactory jmsConnectionFactory,
         JMSOutTransportInfo jmsOut) throws AxisFault {
         
@@ -187,6 +214,7 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
         // should we wait for a synchronous response on this same thread?
         boolean waitForResponse = waitForSynchronousResponse(msgCtx);
         Destination replyDestination = jmsOut.getReplyDestination();
+        JMSReplyDispatcher replyDispatcher = null;
 
         // if this is a synchronous out-in, prepare to listen on the response destination
         if (waitForResponse) {
@@ -209,6 +237,14 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
                     replyDestination = jmsOut.getReplyDestination(replyDestName);
                 }
             }
+
+            // receive the reply through the listener shared by all requests of the JMS CF,
+            // rather than through a consumer created for this request alone
+            if (jmsConnectionFactory != null &&
+                jmsConnectionFactory.isReplyListenerEnabled(replyDestination == null)) {
+                replyDispatcher = jmsConnectionFactory.getReplyDispatcher(replyDestination);
+                replyDestination = replyDispatcher.getReplyDestination();
+            }
             replyDestination = JMSUtils.setReplyDestination(
                 replyDestination, messageSender.getSession(), message);
         }
@@ -230,15 +266,6 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
 
         // if we are expecting a synchronous response back for the message sent out
         if (waitForResponse) {
-            // TODO ********************************************************************************
-            // TODO **** replace with asynchronous polling via a poller task to process this *******
-            // information would be given. Then it should poll (until timeout) the
-            // requested destination for the response message and inject it from a
-            // asynchronous worker thread
-            try {
-                messageSender.getConnection().start();  // multiple calls are safely ignored
-            } catch (JMSException ignore) {}
-
             try {
                 String jmsCorrelationID = message.getJMSCorrelationID();
                 if (jmsCorrelationID != null && jmsCorrelationID.length() > 0) {
@@ -248,12 +275,26 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
                 }
             } catch(JMSException ignore) {}
 
+            if (replyDispatcher != null && correlationId != null) {
+                return new PendingReply(replyDispatcher, correlationId);
+            }
+
+            // TODO ********************************************************************************
+            // TODO **** replace with asynchronous polling via a poller task to process this *******
+            // information would be given. Then it should poll (until timeout) the
+            // requested destination for the response message and inject it from a
+            // asynchronous worker thread
+            try {
+                messageSender.getConnection().start();  // multiple calls are safely ignored
+            } catch (JMSException ignore) {}
+
             // We assume here that the response uses the same message property to
             // specify the content type of the message.
             waitForResponseAndProcess(messageSender.getSession(), replyDestination,
                 msgCtx, correlationId, contentTypeProperty);
             // TODO ********************************************************************************
         }
+        return null;
     }
 
     /**
@@ -277,11 +318,7 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
                 "JMSCorrelationID = '" + correlationId + "'");
 
             // how long are we willing to wait for the sync response
-            long timeout = JMSConstants.DEFAULT_JMS_TIMEOUT;
-            String waitReply = (String) msgCtx.getProperty(JMSConstants.JMS_WAIT_REPLY);
-            if (waitReply != null) {
-                timeout = Long.valueOf(waitReply).longValue();
-            }
+            long timeout = getReplyTimeout(msgCtx);
 
             if (log.isDebugEnabled()) {
                 log.debug("Waiting for a maximum of " + timeout +
@@ -290,37 +327,96 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
             }
 
             Message reply = consumer.receive(timeout);
+            processReply(msgCtx, reply, timeout, replyDestination, correlationId,
+                contentTypeProperty);
 
-            if (reply != null) {
+        } catch (JMSException e) {
+            metrics.incrementFaultsReceiving();
+            handleException("Error creating a consumer, or receiving a synchronous reply " +
+                "for outgoing MessageContext ID : " + msgCtx.getMessageID() +
+                " and reply Destination : " + replyDestination, e);
+        }
+    }
 
-                // update transport level metrics
-                metrics.incrementMessagesReceived();                
-                try {
-                    metrics.incrementBytesReceived(JMSUtils.getMessageSize(reply));
-                } catch (JMSException e) {
-                    log.warn("Error reading JMS message size to update transport metrics", e);
-                }
+    /**
+     * Wait for the response JMS message to be handed over by the shared reply listener of the
+     * JMS CF. If a message arrives within the specified time interval, process it through Axis2
+     * @param msgCtx the outgoing message for which we are expecting the response
+     * @param pendingReply the reply listener and the JMS correlation ID of the response
+     * @param contentTypeProperty the message property used to determine the content type
+     *                            of the response message
+     * @throws AxisFault on error
+     */
+    private void waitForDispatchedResponseAndProcess(MessageContext msgCtx,
+            PendingReply pendingReply, String contentTypeProperty) throws AxisFault {
 
-                try {
-                    processSyncResponse(msgCtx, reply, contentTypeProperty);
-                    metrics.incrementMessagesReceived();
-                } catch (AxisFault e) {
-                    metrics.incrementFaultsReceiving();
-                    throw e;
-                }
+        long timeout = getReplyTimeout(msgCtx);
+        Destination replyDestination = pendingReply.dispatcher.getReplyDestination();
 
-            } else {
-                log.warn("Did not receive a JMS response within " +
-                    timeout + " ms to destination : " + replyDestination +
-                    " with JMS correlation ID : " + correlationId);
-                metrics.incrementTimeoutsReceiving();
-            }
+        if (log.isDebugEnabled()) {
+            log.debug("Waiting for a maximum of " + timeout +
+                "ms for a dispatched response message to destination : " + replyDestination +
+                " with JMS correlation ID : " + pendingReply.correlationId);
+        }
+
+        try {
+            Message reply = pendingReply.dispatcher.waitForReply(
+                pendingReply.correlationId, timeout);
+            processReply(msgCtx, reply, timeout, replyDestination, pendingReply.correlationId,
+                contentTypeProperty);
 
         } catch (JMSException e) {
             metrics.incrementFaultsReceiving();
-            handleException("Error creating a consumer, or receiving a synchronous reply " +
-                "for outgoing MessageContext ID : " + msgCtx.getMessageID() +
-                " and reply Destination : " + replyDestination, e);
+            handleException("Error receiving a synchronous reply for outgoing MessageContext " +
+                "ID : " + msgCtx.getMessageID() + " and reply Destination : " +
+                replyDestination, e);
+        }
+    }
+
+    /**
+     * Return how long we are willing to wait for the sync response
+     * @param msgCtx the outgoing message for which we are expecting the response
+     * @return the timeout in milliseconds
+     */
+    private long getReplyTimeout(MessageContext msgCtx) {
+        String waitReply = (String) msgCtx.getProperty(JMSConstants.JMS_WAIT_REPLY);
+        if (waitReply != null) {
+            return Long.valueOf(waitReply).longValue();
+        }
+        return JMSConstants.DEFAULT_JMS_TIMEOUT;
+    }
+
+    /**
+     * Process the response JMS message received for an outgoing message through Axis2, or
+     * record the timeout if none was received
+     */
+    private void processReply(MessageContext msgCtx, Message reply, long timeout,
+            Destination replyDestination, String correlationId,
+            String contentTypeProperty) throws AxisFault {
+
+        if (reply != null) {
+
+            // update transport level metrics
+            metrics.incrementMessagesReceived();                
+            try {
+                metrics.incrementBytesReceived(JMSUtils.getMessageSize(reply));
+            } catch (JMSException e) {
+                log.warn("Error reading JMS message size to update transport metrics", e);
+            }
+
+            try {
+                processSyncResponse(msgCtx, reply, contentTypeProperty);
+                metrics.incrementMessagesReceived();
+            } catch (AxisFault e) {
+                metrics.incrementFaultsReceiving();
+                throw e;
+            }
+
+        } else {
+            log.warn("Did not receive a JMS response within " +
+                timeout + " ms to destination : " + replyDestination +
+                " with JMS correlation ID : " + correlationId);
+            metrics.incrementTimeoutsReceiving();
         }
     }
 
@@ -515,4 +611,15 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
     private String getProperty(MessageContext mc, String key) {
         return (String) mc.getProperty(key);
     }
+
+    /** A reply to be handed over by the shared reply listener of a JMS CF */
+    private static final class PendingReply {
+        private final JMSReplyDispatcher dispatcher;
+        private final String correlationId;
+
+        private PendingReply(JMSReplyDispatcher dispatcher, String correlationId) {
+            this.dispatcher = dispatcher;
+            this.correlationId = correlationId;
+        }
+    }
 }
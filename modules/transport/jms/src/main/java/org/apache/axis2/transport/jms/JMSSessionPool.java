@@ -0,0 +1,379 @@
+/*
+* Copyright 2004,2005 The Apache Software Foundation.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*      http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.axis2.transport.jms;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import jakarta.jms.Connection;
+import jakarta.jms.Destination;
+import jakarta.jms.ExceptionListener;
+import jakarta.jms.JMSException;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Session;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of Sessions on the shared Connection of a JMS CF, used when sending at the
+ * session or producer cache levels. As a JMS Session must only be used by one thread at a time,
+ * each sender leases a Session of its own for the duration of a send, and returns it afterwards.
+ * At the producer cache level, each pooled Session also keeps a MessageProducer per Destination.
+ *
+ * Sessions are created on demand up to the maximum pool size; further senders wait for a Session
+ * to be returned. Sessions left idle for longer than the idle timeout are closed. If the shared
+ * Connection fails, the pooled Sessions on it are discarded, and new Sessions are created on a
+ * new Connection.
+ */
+public class JMSSessionPool implements ExceptionListener {
+
+    private static final Log log = LogFactory.getLog(JMSSessionPool.class);
+
+    /** The JMS CF the pooled Sessions belong to */
+    private final JMSConnectionFactory jmsConnectionFactory;
+    /** The maximum number of Sessions, leased or idle */
+    private final int maxSize;
+    /** The number of milliseconds an idle Session is kept before it is closed */
+    private final long idleTimeout;
+    /** Should a MessageProducer per Destination be kept with each Session? */
+    private final boolean cacheProducers;
+
+    /** One permit for each Session that may be leased */
+    private final Semaphore permits;
+    /** The idle Sessions, the most recently returned first */
+    private final LinkedBlockingDeque<PooledSession> idleSessions =
+        new LinkedBlockingDeque<PooledSession>();
+    /** The Connection this pool last registered as ExceptionListener with */
+    private Connection monitoredConnection = null;
+
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final AtomicLong leaseCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong discardedCount = new AtomicLong();
+
+    private volatile boolean closed = false;
+
+    /**
+     * Create a Session pool for a JMS CF
+     * @param jmsConnectionFactory the JMS CF to create Connections, Sessions and Producers with
+     * @param maxSize the maximum number of Sessions
+     * @param idleTimeout milliseconds after which an idle Session is closed
+     * @param cacheProducers keep a MessageProducer per Destination with each Session?
+     */
+    JMSSessionPool(JMSConnectionFactory jmsConnectionFactory, int maxSize, long idleTimeout,
+        boolean cacheProducers) {
+
+        this.jmsConnectionFactory = jmsConnectionFactory;
+        this.maxSize = maxSize;
+        this.idleTimeout = idleTimeout;
+        this.cacheProducers = cacheProducers;
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    /**
+     * Lease a Session, waiting for one to be returned if all are in use
+     * @return the leased Session, which must be returned through {@link PooledSession#release()}
+     */
+    public PooledSession borrow() {
+        try {
+            if (!permits.tryAcquire(JMSConstants.DEFAULT_JMS_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                throw new AxisJMSException("Timed out waiting for one of " + maxSize +
+                    " pooled JMS Sessions of JMS CF : " + jmsConnectionFactory.getName());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AxisJMSException("Interrupted while waiting for a pooled JMS Session " +
+                "of JMS CF : " + jmsConnectionFactory.getName(), e);
+        }
+
+        try {
+            if (closed) {
+                throw new AxisJMSException("The JMS Session pool of JMS CF : " +
+                    jmsConnectionFactory.getName() + " is closed");
+            }
+            Connection connection = getConnection();
+            evictIdleSessions();
+
+            PooledSession pooledSession;
+            while ((pooledSession = idleSessions.pollFirst()) != null) {
+                if (pooledSession.connection == connection) {
+                    break;
+                }
+                // created on a Connection that has since failed
+                discard(pooledSession);
+            }
+            if (pooledSession == null) {
+                pooledSession = new PooledSession(
+                    connection, jmsConnectionFactory.createSession(connection));
+                createdCount.incrementAndGet();
+            }
+
+            activeCount.incrementAndGet();
+            leaseCount.incrementAndGet();
+            return pooledSession;
+
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Return the shared Connection of the JMS CF, monitoring it for failures
+     */
+    private Connection getConnection() {
+        Connection connection = jmsConnectionFactory.getConnection();
+        synchronized (this) {
+            if (connection != monitoredConnection) {
+                try {
+                    connection.setExceptionListener(this);
+                } catch (JMSException e) {
+                    // e.g. not permitted within a Java EE container
+                    if (log.isDebugEnabled()) {
+                        log.debug("Unable to monitor the shared connection of JMS CF : " +
+                            jmsConnectionFactory.getName() + " for failures", e);
+                    }
+                }
+                monitoredConnection = connection;
+            }
+        }
+        return connection;
+    }
+
+    private void release(PooledSession pooledSession) {
+        activeCount.decrementAndGet();
+        try {
+            if (pooledSession.valid && !closed) {
+                pooledSession.lastUsed = System.currentTimeMillis();
+                idleSessions.offerFirst(pooledSession);
+            } else {
+                discard(pooledSession);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Close the Sessions that have been idle for longer than the idle timeout. As Sessions are
+     * returned to the head of the queue, the ones idle the longest are at its tail
+     */
+    private void evictIdleSessions() {
+        long now = System.currentTimeMillis();
+        Iterator<PooledSession> it = idleSessions.descendingIterator();
+        while (it.hasNext()) {
+            PooledSession pooledSession = it.next();
+            if (now - pooledSession.lastUsed < idleTimeout) {
+                break;
+            }
+            if (idleSessions.remove(pooledSession)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Closing idle pooled JMS Session of JMS CF : " +
+                        jmsConnectionFactory.getName());
+                }
+                discard(pooledSession);
+            }
+        }
+    }
+
+    private void discard(PooledSession pooledSession) {
+        discardedCount.incrementAndGet();
+        pooledSession.close();
+    }
+
+    /**
+     * Discard the pooled Sessions when the shared Connection fails. Sessions leased at the time
+     * are discarded when they are returned, and the JMS CF creates a new Connection on next use
+     * @param e the Connection failure
+     */
+    public void onException(JMSException e) {
+        Connection failed;
+        synchronized (this) {
+            failed = monitoredConnection;
+            monitoredConnection = null;
+        }
+        log.warn("Shared connection of JMS CF : " + jmsConnectionFactory.getName() +
+            " failed, discarding pooled JMS Sessions", e);
+
+        PooledSession pooledSession;
+        while ((pooledSession = idleSessions.pollFirst()) != null) {
+            discard(pooledSession);
+        }
+        if (failed != null) {
+            jmsConnectionFactory.resetSharedConnection(failed);
+        }
+    }
+
+    /**
+     * Close the idle Sessions, and any leased Session once it is returned
+     */
+    public void close() {
+        closed = true;
+        PooledSession pooledSession;
+        while ((pooledSession = idleSessions.pollFirst()) != null) {
+            discard(pooledSession);
+        }
+    }
+
+    /**
+     * Return the maximum number of Sessions in this pool
+     * @return the maximum pool size
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Return the number of Sessions currently leased
+     * @return the number of leased Sessions
+     */
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    /**
+     * Return the number of Sessions available for lease
+     * @return the number of idle Sessions
+     */
+    public int getIdleCount() {
+        return idleSessions.size();
+    }
+
+    /**
+     * Return the number of senders waiting for a Session to be returned
+     * @return the number of waiting senders
+     */
+    public int getWaitingCount() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * Return the number of times a Session was leased
+     * @return the number of leases
+     */
+    public long getLeaseCount() {
+        return leaseCount.get();
+    }
+
+    /**
+     * Return the number of Sessions created by this pool
+     * @return the number of created Sessions
+     */
+    public long getCreatedCount() {
+        return createdCount.get();
+    }
+
+    /**
+     * Return the number of Sessions closed by this pool, as they were idle, or failed
+     * @return the number of discarded Sessions
+     */
+    public long getDiscardedCount() {
+        return discardedCount.get();
+    }
+
+    /**
+     * A Session leased from the pool, together with the MessageProducers created on it
+     */
+    public class PooledSession {
+
+        /** The Connection the Session was created on */
+        private final Connection connection;
+        /** The pooled Session */
+        private final Session session;
+        /** The cached producers of this Session, keyed by Destination */
+        private final Map<Destination, MessageProducer> producers =
+            new HashMap<Destination, MessageProducer>();
+        /** A producer created for a single send, closed when the Session is returned */
+        private MessageProducer transientProducer = null;
+        /** The time this Session was last returned to the pool */
+        private long lastUsed;
+        /** Can this Session be returned to the pool for reuse? */
+        private boolean valid = true;
+
+        private PooledSession(Connection connection, Session session) {
+            this.connection = connection;
+            this.session = session;
+        }
+
+        public Connection getConnection() {
+            return connection;
+        }
+
+        public Session getSession() {
+            return session;
+        }
+
+        /**
+         * Return a MessageProducer for the given Destination on this Session
+         * @param destination the Destination to bind the producer to
+         * @return a cached producer at the producer cache level, or a producer that is closed
+         *         when this Session is returned otherwise
+         */
+        public MessageProducer getProducer(Destination destination) {
+            if (!cacheProducers) {
+                transientProducer = jmsConnectionFactory.createProducer(session, destination);
+                return transientProducer;
+            }
+            MessageProducer producer = producers.get(destination);
+            if (producer == null) {
+                producer = jmsConnectionFactory.createProducer(session, destination);
+                producers.put(destination, producer);
+            }
+            return producer;
+        }
+
+        /**
+         * Prevent this Session from being reused, e.g. after an error while sending on it
+         */
+        public void invalidate() {
+            valid = false;
+        }
+
+        /**
+         * Return this Session to the pool
+         */
+        public void release() {
+            if (transientProducer != null) {
+                try {
+                    transientProducer.close();
+                } catch (JMSException e) {
+                    log.error("Error closing JMS MessageProducer after send", e);
+                    valid = false;
+                }
+                transientProducer = null;
+            }
+            JMSSessionPool.this.release(this);
+        }
+
+        private void close() {
+            try {
+                // closing the session closes its producers
+                session.close();
+            } catch (JMSException e) {
+                log.warn("Error closing pooled JMS Session of JMS CF : " +
+                    jmsConnectionFactory.getName(), e);
+            }
+            producers.clear();
+        }
+    }
+}
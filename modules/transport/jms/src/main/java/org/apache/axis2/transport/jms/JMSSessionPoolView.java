@@ -0,0 +1,52 @@
+/*
+* Copyright 2004,2005 The Apache Software Foundation.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*      http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.axis2.transport.jms;
+
+public class JMSSessionPoolView implements JMSSessionPoolViewMBean {
+    private final JMSSessionPool sessionPool;
+
+    public JMSSessionPoolView(JMSSessionPool sessionPool) {
+        this.sessionPool = sessionPool;
+    }
+
+    public int getMaxSize() {
+        return sessionPool.getMaxSize();
+    }
+
+    public int getActiveCount() {
+        return sessionPool.getActiveCount();
+    }
+
+    public int getIdleCount() {
+        return sessionPool.getIdleCount();
+    }
+
+    public int getWaitingCount() {
+        return sessionPool.getWaitingCount();
+    }
+
+    public long getLeaseCount() {
+        return sessionPool.getLeaseCount();
+    }
+
+    public long getCreatedCount() {
+        return sessionPool.getCreatedCount();
+    }
+
+    public long getDiscardedCount() {
+        return sessionPool.getDiscardedCount();
+    }
+}
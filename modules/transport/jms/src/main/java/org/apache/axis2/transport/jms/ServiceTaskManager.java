@@ -58,6 +58,10 @@ import java.util.concurrent.atomic.AtomicInteger;
  * Since the ExceptionListener is notified by a JMS provider on a "serious" error, we simply try
  * to re-connect. Thus a connection failure for a single task, will re-initialize the state afresh
  * for the service, by discarding all connections. 
+ *
+ * With transacted Sessions or client acknowledgement, tasks may drain a batch of messages per
+ * receipt and commit or acknowledge the batch once. Further tasks are started while the
+ * destination shows a backlog, and idle tasks stop after the idle task execution limit.
  */
 public class ServiceTaskManager {
 
@@ -113,6 +117,13 @@ public class ServiceTaskManager {
     private int maxMessagesPerTask = -1;    // default is unlimited
     /** The default receive timeout - a negative value means wait forever, zero dont wait at all */
     private int receiveTimeout = 1000;
+    /** The maximum number of messages received and then committed or acknowledged together */
+    private int batchSize = 1;
+    /**
+     * The time in ms a message may wait at the provider before another task is started to help
+     * drain the destination. Zero or less starts another task whenever no task is idle
+     */
+    private int scaleUpLatency = -1;
     /** JMS Resource cache level - Connection, Session, Consumer. Auto will select safe default */
     private int cacheLevel = JMSConstants.CACHE_AUTO;
     /** Should we cache the UserTransaction handle from JNDI - true for almost all app servers */
@@ -205,6 +216,11 @@ public class ServiceTaskManager {
             }
         }
 
+        if (batchSize > 1 && !isBatchReceive()) {
+            log.warn("Batch size : " + batchSize + " of service : " + serviceName + " is ignored, " +
+                "as batches require a transacted Session or CLIENT_ACKNOWLEDGE, without JTA");
+        }
+
         for (int i=0; i<concurrentConsumers; i++) {
             workerPool.execute(new MessageListenerTask());
         }
@@ -306,6 +322,37 @@ public class ServiceTaskManager {
         }
     }
 
+    /**
+     * Should messages be received in batches? Batches only reduce the number of commits or
+     * acknowledgements, and a failed message must cause the whole batch to be redelivered
+     * @return true if messages should be received, and committed or acknowledged, in batches
+     */
+    private boolean isBatchReceive() {
+        return batchSize > 1 && transactionality != BaseConstants.TRANSACTION_JTA &&
+            (isSessionTransacted() || getSessionAckMode() == Session.CLIENT_ACKNOWLEDGE);
+    }
+
+    /**
+     * Is there a backlog of messages at the destination, that another task should help drain?
+     * Without a scale up latency, any receipt while no task is idle is taken as backlog.
+     * Otherwise, a full batch, or a message that waited at the provider for longer than the
+     * scale up latency, indicate a backlog
+     * @param message the message received first
+     * @param batchCount the number of messages received together with it
+     * @return true if a new task should be started, if the maximum is not yet reached
+     */
+    private boolean isBacklogged(Message message, int batchCount) {
+        if (scaleUpLatency <= 0 || (batchSize > 1 && batchCount >= batchSize)) {
+            return true;
+        }
+        try {
+            long timestamp = message.getJMSTimestamp();
+            return timestamp > 0 && System.currentTimeMillis() - timestamp >= scaleUpLatency;
+        } catch (JMSException e) {
+            return false;
+        }
+    }
+
     /**
      * Get the number of MessageListenerTasks that are currently idle
      * @return idle task count
@@ -442,10 +489,24 @@ public class ServiceTaskManager {
                     if (message != null) {
                         idle = false;
                         idleExecutionCount = 0;
-                        messageCount++;
+
+                        List<Message> batch = null;
+                        if (isBatchReceive()) {
+                            batch = receiveBatch(message, getMaxMessagesPerTask() < 0 ?
+                                batchSize : Math.min(batchSize, getMaxMessagesPerTask() - messageCount));
+                        }
                         // I will be busy now while processing this message, so start another if needed
-                        scheduleNewTaskIfAppropriate();
-                        handleMessage(message, ut);
+                        if (isBacklogged(message, batch == null ? 1 : batch.size())) {
+                            scheduleNewTaskIfAppropriate();
+                        }
+
+                        if (batch == null) {
+                            messageCount++;
+                            handleMessage(message, ut);
+                        } else {
+                            messageCount += batch.size();
+                            handleBatch(batch, ut);
+                        }
 
                     } else {
                         idle = true;
@@ -527,6 +588,88 @@ public class ServiceTaskManager {
             return null;
         }
 
+        /**
+         * Drain the messages already available at the consumer, to be processed together with
+         * the message received first
+         * @param first the message received first
+         * @param maxMessages the maximum number of messages in the batch
+         * @return the batch of messages, starting with the one received first
+         */
+        private List<Message> receiveBatch(Message first, int maxMessages) {
+            List<Message> batch = new ArrayList<Message>(maxMessages);
+            batch.add(first);
+            try {
+                while (batch.size() < maxMessages) {
+                    Message message = consumer.receiveNoWait();
+                    if (message == null) {
+                        break;
+                    }
+                    batch.add(message);
+                }
+            } catch (JMSException e) {
+                logError("Error receiving message batch for service : " + serviceName, e);
+            }
+
+            if (log.isDebugEnabled()) {
+                log.debug("Received a batch of " + batch.size() + " messages for service : " +
+                    serviceName);
+            }
+            return batch;
+        }
+
+        /**
+         * Invoke ultimate message handler/listener for each message of a batch, and commit or
+         * acknowledge the batch once. Processing stops at the first message that is not to be
+         * committed; the whole batch is then rolled back, or recovered, to be redelivered
+         * @param batch the JMS messages received together
+         * @param ut the UserTransaction used to receive the messages, or null
+         */
+        private void handleBatch(List<Message> batch, UserTransaction ut) {
+
+            boolean commitOrAck = true;
+            try {
+                for (Message message : batch) {
+                    if (!jmsMessageReceiver.onMessage(message, ut)) {
+                        commitOrAck = false;
+                        break;
+                    }
+                }
+
+            } catch (RuntimeException e) {
+                commitOrAck = false;
+                throw e;
+
+            } finally {
+
+                String batchId = "batch of " + batch.size() + " messages";
+                if (getSessionAckMode() == Session.CLIENT_ACKNOWLEDGE) {
+                    try {
+                        if (commitOrAck) {
+                            // acknowledges all messages received by the session
+                            batch.get(batch.size() - 1).acknowledge();
+                            if (log.isDebugEnabled()) {
+                                log.debug("Message " + batchId + " acknowledged");
+                            }
+                        } else if (!session.getTransacted()) {
+                            session.recover();
+                            if (log.isDebugEnabled()) {
+                                log.debug("Session for message " + batchId + " recovered");
+                            }
+                        }
+                    } catch (JMSException e) {
+                        logError("Error " + (commitOrAck ? "acknowledging" : "recovering") +
+                            " message " + batchId, e);
+                    }
+                }
+
+                endTransaction(commitOrAck, batchId, ut);
+
+                closeConsumer(false);
+                closeSession(false);
+                closeConnection();
+            }
+        }
+
         /**
          * Invoke ultimate message handler/listener and ack message and/or
          * commit/rollback transactions
@@ -558,51 +701,62 @@ public class ServiceTaskManager {
                     }
                 }
 
-                // if session was transacted, commit it or rollback
-                try {
-                    if (session.getTransacted()) {
-                        if (commitOrAck) {
-                            session.commit();
-                            if (log.isDebugEnabled()) {
-                                log.debug("Session for message : " + messageId + " committed");
-                            }
-                        } else {
-                            session.rollback();
-                            if (log.isDebugEnabled()) {
-                                log.debug("Session for message : " + messageId + " rolled back");
-                            }
+                endTransaction(commitOrAck, messageId, ut);
+
+                // close the consumer
+                closeConsumer(false);
+
+                closeSession(false);
+                closeConnection();
+            }
+        }
+
+        /**
+         * Commit or rollback the local session transaction and/or JTA transaction, if any
+         * @param commitOrAck true to commit, false to rollback
+         * @param messageId the message(s) received within the transaction, for logging
+         * @param ut the UserTransaction used to receive the message(s), or null
+         */
+        private void endTransaction(boolean commitOrAck, String messageId, UserTransaction ut) {
+
+            // if session was transacted, commit it or rollback
+            try {
+                if (session.getTransacted()) {
+                    if (commitOrAck) {
+                        session.commit();
+                        if (log.isDebugEnabled()) {
+                            log.debug("Session for message : " + messageId + " committed");
+                        }
+                    } else {
+                        session.rollback();
+                        if (log.isDebugEnabled()) {
+                            log.debug("Session for message : " + messageId + " rolled back");
                         }
                     }
-                } catch (JMSException e) {
-                    logError("Error " + (commitOrAck ? "committing" : "rolling back") +
-                        " local session txn for message : " + messageId, e);
                 }
+            } catch (JMSException e) {
+                logError("Error " + (commitOrAck ? "committing" : "rolling back") +
+                    " local session txn for message : " + messageId, e);
+            }
 
-                // if a JTA transaction was being used, commit it or rollback
-                try {
-                    if (ut != null) {
-                        if (commitOrAck) {
-                            ut.commit();
-                            if (log.isDebugEnabled()) {
-                                log.debug("JTA txn for message : " + messageId + " committed");
-                            }
-                        } else {
-                            ut.rollback();
-                            if (log.isDebugEnabled()) {
-                                log.debug("JTA txn for message : " + messageId + " rolled back");
-                            }
+            // if a JTA transaction was being used, commit it or rollback
+            try {
+                if (ut != null) {
+                    if (commitOrAck) {
+                        ut.commit();
+                        if (log.isDebugEnabled()) {
+                            log.debug("JTA txn for message : " + messageId + " committed");
+                        }
+                    } else {
+                        ut.rollback();
+                        if (log.isDebugEnabled()) {
+                            log.debug("JTA txn for message : " + messageId + " rolled back");
                         }
                     }
-                } catch (Exception e) {
-                    logError("Error " + (commitOrAck ? "committing" : "rolling back") +
-                        " JTA txn for message : " + messageId + " from the session", e);
                 }
-
-                // close the consumer
-                closeConsumer(false);
-
-                closeSession(false);
-                closeConnection();
+            } catch (Exception e) {
+                logError("Error " + (commitOrAck ? "committing" : "rolling back") +
+                    " JTA txn for message : " + messageId + " from the session", e);
             }
         }
 
@@ -1143,6 +1297,22 @@ public class ServiceTaskManager {
         this.receiveTimeout = receiveTimeout;
     }
 
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getScaleUpLatency() {
+        return scaleUpLatency;
+    }
+
+    public void setScaleUpLatency(int scaleUpLatency) {
+        this.scaleUpLatency = scaleUpLatency;
+    }
+
     public int getCacheLevel() {
         return cacheLevel;
     }
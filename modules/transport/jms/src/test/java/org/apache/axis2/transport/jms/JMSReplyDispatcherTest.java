@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.transport.jms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import jakarta.jms.Connection;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.Queue;
+import jakarta.jms.Session;
+import jakarta.jms.TemporaryTopic;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class JMSReplyDispatcherTest {
+    private Connection connection;
+    private Session session;
+    private MessageConsumer consumer;
+
+    @Before
+    public void setUp() throws Exception {
+        connection = mock(Connection.class);
+        session = mock(Session.class);
+        consumer = mock(MessageConsumer.class);
+        when(connection.createSession(false, Session.AUTO_ACKNOWLEDGE)).thenReturn(session);
+    }
+
+    private JMSReplyDispatcher createDispatcher(Queue replyQueue) throws JMSException {
+        when(session.createConsumer(replyQueue, null)).thenReturn(consumer);
+        return new JMSReplyDispatcher("test", connection, replyQueue, true, null);
+    }
+
+    private static Message reply(String correlationId) throws JMSException {
+        Message message = mock(Message.class);
+        when(message.getJMSCorrelationID()).thenReturn(correlationId);
+        return message;
+    }
+
+    @Test
+    public void testDispatchToWaitingCaller() throws Exception {
+        JMSReplyDispatcher dispatcher = createDispatcher(mock(Queue.class));
+        verify(consumer).setMessageListener(dispatcher);
+        verify(connection).start();
+
+        CompletableFuture<Message> future1 = dispatcher.getReply("id1", 60000);
+        CompletableFuture<Message> future2 = dispatcher.getReply("id2", 60000);
+        assertThat(dispatcher.getPendingReplyCount()).isEqualTo(2);
+
+        Message reply2 = reply("id2");
+        dispatcher.onMessage(reply2);
+        assertThat(future2.get()).isSameAs(reply2);
+        assertThat(future1.isDone()).isFalse();
+        assertThat(dispatcher.getPendingReplyCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testReplyBeforeRegistration() throws Exception {
+        JMSReplyDispatcher dispatcher = createDispatcher(mock(Queue.class));
+        Message reply = reply("id");
+        dispatcher.onMessage(reply);
+        assertThat(dispatcher.waitForReply("id", 1000)).isSameAs(reply);
+        assertThat(dispatcher.getPendingReplyCount()).isZero();
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        JMSReplyDispatcher dispatcher = createDispatcher(mock(Queue.class));
+        assertThat(dispatcher.waitForReply("id", 10)).isNull();
+        CompletableFuture<Message> future = dispatcher.getReply("id", 10);
+        try {
+            future.get();
+            fail("Expected ExecutionException");
+        } catch (ExecutionException ex) {
+            assertThat(ex.getCause()).isInstanceOf(TimeoutException.class);
+        }
+        assertThat(dispatcher.getPendingReplyCount()).isZero();
+    }
+
+    @Test
+    public void testCloseFailsWaitingCallers() throws Exception {
+        JMSReplyDispatcher dispatcher = createDispatcher(mock(Queue.class));
+        CompletableFuture<Message> future = dispatcher.getReply("id", 60000);
+        dispatcher.close();
+        assertThat(dispatcher.isActive()).isFalse();
+        verify(connection).close();
+        try {
+            future.get();
+            fail("Expected ExecutionException");
+        } catch (ExecutionException ex) {
+            assertThat(ex.getCause()).isInstanceOf(JMSException.class);
+        }
+    }
+
+    @Test
+    public void testTemporaryReplyDestination() throws Exception {
+        TemporaryTopic temporaryTopic = mock(TemporaryTopic.class);
+        when(session.createTemporaryTopic()).thenReturn(temporaryTopic);
+        when(session.createConsumer(temporaryTopic, null)).thenReturn(consumer);
+        JMSReplyDispatcher dispatcher = new JMSReplyDispatcher("test", connection, null, true, null);
+        assertThat(dispatcher.getReplyDestination()).isSameAs(temporaryTopic);
+        verify(consumer).setMessageListener(dispatcher);
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.transport.jms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.lang.management.ManagementFactory;
+
+import jakarta.jms.Connection;
+import jakarta.jms.JMSException;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Queue;
+import jakarta.jms.Session;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class JMSSessionPoolTest {
+    private JMSConnectionFactory jmsConnectionFactory;
+    private Connection connection;
+
+    @Before
+    public void setUp() throws Exception {
+        jmsConnectionFactory = mock(JMSConnectionFactory.class);
+        connection = mock(Connection.class);
+        when(jmsConnectionFactory.getName()).thenReturn("test");
+        when(jmsConnectionFactory.getConnection()).thenReturn(connection);
+        when(jmsConnectionFactory.createSession(connection)).thenAnswer(
+                invocation -> mock(Session.class));
+        when(jmsConnectionFactory.createProducer(
+                any(Session.class), any(Queue.class))).thenAnswer(
+                invocation -> mock(MessageProducer.class));
+    }
+
+    @Test
+    public void testSessionReuse() throws Exception {
+        JMSSessionPool pool = new JMSSessionPool(jmsConnectionFactory, 2, 60000, true);
+        verify(connection, times(0)).setExceptionListener(pool);
+
+        JMSSessionPool.PooledSession first = pool.borrow();
+        JMSSessionPool.PooledSession second = pool.borrow();
+        assertThat(second.getSession()).isNotSameAs(first.getSession());
+        assertThat(pool.getActiveCount()).isEqualTo(2);
+        verify(connection).setExceptionListener(pool);
+
+        first.release();
+        assertThat(pool.getActiveCount()).isEqualTo(1);
+        assertThat(pool.getIdleCount()).isEqualTo(1);
+        assertThat(pool.borrow()).isSameAs(first);
+        assertThat(pool.getCreatedCount()).isEqualTo(2);
+        assertThat(pool.getLeaseCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void testCachedProducers() throws Exception {
+        JMSSessionPool pool = new JMSSessionPool(jmsConnectionFactory, 1, 60000, true);
+        Queue queue1 = mock(Queue.class);
+        Queue queue2 = mock(Queue.class);
+        JMSSessionPool.PooledSession pooledSession = pool.borrow();
+        MessageProducer producer1 = pooledSession.getProducer(queue1);
+        assertThat(pooledSession.getProducer(queue2)).isNotSameAs(producer1);
+        pooledSession.release();
+        assertThat(pool.borrow().getProducer(queue1)).isSameAs(producer1);
+        verify(producer1, times(0)).close();
+    }
+
+    @Test
+    public void testTransientProducers() throws Exception {
+        JMSSessionPool pool = new JMSSessionPool(jmsConnectionFactory, 1, 60000, false);
+        Queue queue = mock(Queue.class);
+        JMSSessionPool.PooledSession pooledSession = pool.borrow();
+        MessageProducer producer = pooledSession.getProducer(queue);
+        pooledSession.release();
+        verify(producer).close();
+        assertThat(pool.borrow().getProducer(queue)).isNotSameAs(producer);
+    }
+
+    @Test
+    public void testIdleEviction() throws Exception {
+        JMSSessionPool pool = new JMSSessionPool(jmsConnectionFactory, 1, 1, true);
+        JMSSessionPool.PooledSession pooledSession = pool.borrow();
+        Session session = pooledSession.getSession();
+        pooledSession.release();
+        Thread.sleep(10);
+        assertThat(pool.borrow().getSession()).isNotSameAs(session);
+        verify(session).close();
+        assertThat(pool.getDiscardedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testInvalidatedSessionIsDiscarded() throws Exception {
+        JMSSessionPool pool = new JMSSessionPool(jmsConnectionFactory, 1, 60000, true);
+        JMSSessionPool.PooledSession pooledSession = pool.borrow();
+        pooledSession.invalidate();
+        pooledSession.release();
+        verify(pooledSession.getSession()).close();
+        assertThat(pool.getIdleCount()).isZero();
+        assertThat(pool.getActiveCount()).isZero();
+    }
+
+    @Test
+    public void testView() throws Exception {
+        JMSSessionPool pool = new JMSSessionPool(jmsConnectionFactory, 2, 60000, true);
+        pool.borrow();
+        pool.borrow().release();
+        MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("org.apache.axis2:Type=Test,Name=JMSSessionPoolTest");
+        mbs.registerMBean(new JMSSessionPoolView(pool), name);
+        try {
+            assertThat(mbs.getAttribute(name, "MaxSize")).isEqualTo(2);
+            assertThat(mbs.getAttribute(name, "ActiveCount")).isEqualTo(1);
+            assertThat(mbs.getAttribute(name, "IdleCount")).isEqualTo(1);
+            assertThat(mbs.getAttribute(name, "WaitingCount")).isEqualTo(0);
+            assertThat(mbs.getAttribute(name, "LeaseCount")).isEqualTo(2L);
+            assertThat(mbs.getAttribute(name, "CreatedCount")).isEqualTo(2L);
+            assertThat(mbs.getAttribute(name, "DiscardedCount")).isEqualTo(0L);
+        } finally {
+            mbs.unregisterMBean(name);
+        }
+    }
+
+    @Test
+    public void testConnectionFailure() throws Exception {
+        JMSSessionPool pool = new JMSSessionPool(jmsConnectionFactory, 2, 60000, true);
+        JMSSessionPool.PooledSession idle = pool.borrow();
+        JMSSessionPool.PooledSession leased = pool.borrow();
+        idle.release();
+
+        Connection newConnection = mock(Connection.class);
+        when(jmsConnectionFactory.getConnection()).thenReturn(newConnection);
+        when(jmsConnectionFactory.createSession(newConnection)).thenAnswer(
+                invocation -> mock(Session.class));
+        pool.onException(new JMSException("test"));
+        verify(jmsConnectionFactory).resetSharedConnection(connection);
+        verify(idle.getSession()).close();
+        assertThat(pool.getIdleCount()).isZero();
+
+        // a session leased on the failed connection is not reused
+        leased.release();
+        JMSSessionPool.PooledSession pooledSession = pool.borrow();
+        assertThat(pooledSession.getConnection()).isSameAs(newConnection);
+        verify(leased.getSession()).close();
+        verify(newConnection).setExceptionListener(pool);
+    }
+}
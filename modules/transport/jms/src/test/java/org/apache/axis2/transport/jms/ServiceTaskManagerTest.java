@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.transport.jms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.jms.Connection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.Destination;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.Queue;
+import jakarta.jms.Session;
+import javax.naming.Context;
+import javax.naming.spi.InitialContextFactory;
+
+import org.apache.axis2.transport.base.threads.WorkerPool;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ServiceTaskManagerTest {
+    /**
+     * Serves the mocked JNDI context to the {@link ServiceTaskManager}.
+     */
+    public static class MockInitialContextFactory implements InitialContextFactory {
+        static Context context;
+
+        public Context getInitialContext(Hashtable<?,?> environment) {
+            return context;
+        }
+    }
+
+    private Session session;
+    private MessageConsumer consumer;
+    private JMSMessageReceiver receiver;
+    private final List<Runnable> tasks = new ArrayList<Runnable>();
+    /** The number of tasks submitted to the worker pool when each message was processed */
+    private final List<Integer> tasksAtProcessing = new ArrayList<Integer>();
+    private ServiceTaskManager stm;
+
+    @Before
+    public void setUp() throws Exception {
+        ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+        Connection connection = mock(Connection.class);
+        session = mock(Session.class);
+        consumer = mock(MessageConsumer.class);
+        Context context = mock(Context.class);
+        when(context.lookup("ConnectionFactory")).thenReturn(connectionFactory);
+        when(context.lookup("TestQueue")).thenReturn(mock(Queue.class));
+        when(connectionFactory.createConnection()).thenReturn(connection);
+        when(connection.createSession(anyBoolean(), anyInt())).thenReturn(session);
+        when(session.createConsumer(any(Destination.class), any(), anyBoolean()))
+                .thenReturn(consumer);
+        MockInitialContextFactory.context = context;
+
+        receiver = mock(JMSMessageReceiver.class);
+        when(receiver.onMessage(any(Message.class), any())).thenAnswer(invocation -> {
+            tasksAtProcessing.add(tasks.size());
+            return true;
+        });
+        WorkerPool workerPool = mock(WorkerPool.class);
+        doAnswer(invocation -> tasks.add(invocation.getArgument(0)))
+                .when(workerPool).execute(any(Runnable.class));
+
+        stm = new ServiceTaskManager();
+        stm.setServiceName("TestService");
+        stm.setConnFactoryJNDIName("ConnectionFactory");
+        stm.setDestinationJNDIName("TestQueue");
+        Map<String,String> jmsProperties = new HashMap<String,String>();
+        jmsProperties.put(Context.INITIAL_CONTEXT_FACTORY,
+                MockInitialContextFactory.class.getName());
+        stm.addJmsProperties(jmsProperties);
+        stm.setJmsMessageReceiver(receiver);
+        stm.setWorkerPool(workerPool);
+        stm.setCacheLevel(JMSConstants.CACHE_CONSUMER);
+        // two tasks are started, so that a task stops after its first idle poll
+        stm.setConcurrentConsumers(2);
+        stm.setMaxConcurrentConsumers(3);
+        stm.setIdleTaskExecutionLimit(1);
+        stm.setBatchSize(3);
+        stm.setSessionTransacted(false);
+        stm.setSessionAckMode(Session.CLIENT_ACKNOWLEDGE);
+    }
+
+    private Message mockMessage(long timestamp) throws Exception {
+        Message message = mock(Message.class);
+        when(message.getJMSTimestamp()).thenReturn(timestamp);
+        return message;
+    }
+
+    /**
+     * Start the task manager and run its first task on the current thread until it goes idle.
+     */
+    private void runTask() {
+        stm.start();
+        assertThat(tasks).hasSize(2);
+        tasks.get(0).run();
+    }
+
+    @Test
+    public void testFullBatchIsAcknowledgedOnce() throws Exception {
+        Message m1 = mockMessage(0);
+        Message m2 = mockMessage(0);
+        Message m3 = mockMessage(0);
+        when(consumer.receive(anyLong())).thenReturn(m1, (Message)null);
+        when(consumer.receiveNoWait()).thenReturn(m2, m3, null);
+
+        runTask();
+
+        verify(receiver).onMessage(m1, null);
+        verify(receiver).onMessage(m2, null);
+        verify(receiver).onMessage(m3, null);
+        verify(m1, never()).acknowledge();
+        verify(m2, never()).acknowledge();
+        verify(m3).acknowledge();
+        verify(session, never()).recover();
+    }
+
+    @Test
+    public void testFailureRecoversBatch() throws Exception {
+        Message m1 = mockMessage(0);
+        Message m2 = mockMessage(0);
+        Message m3 = mockMessage(0);
+        when(consumer.receive(anyLong())).thenReturn(m1, (Message)null);
+        when(consumer.receiveNoWait()).thenReturn(m2, m3, null);
+        when(receiver.onMessage(any(Message.class), any())).thenReturn(true, false);
+
+        runTask();
+
+        verify(receiver, times(2)).onMessage(any(Message.class), any());
+        verify(receiver, never()).onMessage(m3, null);
+        verify(m1, never()).acknowledge();
+        verify(m2, never()).acknowledge();
+        verify(m3, never()).acknowledge();
+        verify(session).recover();
+    }
+
+    @Test
+    public void testFailureRollsBackTransactedBatch() throws Exception {
+        stm.setSessionTransacted(true);
+        stm.setSessionAckMode(Session.AUTO_ACKNOWLEDGE);
+        when(session.getTransacted()).thenReturn(true);
+        Message m1 = mockMessage(0);
+        Message m2 = mockMessage(0);
+        when(consumer.receive(anyLong())).thenReturn(m1, (Message)null);
+        when(consumer.receiveNoWait()).thenReturn(m2, (Message)null);
+        when(receiver.onMessage(any(Message.class), any())).thenReturn(true, false);
+
+        runTask();
+
+        verify(receiver, times(2)).onMessage(any(Message.class), any());
+        verify(session).rollback();
+        verify(session, never()).commit();
+    }
+
+    @Test
+    public void testBatchIsLimitedByMaxMessagesPerTask() throws Exception {
+        stm.setMaxMessagesPerTask(2);
+        Message m1 = mockMessage(0);
+        Message m2 = mockMessage(0);
+        Message m3 = mockMessage(0);
+        when(consumer.receive(anyLong())).thenReturn(m1, (Message)null);
+        when(consumer.receiveNoWait()).thenReturn(m2, m3, null);
+
+        runTask();
+
+        verify(consumer, times(1)).receiveNoWait();
+        verify(receiver, times(2)).onMessage(any(Message.class), any());
+        verify(receiver, never()).onMessage(m3, null);
+        verify(m2).acknowledge();
+    }
+
+    @Test
+    public void testScaleUpOnFullBatch() throws Exception {
+        stm.setScaleUpLatency(60000);
+        long now = System.currentTimeMillis();
+        Message m1 = mockMessage(now);
+        Message m2 = mockMessage(now);
+        Message m3 = mockMessage(now);
+        when(consumer.receive(anyLong())).thenReturn(m1, (Message)null);
+        when(consumer.receiveNoWait()).thenReturn(m2, m3, null);
+
+        runTask();
+
+        assertThat(tasksAtProcessing).containsExactly(3, 3, 3);
+    }
+
+    @Test
+    public void testScaleUpOnOldMessage() throws Exception {
+        stm.setScaleUpLatency(1000);
+        Message message = mockMessage(System.currentTimeMillis() - 60000);
+        when(consumer.receive(anyLong())).thenReturn(message, (Message)null);
+
+        runTask();
+
+        assertThat(tasksAtProcessing).containsExactly(3);
+    }
+
+    @Test
+    public void testNoScaleUpOnRecentMessage() throws Exception {
+        stm.setScaleUpLatency(60000);
+        Message message = mockMessage(System.currentTimeMillis());
+        when(consumer.receive(anyLong())).thenReturn(message, (Message)null);
+
+        runTask();
+
+        assertThat(tasksAtProcessing).containsExactly(2);
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.tcp;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A persistent client connection that uses the framed TCP protocol. Requests are written
+ * with a fresh correlation ID and a reader thread matches the response frames to the pending
+ * requests, so that any number of requests can be in flight on the connection at once.
+ */
+public class TCPConnection implements Runnable {
+
+    private static final Log log = LogFactory.getLog(TCPConnection.class);
+
+    private final String endpoint;
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private final int maxFrameSize;
+
+    private final ConcurrentMap<Long, CompletableFuture<byte[]>> pendingResponses =
+            new ConcurrentHashMap<Long, CompletableFuture<byte[]>>();
+    private final AtomicLong nextCorrelationId = new AtomicLong();
+
+    private volatile boolean closed = false;
+
+    /**
+     * Connect to the given address and start the thread that reads the responses.
+     *
+     * @param host the host to connect to
+     * @param port the port to connect to
+     * @param maxFrameSize the largest response payload that is accepted
+     * @param connectTimeout the connect timeout in milliseconds, or 0 to wait indefinitely
+     * @throws IOException if the connection could not be established
+     */
+    public TCPConnection(String host, int port, int maxFrameSize, int connectTimeout)
+            throws IOException {
+        this.endpoint = host + ":" + port;
+        this.maxFrameSize = maxFrameSize;
+        socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.setKeepAlive(true);
+        try {
+            socket.connect(new InetSocketAddress(host, port), connectTimeout);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+        in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+        Thread reader = new Thread(this, "TCPConnection-" + endpoint);
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * Send a request on this connection.
+     *
+     * @param payload the serialized request
+     * @param expectReply whether a response frame is expected for this request
+     * @return a future that completes with the response payload, or <code>null</code> if no
+     *         reply is expected
+     * @throws IOException if the request could not be written; the connection is closed
+     */
+    public CompletableFuture<byte[]> send(byte[] payload, boolean expectReply) throws IOException {
+        if (closed) {
+            throw new IOException("TCP connection to " + endpoint + " is closed");
+        }
+        long correlationId = nextCorrelationId.incrementAndGet();
+        CompletableFuture<byte[]> response = null;
+        if (expectReply) {
+            response = new CompletableFuture<byte[]>();
+            pendingResponses.put(correlationId, response);
+        }
+        try {
+            new TCPFrame(correlationId, payload).write(out);
+        } catch (IOException e) {
+            if (expectReply) {
+                pendingResponses.remove(correlationId);
+            }
+            close(e);
+            throw e;
+        }
+        return response;
+    }
+
+    /**
+     * Stop waiting for the response of a request, e.g. after it timed out. A response that
+     * arrives later is discarded.
+     *
+     * @param response the future returned by {@link #send(byte[], boolean)}
+     */
+    public void cancel(CompletableFuture<byte[]> response) {
+        pendingResponses.values().remove(response);
+        response.cancel(false);
+    }
+
+    public void run() {
+        IOException cause = null;
+        try {
+            TCPFrame frame;
+            while ((frame = TCPFrame.read(in, maxFrameSize)) != null) {
+                CompletableFuture<byte[]> response =
+                        pendingResponses.remove(frame.getCorrelationId());
+                if (response != null) {
+                    response.complete(frame.getPayload());
+                } else if (log.isDebugEnabled()) {
+                    log.debug("Discarding TCP response with unknown correlation ID "
+                            + frame.getCorrelationId() + " from " + endpoint);
+                }
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                log.debug("Error while reading from TCP connection to " + endpoint, e);
+            }
+            cause = e;
+        } finally {
+            close(cause);
+        }
+    }
+
+    /**
+     * @return the number of requests that are waiting for a response
+     */
+    public int getInFlightCount() {
+        return pendingResponses.size();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public void close() {
+        close(null);
+    }
+
+    private void close(IOException cause) {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        IOException failure = new IOException("TCP connection to " + endpoint + " was closed");
+        if (cause != null) {
+            failure.initCause(cause);
+        }
+        for (Iterator<CompletableFuture<byte[]>> it = pendingResponses.values().iterator();
+                it.hasNext();) {
+            it.next().completeExceptionally(failure);
+            it.remove();
+        }
+        try {
+            socket.close();
+        } catch (IOException e) {
+            log.error("Error while closing a TCP socket", e);
+        }
+    }
+}
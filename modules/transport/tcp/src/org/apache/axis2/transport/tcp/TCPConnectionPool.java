@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.tcp;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps the persistent framed connections of a {@link TCPTransportSender}, with up to a
+ * configurable number of connections per endpoint. Since a connection multiplexes requests,
+ * a new connection is only opened when all existing ones are busy.
+ */
+public class TCPConnectionPool {
+
+    private final ConcurrentMap<String, Endpoint> endpoints =
+            new ConcurrentHashMap<String, Endpoint>();
+
+    private final int maxConnectionsPerEndpoint;
+    private final int maxFrameSize;
+    private final int connectTimeout;
+
+    private volatile boolean closed = false;
+
+    /**
+     * @param maxConnectionsPerEndpoint the largest number of connections to an endpoint
+     * @param maxFrameSize the largest response payload that is accepted
+     * @param connectTimeout the connect timeout in milliseconds; requests to an endpoint whose
+     *        connections are all being opened wait for one of them, so this should be bounded
+     */
+    public TCPConnectionPool(int maxConnectionsPerEndpoint, int maxFrameSize,
+                             int connectTimeout) {
+        this.maxConnectionsPerEndpoint = Math.max(1, maxConnectionsPerEndpoint);
+        this.maxFrameSize = maxFrameSize;
+        this.connectTimeout = Math.max(0, connectTimeout);
+    }
+
+    /**
+     * Get a connection to the given endpoint, opening one if necessary. A slot for the new
+     * connection is reserved while holding the lock of the endpoint, but the connection is
+     * opened without it, so that a slow connect doesn't block the requests that can use the
+     * existing connections.
+     *
+     * @param host the host name
+     * @param port the port
+     * @return an open connection
+     * @throws IOException if a new connection could not be established
+     */
+    public TCPConnection getConnection(String host, int port) throws IOException {
+        String key = host + ":" + port;
+        Endpoint endpoint = endpoints.get(key);
+        if (endpoint == null) {
+            Endpoint newEndpoint = new Endpoint();
+            endpoint = endpoints.putIfAbsent(key, newEndpoint);
+            if (endpoint == null) {
+                endpoint = newEndpoint;
+            }
+        }
+
+        synchronized (endpoint) {
+            while (true) {
+                if (closed) {
+                    throw new IOException("TCP connection pool has been closed");
+                }
+                TCPConnection leastBusy = null;
+                for (Iterator<TCPConnection> it = endpoint.connections.iterator(); it.hasNext();) {
+                    TCPConnection connection = it.next();
+                    if (connection.isClosed()) {
+                        it.remove();
+                    } else if (leastBusy == null
+                            || connection.getInFlightCount() < leastBusy.getInFlightCount()) {
+                        leastBusy = connection;
+                    }
+                }
+                int count = endpoint.connections.size() + endpoint.pending;
+                if (leastBusy != null && (leastBusy.getInFlightCount() == 0
+                        || count >= maxConnectionsPerEndpoint)) {
+                    return leastBusy;
+                }
+                if (count < maxConnectionsPerEndpoint) {
+                    endpoint.pending++;
+                    break;
+                }
+                // all slots are taken by connections that are being opened
+                try {
+                    endpoint.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException(
+                            "Interrupted while waiting for a connection to " + key);
+                }
+            }
+        }
+
+        TCPConnection connection = null;
+        try {
+            connection = new TCPConnection(host, port, maxFrameSize, connectTimeout);
+        } finally {
+            synchronized (endpoint) {
+                endpoint.pending--;
+                if (connection != null && !closed) {
+                    endpoint.connections.add(connection);
+                }
+                endpoint.notifyAll();
+            }
+        }
+        if (closed) {
+            connection.close();
+            throw new IOException("TCP connection pool has been closed");
+        }
+        return connection;
+    }
+
+    /**
+     * @return the number of open connections, over all endpoints
+     */
+    public int getConnectionCount() {
+        int count = 0;
+        for (Endpoint endpoint : endpoints.values()) {
+            synchronized (endpoint) {
+                for (TCPConnection connection : endpoint.connections) {
+                    if (!connection.isClosed()) {
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Close all connections. Requests that are still waiting for a response fail.
+     */
+    public void close() {
+        closed = true;
+        for (Endpoint endpoint : endpoints.values()) {
+            synchronized (endpoint) {
+                for (TCPConnection connection : endpoint.connections) {
+                    connection.close();
+                }
+                endpoint.connections.clear();
+                endpoint.notifyAll();
+            }
+        }
+        endpoints.clear();
+    }
+
+    /**
+     * The connections to an endpoint, together with the number of connections being opened.
+     */
+    private static class Endpoint {
+        final List<TCPConnection> connections = new ArrayList<TCPConnection>();
+        int pending;
+    }
+}
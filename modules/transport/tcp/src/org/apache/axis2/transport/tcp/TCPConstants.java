@@ -25,9 +25,22 @@ public class TCPConstants {
     public static final String PARAM_HOST = "transport.tcp.hostname";
     public static final String PARAM_BACKLOG = "transport.tcp.backlog";
     public static final String PARAM_CONTENT_TYPE = "transport.tcp.contentType";
+    public static final String PARAM_FRAMING = "transport.tcp.framing";
+    public static final String PARAM_MAX_FRAME_SIZE = "transport.tcp.maxFrameSize";
+    public static final String PARAM_MAX_CONNECTIONS_PER_ENDPOINT =
+            "transport.tcp.maxConnectionsPerEndpoint";
+    public static final String PARAM_CONNECT_TIMEOUT = "transport.tcp.connectTimeout";
+    public static final String PARAM_MAX_FRAMED_CONNECTIONS = "transport.tcp.maxFramedConnections";
+
+    /** URL query parameter used to select the framed protocol for a single endpoint */
+    public static final String URL_PARAM_FRAMING = "framing";
 
     public static final int TCP_DEFAULT_BACKLOG = 50;
     public static final String TCP_DEFAULT_CONTENT_TYPE = "text/xml";
+    public static final int TCP_DEFAULT_MAX_FRAME_SIZE = 64 * 1024 * 1024;
+    public static final int TCP_DEFAULT_MAX_CONNECTIONS_PER_ENDPOINT = 2;
+    public static final int TCP_DEFAULT_CONNECT_TIMEOUT = 30000;
+    public static final int TCP_DEFAULT_MAX_FRAMED_CONNECTIONS = 256;
 
     public static final String TCP_OUTPUT_SOCKET = "transport.tcp.outputSocket";
 }
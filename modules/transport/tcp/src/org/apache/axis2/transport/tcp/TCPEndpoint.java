@@ -36,6 +36,9 @@ public class TCPEndpoint extends ProtocolEndpoint {
     private int port = -1;
     private int backlog = TCPConstants.TCP_DEFAULT_BACKLOG;
     private String contentType;
+    private boolean framing = false;
+    private int maxFrameSize = TCPConstants.TCP_DEFAULT_MAX_FRAME_SIZE;
+    private int maxFramedConnections = TCPConstants.TCP_DEFAULT_MAX_FRAMED_CONNECTIONS;
 
     public TCPEndpoint() {
 
@@ -63,6 +66,26 @@ public class TCPEndpoint extends ProtocolEndpoint {
         return contentType;
     }
 
+    /**
+     * @return whether connections to this endpoint use the framed protocol, in which case they
+     *         stay open across messages and can carry several requests at the same time
+     */
+    public boolean isFraming() {
+        return framing;
+    }
+
+    public int getMaxFrameSize() {
+        return maxFrameSize;
+    }
+
+    /**
+     * @return the largest number of framed connections that are served at the same time; each
+     *         of them has its own reader thread
+     */
+    public int getMaxFramedConnections() {
+        return maxFramedConnections;
+    }
+
     public boolean loadConfiguration(ParameterInclude params) throws AxisFault {
         port = ParamUtils.getOptionalParamInt(params, TCPConstants.PARAM_PORT, -1);
         if (port == -1) {
@@ -77,6 +100,12 @@ public class TCPEndpoint extends ProtocolEndpoint {
         host = ParamUtils.getOptionalParam(params, TCPConstants.PARAM_HOST);
         backlog = ParamUtils.getOptionalParamInt(params, TCPConstants.PARAM_BACKLOG,
                 TCPConstants.TCP_DEFAULT_BACKLOG);
+        framing = ParamUtils.getOptionalParamBoolean(params, TCPConstants.PARAM_FRAMING, false);
+        maxFrameSize = ParamUtils.getOptionalParamInt(params, TCPConstants.PARAM_MAX_FRAME_SIZE,
+                TCPConstants.TCP_DEFAULT_MAX_FRAME_SIZE);
+        maxFramedConnections = ParamUtils.getOptionalParamInt(params,
+                TCPConstants.PARAM_MAX_FRAMED_CONNECTIONS,
+                TCPConstants.TCP_DEFAULT_MAX_FRAMED_CONNECTIONS);
         return true;
     }
 
@@ -97,8 +126,15 @@ public class TCPEndpoint extends ProtocolEndpoint {
                 (context.endsWith("/") ? "" : "/") +
                 (getService() == null ? service.getName() : getServiceName());
 
+        String query = null;
         if (!contentType.equals(TCPConstants.TCP_DEFAULT_CONTENT_TYPE)) {
-            url += "?contentType=" + contentType;
+            query = "contentType=" + contentType;
+        }
+        if (framing) {
+            query = (query == null ? "" : query + "&") + TCPConstants.URL_PARAM_FRAMING + "=true";
+        }
+        if (query != null) {
+            url += "?" + query;
         }
 
         return new EndpointReference[] { new EndpointReference(url) };
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.tcp;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * A single message of the framed TCP protocol. Each frame consists of a 4 byte payload length,
+ * an 8 byte correlation ID and the payload itself. The correlation ID of a response frame is
+ * the one of the request it answers, which allows several requests to be in flight on the same
+ * connection at the same time.
+ */
+public class TCPFrame {
+
+    /** Size of the length and correlation ID fields that precede the payload */
+    public static final int HEADER_SIZE = 12;
+
+    private final long correlationId;
+    private final byte[] payload;
+
+    public TCPFrame(long correlationId, byte[] payload) {
+        this.correlationId = correlationId;
+        this.payload = payload;
+    }
+
+    public long getCorrelationId() {
+        return correlationId;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    /**
+     * Read the next frame from the given stream.
+     *
+     * @param in the stream to read from
+     * @param maxFrameSize the largest payload that is accepted
+     * @return the frame, or <code>null</code> if the stream ended on a frame boundary
+     * @throws IOException if the frame could not be read or is larger than <code>maxFrameSize</code>
+     */
+    public static TCPFrame read(DataInputStream in, int maxFrameSize) throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (length < 0 || length > maxFrameSize) {
+            throw new IOException("Invalid TCP frame length : " + length);
+        }
+        long correlationId = in.readLong();
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        return new TCPFrame(correlationId, payload);
+    }
+
+    /**
+     * Write this frame to the given stream. Writes to the same stream are serialized so that
+     * frames written by concurrent threads don't interleave.
+     *
+     * @param out the stream to write to
+     * @throws IOException if the frame could not be written
+     */
+    public void write(DataOutputStream out) throws IOException {
+        synchronized (out) {
+            out.writeInt(payload.length);
+            out.writeLong(correlationId);
+            out.write(payload);
+            out.flush();
+        }
+    }
+}
@@ -21,13 +21,15 @@ package org.apache.axis2.transport.tcp;
 
 import org.apache.axis2.kernel.OutTransportInfo;
 
-import java.io.OutputStream;
+import java.io.DataOutputStream;
 import java.net.Socket;
 
 public class TCPOutTransportInfo implements OutTransportInfo {
 
     private Socket socket;
     private String contentType;
+    private DataOutputStream frameOutput;
+    private long correlationId;
 
     public Socket getSocket() {
         return socket;
@@ -44,4 +46,28 @@ public class TCPOutTransportInfo implements OutTransportInfo {
     public String getContentType() {
         return contentType;
     }
+
+    /**
+     * @return the stream to write the response frame to, or <code>null</code> if the request
+     *         was not received using the framed protocol
+     */
+    public DataOutputStream getFrameOutput() {
+        return frameOutput;
+    }
+
+    public void setFrameOutput(DataOutputStream frameOutput) {
+        this.frameOutput = frameOutput;
+    }
+
+    public long getCorrelationId() {
+        return correlationId;
+    }
+
+    public void setCorrelationId(long correlationId) {
+        this.correlationId = correlationId;
+    }
+
+    public boolean isFramed() {
+        return frameOutput != null;
+    }
 }
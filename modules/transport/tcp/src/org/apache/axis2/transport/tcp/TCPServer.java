@@ -28,6 +28,7 @@ import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.InetAddress;
 import java.io.IOException;
+import java.util.concurrent.Semaphore;
 
 public class TCPServer implements Runnable {
     
@@ -35,12 +36,15 @@ public class TCPServer implements Runnable {
     private ServerSocket serverSocket;
     private WorkerPool workerPool;
     private boolean started = false;
+    /** Bounds the number of reader threads of framed connections */
+    private final Semaphore framedConnections;
 
     private static final Log log = LogFactory.getLog(TCPServer.class);
 
     public TCPServer(TCPEndpoint endpoint, WorkerPool workerPool) {
         this.endpoint = endpoint;
         this.workerPool = workerPool;
+        this.framedConnections = new Semaphore(Math.max(1, endpoint.getMaxFramedConnections()));
     }
 
     public void run() {
@@ -57,11 +61,46 @@ public class TCPServer implements Runnable {
             }
 
             if (socket != null) {
-                workerPool.execute(new TCPWorker(endpoint, socket));
+                if (endpoint.isFraming()) {
+                    startReader(socket);
+                } else {
+                    workerPool.execute(new TCPWorker(endpoint, socket, workerPool));
+                }
             }
         }
     }
 
+    /**
+     * Start the reader of a framed connection. The reader lives as long as the connection and
+     * hands each frame to the worker pool, so it must not occupy a pool thread; instead the
+     * number of readers is bounded, and connections beyond the limit are closed.
+     */
+    private void startReader(final Socket socket) {
+        if (!framedConnections.tryAcquire()) {
+            log.warn("Closing the connection from " + socket.getRemoteSocketAddress()
+                    + " as the limit of " + endpoint.getMaxFramedConnections()
+                    + " framed connections has been reached");
+            try {
+                socket.close();
+            } catch (IOException e) {
+                log.debug("Error while closing a TCP socket", e);
+            }
+            return;
+        }
+        final TCPWorker worker = new TCPWorker(endpoint, socket, workerPool);
+        Thread reader = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    worker.run();
+                } finally {
+                    framedConnections.release();
+                }
+            }
+        }, "TCPWorker-" + socket.getRemoteSocketAddress());
+        reader.setDaemon(true);
+        reader.start();
+    }
+
     public void startServer() throws IOException {
         if (serverSocket == null) {
             if (endpoint.getHost() != null) {
@@ -21,7 +21,9 @@
 package org.apache.axis2.transport.tcp;
 
 import org.apache.axis2.AxisFault;
+import org.apache.axis2.context.ConfigurationContext;
 import org.apache.axis2.description.OutInAxisOperation;
+import org.apache.axis2.description.TransportOutDescription;
 import org.apache.axis2.engine.AxisEngine;
 import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.kernel.OutTransportInfo;
@@ -29,11 +31,15 @@ import org.apache.axis2.kernel.TransportUtils;
 import org.apache.axis2.kernel.MessageFormatter;
 import org.apache.axis2.transport.base.AbstractTransportSender;
 import org.apache.axis2.transport.base.BaseUtils;
+import org.apache.axis2.transport.base.ParamUtils;
 import org.apache.axiom.soap.SOAPEnvelope;
 import org.apache.axiom.om.OMOutputFormat;
 import org.apache.axis2.util.MessageProcessorSelector;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.net.Socket;
@@ -42,9 +48,49 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * Sends messages over TCP. By default a new connection is opened for every message. When the
+ * framed protocol is enabled, either for all endpoints with the <code>transport.tcp.framing</code>
+ * parameter or for a single endpoint with the <code>framing=true</code> URL parameter, messages
+ * are sent as length prefixed frames over persistent connections that are shared by concurrent
+ * requests to the same endpoint.
+ */
 public class TCPTransportSender extends AbstractTransportSender {
 
+    private boolean framing = false;
+    private TCPConnectionPool connectionPool;
+
+    @Override
+    public void init(ConfigurationContext cfgCtx, TransportOutDescription transportOut)
+            throws AxisFault {
+        super.init(cfgCtx, transportOut);
+        framing = ParamUtils.getOptionalParamBoolean(transportOut,
+                TCPConstants.PARAM_FRAMING, false);
+        connectionPool = new TCPConnectionPool(
+                ParamUtils.getOptionalParamInt(transportOut,
+                        TCPConstants.PARAM_MAX_CONNECTIONS_PER_ENDPOINT,
+                        TCPConstants.TCP_DEFAULT_MAX_CONNECTIONS_PER_ENDPOINT),
+                ParamUtils.getOptionalParamInt(transportOut,
+                        TCPConstants.PARAM_MAX_FRAME_SIZE,
+                        TCPConstants.TCP_DEFAULT_MAX_FRAME_SIZE),
+                ParamUtils.getOptionalParamInt(transportOut,
+                        TCPConstants.PARAM_CONNECT_TIMEOUT,
+                        TCPConstants.TCP_DEFAULT_CONNECT_TIMEOUT));
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        if (connectionPool != null) {
+            connectionPool.close();
+        }
+    }
+
     public void sendMessage(MessageContext msgContext, String targetEPR,
                             OutTransportInfo outTransportInfo) throws AxisFault {
 
@@ -54,18 +100,29 @@ public class TCPTransportSender extends AbstractTransportSender {
             if (params.containsKey("timeout")) {
                 timeout = Integer.parseInt(params.get("timeout"));
             }
-            Socket socket = openTCPConnection(targetEPR, timeout);
-            msgContext.setProperty(TCPConstants.TCP_OUTPUT_SOCKET, socket);
 
             String contentType = params.get("contentType");
             if (contentType == null) {
                 contentType = TCPConstants.TCP_DEFAULT_CONTENT_TYPE;
             }
 
+            boolean framed = framing;
+            if (params.containsKey(TCPConstants.URL_PARAM_FRAMING)) {
+                framed = Boolean.parseBoolean(params.get(TCPConstants.URL_PARAM_FRAMING));
+            }
+            if (framed) {
+                sendFramed(msgContext, targetEPR, contentType, timeout);
+                return;
+            }
+
+            Socket socket = openTCPConnection(targetEPR, timeout);
+            msgContext.setProperty(TCPConstants.TCP_OUTPUT_SOCKET, socket);
+
             try {
-                writeOut(msgContext, socket, contentType);
-                if (!msgContext.getOptions().isUseSeparateListener() && !msgContext.isServerSide()){
-                    waitForReply(msgContext, socket, contentType);
+                writeOut(msgContext, socket.getOutputStream(), contentType);
+                if (!msgContext.getOptions().isUseSeparateListener() && !msgContext.isServerSide()
+                        && isReplyExpected(msgContext)) {
+                    processResponse(msgContext, socket.getInputStream(), contentType);
                 }
             } catch (IOException e) {
                 handleException("Error while sending a TCP request", e);
@@ -73,8 +130,20 @@ public class TCPTransportSender extends AbstractTransportSender {
 
         } else if (outTransportInfo != null && (outTransportInfo instanceof TCPOutTransportInfo)) {
             TCPOutTransportInfo outInfo = (TCPOutTransportInfo) outTransportInfo;
+            if (outInfo.isFramed()) {
+                try {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    writeOut(msgContext, out, outInfo.getContentType());
+                    new TCPFrame(outInfo.getCorrelationId(), out.toByteArray()).write(
+                            outInfo.getFrameOutput());
+                } catch (IOException e) {
+                    handleException("Error while sending a framed TCP response", e);
+                }
+                return;
+            }
             try {
-                writeOut(msgContext, outInfo.getSocket(), outInfo.getContentType());
+                writeOut(msgContext, outInfo.getSocket().getOutputStream(),
+                        outInfo.getContentType());
             } catch (IOException e) {
                 handleException("Error while sending a TCP response", e);
             } finally {
@@ -83,12 +152,56 @@ public class TCPTransportSender extends AbstractTransportSender {
         }
     }
 
-    private void writeOut(MessageContext msgContext, Socket socket,
+    /**
+     * Send the request as a frame over a pooled connection and, if a reply is expected, wait
+     * for the response frame with the same correlation ID.
+     */
+    private void sendFramed(MessageContext msgContext, String targetEPR, String contentType,
+                            int timeout) throws AxisFault {
+
+        boolean expectReply = !msgContext.getOptions().isUseSeparateListener()
+                && !msgContext.isServerSide() && isReplyExpected(msgContext);
+        if (timeout == -1) {
+            timeout = (int) msgContext.getOptions().getTimeOutInMilliSeconds();
+        }
+
+        CompletableFuture<byte[]> response = null;
+        TCPConnection connection = null;
+        try {
+            URI tcpUrl = getTCPURI(targetEPR);
+            connection = connectionPool.getConnection(tcpUrl.getHost(), tcpUrl.getPort());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            writeOut(msgContext, out, contentType);
+            response = connection.send(out.toByteArray(), expectReply);
+        } catch (IOException e) {
+            handleException("Error while sending a framed TCP request to : " + targetEPR, e);
+        }
+
+        if (response == null) {
+            return;
+        }
+        byte[] payload = null;
+        try {
+            payload = timeout > 0 ? response.get(timeout, TimeUnit.MILLISECONDS) : response.get();
+        } catch (TimeoutException e) {
+            connection.cancel(response);
+            handleException("Timed out waiting for a TCP response from : " + targetEPR, e);
+        } catch (ExecutionException e) {
+            handleException("Error while waiting for a TCP response from : " + targetEPR,
+                    e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+        } catch (InterruptedException e) {
+            connection.cancel(response);
+            Thread.currentThread().interrupt();
+            handleException("Interrupted while waiting for a TCP response", e);
+        }
+        processResponse(msgContext, new ByteArrayInputStream(payload), contentType);
+    }
+
+    private void writeOut(MessageContext msgContext, OutputStream out,
                           String contentType) throws IOException {
         MessageFormatter messageFormatter = MessageProcessorSelector.getMessageFormatter(msgContext);
         OMOutputFormat format = BaseUtils.getOMOutputFormat(msgContext);
         format.setContentType(contentType);
-        OutputStream out = socket.getOutputStream();
         messageFormatter.writeTo(msgContext, format, out, false);
         out.flush();
     }
@@ -101,18 +214,17 @@ public class TCPTransportSender extends AbstractTransportSender {
         }
     }
 
-    private void waitForReply(MessageContext msgContext, Socket socket,
-                              String contentType) throws AxisFault {
-
-        if (!(msgContext.getAxisOperation() instanceof OutInAxisOperation) &&
-                msgContext.getProperty(org.apache.axis2.Constants.PIGGYBACK_MESSAGE) == null) {
-            return;
-        }
+    private boolean isReplyExpected(MessageContext msgContext) {
+        return msgContext.getAxisOperation() instanceof OutInAxisOperation ||
+                msgContext.getProperty(org.apache.axis2.Constants.PIGGYBACK_MESSAGE) != null;
+    }
 
+    private void processResponse(MessageContext msgContext, InputStream in,
+                                 String contentType) throws AxisFault {
         try {
             MessageContext responseMsgCtx = createResponseMessageContext(msgContext);
             SOAPEnvelope envelope = TransportUtils.createSOAPMessage(msgContext,
-                        socket.getInputStream(), contentType);
+                        in, contentType);
             responseMsgCtx.setEnvelope(envelope);
             AxisEngine.receive(responseMsgCtx);
         } catch (Exception e) {
@@ -139,12 +251,21 @@ public class TCPTransportSender extends AbstractTransportSender {
         return null;
     }
 
-    private Socket openTCPConnection(String url, int timeout) throws AxisFault {
+    private URI getTCPURI(String url) throws IOException {
         try {
             URI tcpUrl = new URI(url);
-            if (!tcpUrl.getScheme().equals("tcp")) {
-                throw new Exception("Invalid protocol prefix : " + tcpUrl.getScheme());
+            if (!"tcp".equals(tcpUrl.getScheme())) {
+                throw new IOException("Invalid protocol prefix : " + tcpUrl.getScheme());
             }
+            return tcpUrl;
+        } catch (URISyntaxException e) {
+            throw new IOException("Malformed tcp url : " + url, e);
+        }
+    }
+
+    private Socket openTCPConnection(String url, int timeout) throws AxisFault {
+        try {
+            URI tcpUrl = getTCPURI(url);
             SocketAddress address = new InetSocketAddress(tcpUrl.getHost(), tcpUrl.getPort());
             Socket socket = new Socket();
             if (timeout != -1) {
@@ -24,15 +24,24 @@ import org.apache.axis2.Constants;
 import org.apache.axis2.kernel.TransportUtils;
 import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.engine.AxisEngine;
+import org.apache.axis2.transport.base.threads.WorkerPool;
 import org.apache.axis2.util.MessageContextBuilder;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.Socket;
 
 /**
  * This Class is the work hoarse of the TCP request, this process the incomming SOAP Message.
+ * If the endpoint uses the framed protocol, the connection is kept open and every frame read
+ * from it is processed as a separate message, on the worker pool if one is given.
  */
 public class TCPWorker implements Runnable {
 
@@ -40,13 +49,77 @@ public class TCPWorker implements Runnable {
 
     private TCPEndpoint endpoint;
     private Socket socket;
+    private WorkerPool workerPool;
 
     public TCPWorker(TCPEndpoint endpoint, Socket socket) {
+        this(endpoint, socket, null);
+    }
+
+    public TCPWorker(TCPEndpoint endpoint, Socket socket, WorkerPool workerPool) {
         this.endpoint = endpoint;
         this.socket = socket;
+        this.workerPool = workerPool;
     }
 
     public void run() {
+        if (endpoint.isFraming()) {
+            readFrames();
+            return;
+        }
+
+        try {
+            TCPOutTransportInfo outInfo = new TCPOutTransportInfo();
+            outInfo.setSocket(socket);
+            outInfo.setContentType(endpoint.getContentType());
+            process(socket.getInputStream(), outInfo);
+        } catch (IOException e) {
+            log.error("Error while reading a TCP request", e);
+        } finally {
+            closeSocket();
+        }
+    }
+
+    /**
+     * Read frames until the client closes the connection, handing each of them to the worker
+     * pool so that a slow request doesn't hold up the ones behind it.
+     */
+    private void readFrames() {
+        try {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(socket.getInputStream()));
+            final DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(socket.getOutputStream()));
+
+            TCPFrame frame;
+            while ((frame = TCPFrame.read(in, endpoint.getMaxFrameSize())) != null) {
+                final TCPFrame request = frame;
+                Runnable task = new Runnable() {
+                    public void run() {
+                        TCPOutTransportInfo outInfo = new TCPOutTransportInfo();
+                        outInfo.setSocket(socket);
+                        outInfo.setContentType(endpoint.getContentType());
+                        outInfo.setFrameOutput(out);
+                        outInfo.setCorrelationId(request.getCorrelationId());
+                        process(new ByteArrayInputStream(request.getPayload()), outInfo);
+                    }
+                };
+                if (workerPool != null) {
+                    workerPool.execute(task);
+                } else {
+                    task.run();
+                }
+            }
+        } catch (IOException e) {
+            if (!socket.isClosed()) {
+                log.debug("Error while reading from a framed TCP connection", e);
+            }
+        } finally {
+            closeSocket();
+        }
+    }
+
+    private void process(InputStream in, TCPOutTransportInfo outInfo) {
 
         MessageContext msgContext = null;
 
@@ -55,35 +128,37 @@ public class TCPWorker implements Runnable {
             msgContext.setIncomingTransportName(Constants.TRANSPORT_TCP);
             //msgContext.setTransportIn(endpoint.getListener().getTransportInDescription());
 
-            TCPOutTransportInfo outInfo = new TCPOutTransportInfo();
-            outInfo.setSocket(socket);
-            outInfo.setContentType(endpoint.getContentType());
             msgContext.setProperty(Constants.OUT_TRANSPORT_INFO, outInfo);
 
             // create the SOAP Envelope
             SOAPEnvelope envelope = TransportUtils.createSOAPMessage(msgContext,
-                    socket.getInputStream(), endpoint.getContentType());
+                    in, endpoint.getContentType());
             msgContext.setEnvelope(envelope);
 
             AxisEngine.receive(msgContext);
 
         } catch (Exception e) {
-            sendFault(msgContext, e);
+            sendFault(msgContext, outInfo, e);
+        }
+    }
 
-        } finally {
-            try {
-                socket.close();
-            } catch (IOException e) {
-                log.error("Error while closing a TCP socket", e);
-            }
+    private void closeSocket() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            log.error("Error while closing a TCP socket", e);
         }
     }
 
-    private void sendFault(MessageContext msgContext, Exception fault) {
+    private void sendFault(MessageContext msgContext, TCPOutTransportInfo outInfo,
+                           Exception fault) {
         log.error("Error while processing TCP request through the Axis2 engine", fault);
         try {
             if (msgContext != null) {
-                msgContext.setProperty(MessageContext.TRANSPORT_OUT, socket.getOutputStream());
+                if (!outInfo.isFramed()) {
+                    // the framed response is written by the sender, through the out transport info
+                    msgContext.setProperty(MessageContext.TRANSPORT_OUT, socket.getOutputStream());
+                }
 
                 MessageContext faultContext =
                         MessageContextBuilder.createFaultMessageContext(msgContext, fault);
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.tcp;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+public class TCPConnectionTest extends TestCase {
+
+    private ServerSocket serverSocket;
+
+    protected void setUp() throws Exception {
+        setUp(0);
+    }
+
+    private void setUp(int port) throws Exception {
+        serverSocket = new ServerSocket(port);
+        Thread server = new Thread() {
+            public void run() {
+                try {
+                    Socket socket = serverSocket.accept();
+                    DataInputStream in = new DataInputStream(
+                            new BufferedInputStream(socket.getInputStream()));
+                    DataOutputStream out = new DataOutputStream(
+                            new BufferedOutputStream(socket.getOutputStream()));
+                    // answer batches of two requests in reverse order, to check that
+                    // responses are matched by correlation ID rather than by position
+                    TCPFrame first;
+                    while ((first = TCPFrame.read(in, 1024)) != null) {
+                        TCPFrame second = TCPFrame.read(in, 1024);
+                        if (second != null) {
+                            second.write(out);
+                        }
+                        first.write(out);
+                    }
+                    socket.close();
+                } catch (IOException e) {
+                    // the test has finished
+                }
+            }
+        };
+        server.setDaemon(true);
+        server.start();
+    }
+
+    protected void tearDown() throws Exception {
+        serverSocket.close();
+    }
+
+    public void testMultiplexedRequests() throws Exception {
+        TCPConnectionPool pool = new TCPConnectionPool(1, 1024, 5000);
+        try {
+            TCPConnection connection = pool.getConnection("127.0.0.1", serverSocket.getLocalPort());
+            List<CompletableFuture<byte[]>> responses = new ArrayList<CompletableFuture<byte[]>>();
+            for (int i = 0; i < 10; i++) {
+                responses.add(connection.send(("message" + i).getBytes("UTF-8"), true));
+            }
+            for (int i = 0; i < 10; i++) {
+                assertEquals("message" + i,
+                        new String(responses.get(i).get(5, TimeUnit.SECONDS), "UTF-8"));
+            }
+            assertEquals(0, connection.getInFlightCount());
+            assertSame(connection,
+                    pool.getConnection("127.0.0.1", serverSocket.getLocalPort()));
+            assertEquals(1, pool.getConnectionCount());
+        } finally {
+            pool.close();
+        }
+    }
+
+    public void testFailedConnectReleasesSlot() throws Exception {
+        final int port = serverSocket.getLocalPort();
+        serverSocket.close();
+        final TCPConnectionPool pool = new TCPConnectionPool(1, 1024, 5000);
+        try {
+            try {
+                pool.getConnection("127.0.0.1", port);
+                fail("Expected the connect to fail");
+            } catch (IOException e) {
+                // expected
+            }
+            setUp(port);
+            // the connection is opened outside of the lock of the endpoint; if the failed
+            // connect had kept its slot, this would wait forever
+            CompletableFuture<TCPConnection> connection = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return pool.getConnection("127.0.0.1", port);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            assertFalse(connection.get(5, TimeUnit.SECONDS).isClosed());
+            assertEquals(1, pool.getConnectionCount());
+        } finally {
+            pool.close();
+        }
+    }
+
+        public void testPendingRequestsFailOnClose() throws Exception {
+        TCPConnection connection = new TCPConnection("127.0.0.1", serverSocket.getLocalPort(), 1024, 5000);
+        // a single request is never answered, since the server waits for a second one
+        CompletableFuture<byte[]> response = connection.send(new byte[] { 1 }, true);
+        connection.close();
+        try {
+            response.get(5, TimeUnit.SECONDS);
+            fail("Expected the request to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+        assertTrue(connection.isClosed());
+    }
+}